@@ -146,6 +146,10 @@ public class EstatioAppManifest implements AppManifest {
 
         props.put("isis.services.audit.objects", "all");
 
+        // so that services can listen to the changes of entities they do not own
+        // (such as ApplicationTenancyRepository to those of the tenancies)
+        props.put("isis.persistor.datanucleus.impl.datanucleus.allowListenerUpdateAfterInit", "true");
+
         // uncomment to use log4jdbc instead
         // props.put("isis.persistor.datanucleus.impl.javax.jdo.option.ConnectionDriverName",
         // "net.sf.log4jdbc.DriverSpy");
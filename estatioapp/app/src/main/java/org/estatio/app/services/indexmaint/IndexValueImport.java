@@ -0,0 +1,164 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.indexmaint;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Maps;
+
+import org.joda.time.LocalDate;
+
+import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
+
+import org.estatio.app.imports.ImportRow;
+import org.estatio.app.imports.StreamingImportService;
+import org.estatio.dom.index.Index;
+import org.estatio.dom.index.IndexBase;
+import org.estatio.dom.index.IndexBases;
+import org.estatio.dom.index.IndexValue;
+import org.estatio.dom.index.IndexValues;
+import org.estatio.dom.index.Indices;
+
+/**
+ * Applies the rows of an index values spreadsheet (in the layout of
+ * {@link IndexValueMaintLineItem}) one at a time, enforcing the same rules as
+ * {@link IndexValueMaintLineItem#apply()} does for the spreadsheet as a whole,
+ * but per index rather than requiring a single index.
+ */
+class IndexValueImport implements StreamingImportService.RowHandler {
+
+    private final ApplicationTenancy applicationTenancy;
+    private final Indices indices;
+    private final IndexBases indexBases;
+    private final IndexValues indexValues;
+
+    private final Map<String, IndexState> states = Maps.newHashMap();
+
+    IndexValueImport(
+            final ApplicationTenancy applicationTenancy,
+            final Indices indices,
+            final IndexBases indexBases,
+            final IndexValues indexValues) {
+        this.applicationTenancy = applicationTenancy;
+        this.indices = indices;
+        this.indexBases = indexBases;
+        this.indexValues = indexValues;
+    }
+
+    @Override
+    public void apply(final ImportRow row) {
+        final String reference = row.getRequiredString("reference");
+        final LocalDate baseStartDate = row.getRequiredLocalDate("baseStartDate");
+        final BigDecimal baseFactor = row.getBigDecimal("baseFactor");
+        final LocalDate valueStartDate = row.getRequiredLocalDate("valueStartDate");
+        final BigDecimal value = row.getRequiredBigDecimal("value");
+
+        IndexState state = states.get(reference);
+        if (state == null) {
+            state = firstRow(reference, valueStartDate);
+        } else {
+            state.check(baseStartDate, baseFactor, valueStartDate);
+        }
+
+        IndexBase indexBase = state.previousBase;
+        if (indexBase == null || !indexBase.getStartDate().equals(baseStartDate)) {
+            indexBase = indexBases.findByIndexAndDate(state.index, baseStartDate);
+            if (indexBase == null) {
+                indexBase = indexBases.newIndexBase(state.index, state.previousBase, baseStartDate, baseFactor);
+            }
+        }
+        indexValues.newIndexValue(indexBase, valueStartDate, value);
+
+        state.previousBase = indexBase;
+        state.previousBaseStartDate = baseStartDate;
+        state.previousBaseFactor = baseFactor;
+        state.previousValueStartDate = valueStartDate;
+        states.put(reference, state);
+    }
+
+    /**
+     * The indices, bases and values of the rows rolled back may no longer
+     * exist; the next row of each index is checked as a first row again.
+     */
+    @Override
+    public void rolledBack() {
+        states.clear();
+    }
+
+    /**
+     * For an existing index, the first row must be for an existing month or
+     * for the month after the last one.
+     */
+    private IndexState firstRow(final String reference, final LocalDate valueStartDate) {
+        final Index existingIndex = indices.findIndex(reference);
+        if (existingIndex == null) {
+            return new IndexState(indices.newIndex(reference, reference, applicationTenancy));
+        }
+        final IndexState state = new IndexState(existingIndex);
+        final IndexValue existingValue = indexValues.findIndexValueByIndexAndStartDate(existingIndex, valueStartDate);
+        if (existingValue != null) {
+            state.previousBase = existingValue.getIndexBase();
+            return state;
+        }
+        final IndexValue previousValue = indexValues.findIndexValueByIndexAndStartDate(existingIndex, valueStartDate.minusMonths(1));
+        if (previousValue != null) {
+            state.previousBase = previousValue.getIndexBase();
+            return state;
+        }
+        final IndexValue last = indexValues.findLastByIndex(existingIndex);
+        if (last != null) {
+            throw new IllegalArgumentException(
+                    "first row for " + reference + " (" + valueStartDate.toString("yyyy/MM/dd") + ") must be an existing month or "
+                            + "for the 1 month after last (" + last.getStartDate().toString("yyyy/MM/dd") + ")");
+        }
+        return state;
+    }
+
+    // //////////////////////////////////////
+
+    private static class IndexState {
+
+        private final Index index;
+        private IndexBase previousBase;
+        private LocalDate previousBaseStartDate;
+        private BigDecimal previousBaseFactor;
+        private LocalDate previousValueStartDate;
+
+        IndexState(final Index index) {
+            this.index = index;
+        }
+
+        void check(final LocalDate baseStartDate, final BigDecimal baseFactor, final LocalDate valueStartDate) {
+            if (!Objects.equal(valueStartDate.minusMonths(1), previousValueStartDate)) {
+                throw new IllegalArgumentException(
+                        "all rows must be sequential; found " + previousValueStartDate.toString("yyyy/MM/dd")
+                                + " and " + valueStartDate.toString("yyyy/MM/dd"));
+            }
+            if (Objects.equal(previousBaseStartDate, baseStartDate) && !Objects.equal(previousBaseFactor, baseFactor)) {
+                throw new IllegalArgumentException(
+                        "base factors can only change if base start date changes; "
+                                + "baseStartDate: " + baseStartDate.toString("yyyy/MM/dd")
+                                + ", baseFactor: " + baseFactor);
+            }
+        }
+    }
+
+}
@@ -30,9 +30,14 @@ import org.apache.isis.applib.annotation.DomainServiceLayout;
 import org.apache.isis.applib.annotation.MemberOrder;
 import org.apache.isis.applib.annotation.Named;
 import org.apache.isis.applib.value.Blob;
+import org.estatio.app.imports.ImportResult;
+import org.estatio.app.imports.StreamingImportService;
 import org.estatio.dom.UdoDomainService;
 import org.estatio.dom.Dflt;
 import org.estatio.dom.apptenancy.ApplicationTenancyRepository;
+import org.estatio.dom.index.IndexBases;
+import org.estatio.dom.index.IndexValues;
+import org.estatio.dom.index.Indices;
 
 
 @DomainService
@@ -90,6 +95,35 @@ public class IndexValueMaintService extends UdoDomainService<IndexValueMaintServ
         return Dflt.of(choices1UploadIndexValues());
     }
 
+    // //////////////////////////////////////
+
+    /**
+     * As {@link #uploadIndexValues(Blob, ApplicationTenancy) upload} followed
+     * by <i>apply</i>, but reading and applying the spreadsheet a row at a
+     * time; intended for large spreadsheets.
+     */
+    @ActionSemantics(Of.NON_IDEMPOTENT)
+    @MemberOrder(sequence="2.5")
+    public void importIndexValues(
+            final @Named("Excel spreadsheet") Blob spreadsheet,
+            final ApplicationTenancy applicationTenancy) {
+        final ImportResult result = streamingImportService.importRows(
+                spreadsheet,
+                new IndexValueImport(applicationTenancy, indices, indexBases, indexValues));
+        getContainer().informUser(result.summary());
+        if (result.hasErrors()) {
+            getContainer().warnUser(result.errorSummary());
+        }
+    }
+
+    public List<ApplicationTenancy> choices1ImportIndexValues() {
+        return choices1UploadIndexValues();
+    }
+
+    public ApplicationTenancy default1ImportIndexValues() {
+        return default1UploadIndexValues();
+    }
+
 
     // //////////////////////////////////////
 
@@ -99,4 +133,16 @@ public class IndexValueMaintService extends UdoDomainService<IndexValueMaintServ
     @javax.inject.Inject
     private ApplicationTenancyRepository applicationTenancyRepository;
 
+    @javax.inject.Inject
+    private StreamingImportService streamingImportService;
+
+    @javax.inject.Inject
+    private Indices indices;
+
+    @javax.inject.Inject
+    private IndexBases indexBases;
+
+    @javax.inject.Inject
+    private IndexValues indexValues;
+
 }
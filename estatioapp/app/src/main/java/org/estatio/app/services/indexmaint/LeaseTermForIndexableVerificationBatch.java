@@ -0,0 +1,79 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.indexmaint;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.apache.isis.core.commons.authentication.AuthenticationSession;
+import org.apache.isis.core.runtime.sessiontemplate.AbstractIsisSessionTemplate;
+
+import org.estatio.dom.index.Index;
+import org.estatio.dom.index.Indices;
+import org.estatio.dom.lease.LeaseTermForIndexableVerificationQueue.Key;
+import org.estatio.dom.lease.LeaseTermsForIndexable;
+
+/**
+ * Verifies the indexable terms of a batch of keys in a session and
+ * transaction of its own; returns the number of terms verified.
+ */
+class LeaseTermForIndexableVerificationBatch extends AbstractIsisSessionTemplate implements Callable<Integer> {
+
+    private final List<Key> keys;
+    private final AuthenticationSession authenticationSession;
+
+    private int numberOfTerms;
+
+    LeaseTermForIndexableVerificationBatch(
+            final List<Key> keys,
+            final AuthenticationSession authenticationSession) {
+        this.keys = keys;
+        this.authenticationSession = authenticationSession;
+    }
+
+    @Override
+    public Integer call() throws Exception {
+        execute(authenticationSession, null);
+        return numberOfTerms;
+    }
+
+    @Override
+    protected void doExecuteWithTransaction(final Object context) {
+        for (Key key : keys) {
+            final Index index = indices.findIndex(key.getIndexReference());
+            if (index != null) {
+                numberOfTerms += leaseTermsForIndexable.verifyByIndexAndDate(index, key.getDate());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return keys.toString();
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    private Indices indices;
+
+    @javax.inject.Inject
+    private LeaseTermsForIndexable leaseTermsForIndexable;
+
+}
@@ -0,0 +1,194 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.indexmaint;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.isis.applib.ApplicationException;
+import org.apache.isis.applib.annotation.Action;
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.DomainServiceLayout;
+import org.apache.isis.applib.annotation.MemberOrder;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.annotation.SemanticsOf;
+import org.apache.isis.core.commons.authentication.AuthenticationSession;
+import org.apache.isis.core.runtime.authentication.standard.SimpleSession;
+
+import org.estatio.dom.UdoDomainService;
+import org.estatio.dom.lease.LeaseTermForIndexableVerificationQueue;
+import org.estatio.dom.lease.LeaseTermForIndexableVerificationQueue.Key;
+
+/**
+ * Works off the {@link LeaseTermForIndexableVerificationQueue} on a
+ * background thread, a batch of keys per transaction.
+ *
+ * <p>
+ * A batch that fails is retried key by key, so that a single failing key
+ * does not hold back the others; a key that still fails is handed back to the
+ * queue, to be retried later.
+ *
+ * <p>
+ * Nothing is started when the background verification is
+ * {@link LeaseTermForIndexableVerificationQueue#KEY_ENABLED disabled}.
+ */
+@DomainService
+@DomainServiceLayout(
+        named = "Indices",
+        menuBar = DomainServiceLayout.MenuBar.PRIMARY,
+        menuOrder = "60.1")
+public class LeaseTermForIndexableVerificationService extends UdoDomainService<LeaseTermForIndexableVerificationService> {
+
+    static final String KEY_BATCH_SIZE = "estatio.indexableVerification.batchSize";
+    static final String KEY_INTERVAL_SECONDS = "estatio.indexableVerification.intervalSeconds";
+
+    private static final int BATCH_SIZE_DEFAULT = 20;
+    private static final int INTERVAL_SECONDS_DEFAULT = 30;
+
+    private static final String USER = "estatio-indexable-verification";
+
+    public LeaseTermForIndexableVerificationService() {
+        super(LeaseTermForIndexableVerificationService.class);
+    }
+
+    private int batchSize;
+    private ScheduledExecutorService executorService;
+
+    @Programmatic
+    @PostConstruct
+    @Override
+    public void init(final Map<String, String> properties) {
+        super.init(properties);
+        if (!LeaseTermForIndexableVerificationQueue.isEnabled(properties)) {
+            return;
+        }
+        batchSize = Math.max(1, intProperty(properties, KEY_BATCH_SIZE, BATCH_SIZE_DEFAULT));
+        final int intervalSeconds = intProperty(properties, KEY_INTERVAL_SECONDS, INTERVAL_SECONDS_DEFAULT);
+        executorService = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, USER);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        if (intervalSeconds > 0) {
+            executorService.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    verifyPending(false);
+                }
+            }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @Programmatic
+    @PreDestroy
+    @Override
+    public void shutdown() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+        super.shutdown();
+    }
+
+    private static int intProperty(final Map<String, String> properties, final String key, final int defaultValue) {
+        final String value = properties == null ? null : properties.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    // //////////////////////////////////////
+
+    @Action(semantics = SemanticsOf.SAFE)
+    @MemberOrder(sequence = "3")
+    public String indexedTermsVerificationProgress() {
+        return verificationQueue.progress();
+    }
+
+    /**
+     * Verifies everything still pending right away (on the background thread,
+     * waiting for it to finish).
+     */
+    @Action(semantics = SemanticsOf.IDEMPOTENT)
+    @MemberOrder(sequence = "4")
+    public String verifyPendingIndexedTerms() {
+        try {
+            executorService.submit(new Runnable() {
+                @Override
+                public void run() {
+                    verifyPending(true);
+                }
+            }).get();
+        } catch (ExecutionException e) {
+            throw new ApplicationException("Unable to verify the indexed terms", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApplicationException("Interrupted while verifying the indexed terms", e);
+        }
+        return verificationQueue.progress();
+    }
+
+    public boolean hideVerifyPendingIndexedTerms() {
+        return executorService == null;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Only ever called on the background thread.
+     */
+    private void verifyPending(final boolean evenIfNotDue) {
+        final AuthenticationSession authenticationSession = new SimpleSession(USER, new String[0]);
+        for (List<Key> keys = verificationQueue.poll(batchSize, evenIfNotDue);
+             !keys.isEmpty() && !Thread.currentThread().isInterrupted();
+             keys = verificationQueue.poll(batchSize, evenIfNotDue)) {
+            verify(keys, authenticationSession);
+        }
+    }
+
+    private void verify(final List<Key> keys, final AuthenticationSession authenticationSession) {
+        try {
+            final int numberOfTerms = new LeaseTermForIndexableVerificationBatch(keys, authenticationSession).call();
+            verificationQueue.completed(keys, numberOfTerms);
+        } catch (Exception e) {
+            if (keys.size() == 1) {
+                verificationQueue.failed(keys.get(0), e);
+                return;
+            }
+            for (Key key : keys) {
+                verify(Collections.singletonList(key), authenticationSession);
+            }
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    private LeaseTermForIndexableVerificationQueue verificationQueue;
+
+}
@@ -0,0 +1,58 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.lease.invoicing;
+
+import java.util.concurrent.Callable;
+
+import org.apache.isis.core.commons.authentication.AuthenticationSession;
+import org.apache.isis.core.runtime.sessiontemplate.AbstractIsisSessionTemplate;
+
+import org.estatio.dom.invoice.Invoices;
+
+/**
+ * Reconciles the amounts of all invoices in a session and transaction of its
+ * own; returns the outcome.
+ */
+class InvoiceAmountsReconciliation extends AbstractIsisSessionTemplate implements Callable<String> {
+
+    private final AuthenticationSession authenticationSession;
+
+    private String outcome;
+
+    InvoiceAmountsReconciliation(final AuthenticationSession authenticationSession) {
+        this.authenticationSession = authenticationSession;
+    }
+
+    @Override
+    public String call() throws Exception {
+        execute(authenticationSession, null);
+        return outcome;
+    }
+
+    @Override
+    protected void doExecuteWithTransaction(final Object context) {
+        outcome = invoices.reconcileAmounts();
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    private Invoices invoices;
+
+}
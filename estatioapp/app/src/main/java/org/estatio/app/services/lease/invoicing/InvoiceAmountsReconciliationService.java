@@ -0,0 +1,120 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.lease.invoicing;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.core.runtime.authentication.standard.SimpleSession;
+
+import org.estatio.dom.UdoDomainService;
+import org.estatio.dom.invoice.Invoices;
+
+/**
+ * {@link Invoices#reconcileAmounts() Reconciles} the amounts of the invoices
+ * on a background thread: once shortly after startup, to fill in the amounts
+ * of invoices persisted before they were maintained, and from then on at a
+ * fixed interval, to repair any that have drifted from their items.
+ *
+ * <p>
+ * A negative or zero interval disables the schedule (as in the integration
+ * tests), leaving only the action on {@link Invoices}.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class InvoiceAmountsReconciliationService extends UdoDomainService<InvoiceAmountsReconciliationService> {
+
+    public static final String KEY_INTERVAL_HOURS = "estatio.invoiceAmounts.intervalHours";
+    static final String KEY_STARTUP_DELAY_MINUTES = "estatio.invoiceAmounts.startupDelayMinutes";
+
+    private static final int INTERVAL_HOURS_DEFAULT = 24;
+    private static final int STARTUP_DELAY_MINUTES_DEFAULT = 5;
+
+    private static final String USER = "estatio-invoice-amounts";
+
+    public InvoiceAmountsReconciliationService() {
+        super(InvoiceAmountsReconciliationService.class);
+    }
+
+    private ScheduledExecutorService executorService;
+
+    @Programmatic
+    @PostConstruct
+    @Override
+    public void init(final Map<String, String> properties) {
+        super.init(properties);
+        final int intervalHours = intProperty(properties, KEY_INTERVAL_HOURS, INTERVAL_HOURS_DEFAULT);
+        if (intervalHours <= 0) {
+            return;
+        }
+        final int startupDelayMinutes = Math.max(0, intProperty(properties, KEY_STARTUP_DELAY_MINUTES, STARTUP_DELAY_MINUTES_DEFAULT));
+        executorService = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, USER);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executorService.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                reconcile();
+            }
+        }, TimeUnit.MINUTES.toMillis(startupDelayMinutes), TimeUnit.HOURS.toMillis(intervalHours), TimeUnit.MILLISECONDS);
+    }
+
+    @Programmatic
+    @PreDestroy
+    @Override
+    public void shutdown() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+        super.shutdown();
+    }
+
+    private static int intProperty(final Map<String, String> properties, final String key, final int defaultValue) {
+        final String value = properties == null ? null : properties.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Only ever called on the background thread; a failure is left for the
+     * next run, rather than cancelling the schedule.
+     */
+    private void reconcile() {
+        try {
+            new InvoiceAmountsReconciliation(new SimpleSession(USER, new String[0])).call();
+        } catch (Exception e) {
+            // tried again next time
+        }
+    }
+
+}
@@ -0,0 +1,289 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.lease.invoicing;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.PostConstruct;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
+
+import org.apache.isis.applib.ApplicationException;
+import org.apache.isis.applib.annotation.Action;
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.DomainServiceLayout;
+import org.apache.isis.applib.annotation.MemberOrder;
+import org.apache.isis.applib.annotation.ParameterLayout;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.annotation.SemanticsOf;
+import org.apache.isis.applib.services.bookmark.Bookmark;
+import org.apache.isis.core.commons.authentication.AuthenticationSession;
+import org.apache.isis.core.runtime.system.context.IsisContext;
+
+import org.estatio.dom.UdoDomainService;
+import org.estatio.dom.asset.Property;
+import org.estatio.dom.invoice.viewmodel.InvoiceSummariesForInvoiceRun;
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.Leases;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationParameters;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationSelection;
+import org.estatio.dom.lease.invoicing.InvoiceRunType;
+
+/**
+ * Calculates the leases of a property in partitions, each on a worker thread
+ * with its own session and transaction.
+ *
+ * <p>
+ * The earlier runs are removed (and committed) first; since the leases are
+ * independent from then on, the partitions can be calculated in any order. A
+ * failed partition leaves the others committed; re-running removes the whole
+ * (new) run again. Only once all partitions are calculated is the run
+ * recorded, as the starting point of the next incremental run.
+ */
+@DomainService
+@DomainServiceLayout(
+        named = "Invoices",
+        menuBar = DomainServiceLayout.MenuBar.PRIMARY,
+        menuOrder = "50.6")
+public class InvoiceCalculationParallelService extends UdoDomainService<InvoiceCalculationParallelService> {
+
+    static final String KEY_THREADS = "estatio.invoiceCalculation.threads";
+    static final String KEY_PARTITION_SIZE = "estatio.invoiceCalculation.partitionSize";
+
+    private static final int PARTITION_SIZE_DEFAULT = 10;
+
+    public InvoiceCalculationParallelService() {
+        super(InvoiceCalculationParallelService.class);
+    }
+
+    private int threads;
+    private int partitionSize;
+
+    @Programmatic
+    @PostConstruct
+    public void init(final Map<String, String> properties) {
+        super.init(properties);
+        threads = intProperty(properties, KEY_THREADS, Runtime.getRuntime().availableProcessors());
+        partitionSize = intProperty(properties, KEY_PARTITION_SIZE, PARTITION_SIZE_DEFAULT);
+    }
+
+    private static int intProperty(final Map<String, String> properties, final String key, final int defaultValue) {
+        final String value = properties == null ? null : properties.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    // //////////////////////////////////////
+
+    @Action(semantics = SemanticsOf.NON_IDEMPOTENT)
+    @MemberOrder(name = "Invoices", sequence = "2")
+    public Object calculateInvoicesForPropertyInParallel(
+            final @ParameterLayout(named = "Property") Property property,
+            final @ParameterLayout(named = "Run Type") InvoiceRunType invoiceRunType,
+            final @ParameterLayout(named = "Selection") InvoiceCalculationSelection calculationSelection,
+            final @ParameterLayout(named = "Invoice due date") LocalDate invoiceDueDate,
+            final @ParameterLayout(named = "Start due date") LocalDate startDueDate,
+            final @ParameterLayout(named = "Next due date") LocalDate nextDueDate) {
+        final RunParameters runParameters = new RunParameters(
+                getBookmarkService().bookmarkFor(property),
+                calculationSelection,
+                invoiceRunType,
+                invoiceDueDate,
+                startDueDate,
+                nextDueDate);
+
+        final List<Bookmark> leaseBookmarks = Lists.newArrayList();
+        for (Lease lease : leases.findLeasesByProperty(property)) {
+            leaseBookmarks.add(getBookmarkService().bookmarkFor(lease));
+        }
+
+        // the workers each open a session of their own, so never run on this (request) thread
+        final AuthenticationSession authenticationSession = IsisContext.getAuthenticationSession();
+        final ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, threads));
+        final LocalDateTime startedOn = getClockService().nowAsLocalDateTime();
+        final String runId;
+        final List<InvoiceCalculationPartition> partitions;
+        final int numberOfItems;
+        try {
+            runId = executorService.submit(new InvoiceCalculationRunStart(runParameters, authenticationSession)).get();
+            partitions = partitionsOf(runParameters, runId, leaseBookmarks, partitionSize, authenticationSession);
+            numberOfItems = numberOfItemsOf(runId, partitions, executorService.invokeAll(partitions));
+            executorService.submit(new InvoiceCalculationRunCompletion(runParameters, runId, startedOn, authenticationSession)).get();
+        } catch (ExecutionException e) {
+            throw new ApplicationException("Unable to start or complete the run", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApplicationException("Interrupted while calculating invoices", e);
+        } finally {
+            executorService.shutdownNow();
+        }
+        getContainer().informUser(String.format("%d invoice items created in %d partitions", numberOfItems, partitions.size()));
+        invoiceTotalsRefreshService.refreshNow();
+        return invoiceSummaries.findByRunId(runId);
+    }
+
+    /**
+     * The leases split in partitions of (at most) the partition size, each
+     * calculated by a worker of its own.
+     */
+    static List<InvoiceCalculationPartition> partitionsOf(
+            final RunParameters runParameters,
+            final String runId,
+            final List<Bookmark> leaseBookmarks,
+            final int partitionSize,
+            final AuthenticationSession authenticationSession) {
+        final List<InvoiceCalculationPartition> partitions = Lists.newArrayList();
+        for (List<Bookmark> partitionBookmarks : Lists.partition(leaseBookmarks, Math.max(1, partitionSize))) {
+            partitions.add(new InvoiceCalculationPartition(runParameters, runId, partitionBookmarks, authenticationSession));
+        }
+        return partitions;
+    }
+
+    /**
+     * The number of invoice items created by all partitions; fails, listing
+     * each failed partition, if any of them did, in which case the run is
+     * not recorded as completed.
+     */
+    static int numberOfItemsOf(
+            final String runId,
+            final List<InvoiceCalculationPartition> partitions,
+            final List<Future<Integer>> futures) throws InterruptedException {
+        final List<String> failures = Lists.newArrayList();
+        int numberOfItems = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                numberOfItems += futures.get(i).get();
+            } catch (ExecutionException e) {
+                failures.add(partitions.get(i).toString() + ": " + e.getCause().getMessage());
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new ApplicationException(
+                    String.format("%d of %d partitions of %s failed, please run again: %s", failures.size(), partitions.size(), runId, failures));
+        }
+        return numberOfItems;
+    }
+
+    public InvoiceRunType default1CalculateInvoicesForPropertyInParallel() {
+        return InvoiceRunType.values()[0];
+    }
+
+    public InvoiceCalculationSelection default2CalculateInvoicesForPropertyInParallel() {
+        return InvoiceCalculationSelection.values()[0];
+    }
+
+    public LocalDate default3CalculateInvoicesForPropertyInParallel() {
+        return getClockService().beginningOfNextQuarter();
+    }
+
+    public LocalDate default4CalculateInvoicesForPropertyInParallel() {
+        return getClockService().beginningOfNextQuarter();
+    }
+
+    public LocalDate default5CalculateInvoicesForPropertyInParallel() {
+        return getClockService().beginningOfNextQuarter().plusDays(1);
+    }
+
+    public String validateCalculateInvoicesForPropertyInParallel(
+            final Property property,
+            final InvoiceRunType runType,
+            final InvoiceCalculationSelection calculationSelection,
+            final LocalDate dueDate,
+            final LocalDate startDate,
+            final LocalDate endDate) {
+        if (endDate.compareTo(startDate) < 0) {
+            return "End date is before start date";
+        }
+        return null;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The parameters of a run, free of any (session-bound) entities.
+     */
+    static class RunParameters {
+
+        private final Bookmark property;
+        private final InvoiceCalculationSelection calculationSelection;
+        private final InvoiceRunType invoiceRunType;
+        private final LocalDate invoiceDueDate;
+        private final LocalDate startDueDate;
+        private final LocalDate nextDueDate;
+
+        RunParameters(
+                final Bookmark property,
+                final InvoiceCalculationSelection calculationSelection,
+                final InvoiceRunType invoiceRunType,
+                final LocalDate invoiceDueDate,
+                final LocalDate startDueDate,
+                final LocalDate nextDueDate) {
+            this.property = property;
+            this.calculationSelection = calculationSelection;
+            this.invoiceRunType = invoiceRunType;
+            this.invoiceDueDate = invoiceDueDate;
+            this.startDueDate = startDueDate;
+            this.nextDueDate = nextDueDate;
+        }
+
+        Bookmark property() {
+            return property;
+        }
+
+        InvoiceCalculationParameters forProperty(final Property property) {
+            return new InvoiceCalculationParameters(
+                    property,
+                    calculationSelection.selectedTypes(),
+                    invoiceRunType,
+                    invoiceDueDate,
+                    startDueDate,
+                    nextDueDate);
+        }
+
+        InvoiceCalculationParameters forLeases(final Property property, final List<Lease> leases) {
+            return new InvoiceCalculationParameters(
+                    property,
+                    leases,
+                    calculationSelection.selectedTypes(),
+                    invoiceRunType,
+                    invoiceDueDate,
+                    startDueDate,
+                    nextDueDate);
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    private Leases leases;
+
+    @javax.inject.Inject
+    private InvoiceSummariesForInvoiceRun invoiceSummaries;
+
+    @javax.inject.Inject
+    private InvoiceTotalsRefreshService invoiceTotalsRefreshService;
+
+}
@@ -0,0 +1,94 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.lease.invoicing;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.google.common.collect.Lists;
+
+import org.apache.isis.applib.services.bookmark.Bookmark;
+import org.apache.isis.applib.services.bookmark.BookmarkService;
+import org.apache.isis.core.commons.authentication.AuthenticationSession;
+import org.apache.isis.core.runtime.sessiontemplate.AbstractIsisSessionTemplate;
+
+import org.estatio.app.services.lease.invoicing.InvoiceCalculationParallelService.RunParameters;
+import org.estatio.dom.asset.Property;
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationService;
+
+/**
+ * Calculates a partition of the leases of a run in a session and transaction
+ * of its own; returns the number of invoice items created.
+ */
+class InvoiceCalculationPartition extends AbstractIsisSessionTemplate implements Callable<Integer> {
+
+    private final RunParameters runParameters;
+    private final String runId;
+    private final List<Bookmark> leaseBookmarks;
+    private final AuthenticationSession authenticationSession;
+
+    private int numberOfItems;
+
+    InvoiceCalculationPartition(
+            final RunParameters runParameters,
+            final String runId,
+            final List<Bookmark> leaseBookmarks,
+            final AuthenticationSession authenticationSession) {
+        this.runParameters = runParameters;
+        this.runId = runId;
+        this.leaseBookmarks = leaseBookmarks;
+        this.authenticationSession = authenticationSession;
+    }
+
+    @Override
+    public Integer call() throws Exception {
+        execute(authenticationSession, null);
+        return numberOfItems;
+    }
+
+    @Override
+    protected void doExecuteWithTransaction(final Object context) {
+        final List<Lease> leases = Lists.newArrayList();
+        for (Bookmark leaseBookmark : leaseBookmarks) {
+            leases.add((Lease) bookmarkService.lookup(leaseBookmark));
+        }
+        // the property of the run, so the leases need not all reside in it alone
+        final Property property = (Property) bookmarkService.lookup(runParameters.property());
+        numberOfItems = invoiceCalculationService.calculateAndInvoicePartition(runParameters.forLeases(property, leases), runId);
+    }
+
+    List<Bookmark> leaseBookmarks() {
+        return leaseBookmarks;
+    }
+
+    @Override
+    public String toString() {
+        return leaseBookmarks.toString();
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    private BookmarkService bookmarkService;
+
+    @javax.inject.Inject
+    private InvoiceCalculationService invoiceCalculationService;
+
+}
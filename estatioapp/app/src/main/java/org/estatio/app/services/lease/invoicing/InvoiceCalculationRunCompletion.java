@@ -0,0 +1,71 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.lease.invoicing;
+
+import java.util.concurrent.Callable;
+
+import org.joda.time.LocalDateTime;
+
+import org.apache.isis.applib.services.bookmark.BookmarkService;
+import org.apache.isis.core.commons.authentication.AuthenticationSession;
+import org.apache.isis.core.runtime.sessiontemplate.AbstractIsisSessionTemplate;
+
+import org.estatio.app.services.lease.invoicing.InvoiceCalculationParallelService.RunParameters;
+import org.estatio.dom.asset.Property;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationService;
+
+class InvoiceCalculationRunCompletion extends AbstractIsisSessionTemplate implements Callable<Void> {
+
+    private final RunParameters runParameters;
+    private final String runId;
+    private final LocalDateTime startedOn;
+    private final AuthenticationSession authenticationSession;
+
+    InvoiceCalculationRunCompletion(
+            final RunParameters runParameters,
+            final String runId,
+            final LocalDateTime startedOn,
+            final AuthenticationSession authenticationSession) {
+        this.runParameters = runParameters;
+        this.runId = runId;
+        this.startedOn = startedOn;
+        this.authenticationSession = authenticationSession;
+    }
+
+    @Override
+    public Void call() throws Exception {
+        execute(authenticationSession, null);
+        return null;
+    }
+
+    @Override
+    protected void doExecuteWithTransaction(final Object context) {
+        final Property property = (Property) bookmarkService.lookup(runParameters.property());
+        invoiceCalculationService.completePartitionedRun(runParameters.forProperty(property), runId, startedOn);
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    private BookmarkService bookmarkService;
+
+    @javax.inject.Inject
+    private InvoiceCalculationService invoiceCalculationService;
+
+}
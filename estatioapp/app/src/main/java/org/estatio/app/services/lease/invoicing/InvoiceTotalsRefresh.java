@@ -0,0 +1,64 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.lease.invoicing;
+
+import java.util.concurrent.Callable;
+
+import org.apache.isis.core.commons.authentication.AuthenticationSession;
+import org.apache.isis.core.runtime.sessiontemplate.AbstractIsisSessionTemplate;
+
+import org.estatio.dom.invoice.summary.InvoiceTotals;
+
+/**
+ * Refreshes the stale invoice totals (or rebuilds all of them) in a session
+ * and transaction of its own.
+ */
+class InvoiceTotalsRefresh extends AbstractIsisSessionTemplate implements Callable<Void> {
+
+    private final boolean rebuild;
+    private final AuthenticationSession authenticationSession;
+
+    InvoiceTotalsRefresh(
+            final boolean rebuild,
+            final AuthenticationSession authenticationSession) {
+        this.rebuild = rebuild;
+        this.authenticationSession = authenticationSession;
+    }
+
+    @Override
+    public Void call() throws Exception {
+        execute(authenticationSession, null);
+        return null;
+    }
+
+    @Override
+    protected void doExecuteWithTransaction(final Object context) {
+        if (rebuild) {
+            invoiceTotals.rebuild();
+        } else {
+            invoiceTotals.refreshStale();
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    private InvoiceTotals invoiceTotals;
+
+}
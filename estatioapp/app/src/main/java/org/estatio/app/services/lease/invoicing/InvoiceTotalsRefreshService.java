@@ -0,0 +1,179 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.lease.invoicing;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.isis.applib.ApplicationException;
+import org.apache.isis.applib.annotation.Action;
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.DomainServiceLayout;
+import org.apache.isis.applib.annotation.MemberOrder;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.annotation.SemanticsOf;
+import org.apache.isis.core.runtime.authentication.standard.SimpleSession;
+
+import org.estatio.dom.UdoDomainService;
+import org.estatio.dom.invoice.summary.InvoiceTotals;
+import org.estatio.dom.invoice.viewmodel.InvoiceSummariesForPropertyDueDateStatus;
+import org.estatio.dom.invoice.viewmodel.InvoiceSummaryForPropertyDueDateStatus;
+
+/**
+ * Refreshes the stale {@link InvoiceTotals invoice totals} on a background
+ * thread, shortly after the transactions marking them as stale have
+ * committed.
+ *
+ * <p>
+ * All writes to the totals, including a rebuild, run on this single thread,
+ * so they never contend with one another nor with the transactions changing
+ * the invoices. A negative or zero interval disables the schedule (as in the
+ * integration tests), leaving only the actions.
+ */
+@DomainService
+@DomainServiceLayout(
+        named = "Invoices",
+        menuBar = DomainServiceLayout.MenuBar.PRIMARY,
+        menuOrder = "50.7")
+public class InvoiceTotalsRefreshService extends UdoDomainService<InvoiceTotalsRefreshService> {
+
+    public static final String KEY_INTERVAL_SECONDS = "estatio.invoiceTotals.intervalSeconds";
+
+    private static final int INTERVAL_SECONDS_DEFAULT = 5;
+
+    private static final String USER = "estatio-invoice-totals";
+
+    public InvoiceTotalsRefreshService() {
+        super(InvoiceTotalsRefreshService.class);
+    }
+
+    private ScheduledExecutorService executorService;
+
+    @Programmatic
+    @PostConstruct
+    @Override
+    public void init(final Map<String, String> properties) {
+        super.init(properties);
+        final int intervalSeconds = intProperty(properties, KEY_INTERVAL_SECONDS, INTERVAL_SECONDS_DEFAULT);
+        executorService = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, USER);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        if (intervalSeconds > 0) {
+            executorService.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    if (invoiceTotals.takeRefreshRequest()) {
+                        try {
+                            refresh(false);
+                        } catch (Exception e) {
+                            // requested again, so tried again next time
+                        }
+                    }
+                }
+            }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @Programmatic
+    @PreDestroy
+    @Override
+    public void shutdown() {
+        executorService.shutdownNow();
+        super.shutdown();
+    }
+
+    private static int intProperty(final Map<String, String> properties, final String key, final int defaultValue) {
+        final String value = properties == null ? null : properties.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Refreshes the stale totals right away (on the background thread,
+     * waiting for it to finish), for example to show the totals of a run
+     * calculated in other transactions.
+     */
+    @Programmatic
+    public void refreshNow() {
+        submitAndWait(false);
+    }
+
+    /**
+     * Recalculates the totals behind all invoice summaries, should they ever
+     * have drifted from the invoices.
+     */
+    @Action(semantics = SemanticsOf.IDEMPOTENT)
+    @MemberOrder(name = "Invoices", sequence = "98")
+    public List<InvoiceSummaryForPropertyDueDateStatus> rebuildInvoiceSummaries() {
+        submitAndWait(true);
+        return invoiceSummaries.allInvoicesByPropertyDueDateStatus();
+    }
+
+    private void submitAndWait(final boolean rebuild) {
+        try {
+            executorService.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    return refresh(rebuild);
+                }
+            }).get();
+        } catch (ExecutionException e) {
+            throw new ApplicationException("Unable to refresh the invoice totals", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApplicationException("Interrupted while refreshing the invoice totals", e);
+        }
+    }
+
+    /**
+     * Only ever called on the background thread.
+     */
+    private Void refresh(final boolean rebuild) throws Exception {
+        try {
+            return new InvoiceTotalsRefresh(rebuild, new SimpleSession(USER, new String[0])).call();
+        } catch (Exception e) {
+            invoiceTotals.requestRefresh();
+            throw e;
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    private InvoiceTotals invoiceTotals;
+
+    @javax.inject.Inject
+    private InvoiceSummariesForPropertyDueDateStatus invoiceSummaries;
+
+}
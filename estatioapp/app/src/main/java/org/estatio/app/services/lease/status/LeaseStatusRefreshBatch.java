@@ -0,0 +1,92 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.lease.status;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.apache.isis.applib.services.bookmark.Bookmark;
+import org.apache.isis.applib.services.bookmark.BookmarkService;
+import org.apache.isis.core.commons.authentication.AuthenticationSession;
+import org.apache.isis.core.runtime.sessiontemplate.AbstractIsisSessionTemplate;
+
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.LeaseItem;
+import org.estatio.dom.lease.LeaseItemStatus;
+import org.estatio.dom.lease.LeaseStatus;
+import org.estatio.dom.lease.status.LeaseStatusService;
+
+/**
+ * Refreshes the status of a batch of leases and items in a session and
+ * transaction of its own; returns the number whose status changed.
+ */
+class LeaseStatusRefreshBatch extends AbstractIsisSessionTemplate implements Callable<Integer> {
+
+    private final List<Bookmark> bookmarks;
+    private final AuthenticationSession authenticationSession;
+
+    private int numberChanged;
+
+    LeaseStatusRefreshBatch(
+            final List<Bookmark> bookmarks,
+            final AuthenticationSession authenticationSession) {
+        this.bookmarks = bookmarks;
+        this.authenticationSession = authenticationSession;
+    }
+
+    @Override
+    public Integer call() throws Exception {
+        execute(authenticationSession, null);
+        return numberChanged;
+    }
+
+    @Override
+    protected void doExecuteWithTransaction(final Object context) {
+        for (Bookmark bookmark : bookmarks) {
+            final Object object = bookmarkService.lookup(bookmark);
+            if (object instanceof Lease) {
+                final Lease lease = (Lease) object;
+                final LeaseStatus status = lease.getStatus();
+                if (leaseStatusService.refreshStatus(lease) != status) {
+                    numberChanged++;
+                }
+            } else if (object instanceof LeaseItem) {
+                final LeaseItem leaseItem = (LeaseItem) object;
+                final LeaseItemStatus status = leaseItem.getStatus();
+                if (leaseStatusService.refreshStatus(leaseItem) != status) {
+                    numberChanged++;
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return bookmarks.toString();
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    private BookmarkService bookmarkService;
+
+    @javax.inject.Inject
+    private LeaseStatusService leaseStatusService;
+
+}
@@ -0,0 +1,73 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.lease.status;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.google.common.collect.Lists;
+
+import org.apache.isis.applib.services.bookmark.Bookmark;
+import org.apache.isis.applib.services.bookmark.BookmarkService;
+import org.apache.isis.core.commons.authentication.AuthenticationSession;
+import org.apache.isis.core.runtime.sessiontemplate.AbstractIsisSessionTemplate;
+
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.LeaseItem;
+import org.estatio.dom.lease.status.LeaseStatusService;
+
+/**
+ * Finds the leases and items whose status is due to change in a session and
+ * transaction of its own; returns their bookmarks, leases first.
+ */
+class LeaseStatusRefreshSelection extends AbstractIsisSessionTemplate implements Callable<List<Bookmark>> {
+
+    private final AuthenticationSession authenticationSession;
+
+    private final List<Bookmark> bookmarks = Lists.newArrayList();
+
+    LeaseStatusRefreshSelection(final AuthenticationSession authenticationSession) {
+        this.authenticationSession = authenticationSession;
+    }
+
+    @Override
+    public List<Bookmark> call() throws Exception {
+        execute(authenticationSession, null);
+        return bookmarks;
+    }
+
+    @Override
+    protected void doExecuteWithTransaction(final Object context) {
+        for (Lease lease : leaseStatusService.findLeasesDueForRefresh()) {
+            bookmarks.add(bookmarkService.bookmarkFor(lease));
+        }
+        for (LeaseItem leaseItem : leaseStatusService.findLeaseItemsDueForRefresh()) {
+            bookmarks.add(bookmarkService.bookmarkFor(leaseItem));
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    private BookmarkService bookmarkService;
+
+    @javax.inject.Inject
+    private LeaseStatusService leaseStatusService;
+
+}
@@ -0,0 +1,200 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.lease.status;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.DateTime;
+
+import org.apache.isis.applib.ApplicationException;
+import org.apache.isis.applib.annotation.Action;
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.DomainServiceLayout;
+import org.apache.isis.applib.annotation.MemberOrder;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.annotation.SemanticsOf;
+import org.apache.isis.applib.services.bookmark.Bookmark;
+import org.apache.isis.core.commons.authentication.AuthenticationSession;
+import org.apache.isis.core.runtime.authentication.standard.SimpleSession;
+
+import org.estatio.dom.UdoDomainService;
+import org.estatio.dom.lease.status.LeaseStatusService;
+
+/**
+ * Refreshes, every night on a background thread, the status of the leases and
+ * items that changed only because time has passed (their end date has gone
+ * by), a batch per transaction.
+ *
+ * <p>
+ * The candidates are found with a date range query (see
+ * {@link LeaseStatusService#findLeasesDueForRefresh()}) rather than by
+ * scanning all leases. A batch that fails is retried lease by lease, so that
+ * a single failing lease does not hold back the others.
+ */
+@DomainService
+@DomainServiceLayout(
+        named = "Leases",
+        menuBar = DomainServiceLayout.MenuBar.PRIMARY,
+        menuOrder = "40.1")
+public class LeaseStatusRefreshService extends UdoDomainService<LeaseStatusRefreshService> {
+
+    static final String KEY_BATCH_SIZE = "estatio.leaseStatusRefresh.batchSize";
+    static final String KEY_HOUR_OF_DAY = "estatio.leaseStatusRefresh.hourOfDay";
+
+    private static final int BATCH_SIZE_DEFAULT = 50;
+    private static final int HOUR_OF_DAY_DEFAULT = 2;
+
+    private static final String USER = "estatio-lease-status-refresh";
+
+    public LeaseStatusRefreshService() {
+        super(LeaseStatusRefreshService.class);
+    }
+
+    private int batchSize;
+    private ScheduledExecutorService executorService;
+
+    /**
+     * The refresh runs daily at the configured hour; a negative hour disables
+     * the schedule, leaving only the action.
+     */
+    @Programmatic
+    @PostConstruct
+    @Override
+    public void init(final Map<String, String> properties) {
+        super.init(properties);
+        batchSize = Math.max(1, intProperty(properties, KEY_BATCH_SIZE, BATCH_SIZE_DEFAULT));
+        final int hourOfDay = intProperty(properties, KEY_HOUR_OF_DAY, HOUR_OF_DAY_DEFAULT);
+        executorService = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, USER);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        if (hourOfDay >= 0) {
+            executorService.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    refreshDue();
+                }
+            }, millisUntil(hourOfDay, DateTime.now()), TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Programmatic
+    @PreDestroy
+    @Override
+    public void shutdown() {
+        executorService.shutdownNow();
+        super.shutdown();
+    }
+
+    private static int intProperty(final Map<String, String> properties, final String key, final int defaultValue) {
+        final String value = properties == null ? null : properties.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    static long millisUntil(final int hourOfDay, final DateTime now) {
+        DateTime next = now.withTimeAtStartOfDay().plusHours(hourOfDay % 24);
+        if (!next.isAfter(now)) {
+            next = next.plusDays(1);
+        }
+        return next.getMillis() - now.getMillis();
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Refreshes everything due right away (on the background thread, waiting
+     * for it to finish).
+     */
+    @Action(semantics = SemanticsOf.IDEMPOTENT)
+    @MemberOrder(sequence = "90")
+    public String refreshLeaseStatuses() {
+        try {
+            return executorService.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return refreshDue();
+                }
+            }).get();
+        } catch (ExecutionException e) {
+            throw new ApplicationException("Unable to refresh the lease statuses", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApplicationException("Interrupted while refreshing the lease statuses", e);
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Only ever called on the background thread.
+     */
+    private String refreshDue() {
+        final AuthenticationSession authenticationSession = new SimpleSession(USER, new String[0]);
+        final List<Bookmark> bookmarks;
+        try {
+            bookmarks = new LeaseStatusRefreshSelection(authenticationSession).call();
+        } catch (Exception e) {
+            return "Unable to find the lease statuses to refresh: " + e.getMessage();
+        }
+        final List<String> failures = Lists.newArrayList();
+        int numberChanged = 0;
+        for (List<Bookmark> batch : Lists.partition(bookmarks, batchSize)) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            numberChanged += refresh(batch, authenticationSession, failures);
+        }
+        return String.format("%d of %d leases and items refreshed, %d failed %s",
+                numberChanged, bookmarks.size(), failures.size(), failures);
+    }
+
+    private int refresh(final List<Bookmark> bookmarks, final AuthenticationSession authenticationSession, final List<String> failures) {
+        try {
+            return new LeaseStatusRefreshBatch(bookmarks, authenticationSession).call();
+        } catch (Exception e) {
+            if (bookmarks.size() == 1) {
+                failures.add(bookmarks.get(0) + ": " + e.getMessage());
+                return 0;
+            }
+            int numberChanged = 0;
+            for (Bookmark bookmark : bookmarks) {
+                numberChanged += refresh(Collections.singletonList(bookmark), authenticationSession, failures);
+            }
+            return numberChanged;
+        }
+    }
+
+}
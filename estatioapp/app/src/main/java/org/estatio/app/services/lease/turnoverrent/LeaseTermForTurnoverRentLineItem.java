@@ -18,6 +18,9 @@
 package org.estatio.app.services.lease.turnoverrent;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.joda.time.LocalDate;
 
 import org.apache.isis.applib.annotation.MemberGroupLayout;
 import org.apache.isis.applib.annotation.MemberOrder;
@@ -37,6 +40,9 @@ public class LeaseTermForTurnoverRentLineItem extends EstatioViewModel {
 
     public LeaseTermForTurnoverRentLineItem(LeaseTerm leaseTerm) {
         this.leaseTerm = (LeaseTermForTurnoverRent) leaseTerm;
+        this.leaseReference = leaseTerm.getLeaseItem().getLease().getReference();
+        this.itemSequence = leaseTerm.getLeaseItem().getSequence();
+        this.startDate = leaseTerm.getStartDate();
         this.auditedTurnover = getLeaseTerm().getAuditedTurnover();
     }
 
@@ -57,6 +63,49 @@ public class LeaseTermForTurnoverRentLineItem extends EstatioViewModel {
 
     // //////////////////////////////////////
 
+    /**
+     * Together with the {@link #getItemSequence() item sequence} and
+     * {@link #getStartDate() start date}, identifies the term when importing.
+     */
+    private String leaseReference;
+
+    @MemberOrder(name = "Selected", sequence = "1.1")
+    public String getLeaseReference() {
+        return leaseReference;
+    }
+
+    public void setLeaseReference(final String leaseReference) {
+        this.leaseReference = leaseReference;
+    }
+
+    // //////////////////////////////////////
+
+    private BigInteger itemSequence;
+
+    @MemberOrder(name = "Selected", sequence = "1.2")
+    public BigInteger getItemSequence() {
+        return itemSequence;
+    }
+
+    public void setItemSequence(final BigInteger itemSequence) {
+        this.itemSequence = itemSequence;
+    }
+
+    // //////////////////////////////////////
+
+    private LocalDate startDate;
+
+    @MemberOrder(name = "Selected", sequence = "1.3")
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(final LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    // //////////////////////////////////////
+
     private BigDecimal auditedTurnover;
 
     @javax.jdo.annotations.Column(scale = 2, allowsNull = "true")
@@ -17,6 +17,7 @@
  */
 package org.estatio.app.services.lease.turnoverrent;
 
+import java.math.BigInteger;
 import java.util.List;
 
 import com.google.common.base.Function;
@@ -24,6 +25,8 @@ import com.google.common.collect.Lists;
 
 import org.joda.time.LocalDate;
 
+import org.apache.isis.applib.annotation.ActionSemantics;
+import org.apache.isis.applib.annotation.ActionSemantics.Of;
 import org.apache.isis.applib.annotation.Bookmarkable;
 import org.apache.isis.applib.annotation.Immutable;
 import org.apache.isis.applib.annotation.MemberOrder;
@@ -38,11 +41,18 @@ import org.apache.isis.applib.value.Blob;
 import org.isisaddons.module.excel.dom.ExcelService;
 
 import org.estatio.app.EstatioViewModel;
+import org.estatio.app.imports.ImportResult;
+import org.estatio.app.imports.ImportRow;
+import org.estatio.app.imports.LookupCache;
+import org.estatio.app.imports.StreamingImportService;
 import org.estatio.dom.asset.Property;
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.LeaseItem;
 import org.estatio.dom.lease.LeaseItemType;
 import org.estatio.dom.lease.LeaseTerm;
 import org.estatio.dom.lease.LeaseTermForTurnoverRent;
 import org.estatio.dom.lease.LeaseTerms;
+import org.estatio.dom.lease.Leases;
 
 @Immutable
 @Bookmarkable
@@ -164,6 +174,73 @@ public class LeaseTermForTurnoverRentManager extends EstatioViewModel {
         return this;
     }
 
+    // //////////////////////////////////////
+    // importAuditedTurnovers (action)
+    // //////////////////////////////////////
+
+    /**
+     * As {@link #upload(Blob) upload}, but reading and applying the
+     * spreadsheet a row at a time; intended for large spreadsheets. The
+     * terms are identified by the lease reference, item sequence and start
+     * date columns of the {@link #download() download}.
+     */
+    @ActionSemantics(Of.NON_IDEMPOTENT)
+    @MemberOrder(name = "turnover", sequence = "3")
+    public LeaseTermForTurnoverRentManager importAuditedTurnovers(final @Named("Excel spreadsheet") Blob spreadsheet) {
+        // the contractual rent of each lease is calculated once for the whole upload
+        final LookupCache<String, Lease> leaseCache = new LookupCache<>(new Function<String, Lease>() {
+            @Override
+            public Lease apply(final String reference) {
+                final Lease lease = leases.findLeaseByReferenceElseNull(reference);
+                if (lease != null) {
+                    lease.holdContractualRentProjection();
+                }
+                return lease;
+            }
+        });
+        final ImportResult result;
+        try {
+            result = streamingImportService.importRows(spreadsheet, new StreamingImportService.RowHandler() {
+                @Override
+                public void apply(final ImportRow row) {
+                    final LeaseTermForTurnoverRent leaseTerm = findTerm(
+                            leaseCache.get(row.getRequiredString("leaseReference")),
+                            new BigInteger(row.getRequiredString("itemSequence")),
+                            row.getRequiredLocalDate("startDate"));
+                    leaseTerm.setAuditedTurnover(row.getBigDecimal("auditedTurnover"));
+                    leaseTerm.verify();
+                }
+            });
+        } finally {
+            for (Lease lease : leaseCache.values()) {
+                if (lease != null) {
+                    lease.releaseContractualRentProjection();
+                }
+            }
+        }
+        getContainer().informUser(result.summary());
+        if (result.hasErrors()) {
+            getContainer().warnUser(result.errorSummary());
+        }
+        return this;
+    }
+
+    private static LeaseTermForTurnoverRent findTerm(final Lease lease, final BigInteger itemSequence, final LocalDate startDate) {
+        if (lease == null) {
+            throw new IllegalArgumentException("lease not found");
+        }
+        for (LeaseItem item : lease.findItemsOfType(LeaseItemType.TURNOVER_RENT)) {
+            if (item.getSequence().equals(itemSequence)) {
+                final LeaseTerm term = item.findTerm(startDate);
+                if (term == null) {
+                    throw new IllegalArgumentException("no term starting " + startDate);
+                }
+                return (LeaseTermForTurnoverRent) term;
+            }
+        }
+        throw new IllegalArgumentException("no turnover rent item with sequence " + itemSequence);
+    }
+
     // //////////////////////////////////////
     // injected services
     // //////////////////////////////////////
@@ -174,6 +251,12 @@ public class LeaseTermForTurnoverRentManager extends EstatioViewModel {
     @javax.inject.Inject
     private ExcelService excelService;
 
+    @javax.inject.Inject
+    private Leases leases;
+
+    @javax.inject.Inject
+    private StreamingImportService streamingImportService;
+
     @javax.inject.Inject
     private LeaseTermForTurnoverRentService budgetAuditService;
 
@@ -0,0 +1,113 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.services.lease.invoicing;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import org.apache.isis.applib.ApplicationException;
+import org.apache.isis.applib.services.bookmark.Bookmark;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class InvoiceCalculationParallelServiceTest {
+
+    static List<Bookmark> bookmarks(final int number) {
+        final Bookmark[] bookmarks = new Bookmark[number];
+        for (int i = 0; i < number; i++) {
+            bookmarks[i] = new Bookmark("LEASE", Integer.toString(i));
+        }
+        return Arrays.asList(bookmarks);
+    }
+
+    static Future<Integer> failed(final String message) {
+        final CompletableFuture<Integer> future = new CompletableFuture<Integer>();
+        future.completeExceptionally(new IllegalStateException(message));
+        return future;
+    }
+
+    public static class PartitionsOf extends InvoiceCalculationParallelServiceTest {
+
+        @Test
+        public void splitsInPartitionsOfAtMostTheSize() throws Exception {
+            final List<Bookmark> leaseBookmarks = bookmarks(5);
+
+            final List<InvoiceCalculationPartition> partitions =
+                    InvoiceCalculationParallelService.partitionsOf(null, "run", leaseBookmarks, 2, null);
+
+            assertThat(partitions.size(), is(3));
+            assertThat(partitions.get(0).leaseBookmarks(), is(leaseBookmarks.subList(0, 2)));
+            assertThat(partitions.get(1).leaseBookmarks(), is(leaseBookmarks.subList(2, 4)));
+            assertThat(partitions.get(2).leaseBookmarks(), is(leaseBookmarks.subList(4, 5)));
+        }
+
+        @Test
+        public void noLeasesNoPartitions() throws Exception {
+            assertThat(InvoiceCalculationParallelService.partitionsOf(null, "run", bookmarks(0), 2, null).size(), is(0));
+        }
+
+        @Test
+        public void invalidSizeCalculatesOneLeaseAtATime() throws Exception {
+            assertThat(InvoiceCalculationParallelService.partitionsOf(null, "run", bookmarks(3), 0, null).size(), is(3));
+        }
+    }
+
+    public static class NumberOfItemsOf extends InvoiceCalculationParallelServiceTest {
+
+        @Rule
+        public ExpectedException expectedException = ExpectedException.none();
+
+        private final List<InvoiceCalculationPartition> partitions =
+                InvoiceCalculationParallelService.partitionsOf(null, "run", bookmarks(3), 1, null);
+
+        @Test
+        public void sumsTheItemsOfAllPartitions() throws Exception {
+            final List<Future<Integer>> futures = Arrays.<Future<Integer>> asList(
+                    CompletableFuture.completedFuture(2),
+                    CompletableFuture.completedFuture(0),
+                    CompletableFuture.completedFuture(5));
+
+            assertThat(InvoiceCalculationParallelService.numberOfItemsOf("run", partitions, futures), is(7));
+        }
+
+        @Test
+        public void reportsEachFailedPartition() throws Exception {
+            final List<Future<Integer>> futures = Arrays.<Future<Integer>> asList(
+                    failed("first failure"),
+                    CompletableFuture.completedFuture(2),
+                    failed("second failure"));
+
+            expectedException.expect(ApplicationException.class);
+            expectedException.expectMessage(containsString("2 of 3 partitions of run failed"));
+            expectedException.expectMessage(containsString(partitions.get(0).toString() + ": first failure"));
+            expectedException.expectMessage(containsString(partitions.get(2).toString() + ": second failure"));
+
+            InvoiceCalculationParallelService.numberOfItemsOf("run", partitions, futures);
+        }
+    }
+
+}
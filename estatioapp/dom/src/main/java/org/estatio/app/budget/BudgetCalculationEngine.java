@@ -0,0 +1,151 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.budget;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.estatio.app.budget.viewmodels.BudgetCalculation;
+import org.estatio.dom.asset.Unit;
+import org.estatio.dom.budgeting.Distributable;
+import org.estatio.dom.budgeting.keyitem.KeyItem;
+import org.estatio.dom.budgeting.keytable.KeyTable;
+import org.estatio.dom.budgeting.schedule.Schedule;
+import org.estatio.dom.budgeting.scheduleitem.ScheduleItem;
+
+/**
+ * Distributes the budgeted values of (the items of) a {@link Schedule} over
+ * the units of their key tables, in one pass.
+ *
+ * <p>
+ * The entities are read up front, on the calling thread, computing the sum of
+ * each key table once however many items share it. The items are then
+ * distributed independently, in parallel if asked for, and the results merged
+ * per unit (in the order the units are first met) through a hash map.
+ */
+public class BudgetCalculationEngine {
+
+    private final boolean parallel;
+
+    public BudgetCalculationEngine() {
+        this(true);
+    }
+
+    BudgetCalculationEngine(final boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    // //////////////////////////////////////
+
+    public List<BudgetCalculation> calculate(final Schedule schedule) {
+        final Map<KeyTable, BigDecimal> keySums = new HashMap<>();
+        final List<Input> inputs = new ArrayList<>();
+        for (ScheduleItem scheduleItem : schedule.getScheduleItems()) {
+            inputs.add(new Input(scheduleItem, keySums));
+        }
+        final List<List<BudgetCalculation>> distributions = parallel && inputs.size() > 1
+                ? inputs.parallelStream().map(Input::distribute).collect(Collectors.toList())
+                : inputs.stream().map(Input::distribute).collect(Collectors.toList());
+        return merge(distributions);
+    }
+
+    public List<BudgetCalculation> calculate(final ScheduleItem scheduleItem) {
+        return new Input(scheduleItem, new HashMap<>()).distribute();
+    }
+
+    /**
+     * Adds up the calculations per unit, into the calculation first met for
+     * that unit.
+     */
+    static List<BudgetCalculation> merge(final Collection<List<BudgetCalculation>> distributions) {
+        final Map<Unit, BudgetCalculation> calculationByUnit = new LinkedHashMap<>();
+        for (List<BudgetCalculation> distribution : distributions) {
+            for (BudgetCalculation calculation : distribution) {
+                final BudgetCalculation merged = calculationByUnit.get(calculation.getUnit());
+                if (merged == null) {
+                    calculationByUnit.put(calculation.getUnit(), calculation);
+                } else {
+                    merged.setValue(merged.getValue().add(calculation.getValue()));
+                    merged.setSourceValue(merged.getSourceValue().add(calculation.getSourceValue()));
+                }
+            }
+        }
+        return new ArrayList<>(calculationByUnit.values());
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * What is needed of a schedule item (and its key table) to distribute it,
+     * read from the entities so that the distribution can be done on another
+     * thread.
+     */
+    private static class Input {
+
+        private final BigDecimal targetTotal;
+        private final BigDecimal keySum;
+        private final List<Unit> units = new ArrayList<>();
+        private final List<BigDecimal> keyValues = new ArrayList<>();
+
+        Input(final ScheduleItem scheduleItem, final Map<KeyTable, BigDecimal> keySums) {
+            final KeyTable keyTable = scheduleItem.getKeyTable();
+            this.targetTotal = percentageOf(scheduleItem.getBudgetItem().getBudgetedValue(), scheduleItem.getPercentage());
+            BigDecimal keySum = keySums.get(keyTable);
+            if (keySum == null) {
+                keySum = keyTable.getKeyValueMethod().keySum(keyTable);
+                keySums.put(keyTable, keySum);
+            }
+            this.keySum = keySum;
+            for (KeyItem keyItem : keyTable.getItems()) {
+                units.add(keyItem.getUnit());
+                keyValues.add(keyItem.getValue());
+            }
+        }
+
+        List<BudgetCalculation> distribute() {
+            // case all values in keyTable are zero
+            final boolean keySumIsZero = keySum.compareTo(BigDecimal.ZERO) == 0;
+            final List<Distributable> input = new ArrayList<>();
+            for (int i = 0; i < units.size(); i++) {
+                input.add(new BudgetCalculation(
+                        units.get(i),
+                        BigDecimal.ONE,
+                        keySumIsZero
+                                ? BigDecimal.ZERO
+                                : targetTotal.multiply(keyValues.get(i)).divide(keySum, MathContext.DECIMAL64)));
+            }
+            new DistributionService().distribute(input, targetTotal, 2);
+            return (List<BudgetCalculation>) (Object) input;
+        }
+
+        private static BigDecimal percentageOf(final BigDecimal value, final BigDecimal percentage) {
+            return value
+                    .multiply(percentage)
+                    .divide(new BigDecimal(100), MathContext.DECIMAL64);
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.budget;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.base.Function;
+
+import org.joda.time.LocalDate;
+
+import org.estatio.app.imports.ImportRow;
+import org.estatio.app.imports.LookupCache;
+import org.estatio.app.imports.StreamingImportService;
+import org.estatio.dom.asset.Property;
+import org.estatio.dom.asset.PropertyRepository;
+import org.estatio.dom.asset.Unit;
+import org.estatio.dom.asset.UnitRepository;
+import org.estatio.dom.budgeting.keyitem.KeyItem;
+import org.estatio.dom.budgeting.keyitem.KeyItems;
+import org.estatio.dom.budgeting.keytable.KeyTable;
+import org.estatio.dom.budgeting.keytable.KeyTables;
+
+/**
+ * Applies the rows of a budget key spreadsheet (in the layout of
+ * {@link BudgetKeyItemImportExportLineItem}) one at a time, as
+ * {@link BudgetKeyItemImportExportLineItem#apply()} does per line item.
+ */
+class BudgetKeyItemImport implements StreamingImportService.RowHandler {
+
+    private final KeyItems keyItems;
+
+    private final LookupCache<String, Property> propertyCache;
+    private final LookupCache<String, Unit> unitCache;
+    private final LookupCache<List<Object>, KeyTable> keyTableCache;
+
+    BudgetKeyItemImport(
+            final PropertyRepository propertyRepository,
+            final UnitRepository unitRepository,
+            final KeyTables keyTables,
+            final KeyItems keyItems) {
+        this.keyItems = keyItems;
+        this.propertyCache = new LookupCache<>(new Function<String, Property>() {
+            @Override
+            public Property apply(final String reference) {
+                return propertyRepository.findPropertyByReferenceElseNull(reference);
+            }
+        });
+        this.unitCache = new LookupCache<>(new Function<String, Unit>() {
+            @Override
+            public Unit apply(final String reference) {
+                return unitRepository.findUnitByReference(reference);
+            }
+        });
+        this.keyTableCache = new LookupCache<>(new Function<List<Object>, KeyTable>() {
+            @Override
+            public KeyTable apply(final List<Object> key) {
+                return keyTables.findByPropertyAndNameAndStartDate((Property) key.get(0), (String) key.get(1), (LocalDate) key.get(2));
+            }
+        });
+    }
+
+    @Override
+    public void apply(final ImportRow row) {
+        final Property property = propertyCache.get(row.getRequiredString("propertyReference"));
+        if (property == null) {
+            throw new IllegalArgumentException("property not found");
+        }
+        final Unit unit = unitCache.get(row.getRequiredString("unitReference"));
+        if (unit == null) {
+            throw new IllegalArgumentException("unit not found");
+        }
+        final KeyTable keyTable = keyTableCache.get(Arrays.<Object>asList(
+                property,
+                row.getRequiredString("keyTableName"),
+                row.getLocalDate("startDate")));
+        if (keyTable == null) {
+            throw new IllegalArgumentException("key table not found");
+        }
+        final BigDecimal keyValue = row.getRequiredBigDecimal("keyValue");
+        final BigDecimal sourceValue = row.getRequiredBigDecimal("sourceValue");
+
+        KeyItem keyItem = keyItems.findByKeyTableAndUnit(keyTable, unit);
+        if (keyItem == null) {
+            keyItem = keyItems.newItem(keyTable, unit, BigDecimal.ZERO, BigDecimal.ZERO);
+        }
+        keyItem.changeValue(keyValue);
+        keyItem.setSourceValue(sourceValue.setScale(2, BigDecimal.ROUND_HALF_UP));
+    }
+
+}
@@ -40,6 +40,11 @@ import org.apache.isis.applib.value.Blob;
 import org.isisaddons.module.excel.dom.ExcelService;
 
 import org.estatio.app.EstatioViewModel;
+import org.estatio.app.imports.ImportResult;
+import org.estatio.app.imports.StreamingImportService;
+import org.estatio.dom.asset.PropertyRepository;
+import org.estatio.dom.asset.UnitRepository;
+import org.estatio.dom.budgeting.keyitem.KeyItems;
 import org.estatio.dom.budgeting.keytable.KeyTable;
 import org.estatio.dom.budgeting.keytable.KeyTables;
 
@@ -163,6 +168,25 @@ public class BudgetKeyItemImportExportManager extends EstatioViewModel {
     }
 
 
+    /**
+     * Imports and applies the spreadsheet a row at a time, without
+     * reviewing the line items first; intended for large spreadsheets.
+     */
+    @Action(semantics = SemanticsOf.NON_IDEMPOTENT)
+    @ActionLayout(named = "Import and apply")
+    @MemberOrder(name = "budgetKeyItems", sequence = "3")
+    public BudgetKeyItemImportExportManager importAndApply(
+            @ParameterLayout(named = "Excel spreadsheet") final Blob spreadsheet) {
+        final ImportResult result = streamingImportService.importRows(
+                spreadsheet,
+                new BudgetKeyItemImport(propertyRepository, unitRepository, keyTables, keyItems));
+        container.informUser(result.summary());
+        if (result.hasErrors()) {
+            container.warnUser(result.errorSummary());
+        }
+        return this;
+    }
+
     // //////////////////////////////////////
     // Injected Services
     // //////////////////////////////////////
@@ -179,4 +203,16 @@ public class BudgetKeyItemImportExportManager extends EstatioViewModel {
     @Inject
     private KeyTables keyTables;
 
+    @Inject
+    private KeyItems keyItems;
+
+    @Inject
+    private PropertyRepository propertyRepository;
+
+    @Inject
+    private UnitRepository unitRepository;
+
+    @Inject
+    private StreamingImportService streamingImportService;
+
 }
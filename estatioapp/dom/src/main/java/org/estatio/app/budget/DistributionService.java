@@ -15,7 +15,9 @@ public class DistributionService {
      * equally distributed over {@link BigDecimal} item.value according to
      * {@link BigDecimal} item.sourceValue.
      *
-     * Rounding correction finds place according to {@link int} precision.
+     * Rounding correction finds place according to {@link int} precision,
+     * one unit on each of the last items (with a non-zero sourceValue), in a
+     * single pass.
      *
      * The original order of List input is preserved.
      *
@@ -54,8 +56,7 @@ public class DistributionService {
             distributable.setValue(roundedTargetValue);
             OutputHelper newOutputObject = new OutputHelper(
                     distributable,
-                    roundedTargetValue.subtract(unroundedTargetValue, MathContext.DECIMAL64),
-                    false
+                    roundedTargetValue.subtract(unroundedTargetValue, MathContext.DECIMAL64)
             );
 
             outputHelperList.add(newOutputObject);
@@ -98,79 +99,28 @@ public class DistributionService {
                     /*debug*/
         }
 
-        // 2. in case of rounding needed: iterate over sorted array until fixed
-        Integer numberOfIterationsNeeded = deltaOfSum.abs().multiply(multiplicationFactor(precision)).intValue();
+        // 2. in case of rounding needed: correct one unit per item, starting from the last (with a non-zero source value)
+        int numberOfCorrectionsNeeded = deltaOfSum.abs().multiply(multiplicationFactor(precision)).intValue();
 
-        for (int i = 0; i < numberOfIterationsNeeded; i = i + 1) {
+        for (int i = outputHelperList.size() - 1; i >= 0 && numberOfCorrectionsNeeded > 0; i = i - 1) {
 
-            if (deltaSignOfSum == Delta.DELTA_NEGATIVE) {
+            OutputHelper helper = outputHelperList.get(i);
+            if (helper.distributable.getSourceValue().compareTo(BigDecimal.ZERO) == 0) {
+                continue;
+            }
 
-                //find largest (positive) delta in output Object and round up
-                BigDecimal largestPositiveDelta = new BigDecimal(-1);
-                OutputHelper helperToRoundUp = null;
-                for (OutputHelper helper : outputHelperList) {
-                    if (
-                            helper.delta.compareTo(largestPositiveDelta) > 0
-                            &&
-                                    !helper.corrected
-                            &&
-                                    !(helper.distributable.getSourceValue().compareTo(BigDecimal.ZERO) == 0)
-                            ) {
-                        helperToRoundUp = helper;
-                    }
+            if (deltaSignOfSum == Delta.DELTA_NEGATIVE) {
+                //round up
+                if (helper.delta.compareTo(new BigDecimal(-1)) > 0) {
+                    helper.distributable.setValue(roundedUp(helper.distributable.getValue(), precision));
+                    numberOfCorrectionsNeeded = numberOfCorrectionsNeeded - 1;
                 }
-                helperToRoundUp
-                        .distributable.setValue(
-                        helperToRoundUp.distributable.getValue()
-                                .add(increment(precision), MathContext.DECIMAL64)
-                                .setScale(precision, BigDecimal.ROUND_HALF_UP)
-                );
-                deltaOfSum = deltaOfSum.add(increment(precision)).setScale(precision +3, BigDecimal.ROUND_HALF_UP);
-                helperToRoundUp.setCorrected(true);
-
-                        /*debug*/
-//                System.out.print("Identifier: ");
-//                System.out.println(helperToRoundUp.distributable.getSourceValue());
-//                System.out.print("New keyRoundedValue: ");
-//                System.out.println(helperToRoundUp.distributable.getValue());
-//                System.out.print("New deltaOfSum: ");
-//                System.out.println(deltaOfSum);
-                        /*debug*/
-
             } else {
-
-                //find largest negative delta in output Object and round down
-                BigDecimal largestNegativeDelta = BigDecimal.ONE;
-                OutputHelper helperToRoundDown = null;
-                for (OutputHelper helper : outputHelperList) {
-                    if (
-                            helper.delta.compareTo(largestNegativeDelta) < 0
-                            &&
-                                    !helper.corrected
-                            &&
-                                    !(helper.distributable.getSourceValue().compareTo(BigDecimal.ZERO) == 0)
-                            ) {
-                        helperToRoundDown = helper;
-                    }
+                //round down
+                if (helper.delta.compareTo(BigDecimal.ONE) < 0) {
+                    helper.distributable.setValue(roundedDown(helper.distributable.getValue(), precision));
+                    numberOfCorrectionsNeeded = numberOfCorrectionsNeeded - 1;
                 }
-                helperToRoundDown.
-                        distributable.setValue(
-                        helperToRoundDown.distributable.getValue()
-                                .subtract(increment(precision), MathContext.DECIMAL64)
-                                .setScale(precision, BigDecimal.ROUND_HALF_UP)
-                );
-                deltaOfSum = deltaOfSum.subtract(increment(precision)).setScale(precision +3, BigDecimal.ROUND_HALF_UP);
-                helperToRoundDown.setCorrected(true);
-
-                        /*debug*/
-//                System.out.print("Identifier: ");
-//                System.out.println(helperToRoundDown.distributable.getSourceValue());
-//                System.out.print("New keyRoundedValue: ");
-//                System.out.println(helperToRoundDown.distributable.getValue());
-//                System.out.print("New deltaOfSum: ");
-//                System.out.println(deltaOfSum);
-                        /*debug*/
-
             }
 
         }
@@ -184,6 +134,32 @@ public class DistributionService {
         return output;
     }
 
+    /**
+     * The value plus one unit of the precision; on the unscaled value (a
+     * <tt>long</tt>) when that is exact, otherwise as {@link BigDecimal}.
+     */
+    private BigDecimal roundedUp(final BigDecimal value, final int precision) {
+        if (fitsUnscaled(value, precision)) {
+            return BigDecimal.valueOf(value.unscaledValue().longValue() + 1, precision);
+        }
+        return value.add(increment(precision), MathContext.DECIMAL64).setScale(precision, BigDecimal.ROUND_HALF_UP);
+    }
+
+    private BigDecimal roundedDown(final BigDecimal value, final int precision) {
+        if (fitsUnscaled(value, precision)) {
+            return BigDecimal.valueOf(value.unscaledValue().longValue() - 1, precision);
+        }
+        return value.subtract(increment(precision), MathContext.DECIMAL64).setScale(precision, BigDecimal.ROUND_HALF_UP);
+    }
+
+    /**
+     * Whether a unit can be added to (or subtracted from) the unscaled value
+     * without leaving the 16 digits of {@link MathContext#DECIMAL64}.
+     */
+    private static boolean fitsUnscaled(final BigDecimal value, final int precision) {
+        return value.scale() == precision && value.precision() < 16;
+    }
+
     private BigDecimal multiplicationFactor(final int scale) {
         return new BigDecimal(10).pow(scale, MathContext.DECIMAL64);
     }
@@ -196,23 +172,15 @@ public class DistributionService {
 
         OutputHelper(
                 final Distributable distributable,
-                final BigDecimal delta,
-                final boolean corrected) {
+                final BigDecimal delta) {
             this.distributable = distributable;
             this.delta = delta;
-            this.corrected = corrected;
         }
 
         private Distributable distributable;
 
         private BigDecimal delta;
 
-        private boolean corrected;
-
-        public void setCorrected(final boolean corrected){
-            this.corrected = corrected;
-        }
-
     }
 
     private enum Delta {
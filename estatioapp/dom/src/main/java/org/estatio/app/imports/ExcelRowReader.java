@@ -0,0 +1,205 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.imports;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import com.google.common.collect.Maps;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import org.apache.isis.applib.value.Blob;
+
+import org.estatio.dom.EstatioApplicationException;
+
+/**
+ * Reads the rows of the first sheet of a workbook one at a time, without
+ * building the workbook in memory.
+ *
+ * <p>
+ * The first non-empty row is taken to be the header; its cells name the
+ * columns of the rows that follow (as written by the <tt>ExcelService</tt>).
+ * Empty rows are skipped.
+ */
+public final class ExcelRowReader {
+
+    public interface Callback {
+        void row(ImportRow row);
+    }
+
+    private ExcelRowReader() {
+    }
+
+    public static void read(final Blob spreadsheet, final Callback callback) {
+        OPCPackage opcPackage = null;
+        try {
+            opcPackage = OPCPackage.open(new ByteArrayInputStream(spreadsheet.getBytes()));
+            final XSSFReader reader = new XSSFReader(opcPackage);
+            final Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = sheets.next()) {
+                final SAXParserFactory factory = SAXParserFactory.newInstance();
+                factory.setNamespaceAware(true);
+                factory.newSAXParser().parse(new InputSource(sheet), new SheetHandler(reader.getSharedStringsTable(), callback));
+            }
+        } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new EstatioApplicationException("Unable to read spreadsheet " + spreadsheet.getName(), e);
+        } finally {
+            if (opcPackage != null) {
+                // opened for reading only, so nothing to save
+                opcPackage.revert();
+            }
+        }
+    }
+
+    // //////////////////////////////////////
+
+    private static class SheetHandler extends DefaultHandler {
+
+        private final SharedStringsTable sharedStrings;
+        private final Callback callback;
+
+        private Map<Integer, String> header;
+        private Map<Integer, String> cells;
+        private int rowNumber;
+
+        private int column;
+        private String type;
+        private boolean inValue;
+        private final StringBuilder value = new StringBuilder();
+
+        SheetHandler(final SharedStringsTable sharedStrings, final Callback callback) {
+            this.sharedStrings = sharedStrings;
+            this.callback = callback;
+        }
+
+        @Override
+        public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) {
+            switch (localName) {
+            case "row":
+                final String r = attributes.getValue("r");
+                rowNumber = r == null ? rowNumber + 1 : Integer.parseInt(r);
+                cells = Maps.newHashMap();
+                break;
+            case "c":
+                column = columnOf(attributes.getValue("r"));
+                type = attributes.getValue("t");
+                value.setLength(0);
+                break;
+            case "v":
+            case "t":
+                inValue = true;
+                break;
+            default:
+                break;
+            }
+        }
+
+        @Override
+        public void characters(final char[] ch, final int start, final int length) {
+            if (inValue) {
+                value.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(final String uri, final String localName, final String qName) {
+            switch (localName) {
+            case "v":
+            case "t":
+                inValue = false;
+                break;
+            case "c":
+                final String cellValue = cellValue();
+                if (cellValue != null && !cellValue.trim().isEmpty()) {
+                    cells.put(column, cellValue.trim());
+                }
+                break;
+            case "row":
+                endRow();
+                break;
+            default:
+                break;
+            }
+        }
+
+        private String cellValue() {
+            if (value.length() == 0) {
+                return null;
+            }
+            if ("s".equals(type)) {
+                return new XSSFRichTextString(sharedStrings.getEntryAt(Integer.parseInt(value.toString()))).getString();
+            }
+            if ("b".equals(type)) {
+                return "1".equals(value.toString()) ? "TRUE" : "FALSE";
+            }
+            if ("e".equals(type)) {
+                return null;
+            }
+            return value.toString();
+        }
+
+        private void endRow() {
+            if (cells.isEmpty()) {
+                return;
+            }
+            if (header == null) {
+                header = cells;
+                return;
+            }
+            final Map<String, String> values = Maps.newHashMap();
+            for (Map.Entry<Integer, String> cell : cells.entrySet()) {
+                final String name = header.get(cell.getKey());
+                if (name != null) {
+                    values.put(name, cell.getValue());
+                }
+            }
+            callback.row(new ImportRow(rowNumber, values));
+        }
+
+        /**
+         * Zero-based column of a cell reference such as <tt>AB12</tt>.
+         */
+        static int columnOf(final String cellReference) {
+            int column = 0;
+            for (int i = 0; i < cellReference.length() && Character.isLetter(cellReference.charAt(i)); i++) {
+                column = column * 26 + (Character.toUpperCase(cellReference.charAt(i)) - 'A' + 1);
+            }
+            return column - 1;
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.imports;
+
+import java.util.List;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+
+/**
+ * The outcome of a {@link StreamingImportService streaming import}: the
+ * number of rows read and applied, and an error per row that was not.
+ */
+public class ImportResult {
+
+    static final int MAX_ERRORS = 100;
+
+    private int rowsRead;
+    private int rowsApplied;
+    private int rowsFailed;
+    private int batches;
+    private final List<String> errors = Lists.newArrayList();
+
+    void applied() {
+        rowsRead++;
+        rowsApplied++;
+    }
+
+    void failed(final int rowNumber, final String message) {
+        rowsRead++;
+        rowsFailed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("Row " + rowNumber + ": " + message);
+        }
+    }
+
+    void committed() {
+        batches++;
+    }
+
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+    public int getRowsApplied() {
+        return rowsApplied;
+    }
+
+    public int getRowsFailed() {
+        return rowsFailed;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    /**
+     * At most the first {@value #MAX_ERRORS} errors.
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public boolean hasErrors() {
+        return rowsFailed > 0;
+    }
+
+    public String summary() {
+        return String.format("%d rows read, %d applied in %d batches, %d failed", rowsRead, rowsApplied, batches, rowsFailed);
+    }
+
+    public String errorSummary() {
+        return Joiner.on("; ").join(errors) + (rowsFailed > errors.size() ? "; ..." : "");
+    }
+
+}
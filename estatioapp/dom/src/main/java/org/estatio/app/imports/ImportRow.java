@@ -0,0 +1,106 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.imports;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.joda.time.LocalDate;
+
+/**
+ * A row read by the {@link ExcelRowReader}, with its values by column name.
+ *
+ * <p>
+ * The typed getters return <tt>null</tt> for an empty cell and throw an
+ * {@link IllegalArgumentException} for a value that cannot be converted.
+ */
+public class ImportRow {
+
+    private final int rowNumber;
+    private final Map<String, String> values;
+
+    public ImportRow(final int rowNumber, final Map<String, String> values) {
+        this.rowNumber = rowNumber;
+        this.values = values;
+    }
+
+    /**
+     * The (one-based) row number, as shown by Excel.
+     */
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    public String getString(final String column) {
+        return values.get(column);
+    }
+
+    public BigDecimal getBigDecimal(final String column) {
+        final String value = values.get(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + ": not a number: " + value);
+        }
+    }
+
+    /**
+     * Accepts dates stored as such (that is, as a day number) as well as text
+     * in ISO format (<tt>yyyy-MM-dd</tt>).
+     */
+    public LocalDate getLocalDate(final String column) {
+        final String value = values.get(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.fromDateFields(DateUtil.getJavaDate(Double.parseDouble(value)));
+        } catch (NumberFormatException e) {
+            try {
+                return LocalDate.parse(value);
+            } catch (IllegalArgumentException e2) {
+                throw new IllegalArgumentException(column + ": not a date: " + value);
+            }
+        }
+    }
+
+    public String getRequiredString(final String column) {
+        return required(column, getString(column));
+    }
+
+    public BigDecimal getRequiredBigDecimal(final String column) {
+        return required(column, getBigDecimal(column));
+    }
+
+    public LocalDate getRequiredLocalDate(final String column) {
+        return required(column, getLocalDate(column));
+    }
+
+    private static <T> T required(final String column, final T value) {
+        if (value == null) {
+            throw new IllegalArgumentException(column + ": is required");
+        }
+        return value;
+    }
+
+}
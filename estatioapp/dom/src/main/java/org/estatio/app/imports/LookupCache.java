@@ -0,0 +1,61 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.imports;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Maps;
+
+/**
+ * Memoizes the lookup of (for example) an entity by reference for the
+ * duration of an import; lookups that find nothing are remembered too.
+ */
+public class LookupCache<K, V> {
+
+    private final Function<K, V> lookup;
+    private final Map<K, V> values = Maps.newHashMap();
+
+    public LookupCache(final Function<K, V> lookup) {
+        this.lookup = lookup;
+    }
+
+    public V get(final K key) {
+        if (values.containsKey(key)) {
+            return values.get(key);
+        }
+        final V value = lookup.apply(key);
+        values.put(key, value);
+        return value;
+    }
+
+    public void put(final K key, final V value) {
+        values.put(key, value);
+    }
+
+    /**
+     * The values looked up so far (including <tt>null</tt> for lookups that
+     * found nothing).
+     */
+    public Collection<V> values() {
+        return values.values();
+    }
+
+}
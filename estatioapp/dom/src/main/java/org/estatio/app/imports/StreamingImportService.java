@@ -0,0 +1,168 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.imports;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import com.google.common.collect.Lists;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.xactn.TransactionService;
+import org.apache.isis.applib.value.Blob;
+import org.apache.isis.core.commons.exceptions.IsisException;
+import org.apache.isis.core.runtime.system.context.IsisContext;
+
+import org.estatio.dom.UdoDomainService;
+
+/**
+ * Imports a spreadsheet a row at a time (see {@link ExcelRowReader}),
+ * committing every {@link #KEY_BATCH_SIZE so many} rows.
+ *
+ * <p>
+ * A row that cannot be applied (or whose changes cannot be flushed) is
+ * reported in the {@link ImportResult} and skipped, none of its changes being
+ * kept; the other rows are applied regardless. To that end, a batch in which a
+ * row fails is rolled back and applied again a row (and transaction) at a
+ * time.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class StreamingImportService extends UdoDomainService<StreamingImportService> {
+
+    static final String KEY_BATCH_SIZE = "estatio.import.batchSize";
+
+    private static final int BATCH_SIZE_DEFAULT = 500;
+
+    public interface RowHandler {
+        /**
+         * Applies the row; throws an exception (typically an
+         * {@link IllegalArgumentException}) to report the row as failed.
+         */
+        void apply(ImportRow row);
+
+        /**
+         * Called once the changes of the rows applied since the last commit
+         * have been discarded, for the handler to forget whatever it kept of
+         * those rows; they may be applied again.
+         */
+        default void rolledBack() {
+        }
+    }
+
+    public StreamingImportService() {
+        super(StreamingImportService.class);
+    }
+
+    int batchSize;
+
+    @Programmatic
+    @PostConstruct
+    @Override
+    public void init(final Map<String, String> properties) {
+        super.init(properties);
+        final String value = properties == null ? null : properties.get(KEY_BATCH_SIZE);
+        batchSize = value == null ? BATCH_SIZE_DEFAULT : Math.max(1, Integer.parseInt(value.trim()));
+    }
+
+    // //////////////////////////////////////
+
+    @Programmatic
+    public ImportResult importRows(final Blob spreadsheet, final RowHandler rowHandler) {
+        final ImportResult result = new ImportResult();
+        final List<ImportRow> batch = Lists.newArrayList();
+        ExcelRowReader.read(spreadsheet, new ExcelRowReader.Callback() {
+            @Override
+            public void row(final ImportRow row) {
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    importBatch(batch, rowHandler, result);
+                    batch.clear();
+                }
+            }
+        });
+        importBatch(batch, rowHandler, result);
+        return result;
+    }
+
+    private void importBatch(final List<ImportRow> batch, final RowHandler rowHandler, final ImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            for (ImportRow row : batch) {
+                rowHandler.apply(row);
+            }
+            transactionService.flushTransaction();
+        } catch (RuntimeException e) {
+            rollback(e, rowHandler);
+            importRowByRow(batch, rowHandler, result);
+            return;
+        }
+        transactionService.nextTransaction();
+        for (int i = 0; i < batch.size(); i++) {
+            result.applied();
+        }
+        result.committed();
+    }
+
+    private void importRowByRow(final List<ImportRow> batch, final RowHandler rowHandler, final ImportResult result) {
+        for (ImportRow row : batch) {
+            try {
+                rowHandler.apply(row);
+                transactionService.flushTransaction();
+            } catch (RuntimeException e) {
+                rollback(e, rowHandler);
+                result.failed(row.getRowNumber(), e.getMessage());
+                continue;
+            }
+            transactionService.nextTransaction();
+            result.applied();
+            result.committed();
+        }
+    }
+
+    /**
+     * Discards all changes of the current transaction, starts a new one and
+     * lets the handler know.
+     *
+     * <p>
+     * The transaction is marked to be aborted, as the framework itself does
+     * when a flush fails, so that moving on to the next transaction rolls it
+     * back; the cause is reported against the row(s) instead.
+     */
+    private void rollback(final RuntimeException cause, final RowHandler rowHandler) {
+        setAbortCause(cause);
+        transactionService.nextTransaction();
+        rowHandler.rolledBack();
+    }
+
+    void setAbortCause(final RuntimeException cause) {
+        IsisContext.getTransactionManager().getTransaction().setAbortCause(new IsisException(cause));
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    TransactionService transactionService;
+
+}
@@ -0,0 +1,96 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom;
+
+import java.util.Map;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.Maps;
+
+/**
+ * A cache of values built from committed data.
+ * 
+ * <p>
+ * A key that is {@link #invalidate(Object, TransactionCompletionService) invalidated}
+ * is not cached while the transaction that changed it is in progress: every
+ * transaction builds the value itself, the changing one from its own changes
+ * and the others from the committed data. The key is dropped once more when
+ * that transaction completes, and a value built before then is not cached.
+ */
+public class CommittedValueCache<K, V> {
+
+    private final Map<K, V> values = Maps.newHashMap();
+    private final Map<K, Integer> pendingChanges = Maps.newHashMap();
+    private long version;
+
+    public V get(final K key, final Supplier<V> supplier) {
+        final long versionBefore;
+        synchronized (this) {
+            final V value = values.get(key);
+            if (value != null) {
+                return value;
+            }
+            if (pendingChanges.containsKey(key)) {
+                return supplier.get();
+            }
+            versionBefore = version;
+        }
+        final V value = supplier.get();
+        synchronized (this) {
+            if (version == versionBefore && value != null) {
+                values.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * To be called when the data of the key is changed in the current
+     * transaction.
+     */
+    public void invalidate(final K key, final TransactionCompletionService transactionCompletionService) {
+        synchronized (this) {
+            final Integer pending = pendingChanges.get(key);
+            pendingChanges.put(key, pending == null ? 1 : pending + 1);
+            remove(key);
+        }
+        transactionCompletionService.afterCompletion(new Runnable() {
+            @Override
+            public void run() {
+                completed(key);
+            }
+        });
+    }
+
+    private synchronized void completed(final K key) {
+        final Integer pending = pendingChanges.get(key);
+        if (pending == null || pending <= 1) {
+            pendingChanges.remove(key);
+        } else {
+            pendingChanges.put(key, pending - 1);
+        }
+        remove(key);
+    }
+
+    private void remove(final K key) {
+        values.remove(key);
+        version++;
+    }
+
+}
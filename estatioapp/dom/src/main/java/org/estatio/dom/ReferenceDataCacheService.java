@@ -0,0 +1,154 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom;
+
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.jdo.PersistenceManager;
+import javax.jdo.PersistenceManagerFactory;
+import javax.jdo.datastore.DataStoreCache;
+import javax.jdo.listener.DeleteLifecycleListener;
+import javax.jdo.listener.InstanceLifecycleEvent;
+import javax.jdo.listener.StoreLifecycleListener;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.jdosupport.IsisJdoSupport;
+
+import org.estatio.dom.agreement.AgreementRoleType;
+import org.estatio.dom.agreement.AgreementType;
+import org.estatio.dom.charge.Charge;
+import org.estatio.dom.charge.ChargeGroup;
+import org.estatio.dom.currency.Currency;
+import org.estatio.dom.geography.Country;
+import org.estatio.dom.geography.State;
+import org.estatio.dom.index.Index;
+import org.estatio.dom.lease.LeaseType;
+import org.estatio.dom.tax.Tax;
+import org.estatio.dom.tax.TaxRate;
+
+/**
+ * Evicts the reference data (the entities marked
+ * <tt>@Cacheable("true")</tt>) from the level 2 cache once a transaction
+ * that changed any of it has been committed, whether the change was made by
+ * an action, a fixture or an import.
+ * 
+ * <p>
+ * All of the reference data is evicted, rather than the changed objects only,
+ * so that the cached collections of their owners (such as the
+ * {@link Tax#getRates() rates} of a tax) are reloaded as well.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class ReferenceDataCacheService extends UdoDomainService<ReferenceDataCacheService> {
+
+    static final Class<?>[] REFERENCE_DATA = {
+            AgreementRoleType.class,
+            AgreementType.class,
+            Charge.class,
+            ChargeGroup.class,
+            Country.class,
+            Currency.class,
+            Index.class,
+            LeaseType.class,
+            State.class,
+            Tax.class,
+            TaxRate.class
+    };
+
+    private static final String EVICTION_PENDING = ReferenceDataCacheService.class.getName() + ".evictionPending";
+
+    public ReferenceDataCacheService() {
+        super(ReferenceDataCacheService.class);
+    }
+
+    @Programmatic
+    @PostConstruct
+    @Override
+    public void init(final Map<String, String> properties) {
+        super.init(properties);
+        persistenceManagerFactory().addInstanceLifecycleListener(new ChangeListener(), REFERENCE_DATA);
+    }
+
+    private class ChangeListener implements StoreLifecycleListener, DeleteLifecycleListener {
+
+        @Override
+        public void preStore(final InstanceLifecycleEvent event) {
+        }
+
+        @Override
+        public void postStore(final InstanceLifecycleEvent event) {
+            evictAfterCommit();
+        }
+
+        @Override
+        public void preDelete(final InstanceLifecycleEvent event) {
+        }
+
+        @Override
+        public void postDelete(final InstanceLifecycleEvent event) {
+            evictAfterCommit();
+        }
+    }
+
+    /**
+     * Once per transaction, however much of the reference data it changes.
+     */
+    private void evictAfterCommit() {
+        final PersistenceManager persistenceManager = isisJdoSupport.getJdoPersistenceManager();
+        if (persistenceManager.getUserObject(EVICTION_PENDING) != null) {
+            return;
+        }
+        persistenceManager.putUserObject(EVICTION_PENDING, Boolean.TRUE);
+        transactionCompletionService.afterCompletion(new Runnable() {
+            @Override
+            public void run() {
+                persistenceManager.removeUserObject(EVICTION_PENDING);
+            }
+        });
+        transactionCompletionService.afterCommit(new Runnable() {
+            @Override
+            public void run() {
+                evictAll();
+            }
+        });
+    }
+
+    @Programmatic
+    public void evictAll() {
+        final DataStoreCache dataStoreCache = persistenceManagerFactory().getDataStoreCache();
+        for (Class<?> referenceData : REFERENCE_DATA) {
+            dataStoreCache.evictAll(true, referenceData);
+        }
+    }
+
+    private PersistenceManagerFactory persistenceManagerFactory() {
+        return isisJdoSupport.getJdoPersistenceManager().getPersistenceManagerFactory();
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    IsisJdoSupport isisJdoSupport;
+
+    @javax.inject.Inject
+    TransactionCompletionService transactionCompletionService;
+
+}
@@ -0,0 +1,140 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom;
+
+import java.util.List;
+
+import javax.jdo.Transaction;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import com.google.common.collect.Lists;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.jdosupport.IsisJdoSupport;
+
+/**
+ * Runs code once the current transaction has completed, that is when it has
+ * been committed or rolled back (or only once it has been committed).
+ * 
+ * <p>
+ * Used by the caches of reference data, which must not drop (or rebuild)
+ * their entries until the changes that invalidate them are visible to the
+ * other transactions.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class TransactionCompletionService extends UdoDomainService<TransactionCompletionService> {
+
+    public TransactionCompletionService() {
+        super(TransactionCompletionService.class);
+    }
+
+    /**
+     * Runs the runnable once the current transaction has completed, or
+     * straight away if there is no transaction in progress.
+     */
+    @Programmatic
+    public void afterCompletion(final Runnable runnable) {
+        final Callbacks callbacks = callbacksOfCurrentTransaction();
+        if (callbacks == null) {
+            runnable.run();
+            return;
+        }
+        callbacks.afterCompletion.add(runnable);
+    }
+
+    /**
+     * Runs the runnable once the current transaction has been committed (not
+     * at all if it is rolled back), or straight away if there is no
+     * transaction in progress.
+     */
+    @Programmatic
+    public void afterCommit(final Runnable runnable) {
+        final Callbacks callbacks = callbacksOfCurrentTransaction();
+        if (callbacks == null) {
+            runnable.run();
+            return;
+        }
+        callbacks.afterCommit.add(runnable);
+    }
+
+    private Callbacks callbacksOfCurrentTransaction() {
+        final Transaction transaction = isisJdoSupport.getJdoPersistenceManager().currentTransaction();
+        if (!transaction.isActive()) {
+            return null;
+        }
+        final Synchronization synchronization = transaction.getSynchronization();
+        if (synchronization instanceof Callbacks) {
+            return (Callbacks) synchronization;
+        }
+        final Callbacks callbacks = new Callbacks(synchronization);
+        transaction.setSynchronization(callbacks);
+        return callbacks;
+    }
+
+    /**
+     * The synchronization of the transaction; as the same transaction object
+     * is reused by the persistence manager, the runnables are discarded once
+     * they have run.
+     */
+    static class Callbacks implements Synchronization {
+
+        private final Synchronization delegate;
+        private final List<Runnable> afterCompletion = Lists.newArrayList();
+        private final List<Runnable> afterCommit = Lists.newArrayList();
+
+        Callbacks(final Synchronization delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void beforeCompletion() {
+            if (delegate != null) {
+                delegate.beforeCompletion();
+            }
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            try {
+                if (delegate != null) {
+                    delegate.afterCompletion(status);
+                }
+            } finally {
+                final List<Runnable> toRun = Lists.newArrayList(afterCompletion);
+                if (status == Status.STATUS_COMMITTED) {
+                    toRun.addAll(afterCommit);
+                }
+                afterCompletion.clear();
+                afterCommit.clear();
+                for (Runnable runnable : toRun) {
+                    runnable.run();
+                }
+            }
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    IsisJdoSupport isisJdoSupport;
+
+}
@@ -19,6 +19,7 @@
 package org.estatio.dom.agreement;
 
 import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -31,6 +32,7 @@ import javax.jdo.annotations.VersionStrategy;
 import com.google.common.base.Objects;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
 
@@ -199,8 +201,16 @@ public abstract class Agreement
     }
 
     protected AgreementRole findCurrentOrMostRecentAgreementRole(final String agreementRoleTypeTitle) {
+        final boolean memoised = isCurrentOrMostRecentRolesValid();
+        if (memoised && currentOrMostRecentRoles.containsKey(agreementRoleTypeTitle)) {
+            return currentOrMostRecentRoles.get(agreementRoleTypeTitle);
+        }
         final AgreementRoleType art = agreementRoleTypeRepository.findByTitle(agreementRoleTypeTitle);
-        return findCurrentOrMostRecentAgreementRole(art);
+        final AgreementRole currentOrMostRecentRole = findCurrentOrMostRecentAgreementRole(art);
+        if (memoised) {
+            currentOrMostRecentRoles.put(agreementRoleTypeTitle, currentOrMostRecentRole);
+        }
+        return currentOrMostRecentRole;
     }
 
     private AgreementRole findCurrentOrMostRecentAgreementRole(final AgreementRoleType agreementRoleType) {
@@ -223,6 +233,45 @@ public abstract class Agreement
         return currentOrMostRecentRole;
     }
 
+    /**
+     * The current or most recent role by type title, as resolved on
+     * {@link #currentOrMostRecentRolesDate} for the agreement's
+     * {@link #currentOrMostRecentRolesInterval interval} at the time.
+     */
+    @javax.jdo.annotations.NotPersistent
+    private final Map<String, AgreementRole> currentOrMostRecentRoles = Maps.newHashMap();
+    @javax.jdo.annotations.NotPersistent
+    private LocalDate currentOrMostRecentRolesDate;
+    @javax.jdo.annotations.NotPersistent
+    private LocalDateInterval currentOrMostRecentRolesInterval;
+
+    /**
+     * Whether the memoised roles still hold (clearing them if not); never
+     * without a clock to tell what is current.
+     */
+    private boolean isCurrentOrMostRecentRolesValid() {
+        if (getClockService() == null) {
+            return false;
+        }
+        final LocalDate now = getClockService().now();
+        final LocalDateInterval interval = getInterval();
+        if (!now.equals(currentOrMostRecentRolesDate) || !interval.equals(currentOrMostRecentRolesInterval)) {
+            currentOrMostRecentRoles.clear();
+            currentOrMostRecentRolesDate = now;
+            currentOrMostRecentRolesInterval = interval;
+        }
+        return true;
+    }
+
+    /**
+     * To be called whenever a role is added or removed, or has its dates
+     * changed.
+     */
+    @Programmatic
+    public void invalidateRoles() {
+        currentOrMostRecentRoles.clear();
+    }
+
     protected Party partyOf(final AgreementRole agreementRole) {
         return AgreementRole.Functions.partyOf().apply(agreementRole);
     }
@@ -458,6 +507,7 @@ public abstract class Agreement
         role.setAgreement(this);
 
         persistIfNotAlready(role);
+        invalidateRoles();
 
         return role;
     }
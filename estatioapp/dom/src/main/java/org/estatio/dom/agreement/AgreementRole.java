@@ -132,6 +132,14 @@ public class AgreementRole
         super("agreement, startDate desc nullsLast, type, party");
     }
 
+    public void updating() {
+        getAgreement().invalidateRoles();
+    }
+
+    public void removing() {
+        getAgreement().invalidateRoles();
+    }
+
     // //////////////////////////////////////
 
     private Agreement agreement;
@@ -233,6 +241,7 @@ public class AgreementRole
             final @Parameter(optionality = Optionality.OPTIONAL) @ParameterLayout(named = "Start Date") LocalDate startDate,
             final @Parameter(optionality = Optionality.OPTIONAL) @ParameterLayout(named = "End Date") LocalDate endDate) {
         helper.changeDates(startDate, endDate);
+        getAgreement().invalidateRoles();
         return this;
     }
 
@@ -323,7 +332,9 @@ public class AgreementRole
             final Party party,
             final @ParameterLayout(named = "Start date") LocalDate startDate,
             final @Parameter(optionality = Optionality.OPTIONAL) @ParameterLayout(named = "End date") LocalDate endDate) {
-        return helper.succeededBy(startDate, endDate, new SiblingFactory(this, party));
+        final AgreementRole successor = helper.succeededBy(startDate, endDate, new SiblingFactory(this, party));
+        getAgreement().invalidateRoles();
+        return successor;
     }
 
     public LocalDate default1SucceededBy() {
@@ -354,7 +365,9 @@ public class AgreementRole
             final @Parameter(optionality = Optionality.OPTIONAL) @ParameterLayout(named = "Start date") LocalDate startDate,
             final @ParameterLayout(named = "End date") LocalDate endDate) {
 
-        return helper.precededBy(startDate, endDate, new SiblingFactory(this, party));
+        final AgreementRole predecessor = helper.precededBy(startDate, endDate, new SiblingFactory(this, party));
+        getAgreement().invalidateRoles();
+        return predecessor;
     }
 
     public LocalDate default2PrecededBy() {
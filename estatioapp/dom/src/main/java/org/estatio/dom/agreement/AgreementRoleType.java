@@ -59,6 +59,7 @@ import org.estatio.dom.apptenancy.WithApplicationTenancyGlobal;
                         + "FROM org.estatio.dom.agreement.AgreementRoleType "
                         + "WHERE appliesTo == :agreementType && title == :title")
 })
+@javax.jdo.annotations.Cacheable("true")
 @DomainObject(editing = Editing.DISABLED, bounded = true)
 public class AgreementRoleType
         extends EstatioDomainObject<AgreementRoleType>
@@ -19,12 +19,20 @@
 package org.estatio.dom.agreement;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import org.apache.isis.applib.annotation.DomainService;
 import org.apache.isis.applib.annotation.Hidden;
 import org.apache.isis.applib.annotation.NatureOfService;
 import org.apache.isis.applib.annotation.NotContributed;
 import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.bookmark.Bookmark;
 
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
 
@@ -40,8 +48,60 @@ public class AgreementRoleTypeRepository extends UdoDomainRepositoryAndFactory<A
 
     // //////////////////////////////////////
 
+    /**
+     * The types by title, loaded at startup. Titles shared by several types
+     * are left out, as are types created later on; those are queried for
+     * (and the latter then added).
+     */
+    private final Map<String, Bookmark> typesByTitle = Maps.newConcurrentMap();
+
+    /**
+     * The titles shared by several types, which are always queried for.
+     */
+    private final Set<String> sharedTitles = Sets.newConcurrentHashSet();
+
+    @Programmatic
+    @PostConstruct
+    @Override
+    public void init(final Map<String, String> properties) {
+        super.init(properties);
+        cacheTypesByTitle(allInstances());
+    }
+
+    void cacheTypesByTitle(final List<AgreementRoleType> agreementRoleTypes) {
+        for (AgreementRoleType agreementRoleType : agreementRoleTypes) {
+            final String title = agreementRoleType.getTitle();
+            if (typesByTitle.put(title, getBookmarkService().bookmarkFor(agreementRoleType)) != null) {
+                sharedTitles.add(title);
+            }
+        }
+        typesByTitle.keySet().removeAll(sharedTitles);
+    }
+
     public AgreementRoleType findByTitle(final String title) {
-        return firstMatch("findByTitle", "title", title);
+        final Bookmark bookmark = title == null ? null : typesByTitle.get(title);
+        if (bookmark != null) {
+            final AgreementRoleType agreementRoleType = lookup(bookmark);
+            if (agreementRoleType != null && title.equals(agreementRoleType.getTitle())) {
+                return agreementRoleType;
+            }
+            typesByTitle.remove(title);
+        }
+        final AgreementRoleType agreementRoleType = firstMatch("findByTitle", "title", title);
+        if (agreementRoleType != null && !sharedTitles.contains(title)) {
+            typesByTitle.put(title, getBookmarkService().bookmarkFor(agreementRoleType));
+        }
+        return agreementRoleType;
+    }
+
+    private AgreementRoleType lookup(final Bookmark bookmark) {
+        try {
+            final Object object = getBookmarkService().lookup(bookmark);
+            return object instanceof AgreementRoleType ? (AgreementRoleType) object : null;
+        } catch (final RuntimeException ex) {
+            // removed since, for example by a fixture teardown
+            return null;
+        }
     }
 
     public List<AgreementRoleType> findApplicableTo(final AgreementType agreementType) {
@@ -55,10 +115,15 @@ public class AgreementRoleTypeRepository extends UdoDomainRepositoryAndFactory<A
     public AgreementRoleType findOrCreate(final String title, final AgreementType appliesTo) {
         AgreementRoleType agreementRoleType = findByAgreementTypeAndTitle(appliesTo, title);
         if (agreementRoleType == null) {
+            if (firstMatch("findByTitle", "title", title) != null) {
+                // about to be shared with a type of another agreement type
+                sharedTitles.add(title);
+            }
             agreementRoleType = getContainer().newTransientInstance(AgreementRoleType.class);
             agreementRoleType.setTitle(title);
             agreementRoleType.setAppliesTo(appliesTo);
             getContainer().persist(agreementRoleType);
+            typesByTitle.remove(title);
         }
         return agreementRoleType;
     }
@@ -54,6 +54,7 @@ import org.estatio.dom.apptenancy.WithApplicationTenancyGlobal;
                         + "FROM org.estatio.dom.agreement.AgreementType "
                         + "WHERE title == :title")
 })
+@javax.jdo.annotations.Cacheable("true")
 @DomainObject(editing = Editing.DISABLED, bounded = true)
 public class AgreementType
         extends EstatioDomainObject<AgreementType>
@@ -1,21 +1,31 @@
 package org.estatio.dom.apptenancy;
 
 import java.util.List;
+import java.util.Map;
 
+import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import javax.jdo.Query;
+import javax.jdo.listener.DeleteLifecycleListener;
+import javax.jdo.listener.InstanceLifecycleEvent;
+import javax.jdo.listener.StoreLifecycleListener;
 
 import com.google.common.base.Predicate;
-import com.google.common.collect.Iterables;
+import com.google.common.base.Supplier;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 import org.apache.isis.applib.annotation.DomainService;
 import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.services.jdosupport.IsisJdoSupport;
 
 import org.isisaddons.module.security.app.user.MeService;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancies;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.isisaddons.module.security.dom.user.ApplicationUser;
 
+import org.estatio.dom.CommittedValueCache;
+import org.estatio.dom.TransactionCompletionService;
 import org.estatio.dom.asset.Property;
 import org.estatio.dom.geography.Country;
 import org.estatio.dom.lease.Lease;
@@ -37,27 +47,26 @@ public class ApplicationTenancyRepository {
     }
 
     public List<ApplicationTenancy> allCountryTenancies() {
-        return Lists.newArrayList(Iterables.filter(allTenancies(), Predicates.isCountry()));
+        return select(level -> level.isCountry());
     }
 
     public List<ApplicationTenancy> propertyTenanciesFor(final Country country) {
-        return Lists.newArrayList(Iterables.filter(
-                allTenancies(), Predicates.isPropertyOf(country)));
+        final ApplicationTenancyLevel countryLevel = ApplicationTenancyLevel.of("/" + country.getAlpha2Code().toLowerCase());
+        return selectUnder(countryLevel, level -> level.isProperty());
     }
 
     public List<ApplicationTenancy> selfOrChildrenOf(final ApplicationTenancy tenancy) {
-        return Lists.newArrayList(Iterables.filter(
-                allTenancies(), Predicates.isSelfOrChildOf(tenancy)));
+        return selectUnder(ApplicationTenancyLevel.of(tenancy), level -> true);
     }
 
     public List<ApplicationTenancy> countryTenanciesFor(final ApplicationTenancy tenancy) {
-        return Lists.newArrayList(Iterables.filter(
-                allTenancies(), Predicates.isCountryTenancyFor(tenancy)));
+        return selectUnder(ApplicationTenancyLevel.of(tenancy), level -> level.isCountry());
     }
 
     public List<ApplicationTenancy> globalOrCountryTenanciesFor(final ApplicationTenancy tenancy) {
-        return Lists.newArrayList(Iterables.filter(
-                allTenancies(), Predicates.isGlobalOrCountryTenancyFor(tenancy)));
+        final ApplicationTenancyLevel tenancyLevel = ApplicationTenancyLevel.of(tenancy);
+        return select(level -> level.isRoot() ||
+                level.isCountry() && (level == tenancyLevel || level.childOf(tenancyLevel)));
     }
 
     public List<ApplicationTenancy> countryTenanciesForCurrentUser() {
@@ -71,8 +80,7 @@ public class ApplicationTenancyRepository {
     }
 
     public List<ApplicationTenancy> propertyTenanciesUnder(final ApplicationTenancy tenancy) {
-        return Lists.newArrayList(Iterables.filter(
-                allTenancies(), Predicates.isPropertyTenancyUnder(tenancy)));
+        return selectUnder(ApplicationTenancyLevel.of(tenancy), level -> level.isProperty());
     }
 
     public List<ApplicationTenancy> propertyTenanciesForCurrentUser() {
@@ -142,76 +150,130 @@ public class ApplicationTenancyRepository {
     }
 
     public List<ApplicationTenancy> localTenanciesFor(final Property property) {
-        return Lists.newArrayList(Iterables.filter(
-                allTenancies(), Predicates.isLocalOf(property)));
+        final ApplicationTenancyLevel propertyLevel = ApplicationTenancyLevel.of(property.getApplicationTenancyPath());
+        return selectUnder(propertyLevel, level -> level != propertyLevel);
     }
 
     // //////////////////////////////////////
 
-    public static class Predicates {
-        private Predicates() {
-        }
+    private static final String TREE = "tree";
 
-        public static Predicate<ApplicationTenancy> isCountry() {
-            return candidate -> ApplicationTenancyLevel.of(candidate).isCountry();
-        }
+    private final CommittedValueCache<String, ApplicationTenancyTree> trees = new CommittedValueCache<>();
 
-        public static Predicate<ApplicationTenancy> isProperty() {
-            return candidate -> ApplicationTenancyLevel.of(candidate).isProperty();
-        }
+    /**
+     * Drops the {@link #tree() tree} whenever a tenancy is stored or deleted,
+     * whichever service or action changes it.
+     */
+    @PostConstruct
+    public void init() {
+        isisJdoSupport.getJdoPersistenceManager().getPersistenceManagerFactory().addInstanceLifecycleListener(
+                new TenancyChangeListener(), new Class[] { ApplicationTenancy.class });
+    }
 
-        public static Predicate<ApplicationTenancy> isPropertyOf(final Country country) {
-            final String countryPath = "/" + country.getAlpha2Code().toLowerCase();
-            final ApplicationTenancyLevel countryLevel = ApplicationTenancyLevel.of(countryPath);
-            return candidate -> {
-                ApplicationTenancyLevel candidateLevel = ApplicationTenancyLevel.of(candidate);
-                return candidateLevel.isProperty() && candidateLevel.childOf(countryLevel);
-            };
-        }
+    private class TenancyChangeListener implements StoreLifecycleListener, DeleteLifecycleListener {
 
-        public static Predicate<? super ApplicationTenancy> isLocalOf(final Property property) {
-            final String propertyPath = property.getApplicationTenancyPath();
-            final ApplicationTenancyLevel propertyLevel = ApplicationTenancyLevel.of(propertyPath);
-            return candidate -> {
-                ApplicationTenancyLevel candidateLevel = ApplicationTenancyLevel.of(candidate);
-                return candidateLevel.childOf(propertyLevel);
-            };
+        @Override
+        public void preStore(final InstanceLifecycleEvent event) {
         }
 
-        public static Predicate<? super ApplicationTenancy> isSelf(final ApplicationTenancy tenancy) {
-            return candidate -> tenancy == candidate;
+        @Override
+        public void postStore(final InstanceLifecycleEvent event) {
+            trees.invalidate(TREE, transactionCompletionService);
         }
 
-        public static Predicate<? super ApplicationTenancy> isChildOf(final ApplicationTenancy tenancy) {
-            final ApplicationTenancyLevel tenancyLevel = ApplicationTenancyLevel.of(tenancy);
-            return candidate -> {
-                final ApplicationTenancyLevel candidateLevel = ApplicationTenancyLevel.of(candidate);
-                return candidateLevel.childOf(tenancyLevel);
-            };
+        @Override
+        public void preDelete(final InstanceLifecycleEvent event) {
         }
 
-        public static Predicate<? super ApplicationTenancy> isSelfOrChildOf(final ApplicationTenancy tenancy) {
-            return com.google.common.base.Predicates.or(isSelf(tenancy), isChildOf(tenancy));
+        @Override
+        public void postDelete(final InstanceLifecycleEvent event) {
+            trees.invalidate(TREE, transactionCompletionService);
         }
+    }
 
-        public static Predicate<? super ApplicationTenancy> isCountryTenancyFor(final ApplicationTenancy tenancy) {
-            return com.google.common.base.Predicates.and(
-                    isCountry(), isSelfOrChildOf(tenancy));
+    /**
+     * The tree of all tenancies, only rebuilt once they have been changed.
+     */
+    private ApplicationTenancyTree tree() {
+        return trees.get(TREE, new Supplier<ApplicationTenancyTree>() {
+            @Override
+            public ApplicationTenancyTree get() {
+                final List<ApplicationTenancy> tenancies = allTenancies();
+                final List<ApplicationTenancyLevel> levels = Lists.newArrayListWithCapacity(tenancies.size());
+                for (ApplicationTenancy tenancy : tenancies) {
+                    levels.add(ApplicationTenancyLevel.of(tenancy));
+                }
+                return new ApplicationTenancyTree(levels);
+            }
+        });
+    }
+
+    /**
+     * The tenancies (as loaded by the current transaction) at the positions
+     * of the tree, queried for by their paths only.
+     */
+    private List<ApplicationTenancy> tenanciesAt(final ApplicationTenancyTree tenancyTree, final List<Integer> positions) {
+        final List<ApplicationTenancy> tenancies = Lists.newArrayList();
+        if (positions.isEmpty()) {
+            return tenancies;
+        }
+        final List<String> paths = Lists.newArrayListWithCapacity(positions.size());
+        for (int i : positions) {
+            paths.add(tenancyTree.levels().get(i).getPath());
+        }
+        final Map<String, ApplicationTenancy> tenancyByPath = Maps.newHashMap();
+        for (ApplicationTenancy tenancy : tenanciesWithPaths(paths)) {
+            tenancyByPath.put(tenancy.getPath(), tenancy);
         }
+        for (String path : paths) {
+            final ApplicationTenancy tenancy = tenancyByPath.get(path);
+            if (tenancy != null) {
+                tenancies.add(tenancy);
+            }
+        }
+        return tenancies;
+    }
 
-        public static Predicate<? super ApplicationTenancy> isGlobalOrCountryTenancyFor(final ApplicationTenancy tenancy) {
-            return com.google.common.base.Predicates.or(
-                    isGlobal(), isCountryTenancyFor(tenancy));
+    /**
+     * The tenancies with any of the paths, in a single query.
+     */
+    @SuppressWarnings("unchecked")
+    List<ApplicationTenancy> tenanciesWithPaths(final List<String> paths) {
+        final Query query = isisJdoSupport.getJdoPersistenceManager().newQuery(
+                "SELECT FROM " + ApplicationTenancy.class.getName() + " WHERE :paths.contains(path)");
+        try {
+            return Lists.newArrayList((List<ApplicationTenancy>) query.execute(paths));
+        } finally {
+            query.closeAll();
         }
+    }
 
-        public static Predicate<? super ApplicationTenancy> isGlobal() {
-            return input -> ApplicationTenancyLevel.of(input).isRoot();
+    private List<ApplicationTenancy> select(final Predicate<ApplicationTenancyLevel> filter) {
+        final ApplicationTenancyTree tenancyTree = tree();
+        final List<Integer> selected = Lists.newArrayList();
+        for (int i = 0; i < tenancyTree.levels().size(); i++) {
+            if (filter.apply(tenancyTree.levels().get(i))) {
+                selected.add(i);
+            }
         }
+        return tenanciesAt(tenancyTree, selected);
+    }
 
-        public static Predicate<? super ApplicationTenancy> isPropertyTenancyUnder(final ApplicationTenancy tenancy) {
-            return com.google.common.base.Predicates.and(
-                    isProperty(), isSelfOrChildOf(tenancy));
+    /**
+     * Those of the tenancies at or below the level that match the filter, in
+     * the order of the tree.
+     */
+    private List<ApplicationTenancy> selectUnder(
+            final ApplicationTenancyLevel level,
+            final Predicate<ApplicationTenancyLevel> filter) {
+        final ApplicationTenancyTree tenancyTree = tree();
+        final List<Integer> selected = Lists.newArrayList();
+        for (int i : tenancyTree.selfAndDescendantsOf(level)) {
+            if (filter.apply(tenancyTree.levels().get(i))) {
+                selected.add(i);
+            }
         }
+        return tenanciesAt(tenancyTree, selected);
     }
 
     // //////////////////////////////////////
@@ -222,4 +284,10 @@ public class ApplicationTenancyRepository {
     @Inject
     private MeService meService;
 
+    @Inject
+    IsisJdoSupport isisJdoSupport;
+
+    @Inject
+    TransactionCompletionService transactionCompletionService;
+
 }
@@ -0,0 +1,71 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.apptenancy;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.estatio.dom.valuetypes.ApplicationTenancyLevel;
+
+/**
+ * The {@link ApplicationTenancyLevel levels} of a list of tenancies, with for
+ * each level the positions (in that list) of itself and its descendants.
+ *
+ * <p>
+ * Immutable, so can be shared for as long as the tenancies it was built from
+ * are unchanged.
+ */
+final class ApplicationTenancyTree {
+
+    private final List<ApplicationTenancyLevel> levels;
+    private final Map<ApplicationTenancyLevel, List<Integer>> selfAndDescendants = Maps.newHashMap();
+
+    ApplicationTenancyTree(final List<ApplicationTenancyLevel> levels) {
+        this.levels = ImmutableList.copyOf(levels);
+        for (int i = 0; i < levels.size(); i++) {
+            for (ApplicationTenancyLevel ancestor = levels.get(i); ancestor != null; ancestor = ancestor.parent()) {
+                List<Integer> positions = selfAndDescendants.get(ancestor);
+                if (positions == null) {
+                    positions = Lists.newArrayList();
+                    selfAndDescendants.put(ancestor, positions);
+                }
+                positions.add(i);
+            }
+        }
+    }
+
+    List<ApplicationTenancyLevel> levels() {
+        return levels;
+    }
+
+    /**
+     * The positions of the level itself (if present) and of its descendants,
+     * in ascending order.
+     */
+    List<Integer> selfAndDescendantsOf(final ApplicationTenancyLevel level) {
+        final List<Integer> positions = level == null ? null : selfAndDescendants.get(level);
+        return positions == null ? Collections.<Integer>emptyList() : Collections.unmodifiableList(positions);
+    }
+
+}
@@ -53,6 +53,7 @@ import org.estatio.dom.WithNameComparable;
 import org.estatio.dom.WithReferenceUnique;
 import org.estatio.dom.communicationchannel.CommunicationChannelOwner;
 import org.estatio.dom.party.Party;
+import org.estatio.dom.search.SearchIndexService;
 import org.estatio.dom.valuetypes.LocalDateInterval;
 
 @javax.jdo.annotations.PersistenceCapable(identityType = IdentityType.DATASTORE)
@@ -99,6 +100,23 @@ public abstract class FixedAsset<X extends FixedAsset<X>>
     @Inject
     FixedAssetRoleRepository fixedAssetRoleRepository;
 
+    @Inject
+    SearchIndexService searchIndexService;
+
+    // //////////////////////////////////////
+
+    public void persisted() {
+        searchIndexService.indexed(this);
+    }
+
+    public void updated() {
+        searchIndexService.indexed(this);
+    }
+
+    public void removing() {
+        searchIndexService.removed(this);
+    }
+
     // //////////////////////////////////////
 
     private String reference;
@@ -20,11 +20,14 @@ package org.estatio.dom.asset;
 
 import java.util.List;
 
+import javax.inject.Inject;
+
 import org.apache.isis.applib.annotation.DomainObject;
 import org.apache.isis.applib.annotation.DomainService;
 import org.apache.isis.applib.annotation.NatureOfService;
 
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.dom.search.SearchIndexService;
 import org.estatio.dom.utils.StringUtils;
 
 @DomainService(
@@ -38,6 +41,9 @@ public class FixedAssetRepository extends UdoDomainRepositoryAndFactory<FixedAss
     }
 
     public List<FixedAsset> matchAssetsByReferenceOrName(final String searchPhrase) {
+        if (searchIndexService.isEnabled()) {
+            return searchIndexService.find(FixedAsset.class, searchPhrase);
+        }
         return allMatches("matchByReferenceOrName",
                 "regex", StringUtils.wildcardToCaseInsensitiveRegex(searchPhrase));
     }
@@ -46,7 +52,13 @@ public class FixedAssetRepository extends UdoDomainRepositoryAndFactory<FixedAss
      * To support autoComplete on {@link FixedAsset} per {@link DomainObject#autoCompleteRepository()}.
      */
     public List<FixedAsset> autoComplete(final String searchPhrase) {
+        if (searchIndexService.isEnabled()) {
+            return searchIndexService.autoComplete(FixedAsset.class, searchPhrase);
+        }
         return matchAssetsByReferenceOrName("*".concat(searchPhrase).concat("*"));
     }
 
+    @Inject
+    SearchIndexService searchIndexService;
+
 }
@@ -34,6 +34,7 @@ import org.estatio.dom.UdoDomainRepositoryAndFactory;
 import org.estatio.dom.apptenancy.ApplicationTenancyRepository;
 import org.estatio.dom.geography.Countries;
 import org.estatio.dom.geography.Country;
+import org.estatio.dom.search.SearchIndexService;
 import org.estatio.dom.utils.StringUtils;
 
 @DomainService(
@@ -81,6 +82,9 @@ public class PropertyRepository extends UdoDomainRepositoryAndFactory<Property>
 
     public List<Property> findProperties(
             final String referenceOrName) {
+        if (searchIndexService.isEnabled()) {
+            return searchIndexService.find(Property.class, referenceOrName);
+        }
         return allMatches("findByReferenceOrName",
                 "referenceOrName", StringUtils.wildcardToCaseInsensitiveRegex(referenceOrName));
     }
@@ -109,6 +113,9 @@ public class PropertyRepository extends UdoDomainRepositoryAndFactory<Property>
      * For {@link Property} as per {@link DomainObject#autoCompleteRepository()}.
      */
     public List<Property> autoComplete(final String searchPhrase) {
+        if (searchIndexService.isEnabled()) {
+            return searchIndexService.autoComplete(Property.class, searchPhrase);
+        }
         return findProperties("*".concat(searchPhrase).concat("*"));
     }
 
@@ -117,6 +124,9 @@ public class PropertyRepository extends UdoDomainRepositoryAndFactory<Property>
     @Inject
     ApplicationTenancyRepository applicationTenancyRepository;
 
+    @Inject
+    SearchIndexService searchIndexService;
+
     @Inject
     PropertyRepository propertyRepository;
 
@@ -30,6 +30,7 @@ import org.apache.isis.applib.annotation.NatureOfService;
 import org.apache.isis.applib.services.clock.ClockService;
 
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.dom.search.SearchIndexService;
 import org.estatio.dom.utils.StringUtils;
 import org.estatio.dom.valuetypes.LocalDateInterval;
 
@@ -43,6 +44,9 @@ public class UnitRepository extends UdoDomainRepositoryAndFactory<Unit> {
     @Inject
     ClockService clockService;
 
+    @Inject
+    SearchIndexService searchIndexService;
+
     public UnitRepository() {
         super(UnitRepository.class, Unit.class);
     }
@@ -68,6 +72,9 @@ public class UnitRepository extends UdoDomainRepositoryAndFactory<Unit> {
     public List<Unit> findUnits(
             final String referenceOrName,
             final boolean includeTerminated) {
+        if (searchIndexService.isEnabled()) {
+            return searchIndexService.find(Unit.class, referenceOrName, SearchIndexService.activeOn(clockService.now(), includeTerminated));
+        }
         return allMatches("findByReferenceOrName",
                 "referenceOrName", StringUtils.wildcardToCaseInsensitiveRegex(referenceOrName),
                 "includeTerminated", includeTerminated,
@@ -99,6 +106,9 @@ public class UnitRepository extends UdoDomainRepositoryAndFactory<Unit> {
      * Autocomplete for {@link Unit}, as per {@link DomainObject#autoCompleteRepository()}.
      */
     public List<Unit> autoComplete(final String searchPhrase) {
+        if (searchIndexService.isEnabled()) {
+            return searchIndexService.autoComplete(Unit.class, searchPhrase, SearchIndexService.activeOn(clockService.now(), false));
+        }
         return findUnits("*".concat(searchPhrase).concat("*"), false);
     }
 
@@ -29,6 +29,7 @@ import org.estatio.dom.asset.UnitRepository;
 import org.estatio.dom.budgeting.Distributable;
 import org.estatio.dom.budgeting.budget.Budget;
 import org.estatio.dom.budgeting.keyitem.KeyItem;
+import org.estatio.dom.lease.Occupancies;
 import org.estatio.dom.valuetypes.LocalDateInterval;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.joda.time.LocalDate;
@@ -342,6 +343,7 @@ public class KeyTable extends EstatioDomainObject<Budget> implements WithInterva
         sourcevalue is determined by FoundationValueType
         */
         List<Distributable> input = new ArrayList<>();
+        List<KeyItem> newItems = new ArrayList<>();
 
         for (Unit unit : unitRepository.findByProperty(this.getProperty())) {
 
@@ -357,7 +359,7 @@ public class KeyTable extends EstatioDomainObject<Budget> implements WithInterva
                 newItem.setValue(BigDecimal.ZERO);
                 newItem.setUnit(unit);
                 newItem.setKeyTable(this);
-                persistIfNotAlready(newItem);
+                newItems.add(newItem);
                 input.add(newItem);
             }
         }
@@ -368,6 +370,13 @@ public class KeyTable extends EstatioDomainObject<Budget> implements WithInterva
         DistributionService distributionService = new DistributionService();
         distributionService.distribute(input, getKeyValueMethod().targetTotal(), getNumberOfDigits());
 
+        /*
+        persist the new items (with their values) in one go, rather than inserting and then updating each
+         */
+        for (KeyItem newItem : newItems) {
+            persistIfNotAlready(newItem);
+        }
+
         return this;
     }
 
@@ -422,11 +431,13 @@ public class KeyTable extends EstatioDomainObject<Budget> implements WithInterva
 
     @MemberOrder(name = "validation", sequence = "3")
     public boolean isValidForUnits() {
+        // the occupancies of all units in one go, rather than a query per unit
+        final Set<Unit> occupiedUnits = occupancies.occupancyIntervalIndexFor(getProperty()).unitsWithOccupancyOverlapping(getInterval());
         for (KeyItem item : this.getItems()) {
             if (!this.unitIntervalValidForThisKeyTable(item.getUnit())) {
                 return false;
             }
-            if (!item.getUnit().hasOccupancyOverlappingInterval(this.getInterval())) {
+            if (!occupiedUnits.contains(item.getUnit())) {
                 return false;
             }
         }
@@ -459,6 +470,9 @@ public class KeyTable extends EstatioDomainObject<Budget> implements WithInterva
     @Inject
     UnitRepository unitRepository;
 
+    @Inject
+    Occupancies occupancies;
+
     @Inject
     private KeyTables keyTableRepository;
 
@@ -61,6 +61,7 @@ import org.estatio.dom.tax.Tax;
                         + "FROM org.estatio.dom.charge.Charge "
                         + "WHERE reference == :reference")
 })
+@javax.jdo.annotations.Cacheable("true")
 @Bounded
 public class Charge
         extends EstatioDomainObject<Charge>
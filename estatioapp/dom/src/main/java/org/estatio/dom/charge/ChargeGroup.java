@@ -61,6 +61,7 @@ import org.estatio.dom.apptenancy.WithApplicationTenancyGlobal;
                         + "FROM org.estatio.dom.charge.ChargeGroup "
                         + "WHERE reference == :reference")
 })
+@javax.jdo.annotations.Cacheable("true")
 @DomainObject(editing = Editing.DISABLED, bounded = true)
 public class ChargeGroup
         extends EstatioDomainObject<ChargeGroup>
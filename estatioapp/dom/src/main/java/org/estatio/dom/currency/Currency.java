@@ -71,6 +71,7 @@ import org.estatio.dom.apptenancy.WithApplicationTenancyGlobal;
                         + "WHERE reference.matches(:searchArg) "
                         + "|| description.matches(:searchArg)")
 })
+@javax.jdo.annotations.Cacheable("true")
 @DomainObject(editing = Editing.DISABLED, autoCompleteRepository = Currencies.class, autoCompleteAction = "autoComplete", bounded = true)
 public class Currency
         extends EstatioDomainObject<Currency>
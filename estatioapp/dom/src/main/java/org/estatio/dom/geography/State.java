@@ -68,6 +68,7 @@ import org.estatio.dom.apptenancy.WithApplicationTenancyGlobal;
                         + "FROM org.estatio.dom.geography.State "
                         + "WHERE reference == :reference")
 })
+@javax.jdo.annotations.Cacheable("true")
 @DomainObject(editing = Editing.DISABLED)
 public class State
     extends EstatioDomainObject<State> 
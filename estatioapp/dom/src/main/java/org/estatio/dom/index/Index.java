@@ -82,6 +82,7 @@ import org.estatio.dom.apptenancy.WithApplicationTenancyPathPersisted;
                         + "FROM org.estatio.dom.index.Index "
                         + "WHERE reference == :reference")
 })
+@javax.jdo.annotations.Cacheable("true")
 @DomainObject(editing = Editing.DISABLED, bounded = true)
 public class Index
         extends EstatioDomainObject<Index>
@@ -230,11 +230,50 @@ public class IndexBase
 
     // //////////////////////////////////////
 
+    /**
+     * The product of the factors of this base and its previous ones back to
+     * (but not including) the base that the date falls in.
+     * 
+     * <p>
+     * Looked up in the {@link RebaseFactorService table} of the index, if
+     * available, rather than walking the chain.
+     */
     @Programmatic
     public BigDecimal factorForDate(final LocalDate date) {
+        if (rebaseFactorService != null && getIndex() != null) {
+            final BigDecimal factor = rebaseFactorService.factorForDate(this, date);
+            if (factor != null) {
+                return factor;
+            }
+        }
         return date.isBefore(getStartDate())
                 ? getFactor().multiply(getPrevious().factorForDate(date))
                 : BigDecimal.ONE;
     }
 
+    // //////////////////////////////////////
+
+    public void persisted() {
+        invalidateRebaseFactors();
+    }
+
+    public void updated() {
+        invalidateRebaseFactors();
+    }
+
+    public void removing() {
+        invalidateRebaseFactors();
+    }
+
+    private void invalidateRebaseFactors() {
+        if (rebaseFactorService != null) {
+            rebaseFactorService.invalidate(getIndex());
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    RebaseFactorService rebaseFactorService;
+
 }
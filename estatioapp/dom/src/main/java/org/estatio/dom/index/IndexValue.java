@@ -24,8 +24,11 @@ import javax.jdo.annotations.IdentityType;
 import javax.jdo.annotations.VersionStrategy;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
 import org.apache.isis.applib.Identifier;
 import org.apache.isis.applib.annotation.Action;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.annotation.Property;
 import org.apache.isis.applib.annotation.PropertyLayout;
 import org.apache.isis.applib.annotation.PropertyLayout;
 import org.apache.isis.applib.annotation.SemanticsOf;
@@ -60,7 +63,12 @@ import org.estatio.dom.apptenancy.WithApplicationTenancyCountry;
                 value = "SELECT "
                         + "FROM org.estatio.dom.index.IndexValue "
                         + "WHERE indexBase.index == :index "
-                        + "ORDER BY startDate DESC")
+                        + "ORDER BY startDate DESC"),
+        @javax.jdo.annotations.Query(
+                name = "findByUpdatedOnAfter", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.index.IndexValue "
+                        + "WHERE updatedOn > :updatedOn")
 })
 @javax.jdo.annotations.Unique(
         name = "IndexValue_indexBase_startDate_IDX",
@@ -149,6 +157,38 @@ public class IndexValue
 
     // //////////////////////////////////////
 
+    public void persisting() {
+        touch();
+    }
+
+    public void updating() {
+        touch();
+    }
+
+    private LocalDateTime updatedOn;
+
+    /**
+     * When this value was last published or changed.
+     *
+     * @see org.estatio.dom.lease.invoicing.InvoiceCalculationService#calculateAndInvoiceIncrementally(org.estatio.dom.lease.invoicing.InvoiceCalculationParameters)
+     */
+    @javax.jdo.annotations.Column(allowsNull = "true")
+    @Property(hidden = Where.EVERYWHERE)
+    public LocalDateTime getUpdatedOn() {
+        return updatedOn;
+    }
+
+    public void setUpdatedOn(final LocalDateTime updatedOn) {
+        this.updatedOn = updatedOn;
+    }
+
+    @Programmatic
+    public void touch() {
+        setUpdatedOn(getClockService().nowAsLocalDateTime());
+    }
+
+    // //////////////////////////////////////
+
     @Action(semantics = SemanticsOf.NON_IDEMPOTENT, domainEvent = UpdateEvent.class)
     public void remove() {
         getContainer().remove(this);
@@ -19,11 +19,13 @@
 package org.estatio.dom.index;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 import javax.inject.Inject;
 
 import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
 
 import org.apache.isis.applib.annotation.Action;
 import org.apache.isis.applib.annotation.DomainService;
@@ -33,6 +35,7 @@ import org.apache.isis.applib.annotation.NatureOfService;
 import org.apache.isis.applib.annotation.ParameterLayout;
 import org.apache.isis.applib.annotation.Programmatic;
 import org.apache.isis.applib.annotation.SemanticsOf;
+import org.apache.isis.applib.services.eventbus.AbstractDomainEvent;
 import org.apache.isis.applib.services.eventbus.EventBusService;
 import org.apache.isis.applib.services.queryresultscache.QueryResultsCache;
 
@@ -67,7 +70,10 @@ public class IndexValues
             persistIfNotAlready(indexValue);
         }
         indexValue.setValue(value);
-        eventBusService.post(new IndexValue.UpdateEvent(indexValue, null, (Object[]) null));
+        // posted by hand, so the phase is not set by the framework
+        final IndexValue.UpdateEvent event = new IndexValue.UpdateEvent(indexValue, null, (Object[]) null);
+        event.setEventPhase(AbstractDomainEvent.Phase.EXECUTED);
+        eventBusService.post(event);
         return indexValue;
     }
 
@@ -105,6 +111,14 @@ public class IndexValues
                 IndexValues.class, "findIndexValueByIndexAndStartDate", index, startDate);
     }
 
+    /**
+     * The values published or changed since the date time.
+     */
+    @Programmatic
+    public List<IndexValue> findUpdatedAfter(final LocalDateTime updatedOn) {
+        return allMatches("findByUpdatedOnAfter", "updatedOn", updatedOn);
+    }
+
     @Programmatic
     public IndexValue findLastByIndex(
             final Index index) {
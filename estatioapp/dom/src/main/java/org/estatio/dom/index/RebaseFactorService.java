@@ -0,0 +1,82 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.index;
+
+import java.math.BigDecimal;
+
+import com.google.common.base.Supplier;
+
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+
+import org.estatio.dom.CommittedValueCache;
+import org.estatio.dom.TransactionCompletionService;
+import org.estatio.dom.UdoDomainService;
+
+/**
+ * Holds a {@link RebaseFactorTable} per {@link Index}, built from its
+ * {@link Index#getIndexBases() bases} on first use and dropped whenever one of
+ * them changes (and once more when the changing transaction completes, see
+ * {@link CommittedValueCache}).
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class RebaseFactorService extends UdoDomainService<RebaseFactorService> {
+
+    private final CommittedValueCache<String, RebaseFactorTable> tables = new CommittedValueCache<>();
+
+    public RebaseFactorService() {
+        super(RebaseFactorService.class);
+    }
+
+    /**
+     * As {@link IndexBase#factorForDate(LocalDate)}, or <tt>null</tt> if the
+     * table cannot tell.
+     */
+    @Programmatic
+    public BigDecimal factorForDate(final IndexBase indexBase, final LocalDate date) {
+        final Index index = indexBase.getIndex();
+        final RebaseFactorTable table = tables.get(keyOf(index), new Supplier<RebaseFactorTable>() {
+            @Override
+            public RebaseFactorTable get() {
+                return RebaseFactorTable.of(index.getIndexBases());
+            }
+        });
+        return table.factorForDate(indexBase.getStartDate(), date);
+    }
+
+    @Programmatic
+    public void invalidate(final Index index) {
+        if (index != null) {
+            tables.invalidate(keyOf(index), transactionCompletionService);
+        }
+    }
+
+    private static String keyOf(final Index index) {
+        return index.getApplicationTenancyPath() + ":" + index.getReference();
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    TransactionCompletionService transactionCompletionService;
+
+}
@@ -0,0 +1,109 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.index;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+
+import org.joda.time.LocalDate;
+
+/**
+ * The cumulative rebase factors between every pair of {@link IndexBase}s of
+ * a single {@link Index}, keyed by their start dates.
+ * 
+ * <p>
+ * Holds no references to the bases themselves, so that it can outlive the
+ * session it was built in.
+ * 
+ * @see IndexBase#factorForDate(LocalDate)
+ */
+final class RebaseFactorTable {
+
+    private final LocalDate[] startDates;
+
+    /**
+     * <tt>factors[i][j]</tt> is the factor from the base starting at
+     * <tt>startDates[i]</tt> back to the one starting at
+     * <tt>startDates[j]</tt> (for <tt>j &lt;= i</tt>), multiplied in the same
+     * order as walking the chain of {@link IndexBase#getPrevious() previous}
+     * bases would.
+     */
+    private final BigDecimal[][] factors;
+
+    static RebaseFactorTable of(final Collection<IndexBase> indexBases) {
+        final List<IndexBase> ascending = Lists.newArrayList(indexBases);
+        final LocalDate[] startDates = new LocalDate[ascending.size()];
+        final BigDecimal[] baseFactors = new BigDecimal[ascending.size()];
+        int i = 0;
+        for (IndexBase indexBase : BY_START_DATE.sortedCopy(ascending)) {
+            startDates[i] = indexBase.getStartDate();
+            baseFactors[i] = indexBase.getFactor();
+            i++;
+        }
+        return new RebaseFactorTable(startDates, baseFactors);
+    }
+
+    private static final Ordering<IndexBase> BY_START_DATE = new Ordering<IndexBase>() {
+        @Override
+        public int compare(final IndexBase left, final IndexBase right) {
+            return left.getStartDate().compareTo(right.getStartDate());
+        }
+    };
+
+    RebaseFactorTable(final LocalDate[] startDates, final BigDecimal[] baseFactors) {
+        this.startDates = startDates;
+        this.factors = new BigDecimal[startDates.length][];
+        for (int i = 0; i < startDates.length; i++) {
+            factors[i] = new BigDecimal[i + 1];
+            factors[i][i] = BigDecimal.ONE;
+            for (int j = 0; j < i; j++) {
+                final BigDecimal previous = factors[i - 1][j];
+                factors[i][j] = baseFactors[i] == null || previous == null ? null : baseFactors[i].multiply(previous);
+            }
+        }
+    }
+
+    /**
+     * The factor of the base starting at the start date for the date, or
+     * <tt>null</tt> if there is no such base, if the date lies before the
+     * first base or if a factor on the way is missing.
+     */
+    BigDecimal factorForDate(final LocalDate baseStartDate, final LocalDate date) {
+        final int i = Arrays.binarySearch(startDates, baseStartDate);
+        if (i < 0) {
+            return null;
+        }
+        if (!date.isBefore(baseStartDate)) {
+            return BigDecimal.ONE;
+        }
+        final int j = lastStartingOnOrBefore(date);
+        return j < 0 ? null : factors[i][j];
+    }
+
+    private int lastStartingOnOrBefore(final LocalDate date) {
+        final int found = Arrays.binarySearch(startDates, date);
+        return found >= 0 ? found : -found - 2;
+    }
+
+}
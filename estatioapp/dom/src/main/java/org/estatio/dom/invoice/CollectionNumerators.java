@@ -19,6 +19,11 @@
 package org.estatio.dom.invoice;
 
 import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 import org.apache.isis.applib.annotation.Action;
 import org.apache.isis.applib.annotation.ActionLayout;
@@ -27,6 +32,7 @@ import org.apache.isis.applib.annotation.DomainService;
 import org.apache.isis.applib.annotation.DomainServiceLayout;
 import org.apache.isis.applib.annotation.MemberOrder;
 import org.apache.isis.applib.annotation.ParameterLayout;
+import org.apache.isis.applib.annotation.Programmatic;
 import org.apache.isis.applib.annotation.SemanticsOf;
 
 import org.estatio.dom.UdoDomainService;
@@ -108,6 +114,66 @@ public class CollectionNumerators extends UdoDomainService<CollectionNumerators>
 
     // //////////////////////////////////////
 
+    /**
+     * {@link Numerator#reserve(int) Reserves} a block of invoice numbers, on
+     * the numerator of each property, for those of the invoices that are yet
+     * to be invoiced.
+     * 
+     * <p>
+     * The numerators returned must be {@link #release(List) released} once the
+     * invoices have been numbered.
+     */
+    @Programmatic
+    public List<Numerator> reserveInvoiceNumbers(final List<Invoice> invoices) {
+        final Map<FixedAsset, Integer> counts = Maps.newLinkedHashMap();
+        for (Invoice invoice : invoices) {
+            if (invoice.getInvoiceNumber() == null && invoice.getStatus() == InvoiceStatus.APPROVED) {
+                final Integer count = counts.get(invoice.getFixedAsset());
+                counts.put(invoice.getFixedAsset(), count == null ? 1 : count + 1);
+            }
+        }
+        final List<Numerator> reserved = Lists.newArrayList();
+        for (Map.Entry<FixedAsset, Integer> entry : counts.entrySet()) {
+            reserve(findInvoiceNumberNumerator(entry.getKey()), entry.getValue(), reserved);
+        }
+        getContainer().flush();
+        return reserved;
+    }
+
+    /**
+     * As {@link #reserveInvoiceNumbers(List)}, but for the collection numbers
+     * of those of the invoices that are yet to be collected.
+     */
+    @Programmatic
+    public List<Numerator> reserveCollectionNumbers(final List<Invoice> invoices) {
+        int count = 0;
+        for (Invoice invoice : invoices) {
+            if (invoice.getCollectionNumber() == null && invoice.getStatus() == InvoiceStatus.APPROVED && !invoice.hideCollect()) {
+                count++;
+            }
+        }
+        final List<Numerator> reserved = Lists.newArrayList();
+        reserve(findCollectionNumberNumerator(), count, reserved);
+        getContainer().flush();
+        return reserved;
+    }
+
+    private static void reserve(final Numerator numerator, final int count, final List<Numerator> reserved) {
+        if (numerator != null && count > 0) {
+            numerator.reserve(count);
+            reserved.add(numerator);
+        }
+    }
+
+    @Programmatic
+    public void release(final List<Numerator> numerators) {
+        for (Numerator numerator : numerators) {
+            numerator.release();
+        }
+    }
+
+    // //////////////////////////////////////
+
     @javax.inject.Inject
     Numerators numerators;
 
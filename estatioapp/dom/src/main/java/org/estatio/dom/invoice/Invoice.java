@@ -58,7 +58,9 @@ import org.estatio.dom.bankmandate.BankMandate;
 import org.estatio.dom.charge.Charge;
 import org.estatio.dom.currency.Currency;
 import org.estatio.dom.financial.bankaccount.BankAccount;
+import org.estatio.dom.invoice.summary.InvoiceTotals;
 import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationRuns;
 import org.estatio.dom.lease.invoicing.InvoiceItemForLease;
 import org.estatio.dom.numerator.Numerator;
 import org.estatio.dom.party.Party;
@@ -99,6 +101,14 @@ import org.estatio.dom.party.Party;
                         "status == :status && " +
                         "dueDate == :dueDate " +
                         "ORDER BY invoiceNumber"),
+        @javax.jdo.annotations.Query(
+                name = "findByLeaseAndDueDateAndStatus", language = "JDOQL",
+                value = "SELECT FROM org.estatio.dom.invoice.Invoice " +
+                        "WHERE " +
+                        "lease == :lease && " +
+                        "status == :status && " +
+                        "dueDate == :dueDate " +
+                        "ORDER BY invoiceNumber"),
         @javax.jdo.annotations.Query(
                 name = "findByFixedAssetAndDueDate", language = "JDOQL",
                 value = "SELECT FROM org.estatio.dom.invoice.Invoice " +
@@ -335,7 +345,9 @@ public class Invoice
 
     public void changeDueDate(
             final @ParameterLayout(named = "Due date") LocalDate dueDate) {
+        invoiceTotals.markStale(this);
         setDueDate(dueDate);
+        invoiceTotals.markStale(this);
     }
 
     public LocalDate default0ChangeDueDate(
@@ -451,31 +463,66 @@ public class Invoice
 
     // //////////////////////////////////////
 
-    @Property(notPersisted = true)
+    private BigDecimal netAmount;
+
+    /**
+     * The sum of the net amounts of the {@link #getItems() items}, maintained
+     * as they are {@link InvoiceItem#verify() verified} and
+     * {@link InvoiceItem#remove() removed}.
+     */
+    @javax.jdo.annotations.Column(scale = 2, allowsNull = "true")
+    @Property(editing = Editing.DISABLED)
     public BigDecimal getNetAmount() {
-        BigDecimal total = BigDecimal.ZERO;
-        for (InvoiceItem item : getItems()) {
-            total = total.add(item.getNetAmount());
-        }
-        return total;
+        return netAmount;
+    }
+
+    public void setNetAmount(final BigDecimal netAmount) {
+        this.netAmount = netAmount;
     }
 
-    @Property(notPersisted = true, hidden = Where.ALL_TABLES)
+    private BigDecimal vatAmount;
+
+    @javax.jdo.annotations.Column(scale = 2, allowsNull = "true")
+    @Property(editing = Editing.DISABLED, hidden = Where.ALL_TABLES)
     public BigDecimal getVatAmount() {
-        BigDecimal total = BigDecimal.ZERO;
-        for (InvoiceItem item : getItems()) {
-            total = total.add(item.getVatAmount());
-        }
-        return total;
+        return vatAmount;
     }
 
-    @Property(notPersisted = true)
+    public void setVatAmount(final BigDecimal vatAmount) {
+        this.vatAmount = vatAmount;
+    }
+
+    private BigDecimal grossAmount;
+
+    @javax.jdo.annotations.Column(scale = 2, allowsNull = "true")
+    @Property(editing = Editing.DISABLED)
     public BigDecimal getGrossAmount() {
-        BigDecimal total = BigDecimal.ZERO;
-        for (InvoiceItem item : getItems()) {
-            total = total.add(item.getGrossAmount());
+        return grossAmount;
+    }
+
+    public void setGrossAmount(final BigDecimal grossAmount) {
+        this.grossAmount = grossAmount;
+    }
+
+    /**
+     * Adds the (change in) amounts of one of the {@link #getItems() items}.
+     *
+     * <p>
+     * Invoices persisted before their amounts were, are left alone until
+     * {@link Invoices#reconcileAmounts() reconciled}, as happens in the
+     * background shortly after startup and at a fixed interval from then on.
+     */
+    @Programmatic
+    public void addToAmounts(
+            final BigDecimal netAmount,
+            final BigDecimal vatAmount,
+            final BigDecimal grossAmount) {
+        if (getNetAmount() == null || getVatAmount() == null || getGrossAmount() == null) {
+            return;
         }
-        return total;
+        setNetAmount(getNetAmount().add(netAmount));
+        setVatAmount(getVatAmount().add(vatAmount));
+        setGrossAmount(getGrossAmount().add(grossAmount));
     }
 
     // //////////////////////////////////////
@@ -498,6 +545,7 @@ public class Invoice
     public void doApprove() {
         // Bulk guard
         if (!hideApprove() && disableApprove() == null) {
+            invoiceTotals.markStale(this);
             setStatus(InvoiceStatus.APPROVED);
             setRunId(null);
         }
@@ -587,7 +635,9 @@ public class Invoice
         }
         final Numerator numerator = collectionNumerators.findInvoiceNumberNumerator(getFixedAsset());
         setInvoiceNumber(numerator.nextIncrementStr());
+        numerator.dateLastIncrement(invoiceDate);
         setInvoiceDate(invoiceDate);
+        invoiceTotals.markStale(this);
         this.setStatus(InvoiceStatus.INVOICED);
         informUser("Assigned " + this.getInvoiceNumber() + " to invoice " + getContainer().titleOf(this));
         return this;
@@ -616,13 +666,21 @@ public class Invoice
         }
         final Numerator numerator = collectionNumerators.findInvoiceNumberNumerator(getFixedAsset());
         if (numerator != null) {
-            final String invoiceNumber = numerator.lastIncrementStr();
-            if (invoiceNumber != null) {
-                List<Invoice> result = invoices.findInvoicesByInvoiceNumber(invoiceNumber);
-                if (result.size() > 0) {
-                    return result.get(0).getInvoiceDate().compareTo(invoiceDate) <= 0;
+            LocalDate lastInvoiceDate = numerator.lastIncrementDate();
+            if (lastInvoiceDate == null) {
+                final String invoiceNumber = numerator.lastIncrementStr();
+                if (invoiceNumber != null) {
+                    List<Invoice> result = invoices.findInvoicesByInvoiceNumber(invoiceNumber);
+                    if (result.size() > 0) {
+                        lastInvoiceDate = result.get(0).getInvoiceDate();
+                        // remembered, so that bulk invoicing only looks it up once
+                        numerator.dateLastIncrement(lastInvoiceDate);
+                    }
                 }
             }
+            if (lastInvoiceDate != null) {
+                return lastInvoiceDate.compareTo(invoiceDate) <= 0;
+            }
         }
         return true;
     }
@@ -755,9 +813,11 @@ public class Invoice
 
     @Programmatic
     public void doRemove() {
+        invoiceTotals.markStale(this);
         for (InvoiceItem item : getItems()) {
             item.remove();
         }
+        invoiceCalculationRuns.invalidate(getFixedAsset(), getDueDate());
         getContainer().remove(this);
     }
 
@@ -772,4 +832,10 @@ public class Invoice
     @javax.inject.Inject
     InvoiceItems invoiceItems;
 
+    @javax.inject.Inject
+    InvoiceCalculationRuns invoiceCalculationRuns;
+
+    @javax.inject.Inject
+    InvoiceTotals invoiceTotals;
+
 }
@@ -57,6 +57,7 @@ import org.estatio.dom.WithInterval;
 import org.estatio.dom.apptenancy.WithApplicationTenancyPropertyLocal;
 import org.estatio.dom.charge.Charge;
 import org.estatio.dom.charge.Charges;
+import org.estatio.dom.invoice.summary.InvoiceTotals;
 import org.estatio.dom.lease.LeaseConstants;
 import org.estatio.dom.tax.Tax;
 import org.estatio.dom.valuetypes.LocalDateInterval;
@@ -80,6 +81,22 @@ import org.estatio.dom.valuetypes.LocalDateInterval;
 @javax.jdo.annotations.Discriminator(
         strategy = DiscriminatorStrategy.CLASS_NAME,
         column = "discriminator")
+@javax.jdo.annotations.Queries({
+        @javax.jdo.annotations.Query(
+                name = "findByInvoicePropertyReferenceAndDueDate", language = "JDOQL",
+                value = "SELECT " +
+                        "FROM org.estatio.dom.invoice.InvoiceItem " +
+                        "WHERE invoice.fixedAsset.reference == :reference " +
+                        "&& invoice.dueDate == :dueDate " +
+                        "&& invoice.lease != null"),
+        @javax.jdo.annotations.Query(
+                name = "findByInvoiceRunId", language = "JDOQL",
+                value = "SELECT " +
+                        "FROM org.estatio.dom.invoice.InvoiceItem " +
+                        "WHERE invoice.runId == :runId " +
+                        "&& invoice.lease != null " +
+                        "&& invoice.fixedAsset != null")
+})
 @DomainObject(editing = Editing.DISABLED)
 @DomainObjectLayout(bookmarking = BookmarkPolicy.AS_CHILD)
 public abstract class InvoiceItem
@@ -378,14 +395,60 @@ public abstract class InvoiceItem
     @Action(invokeOn = InvokeOn.OBJECT_AND_COLLECTION)
     public InvoiceItem verify() {
         calculateTax();
+        if (getInvoice() != null) {
+            updateAmountsOnInvoice();
+            invoiceTotals.markStale(getInvoice());
+        }
         return this;
     }
 
     // //////////////////////////////////////
 
+    /**
+     * The amounts of this item as last added to the
+     * {@link Invoice#getNetAmount() totals} of its invoice.
+     */
+    @javax.jdo.annotations.NotPersistent
+    private BigDecimal netAmountOnInvoice = BigDecimal.ZERO;
+    @javax.jdo.annotations.NotPersistent
+    private BigDecimal vatAmountOnInvoice = BigDecimal.ZERO;
+    @javax.jdo.annotations.NotPersistent
+    private BigDecimal grossAmountOnInvoice = BigDecimal.ZERO;
+
+    private void updateAmountsOnInvoice() {
+        final BigDecimal net = zeroIfNull(getNetAmount());
+        final BigDecimal vat = zeroIfNull(getVatAmount());
+        final BigDecimal gross = zeroIfNull(getGrossAmount());
+        getInvoice().addToAmounts(
+                net.subtract(netAmountOnInvoice),
+                vat.subtract(vatAmountOnInvoice),
+                gross.subtract(grossAmountOnInvoice));
+        netAmountOnInvoice = net;
+        vatAmountOnInvoice = vat;
+        grossAmountOnInvoice = gross;
+    }
+
+    private void removeAmountsFromInvoice() {
+        getInvoice().addToAmounts(
+                netAmountOnInvoice.negate(),
+                vatAmountOnInvoice.negate(),
+                grossAmountOnInvoice.negate());
+        netAmountOnInvoice = BigDecimal.ZERO;
+        vatAmountOnInvoice = BigDecimal.ZERO;
+        grossAmountOnInvoice = BigDecimal.ZERO;
+    }
+
+    private static BigDecimal zeroIfNull(final BigDecimal amount) {
+        return amount == null ? BigDecimal.ZERO : amount;
+    }
+
+    // //////////////////////////////////////
+
     @Action(invokeOn = InvokeOn.OBJECT_AND_COLLECTION)
     public void remove() {
         if (getInvoice().getStatus().equals(InvoiceStatus.NEW)) {
+            invoiceTotals.markStale(getInvoice());
+            removeAmountsFromInvoice();
             getContainer().remove(this);
             getContainer().flush();
         }
@@ -436,6 +499,37 @@ public abstract class InvoiceItem
         initialize();
     }
 
+    /**
+     * Lifecycle: whatever amounts were persisted are already included in the
+     * totals of the invoice.
+     */
+    public void loaded() {
+        netAmountOnInvoice = zeroIfNull(getNetAmount());
+        vatAmountOnInvoice = zeroIfNull(getVatAmount());
+        grossAmountOnInvoice = zeroIfNull(getGrossAmount());
+    }
+
+    /**
+     * Lifecycle: picks up amounts that were set without the item being
+     * {@link #verify() verified}.
+     */
+    public void persisting() {
+        if (getInvoice() != null) {
+            updateAmountsOnInvoice();
+        }
+    }
+
+    /**
+     * Lifecycle
+     *
+     * @see #persisting()
+     */
+    public void updating() {
+        if (getInvoice() != null) {
+            updateAmountsOnInvoice();
+        }
+    }
+
     // //////////////////////////////////////
 
     private Charges charges;
@@ -444,6 +538,9 @@ public abstract class InvoiceItem
         this.charges = charges;
     }
 
+    @javax.inject.Inject
+    InvoiceTotals invoiceTotals;
+
     @Override public ApplicationTenancy getApplicationTenancy() {
         return getInvoice().getApplicationTenancy();
     }
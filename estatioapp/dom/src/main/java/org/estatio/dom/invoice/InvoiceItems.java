@@ -32,6 +32,7 @@ import org.apache.isis.applib.annotation.RestrictTo;
 import org.apache.isis.applib.annotation.SemanticsOf;
 
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.dom.invoice.summary.InvoiceTotals;
 import org.estatio.dom.lease.invoicing.InvoiceItemForLease;
 
 @DomainService(repositoryFor = InvoiceItem.class)
@@ -57,6 +58,7 @@ public class InvoiceItems extends UdoDomainRepositoryAndFactory<InvoiceItem> {
         invoiceItem.setDueDate(dueDate);
         invoiceItem.setUuid(java.util.UUID.randomUUID().toString());
         persistIfNotAlready(invoiceItem);
+        invoiceTotals.markStale(invoice);
         return invoiceItem;
     }
 
@@ -68,4 +70,9 @@ public class InvoiceItems extends UdoDomainRepositoryAndFactory<InvoiceItem> {
         return allInstances();
     }
 
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    private InvoiceTotals invoiceTotals;
+
 }
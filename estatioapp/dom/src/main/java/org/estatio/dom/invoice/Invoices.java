@@ -18,7 +18,25 @@
  */
 package org.estatio.dom.invoice;
 
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+
+import javax.jdo.JDODataStoreException;
+import javax.jdo.JDOHelper;
+import javax.jdo.PersistenceManager;
+import javax.jdo.datastore.DataStoreCache;
+import javax.jdo.datastore.JDOConnection;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
 import org.isisaddons.module.security.app.user.MeService;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.joda.time.LocalDate;
@@ -42,8 +60,11 @@ import org.estatio.dom.UdoDomainRepositoryAndFactory;
 import org.estatio.dom.apptenancy.ApplicationTenancyRepository;
 import org.estatio.dom.asset.FixedAsset;
 import org.estatio.dom.currency.Currency;
+import org.estatio.dom.invoice.summary.InvoiceTotals;
 import org.estatio.dom.lease.Lease;
+import org.estatio.dom.lease.LeaseTerm;
 import org.estatio.dom.lease.invoicing.InvoiceCalculationParameters;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationRuns;
 import org.estatio.dom.party.Party;
 import org.estatio.dom.utils.StringUtils;
 import org.estatio.domsettings.EstatioSettingsService;
@@ -109,6 +130,17 @@ public class Invoices extends UdoDomainRepositoryAndFactory<Invoice> {
                 "status", status);
     }
 
+    @Programmatic
+    public List<Invoice> findInvoicesByLease(
+            final Lease lease,
+            final LocalDate dueDate,
+            final InvoiceStatus status) {
+        return allMatches("findByLeaseAndDueDateAndStatus",
+                "lease", lease,
+                "dueDate", dueDate,
+                "status", status);
+    }
+
     @Programmatic
     public List<Invoice> findInvoices(
             final FixedAsset fixedAsset,
@@ -174,6 +206,31 @@ public class Invoices extends UdoDomainRepositoryAndFactory<Invoice> {
             final Lease lease,
             final String interactionId
     ) {
+        final Invoice invoice = createInvoice(applicationTenancy, seller, buyer, paymentMethod, currency, dueDate, lease, interactionId);
+        getContainer().flush();
+        return invoice;
+    }
+
+    Invoice createInvoice(
+            final ApplicationTenancy applicationTenancy,
+            final Party seller,
+            final Party buyer,
+            final PaymentMethod paymentMethod,
+            final LocalDate dueDate,
+            final Lease lease,
+            final String interactionId) {
+        return createInvoice(applicationTenancy, seller, buyer, paymentMethod, settings.systemCurrency(), dueDate, lease, interactionId);
+    }
+
+    private Invoice createInvoice(
+            final ApplicationTenancy applicationTenancy,
+            final Party seller,
+            final Party buyer,
+            final PaymentMethod paymentMethod,
+            final Currency currency,
+            final LocalDate dueDate,
+            final Lease lease,
+            final String interactionId) {
         Invoice invoice = newTransientInstance();
         invoice.setApplicationTenancyPath(applicationTenancy.getPath());
         invoice.setBuyer(buyer);
@@ -185,6 +242,9 @@ public class Invoices extends UdoDomainRepositoryAndFactory<Invoice> {
         invoice.setDueDate(dueDate);
         invoice.setUuid(java.util.UUID.randomUUID().toString());
         invoice.setRunId(interactionId);
+        invoice.setNetAmount(BigDecimal.ZERO);
+        invoice.setVatAmount(BigDecimal.ZERO);
+        invoice.setGrossAmount(BigDecimal.ZERO);
 
         // copy down form the agreement, we require all invoice items to relate
         // back to this (root) fixed asset
@@ -192,7 +252,6 @@ public class Invoices extends UdoDomainRepositoryAndFactory<Invoice> {
         invoice.setFixedAsset(lease.getProperty());
 
         persistIfNotAlready(invoice);
-        getContainer().flush();
         return invoice;
     }
 
@@ -244,6 +303,40 @@ public class Invoices extends UdoDomainRepositoryAndFactory<Invoice> {
         return invoices.get(0);
     }
 
+    /**
+     * The invoices of the fixed asset, due date and status, to
+     * {@link MatchingInvoices#findOrCreate(ApplicationTenancy, PaymentMethod, Lease, InvoiceStatus, LocalDate, String) find or create}
+     * the matching invoices of a run in memory.
+     */
+    @Programmatic
+    public MatchingInvoices matchingInvoices(
+            final FixedAsset fixedAsset,
+            final LocalDate dueDate,
+            final InvoiceStatus invoiceStatus) {
+        // so that the invoices just removed (by the run) are gone
+        getContainer().flush();
+        return new MatchingInvoices(this, findInvoices(fixedAsset, dueDate, invoiceStatus));
+    }
+
+    /**
+     * As {@link #matchingInvoices(FixedAsset, LocalDate, InvoiceStatus)}, but
+     * seeded with the invoices of the leases only, for a run (or partition)
+     * of some of the leases of a property.
+     */
+    @Programmatic
+    public MatchingInvoices matchingInvoices(
+            final List<Lease> leases,
+            final LocalDate dueDate,
+            final InvoiceStatus invoiceStatus) {
+        // so that the invoices just removed (by the run) are gone
+        getContainer().flush();
+        final List<Invoice> invoices = Lists.newArrayList();
+        for (Lease lease : leases) {
+            invoices.addAll(findInvoicesByLease(lease, dueDate, invoiceStatus));
+        }
+        return new MatchingInvoices(this, invoices);
+    }
+
     @Programmatic
     public List<Invoice> findMatchingInvoices(
             final Party seller,
@@ -270,13 +363,285 @@ public class Invoices extends UdoDomainRepositoryAndFactory<Invoice> {
         return allInstances();
     }
 
+    /**
+     * Sets the {@link Invoice#getNetAmount() amounts} of every invoice that
+     * has drifted from (or was persisted before) the sum of its items, in a
+     * single statement.
+     *
+     * <p>
+     * Also run in the background on a schedule; the action is there to
+     * repair the amounts on demand.
+     */
+    @Action(semantics = SemanticsOf.IDEMPOTENT)
+    @MemberOrder(sequence = "97")
+    public String reconcileAmounts() {
+        getContainer().flush();
+        final Integer reconciled = getIsisJdoSupport().executeUpdate(
+                "UPDATE \"Invoice\" SET " +
+                        "\"netAmount\" = " + sumOfItems("netAmount") + ", " +
+                        "\"vatAmount\" = " + sumOfItems("vatAmount") + ", " +
+                        "\"grossAmount\" = " + sumOfItems("grossAmount") + " " +
+                        "WHERE \"netAmount\" IS NULL " +
+                        "OR \"vatAmount\" IS NULL " +
+                        "OR \"grossAmount\" IS NULL " +
+                        "OR \"netAmount\" <> " + sumOfItems("netAmount") + " " +
+                        "OR \"vatAmount\" <> " + sumOfItems("vatAmount") + " " +
+                        "OR \"grossAmount\" <> " + sumOfItems("grossAmount"));
+        // bypassed the persistence manager, so anything cached is stale
+        getIsisJdoSupport().getJdoPersistenceManager().getPersistenceManagerFactory().getDataStoreCache().evictAll(false, Invoice.class);
+        return String.format("%d invoices reconciled", reconciled == null ? 0 : reconciled);
+    }
+
+    private static String sumOfItems(final String amount) {
+        return "(SELECT COALESCE(SUM(\"InvoiceItem\".\"" + amount + "\"), 0) " +
+                "FROM \"InvoiceItem\" " +
+                "WHERE \"InvoiceItem\".\"invoiceId\" = \"Invoice\".\"id\")";
+    }
+
     // //////////////////////////////////////
 
     @Programmatic
     public void removeRuns(InvoiceCalculationParameters parameters) {
-        List<Invoice> invoices = findInvoices(parameters.property(), parameters.invoiceDueDate(), InvoiceStatus.NEW);
+        removeInvoices(
+                findInvoices(parameters.property(), parameters.invoiceDueDate(), InvoiceStatus.NEW),
+                fixedAssetIs(parameters.property()).and(dueDateIs(parameters.invoiceDueDate())).and(statusIn(InvoiceStatus.NEW)),
+                false);
+    }
+
+    /**
+     * As {@link #removeRuns(InvoiceCalculationParameters)}, but only removes
+     * the new invoices of the given leases.
+     */
+    @Programmatic
+    public void removeRuns(InvoiceCalculationParameters parameters, List<Lease> leases) {
+        if (leases.isEmpty()) {
+            return;
+        }
+        final List<Invoice> invoices = Lists.newArrayList();
+        for (Lease lease : leases) {
+            for (Invoice invoice : findInvoicesByLease(lease, parameters.invoiceDueDate(), InvoiceStatus.NEW)) {
+                if (parameters.property().equals(invoice.getFixedAsset())) {
+                    invoices.add(invoice);
+                }
+            }
+        }
+        removeInvoices(
+                invoices,
+                fixedAssetIs(parameters.property()).and(dueDateIs(parameters.invoiceDueDate())).and(statusIn(InvoiceStatus.NEW)).and(leaseIn(leases)),
+                false);
+    }
+
+    /**
+     * Removes the invoices of the property for the due date (and, optionally,
+     * the status), as {@link Invoice#remove()} does or, when zapping, as
+     * {@link Invoice#doRemove()} does, but in bulk.
+     *
+     * @return the number of invoices removed
+     */
+    @Programmatic
+    public int removeInvoices(
+            final FixedAsset fixedAsset,
+            final LocalDate dueDate,
+            final InvoiceStatus status,
+            final boolean zap) {
+        return removeInvoices(
+                findInvoices(fixedAsset, dueDate, status),
+                status == null
+                        ? fixedAssetIs(fixedAsset).and(dueDateIs(dueDate))
+                        : fixedAssetIs(fixedAsset).and(dueDateIs(dueDate)).and(statusIn(status)),
+                zap);
+    }
+
+    /**
+     * As {@link #removeInvoices(FixedAsset, LocalDate, InvoiceStatus, boolean)},
+     * but for the invoices of a run.
+     */
+    @Programmatic
+    public int removeInvoices(
+            final String runId,
+            final boolean zap) {
+        return removeInvoices(
+                findInvoicesByRunId(runId),
+                new Condition("\"Invoice\".\"runId\" = ?", runId),
+                zap);
+    }
+
+    /**
+     * Removes the selected invoices, and their items, with a couple of
+     * statements rather than one by one.
+     *
+     * <p>
+     * The invoices are those loaded by the caller, and the condition (on the
+     * <tt>"Invoice"</tt> table) must select the same rows; they are loaded only
+     * to invalidate the calculation runs of their property. The same guards
+     * apply as when removing one by one: items are only removed from
+     * {@link InvoiceStatus#NEW new} invoices, invoices only when
+     * {@link InvoiceStatus#invoiceIsChangable() changeable} (unless zapping)
+     * and when no items are left.
+     *
+     * <p>
+     * As the statements bypass the persistence manager, the invoices, invoice
+     * items and lease terms it holds are evicted afterwards, so that they (and
+     * their {@link Invoice#getItems() items} and
+     * {@link LeaseTerm#getInvoiceItems() invoice items}) are reloaded when
+     * next used.
+     */
+    private int removeInvoices(
+            final List<Invoice> invoices,
+            final Condition condition,
+            final boolean zap) {
+        if (invoices.isEmpty()) {
+            return 0;
+        }
+        final Set<List<Object>> runs = Sets.newHashSet();
         for (Invoice invoice : invoices) {
-            invoice.remove();
+            invoiceTotals.markStale(invoice);
+            if (runs.add(Arrays.<Object>asList(invoice.getFixedAsset(), invoice.getDueDate()))) {
+                invoiceCalculationRuns.invalidate(invoice.getFixedAsset(), invoice.getDueDate());
+            }
+        }
+        getContainer().flush();
+        final PersistenceManager persistenceManager = getIsisJdoSupport().getJdoPersistenceManager();
+        final List<Object> bypassed = cleanInstancesToBypass(persistenceManager);
+        executeUpdate(
+                "DELETE FROM \"InvoiceItem\" " +
+                        "WHERE \"InvoiceItem\".\"invoiceId\" IN (" +
+                        "SELECT \"Invoice\".\"id\" FROM \"Invoice\" " +
+                        "WHERE " + condition.and(statusIn(InvoiceStatus.NEW)).getSql() + ")",
+                condition.and(statusIn(InvoiceStatus.NEW)).getParameters());
+        final Condition invoiceCondition = zap ? condition : condition.and(statusIn(changeableStatuses()));
+        final int removed = executeUpdate(
+                "DELETE FROM \"Invoice\" " +
+                        "WHERE " + invoiceCondition.getSql() + " " +
+                        "AND NOT EXISTS (" +
+                        "SELECT 1 FROM \"InvoiceItem\" " +
+                        "WHERE \"InvoiceItem\".\"invoiceId\" = \"Invoice\".\"id\")",
+                invoiceCondition.getParameters());
+        persistenceManager.evictAll(bypassed);
+        final DataStoreCache dataStoreCache = persistenceManager.getPersistenceManagerFactory().getDataStoreCache();
+        dataStoreCache.evictAll(true, InvoiceItem.class);
+        dataStoreCache.evictAll(false, Invoice.class);
+        return removed;
+    }
+
+    /**
+     * The (flushed) invoices, invoice items and lease terms held by the
+     * persistence manager, refreshed where changed so that they can be
+     * evicted.
+     */
+    private static List<Object> cleanInstancesToBypass(final PersistenceManager persistenceManager) {
+        final List<Object> instances = Lists.newArrayList();
+        for (Object instance : persistenceManager.getManagedObjects()) {
+            if (!(instance instanceof Invoice || instance instanceof InvoiceItem || instance instanceof LeaseTerm)) {
+                continue;
+            }
+            if (JDOHelper.isDeleted(instance) || JDOHelper.isNew(instance)) {
+                continue;
+            }
+            if (JDOHelper.isDirty(instance)) {
+                persistenceManager.refresh(instance);
+            }
+            instances.add(instance);
+        }
+        return instances;
+    }
+
+    private int executeUpdate(final String sql, final List<Object> parameters) {
+        final JDOConnection jdoConnection = getIsisJdoSupport().getJdoPersistenceManager().getDataStoreConnection();
+        try {
+            final Connection connection = (Connection) jdoConnection.getNativeConnection();
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < parameters.size(); i++) {
+                    statement.setObject(i + 1, parameters.get(i));
+                }
+                return statement.executeUpdate();
+            }
+        } catch (final SQLException ex) {
+            throw new JDODataStoreException(ex.getMessage(), ex);
+        } finally {
+            jdoConnection.close();
+        }
+    }
+
+    private static InvoiceStatus[] changeableStatuses() {
+        final List<InvoiceStatus> statuses = Lists.newArrayList();
+        for (InvoiceStatus status : InvoiceStatus.values()) {
+            if (status.invoiceIsChangable()) {
+                statuses.add(status);
+            }
+        }
+        return statuses.toArray(new InvoiceStatus[statuses.size()]);
+    }
+
+    static Condition fixedAssetIs(final FixedAsset fixedAsset) {
+        return new Condition(
+                "\"Invoice\".\"fixedAssetId\" IN (" +
+                        "SELECT \"FixedAsset\".\"id\" FROM \"FixedAsset\" " +
+                        "WHERE \"FixedAsset\".\"reference\" = ?)",
+                fixedAsset.getReference());
+    }
+
+    static Condition dueDateIs(final LocalDate dueDate) {
+        if (dueDate == null) {
+            return new Condition("\"Invoice\".\"dueDate\" IS NULL");
+        }
+        return new Condition("\"Invoice\".\"dueDate\" = ?", new java.sql.Date(dueDate.toDate().getTime()));
+    }
+
+    static Condition statusIn(final InvoiceStatus... statuses) {
+        final List<Object> names = Lists.newArrayList();
+        for (InvoiceStatus status : statuses) {
+            names.add(status.name());
+        }
+        return new Condition("\"Invoice\".\"status\" IN (" + placeholders(names.size()) + ")", names);
+    }
+
+    static Condition leaseIn(final List<Lease> leases) {
+        final List<Object> references = Lists.newArrayList();
+        for (Lease lease : leases) {
+            references.add(lease.getReference());
+        }
+        return new Condition(
+                "\"Invoice\".\"leaseId\" IN (" +
+                        "SELECT \"Agreement\".\"id\" FROM \"Agreement\" " +
+                        "WHERE \"Agreement\".\"reference\" IN (" + placeholders(references.size()) + "))",
+                references);
+    }
+
+    private static String placeholders(final int number) {
+        return Joiner.on(", ").join(Collections.nCopies(number, "?"));
+    }
+
+    /**
+     * A condition on the <tt>"Invoice"</tt> table, along with the values of
+     * its parameters.
+     */
+    static class Condition {
+
+        private final String sql;
+        private final List<Object> parameters;
+
+        Condition(final String sql, final Object... parameters) {
+            this(sql, Arrays.asList(parameters));
+        }
+
+        Condition(final String sql, final List<Object> parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public List<Object> getParameters() {
+            return parameters;
+        }
+
+        public Condition and(final Condition other) {
+            final List<Object> allParameters = Lists.newArrayList(parameters);
+            allParameters.addAll(other.parameters);
+            return new Condition(sql + " AND " + other.sql, allParameters);
         }
     }
 
@@ -291,6 +656,12 @@ public class Invoices extends UdoDomainRepositoryAndFactory<Invoice> {
     @javax.inject.Inject
     private MeService meService;
 
+    @javax.inject.Inject
+    private InvoiceTotals invoiceTotals;
+
+    @javax.inject.Inject
+    private InvoiceCalculationRuns invoiceCalculationRuns;
+
 
 
 }
@@ -0,0 +1,145 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.invoice;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Maps;
+
+import org.joda.time.LocalDate;
+
+import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
+
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.party.Party;
+
+/**
+ * The invoices of a calculation run by (seller, buyer, payment method, lease,
+ * status, due date), as matched by
+ * {@link Invoices#findMatchingInvoices(Party, Party, PaymentMethod, Lease, InvoiceStatus, LocalDate)}.
+ *
+ * <p>
+ * Seeded once, from the invoices of the run's property and due date, and
+ * filled as the run creates new invoices; those are not flushed one by one,
+ * since nothing queries for them any more.
+ *
+ * @see Invoices#matchingInvoices(org.estatio.dom.asset.FixedAsset, LocalDate, InvoiceStatus)
+ */
+public class MatchingInvoices {
+
+    private final Invoices invoices;
+    private final Map<Key, Invoice> invoicesByKey = Maps.newHashMap();
+
+    MatchingInvoices(final Invoices invoices, final List<Invoice> seed) {
+        this.invoices = invoices;
+        for (Invoice invoice : seed) {
+            final Key key = new Key(
+                    invoice.getSeller(),
+                    invoice.getBuyer(),
+                    invoice.getPaymentMethod(),
+                    invoice.getLease(),
+                    invoice.getStatus(),
+                    invoice.getDueDate());
+            if (!invoicesByKey.containsKey(key)) {
+                invoicesByKey.put(key, invoice);
+            }
+        }
+    }
+
+    /**
+     * As
+     * {@link Invoices#findOrCreateMatchingInvoice(ApplicationTenancy, PaymentMethod, Lease, InvoiceStatus, LocalDate, String)}.
+     */
+    public Invoice findOrCreate(
+            final ApplicationTenancy applicationTenancy,
+            final PaymentMethod paymentMethod,
+            final Lease lease,
+            final InvoiceStatus invoiceStatus,
+            final LocalDate dueDate,
+            final String interactionId) {
+        final Party buyer = lease.getSecondaryParty();
+        final Party seller = lease.getPrimaryParty();
+        final Key key = new Key(seller, buyer, paymentMethod, lease, invoiceStatus, dueDate);
+        Invoice invoice = invoicesByKey.get(key);
+        if (invoice == null) {
+            invoice = invoices.createInvoice(applicationTenancy, seller, buyer, paymentMethod, dueDate, lease, interactionId);
+            invoicesByKey.put(key, invoice);
+        }
+        return invoice;
+    }
+
+    public int size() {
+        return invoicesByKey.size();
+    }
+
+    // //////////////////////////////////////
+
+    static final class Key {
+
+        private final Party seller;
+        private final Party buyer;
+        private final PaymentMethod paymentMethod;
+        private final Lease lease;
+        private final InvoiceStatus status;
+        private final LocalDate dueDate;
+
+        Key(
+                final Party seller,
+                final Party buyer,
+                final PaymentMethod paymentMethod,
+                final Lease lease,
+                final InvoiceStatus status,
+                final LocalDate dueDate) {
+            this.seller = seller;
+            this.buyer = buyer;
+            this.paymentMethod = paymentMethod;
+            this.lease = lease;
+            this.status = status;
+            this.dueDate = dueDate;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return seller == other.seller
+                    && buyer == other.buyer
+                    && paymentMethod == other.paymentMethod
+                    && lease == other.lease
+                    && status == other.status
+                    && Objects.equal(dueDate, other.dueDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(
+                    System.identityHashCode(seller),
+                    System.identityHashCode(buyer),
+                    paymentMethod,
+                    System.identityHashCode(lease),
+                    status,
+                    dueDate);
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.invoice.summary;
+
+import java.math.BigDecimal;
+
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.IdentityType;
+
+import org.apache.isis.applib.annotation.DomainObject;
+import org.apache.isis.applib.annotation.Editing;
+
+/**
+ * The number of invoices and their totals for an invoice run; maintained by
+ * {@link InvoiceTotals}, read through the <tt>InvoiceSummaryForInvoiceRun</tt>
+ * view.
+ */
+@javax.jdo.annotations.PersistenceCapable(identityType = IdentityType.DATASTORE)
+@javax.jdo.annotations.DatastoreIdentity(
+        strategy = IdGeneratorStrategy.NATIVE,
+        column = "id")
+@javax.jdo.annotations.Uniques({
+        @javax.jdo.annotations.Unique(
+                name = "InvoiceTotalForInvoiceRun_runId_UNQ",
+                members = { "runId" })
+})
+@javax.jdo.annotations.Queries({
+        @javax.jdo.annotations.Query(
+                name = "findByRunId", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.invoice.summary.InvoiceTotalForInvoiceRun "
+                        + "WHERE runId == :runId")
+})
+@DomainObject(editing = Editing.DISABLED)
+public class InvoiceTotalForInvoiceRun {
+
+    private String runId;
+
+    @javax.jdo.annotations.Column(allowsNull = "false")
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(final String runId) {
+        this.runId = runId;
+    }
+
+    // //////////////////////////////////////
+
+    private int total;
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(final int total) {
+        this.total = total;
+    }
+
+    // //////////////////////////////////////
+
+    private BigDecimal netAmount;
+
+    @javax.jdo.annotations.Column(scale = 2, allowsNull = "true")
+    public BigDecimal getNetAmount() {
+        return netAmount;
+    }
+
+    public void setNetAmount(final BigDecimal netAmount) {
+        this.netAmount = netAmount;
+    }
+
+    // //////////////////////////////////////
+
+    private BigDecimal vatAmount;
+
+    @javax.jdo.annotations.Column(scale = 2, allowsNull = "true")
+    public BigDecimal getVatAmount() {
+        return vatAmount;
+    }
+
+    public void setVatAmount(final BigDecimal vatAmount) {
+        this.vatAmount = vatAmount;
+    }
+
+    // //////////////////////////////////////
+
+    private BigDecimal grossAmount;
+
+    @javax.jdo.annotations.Column(scale = 2, allowsNull = "true")
+    public BigDecimal getGrossAmount() {
+        return grossAmount;
+    }
+
+    public void setGrossAmount(final BigDecimal grossAmount) {
+        this.grossAmount = grossAmount;
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.invoice.summary;
+
+import java.math.BigDecimal;
+
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.IdentityType;
+
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.annotation.DomainObject;
+import org.apache.isis.applib.annotation.Editing;
+
+import org.estatio.dom.JdoColumnLength;
+import org.estatio.dom.invoice.InvoiceStatus;
+
+/**
+ * The number of invoices and their totals for a property, due date and
+ * status; maintained by {@link InvoiceTotals}, read through the
+ * <tt>InvoiceSummaryForPropertyDueDateStatus</tt> and
+ * <tt>InvoiceSummaryForPropertyDueDate</tt> views.
+ */
+@javax.jdo.annotations.PersistenceCapable(identityType = IdentityType.DATASTORE)
+@javax.jdo.annotations.DatastoreIdentity(
+        strategy = IdGeneratorStrategy.NATIVE,
+        column = "id")
+@javax.jdo.annotations.Uniques({
+        @javax.jdo.annotations.Unique(
+                name = "InvoiceTotalForPropertyDueDateStatus_reference_dueDate_status_UNQ",
+                members = { "reference", "dueDate", "status" })
+})
+@javax.jdo.annotations.Queries({
+        @javax.jdo.annotations.Query(
+                name = "findByReferenceAndDueDate", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.invoice.summary.InvoiceTotalForPropertyDueDateStatus "
+                        + "WHERE reference == :reference "
+                        + "&& dueDate == :dueDate")
+})
+@DomainObject(editing = Editing.DISABLED)
+public class InvoiceTotalForPropertyDueDateStatus {
+
+    private String reference;
+
+    @javax.jdo.annotations.Column(allowsNull = "false", length = JdoColumnLength.REFERENCE)
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(final String reference) {
+        this.reference = reference;
+    }
+
+    // //////////////////////////////////////
+
+    private LocalDate dueDate;
+
+    @javax.jdo.annotations.Column(allowsNull = "false")
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(final LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    // //////////////////////////////////////
+
+    private InvoiceStatus status;
+
+    @javax.jdo.annotations.Column(allowsNull = "false", length = JdoColumnLength.STATUS_ENUM)
+    public InvoiceStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(final InvoiceStatus status) {
+        this.status = status;
+    }
+
+    // //////////////////////////////////////
+
+    private int total;
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(final int total) {
+        this.total = total;
+    }
+
+    // //////////////////////////////////////
+
+    private BigDecimal netAmount;
+
+    @javax.jdo.annotations.Column(scale = 2, allowsNull = "true")
+    public BigDecimal getNetAmount() {
+        return netAmount;
+    }
+
+    public void setNetAmount(final BigDecimal netAmount) {
+        this.netAmount = netAmount;
+    }
+
+    // //////////////////////////////////////
+
+    private BigDecimal vatAmount;
+
+    @javax.jdo.annotations.Column(scale = 2, allowsNull = "true")
+    public BigDecimal getVatAmount() {
+        return vatAmount;
+    }
+
+    public void setVatAmount(final BigDecimal vatAmount) {
+        this.vatAmount = vatAmount;
+    }
+
+    // //////////////////////////////////////
+
+    private BigDecimal grossAmount;
+
+    @javax.jdo.annotations.Column(scale = 2, allowsNull = "true")
+    public BigDecimal getGrossAmount() {
+        return grossAmount;
+    }
+
+    public void setGrossAmount(final BigDecimal grossAmount) {
+        this.grossAmount = grossAmount;
+    }
+
+}
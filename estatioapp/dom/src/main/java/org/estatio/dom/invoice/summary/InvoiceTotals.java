@@ -0,0 +1,323 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.invoice.summary;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.jdo.Query;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.query.QueryDefault;
+import org.apache.isis.applib.services.jdosupport.IsisJdoSupport;
+import org.apache.isis.applib.services.scratchpad.Scratchpad;
+
+import org.estatio.dom.TransactionCompletionService;
+import org.estatio.dom.UdoDomainService;
+import org.estatio.dom.invoice.Invoice;
+import org.estatio.dom.invoice.InvoiceItem;
+import org.estatio.dom.invoice.InvoiceStatus;
+
+/**
+ * Maintains the {@link InvoiceTotalForPropertyDueDateStatus} and
+ * {@link InvoiceTotalForInvoiceRun} tables behind the invoice summaries.
+ *
+ * <p>
+ * Whatever changes an invoice or its items {@link #markStale(Invoice) marks}
+ * its keys as stale, by inserting a row of its own rather than updating the
+ * shared totals, so that concurrent transactions never contend on them. Once
+ * such a transaction has committed, the totals of the stale keys (and only
+ * those) are {@link #refreshStale() recalculated} in a transaction of their
+ * own, by a single background worker; the summaries themselves only read the
+ * totals.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class InvoiceTotals extends UdoDomainService<InvoiceTotals> {
+
+    public InvoiceTotals() {
+        super(InvoiceTotals.class);
+    }
+
+    /**
+     * Set once a transaction marking keys as stale has committed; initially
+     * set, to pick up any keys left stale when last shut down.
+     */
+    private final AtomicBoolean refreshRequested = new AtomicBoolean(true);
+
+    // //////////////////////////////////////
+
+    /**
+     * To be called <i>before</i> changing the due date, the run or the
+     * status of the invoice, and whenever its items change; only the first
+     * call for the same keys within an interaction has any effect.
+     */
+    @Programmatic
+    public void markStale(final Invoice invoice) {
+        if (invoice == null || invoice.getLease() == null || invoice.getFixedAsset() == null || invoice.getDueDate() == null) {
+            // not summarized
+            return;
+        }
+        final String reference = invoice.getFixedAsset().getReference();
+        final List<Object> scratchpadKey = Arrays.<Object>asList(InvoiceTotals.class, reference, invoice.getDueDate(), invoice.getRunId());
+        if (scratchpad.get(scratchpadKey) != null) {
+            return;
+        }
+        scratchpad.put(scratchpadKey, Boolean.TRUE);
+        final InvoiceTotalsStaleKey staleKey = getContainer().newTransientInstance(InvoiceTotalsStaleKey.class);
+        staleKey.setReference(reference);
+        staleKey.setDueDate(invoice.getDueDate());
+        staleKey.setRunId(invoice.getRunId());
+        getContainer().persistIfNotAlready(staleKey);
+        transactionCompletionService.afterCommit(new Runnable() {
+            @Override
+            public void run() {
+                refreshRequested.set(true);
+            }
+        });
+    }
+
+    /**
+     * Whether any keys have been marked as stale since last called.
+     */
+    @Programmatic
+    public boolean takeRefreshRequest() {
+        return refreshRequested.getAndSet(false);
+    }
+
+    /**
+     * To be called should a refresh have failed, to have it tried again.
+     */
+    @Programmatic
+    public void requestRefresh() {
+        refreshRequested.set(true);
+    }
+
+    /**
+     * Recalculates the totals of all stale keys.
+     *
+     * <p>
+     * Only the stale keys read here are cleared; keys marked by transactions
+     * still in progress are left for the next refresh.
+     */
+    @Programmatic
+    public void refreshStale() {
+        final List<InvoiceTotalsStaleKey> staleKeys = getContainer().allInstances(InvoiceTotalsStaleKey.class);
+        if (staleKeys.isEmpty()) {
+            return;
+        }
+        final Set<List<Object>> propertyDueDates = Sets.newLinkedHashSet();
+        final Set<String> runIds = Sets.newLinkedHashSet();
+        for (InvoiceTotalsStaleKey staleKey : staleKeys) {
+            propertyDueDates.add(Arrays.<Object>asList(staleKey.getReference(), staleKey.getDueDate()));
+            if (staleKey.getRunId() != null) {
+                runIds.add(staleKey.getRunId());
+            }
+        }
+        for (List<Object> propertyDueDate : propertyDueDates) {
+            refresh((String) propertyDueDate.get(0), (LocalDate) propertyDueDate.get(1));
+        }
+        for (String runId : runIds) {
+            refresh(runId);
+        }
+        for (InvoiceTotalsStaleKey staleKey : staleKeys) {
+            getContainer().remove(staleKey);
+        }
+    }
+
+    /**
+     * Recalculates the totals of a run still in progress within its own
+     * transaction, to show them straight away; no other transaction can see
+     * the (new) run, hence its totals, until it commits.
+     */
+    @Programmatic
+    public void refreshRun(final String runId) {
+        if (runId != null) {
+            getContainer().flush();
+            refresh(runId);
+            getContainer().flush();
+        }
+    }
+
+    /**
+     * Recalculates all totals from scratch.
+     */
+    @Programmatic
+    public void rebuild() {
+        for (InvoiceTotalsStaleKey staleKey : getContainer().allInstances(InvoiceTotalsStaleKey.class)) {
+            getContainer().remove(staleKey);
+        }
+        for (InvoiceTotalForPropertyDueDateStatus total : getContainer().allInstances(InvoiceTotalForPropertyDueDateStatus.class)) {
+            getContainer().remove(total);
+        }
+        for (InvoiceTotalForInvoiceRun total : getContainer().allInstances(InvoiceTotalForInvoiceRun.class)) {
+            getContainer().remove(total);
+        }
+        getContainer().flush();
+
+        for (Object[] propertyDueDate : this.<Object[]>distinct(
+                "SELECT DISTINCT fixedAsset.reference, dueDate FROM org.estatio.dom.invoice.Invoice WHERE lease != null")) {
+            refresh((String) propertyDueDate[0], (LocalDate) propertyDueDate[1]);
+        }
+        for (String runId : this.<String>distinct(
+                "SELECT DISTINCT runId FROM org.estatio.dom.invoice.Invoice WHERE lease != null && fixedAsset != null && runId != null")) {
+            refresh(runId);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> distinct(final String jdoql) {
+        final Query query = isisJdoSupport.getJdoPersistenceManager().newQuery(jdoql);
+        try {
+            return Lists.newArrayList((List<T>) query.execute());
+        } finally {
+            query.closeAll();
+        }
+    }
+
+    // //////////////////////////////////////
+
+    private void refresh(final String reference, final LocalDate dueDate) {
+        final Map<InvoiceStatus, Totals> totalsByStatus = new EnumMap<>(InvoiceStatus.class);
+        for (InvoiceItem item : getContainer().allMatches(new QueryDefault<>(InvoiceItem.class,
+                "findByInvoicePropertyReferenceAndDueDate",
+                "reference", reference,
+                "dueDate", dueDate))) {
+            final InvoiceStatus status = item.getInvoice().getStatus();
+            Totals totals = totalsByStatus.get(status);
+            if (totals == null) {
+                totals = new Totals();
+                totalsByStatus.put(status, totals);
+            }
+            totals.add(item);
+        }
+        for (InvoiceTotalForPropertyDueDateStatus row : getContainer().allMatches(new QueryDefault<>(InvoiceTotalForPropertyDueDateStatus.class,
+                "findByReferenceAndDueDate",
+                "reference", reference,
+                "dueDate", dueDate))) {
+            final Totals totals = totalsByStatus.remove(row.getStatus());
+            if (totals == null) {
+                getContainer().remove(row);
+            } else {
+                totals.copyTo(row);
+            }
+        }
+        for (Map.Entry<InvoiceStatus, Totals> entry : totalsByStatus.entrySet()) {
+            final InvoiceTotalForPropertyDueDateStatus row = getContainer().newTransientInstance(InvoiceTotalForPropertyDueDateStatus.class);
+            row.setReference(reference);
+            row.setDueDate(dueDate);
+            row.setStatus(entry.getKey());
+            entry.getValue().copyTo(row);
+            getContainer().persistIfNotAlready(row);
+        }
+    }
+
+    private void refresh(final String runId) {
+        final Totals totals = new Totals();
+        for (InvoiceItem item : getContainer().allMatches(new QueryDefault<>(InvoiceItem.class,
+                "findByInvoiceRunId",
+                "runId", runId))) {
+            totals.add(item);
+        }
+        InvoiceTotalForInvoiceRun row = getContainer().firstMatch(new QueryDefault<>(InvoiceTotalForInvoiceRun.class,
+                "findByRunId",
+                "runId", runId));
+        if (totals.isEmpty()) {
+            if (row != null) {
+                getContainer().remove(row);
+            }
+            return;
+        }
+        if (row == null) {
+            row = getContainer().newTransientInstance(InvoiceTotalForInvoiceRun.class);
+            row.setRunId(runId);
+        }
+        row.setTotal(totals.numberOfInvoices());
+        row.setNetAmount(totals.netAmount);
+        row.setVatAmount(totals.vatAmount);
+        row.setGrossAmount(totals.grossAmount);
+        getContainer().persistIfNotAlready(row);
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * As the (former) views aggregated them: the number of distinct invoices
+     * and the sums of their items' amounts, ignoring <tt>null</tt>s.
+     */
+    static class Totals {
+
+        private final Set<Invoice> invoices = Sets.newHashSet();
+        private BigDecimal netAmount;
+        private BigDecimal vatAmount;
+        private BigDecimal grossAmount;
+
+        void add(final InvoiceItem item) {
+            invoices.add(item.getInvoice());
+            netAmount = sum(netAmount, item.getNetAmount());
+            vatAmount = sum(vatAmount, item.getVatAmount());
+            grossAmount = sum(grossAmount, item.getGrossAmount());
+        }
+
+        private static BigDecimal sum(final BigDecimal total, final BigDecimal amount) {
+            if (amount == null) {
+                return total;
+            }
+            return total == null ? amount : total.add(amount);
+        }
+
+        boolean isEmpty() {
+            return invoices.isEmpty();
+        }
+
+        int numberOfInvoices() {
+            return invoices.size();
+        }
+
+        void copyTo(final InvoiceTotalForPropertyDueDateStatus row) {
+            row.setTotal(numberOfInvoices());
+            row.setNetAmount(netAmount);
+            row.setVatAmount(vatAmount);
+            row.setGrossAmount(grossAmount);
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    private Scratchpad scratchpad;
+
+    @javax.inject.Inject
+    private IsisJdoSupport isisJdoSupport;
+
+    @javax.inject.Inject
+    private TransactionCompletionService transactionCompletionService;
+
+}
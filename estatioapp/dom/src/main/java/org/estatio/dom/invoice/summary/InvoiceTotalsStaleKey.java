@@ -0,0 +1,84 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.invoice.summary;
+
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.IdentityType;
+
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.annotation.DomainObject;
+import org.apache.isis.applib.annotation.Editing;
+
+import org.estatio.dom.JdoColumnLength;
+
+/**
+ * Records that the invoices of a property and due date (and of a run) have
+ * changed since their {@link InvoiceTotals totals} were last calculated.
+ *
+ * <p>
+ * Written in the same transaction as the change, so that the totals can
+ * never be read as up-to-date while they are not; there may be several for
+ * the same key.
+ */
+@javax.jdo.annotations.PersistenceCapable(identityType = IdentityType.DATASTORE)
+@javax.jdo.annotations.DatastoreIdentity(
+        strategy = IdGeneratorStrategy.NATIVE,
+        column = "id")
+@DomainObject(editing = Editing.DISABLED)
+public class InvoiceTotalsStaleKey {
+
+    private String reference;
+
+    @javax.jdo.annotations.Column(allowsNull = "false", length = JdoColumnLength.REFERENCE)
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(final String reference) {
+        this.reference = reference;
+    }
+
+    // //////////////////////////////////////
+
+    private LocalDate dueDate;
+
+    @javax.jdo.annotations.Column(allowsNull = "false")
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(final LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    // //////////////////////////////////////
+
+    private String runId;
+
+    @javax.jdo.annotations.Column(allowsNull = "true")
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(final String runId) {
+        this.runId = runId;
+    }
+
+}
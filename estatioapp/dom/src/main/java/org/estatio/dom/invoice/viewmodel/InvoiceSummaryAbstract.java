@@ -29,8 +29,10 @@ import org.apache.isis.applib.annotation.Render;
 import org.apache.isis.applib.annotation.Render.Type;
 
 import org.estatio.app.EstatioViewModel;
+import org.estatio.dom.invoice.CollectionNumerators;
 import org.estatio.dom.invoice.Invoice;
 import org.estatio.dom.invoice.Invoices;
+import org.estatio.dom.numerator.Numerator;
 
 public abstract class InvoiceSummaryAbstract extends EstatioViewModel {
 
@@ -44,8 +46,14 @@ public abstract class InvoiceSummaryAbstract extends EstatioViewModel {
     public Object collectAll(
             final @Named("Are you sure?") Boolean confirm
             ) {
-        for (Invoice invoice : getInvoices()) {
-            invoice.doCollect();
+        final List<Invoice> invoices = getInvoices();
+        final List<Numerator> numerators = collectionNumerators.reserveCollectionNumbers(invoices);
+        try {
+            for (Invoice invoice : invoices) {
+                invoice.doCollect();
+            }
+        } finally {
+            collectionNumerators.release(numerators);
         }
         return this;
     }
@@ -54,8 +62,14 @@ public abstract class InvoiceSummaryAbstract extends EstatioViewModel {
             final @Named("Invoice Date") LocalDate invoiceDate,
             final @Named("Are you sure?") Boolean confirm
             ) {
-        for (Invoice invoice : getInvoices()) {
-            invoice.doInvoice(invoiceDate);
+        final List<Invoice> invoices = getInvoices();
+        final List<Numerator> numerators = collectionNumerators.reserveInvoiceNumbers(invoices);
+        try {
+            for (Invoice invoice : invoices) {
+                invoice.doInvoice(invoiceDate);
+            }
+        } finally {
+            collectionNumerators.release(numerators);
         }
         return this;
     }
@@ -65,26 +79,31 @@ public abstract class InvoiceSummaryAbstract extends EstatioViewModel {
     }
 
     public Object removeAll(final @Named("Confirm") Boolean confirm) {
-        for (Invoice invoice : getInvoices()) {
-            invoice.remove();
-        }
+        removeInvoices(false);
         return this;
     }
 
     @Prototype
     public Object zapAll(final @Named("Confirm") Boolean confirm) {
-        for (Invoice invoice : getInvoices()) {
-            invoice.doRemove();
-        }
+        removeInvoices(true);
         return this;
     }
 
     @Render(Type.EAGERLY)
     public abstract List<Invoice> getInvoices();
 
+    /**
+     * Removes (or zaps) the {@link #getInvoices() invoices} in bulk, using
+     * {@link Invoices#removeInvoices(String, boolean)} or one of its overloads.
+     */
+    protected abstract void removeInvoices(boolean zap);
+
     // //////////////////////////////////////
 
     @Inject
     protected Invoices invoicesService;
 
+    @Inject
+    protected CollectionNumerators collectionNumerators;
+
 }
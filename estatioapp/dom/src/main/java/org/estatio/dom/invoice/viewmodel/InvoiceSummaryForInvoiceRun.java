@@ -55,22 +55,12 @@ import org.estatio.dom.invoice.Invoice;
                                 "  {this.grossAmount} " +
                                 ") AS " +
                                 "SELECT " +
-                                "   \"Invoice\".\"runId\" , " +
-                                "   COUNT(DISTINCT(\"Invoice\".\"id\")) AS \"total\", " +
-                                "   SUM(\"InvoiceItem\".\"netAmount\") AS \"netAmount\", " +
-                                "   SUM(\"InvoiceItem\".\"vatAmount\") AS \"vatAmount\", " +
-                                "   SUM(\"InvoiceItem\".\"grossAmount\") AS \"grossAmount\" " +
-                                "FROM \"Invoice\" " +
-                                "  INNER JOIN \"Lease\"   " +
-                                "    ON \"Invoice\".\"leaseId\" = \"Lease\".\"id\" " +
-                                "  INNER JOIN \"FixedAsset\"  " +
-                                "    ON \"FixedAsset\".\"id\"  = \"Invoice\".\"fixedAssetId\" " +
-                                "  INNER JOIN \"InvoiceItem\" " +
-                                "    ON \"InvoiceItem\".\"invoiceId\" = \"Invoice\".\"id\" " +
-                                "WHERE " +
-                                "   NOT \"Invoice\".\"runId\" IS NULL " +
-                                "GROUP BY " +
-                                "   \"Invoice\".\"runId\"")
+                                "   \"runId\", " +
+                                "   \"total\", " +
+                                "   \"netAmount\", " +
+                                "   \"vatAmount\", " +
+                                "   \"grossAmount\" " +
+                                "FROM \"InvoiceTotalForInvoiceRun\"")
         })
 @javax.jdo.annotations.Queries({
         @javax.jdo.annotations.Query(
@@ -165,4 +155,9 @@ public class InvoiceSummaryForInvoiceRun extends InvoiceSummaryAbstract {
         return findInvoicesByRunId;
     }
 
+    @Override
+    protected void removeInvoices(final boolean zap) {
+        invoicesService.removeInvoices(runId, zap);
+    }
+
 }
@@ -61,22 +61,16 @@ import org.estatio.dom.invoice.Invoice;
                                 "  {this.grossAmount} " +
                                 ") AS " +
                                 "SELECT " +
-                                "   \"FixedAsset\".\"reference\" , " +
-                                "   \"Invoice\".\"dueDate\", " +
-                                "   COUNT(DISTINCT(\"Invoice\".\"id\")) AS \"total\", " +
-                                "   SUM(\"InvoiceItem\".\"netAmount\") AS \"netAmount\", " +
-                                "   SUM(\"InvoiceItem\".\"vatAmount\") AS \"vatAmount\", " +
-                                "   SUM(\"InvoiceItem\".\"grossAmount\") AS \"grossAmount\" " +
-                                "  FROM \"Invoice\" " +
-                                "  INNER JOIN \"Lease\"   " +
-                                "    ON \"Invoice\".\"leaseId\" = \"Lease\".\"id\" " +
-                                "  INNER JOIN \"FixedAsset\"  " +
-                                "    ON \"FixedAsset\".\"id\"  = \"Invoice\".\"fixedAssetId\" " +
-                                "  INNER JOIN \"InvoiceItem\" " +
-                                "    ON \"InvoiceItem\".\"invoiceId\" = \"Invoice\".\"id\" " +
+                                "   \"reference\", " +
+                                "   \"dueDate\", " +
+                                "   SUM(\"total\") AS \"total\", " +
+                                "   SUM(\"netAmount\") AS \"netAmount\", " +
+                                "   SUM(\"vatAmount\") AS \"vatAmount\", " +
+                                "   SUM(\"grossAmount\") AS \"grossAmount\" " +
+                                "FROM \"InvoiceTotalForPropertyDueDateStatus\" " +
                                 "GROUP BY " +
-                                " \"FixedAsset\".\"reference\", " +
-                                " \"Invoice\".\"dueDate\"")
+                                " \"reference\", " +
+                                " \"dueDate\"")
         })
 @javax.jdo.annotations.Queries({
         @javax.jdo.annotations.Query(
@@ -213,6 +207,11 @@ public class InvoiceSummaryForPropertyDueDate extends InvoiceSummaryAbstract {
         return invoicesService.findInvoices(getProperty(), getDueDate());
     }
 
+    @Override
+    protected void removeInvoices(final boolean zap) {
+        invoicesService.removeInvoices(getProperty(), getDueDate(), null, zap);
+    }
+
     // //////////////////////////////////////
 
     @Inject
@@ -58,24 +58,14 @@ import org.estatio.dom.invoice.InvoiceStatus;
                                 "  {this.grossAmount} " +
                                 ") AS " +
                                 "SELECT " +
-                                "  \"FixedAsset\".\"reference\" , " +
-                                "  \"Invoice\".\"dueDate\", " +
-                                "  \"Invoice\".\"status\", " +
-                                "  COUNT(DISTINCT(\"Invoice\".\"id\")) AS \"total\", " +
-                                "   SUM(\"InvoiceItem\".\"netAmount\") AS \"netAmount\", " +
-                                "   SUM(\"InvoiceItem\".\"vatAmount\") AS \"vatAmount\", " +
-                                "   SUM(\"InvoiceItem\".\"grossAmount\") AS \"grossAmount\" " +
-                                "FROM \"Invoice\" " +
-                                "  INNER JOIN \"Lease\" " +
-                                "    ON \"Lease\".\"id\" = \"Invoice\".\"leaseId\" " +
-                                "  INNER JOIN \"FixedAsset\"  " +
-                                "    ON \"FixedAsset\".\"id\"  = \"Invoice\".\"fixedAssetId\" " +
-                                "  INNER JOIN \"InvoiceItem\" " +
-                                "    ON \"InvoiceItem\".\"invoiceId\" = \"Invoice\".\"id\" " +
-                                "GROUP BY " +
-                                "  \"FixedAsset\".\"reference\", " +
-                                "  \"Invoice\".\"dueDate\", " +
-                                "  \"Invoice\".\"status\"")
+                                "  \"reference\", " +
+                                "  \"dueDate\", " +
+                                "  \"status\", " +
+                                "  \"total\", " +
+                                "  \"netAmount\", " +
+                                "  \"vatAmount\", " +
+                                "  \"grossAmount\" " +
+                                "FROM \"InvoiceTotalForPropertyDueDateStatus\"")
         })
 @javax.jdo.annotations.Queries({
         @javax.jdo.annotations.Query(
@@ -215,6 +205,11 @@ public class InvoiceSummaryForPropertyDueDateStatus extends InvoiceSummaryAbstra
         return invoicesService.findInvoices(getProperty(), getDueDate(), getStatus());
     }
 
+    @Override
+    protected void removeInvoices(final boolean zap) {
+        invoicesService.removeInvoices(getProperty(), getDueDate(), getStatus(), zap);
+    }
+
     // //////////////////////////////////////
 
     @Inject
@@ -0,0 +1,87 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.LocalDate;
+
+import org.estatio.dom.lease.invoicing.InvoiceCalculationService.CalculationResult;
+import org.estatio.dom.valuetypes.LocalDateInterval;
+
+/**
+ * The contractual rent of a {@link Lease}, that is the rent calculated for its
+ * {@link LeaseItemType#RENT rent items} over the two years from a start date,
+ * as used by the {@link LeaseTermForTurnoverRent turnover rent terms}.
+ *
+ * <p>
+ * The calculation results are kept per start date, so the turnover rent terms
+ * of the lease starting on the same date calculate the rent only once. A lease
+ * {@link Lease#holdContractualRentProjection() holds on} to its projection for
+ * the duration of a batch (such as a turnover upload), and clears it when any
+ * of its rent terms is aligned or re-dated.
+ */
+public final class ContractualRentProjection {
+
+    private final Lease lease;
+    private final Map<LocalDate, List<CalculationResult>> resultsByStartDate = new HashMap<>();
+
+    public ContractualRentProjection(final Lease lease) {
+        this.lease = lease;
+    }
+
+    /**
+     * The rent of the invoicing intervals within the interval, calculated from
+     * its start date.
+     */
+    public BigDecimal contractualRent(final LocalDateInterval interval) {
+        BigDecimal contractualRent = BigDecimal.ZERO;
+        // TODO: do prorata when intervals don't match
+        for (CalculationResult result : calculationResults(interval.startDate())) {
+            if (interval.contains(result.invoicingInterval().asLocalDateInterval())) {
+                contractualRent = contractualRent.add(result.value());
+            }
+        }
+        return contractualRent;
+    }
+
+    private List<CalculationResult> calculationResults(final LocalDate startDate) {
+        List<CalculationResult> calculationResults = resultsByStartDate.get(startDate);
+        if (calculationResults == null) {
+            calculationResults = new ArrayList<>();
+            for (LeaseItem rentItem : lease.findItemsOfType(LeaseItemType.RENT)) {
+                calculationResults.addAll(rentItem.calculationResults(
+                        rentItem.getInvoicingFrequency(),
+                        startDate,
+                        startDate.plusYears(2)));
+            }
+            resultsByStartDate.put(startDate, calculationResults);
+        }
+        return calculationResults;
+    }
+
+    void clear() {
+        resultsByStartDate.clear();
+    }
+
+}
@@ -33,6 +33,7 @@ import com.google.common.collect.Lists;
 
 import org.apache.commons.lang3.ObjectUtils;
 import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
 import org.joda.time.Period;
 import org.joda.time.PeriodType;
 
@@ -86,7 +87,9 @@ import org.estatio.dom.financial.bankaccount.BankAccounts;
 import org.estatio.dom.invoice.PaymentMethod;
 import org.estatio.dom.lease.breaks.BreakOption;
 import org.estatio.dom.lease.breaks.BreakOptions;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationScope;
 import org.estatio.dom.party.Party;
+import org.estatio.dom.search.SearchIndexService;
 import org.estatio.dom.utils.JodaPeriodUtils;
 import org.estatio.dom.valuetypes.LocalDateInterval;
 import org.estatio.services.clock.ClockService;
@@ -95,6 +98,11 @@ import org.estatio.services.clock.ClockService;
 @javax.jdo.annotations.Inheritance(
         strategy = InheritanceStrategy.NEW_TABLE)
 // no @DatastoreIdentity nor @Version, since inherited from supertype
+@javax.jdo.annotations.Indices({
+        @javax.jdo.annotations.Index(
+                name = "Lease_status_tenancyEndDate_IDX",
+                members = { "status", "tenancyEndDate" })
+})
 @javax.jdo.annotations.Queries({
         @javax.jdo.annotations.Query(
                 name = "findByReference", language = "JDOQL",
@@ -116,6 +124,15 @@ import org.estatio.services.clock.ClockService;
                         + "&& (occ.unit.property == :property) "
                         + "VARIABLES "
                         + "org.estatio.dom.lease.Occupancy occ"),
+        @javax.jdo.annotations.Query(
+                name = "findByPropertyAndUpdatedOnAfter", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.Lease "
+                        + "WHERE updatedOn > :updatedOn "
+                        + "&& occupancies.contains(occ) "
+                        + "&& (occ.unit.property == :property) "
+                        + "VARIABLES "
+                        + "org.estatio.dom.lease.Occupancy occ"),
         @javax.jdo.annotations.Query(
                 name = "findByBrand", language = "JDOQL",
                 value = "SELECT "
@@ -141,7 +158,13 @@ import org.estatio.services.clock.ClockService;
                         "FROM org.estatio.dom.lease.Lease " +
                         "WHERE " +
                         "endDate != null && (endDate >= :rangeStartDate && endDate < :rangeEndDate) " +
-                        "ORDER BY endDate")
+                        "ORDER BY endDate"),
+        @javax.jdo.annotations.Query(
+                name = "findByStatusAndTenancyEndDateBefore", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.Lease "
+                        + "WHERE status == :status "
+                        + "&& tenancyEndDate != null && tenancyEndDate < :date")
 })
 @DomainObject(autoCompleteRepository = Leases.class, autoCompleteAction = "autoComplete")
 @DomainObjectLayout(bookmarking = BookmarkPolicy.AS_ROOT)
@@ -159,6 +182,26 @@ public class Lease
         setStatus(LeaseStatus.ACTIVE);
     }
 
+    public void persisting() {
+        touch();
+    }
+
+    public void updating() {
+        touch();
+    }
+
+    public void persisted() {
+        searchIndexService.indexed(this);
+    }
+
+    public void updated() {
+        searchIndexService.indexed(this);
+    }
+
+    public void removing() {
+        searchIndexService.removed(this);
+    }
+
 
     // //////////////////////////////////////
 
@@ -200,6 +243,38 @@ public class Lease
         this.status = status;
     }
 
+    // //////////////////////////////////////
+
+    private LocalDateTime updatedOn;
+
+    /**
+     * When this lease itself was last changed; its items and terms keep
+     * their own.
+     *
+     * @see org.estatio.dom.lease.invoicing.InvoiceCalculationService#calculateAndInvoiceIncrementally(org.estatio.dom.lease.invoicing.InvoiceCalculationParameters)
+     */
+    @javax.jdo.annotations.Column(allowsNull = "true")
+    @Hidden
+    public LocalDateTime getUpdatedOn() {
+        return updatedOn;
+    }
+
+    public void setUpdatedOn(final LocalDateTime updatedOn) {
+        this.updatedOn = updatedOn;
+    }
+
+    /**
+     * Records the change, unless made by an invoice run itself.
+     * 
+     * @see InvoiceCalculationScope
+     */
+    @Programmatic
+    public void touch() {
+        if (!InvoiceCalculationScope.isActive()) {
+            setUpdatedOn(getClockService().nowAsLocalDateTime());
+        }
+    }
+
     @Programmatic
     public void resolveStatus(final String reason) {
         final LeaseStatus effectiveStatus = getEffectiveStatus();
@@ -522,6 +597,47 @@ public class Lease
 
     // //////////////////////////////////////
 
+    /**
+     * The contractual rent held on to for a batch, <tt>null</tt> outside of
+     * one.
+     */
+    @javax.jdo.annotations.NotPersistent
+    private ContractualRentProjection contractualRentProjection;
+
+    /**
+     * The contractual rent of this lease: the projection held on to for the
+     * current batch, if any, else a new one.
+     */
+    @Programmatic
+    public ContractualRentProjection contractualRentProjection() {
+        return contractualRentProjection != null ? contractualRentProjection : new ContractualRentProjection(this);
+    }
+
+    /**
+     * Holds on to the contractual rent until
+     * {@link #releaseContractualRentProjection() released}, so the turnover
+     * rent terms aligned in between calculate the rent once per start date.
+     */
+    @Programmatic
+    public void holdContractualRentProjection() {
+        if (contractualRentProjection == null) {
+            contractualRentProjection = new ContractualRentProjection(this);
+        }
+    }
+
+    @Programmatic
+    public void releaseContractualRentProjection() {
+        contractualRentProjection = null;
+    }
+
+    void rentTermsChanged() {
+        if (contractualRentProjection != null) {
+            contractualRentProjection.clear();
+        }
+    }
+
+    // //////////////////////////////////////
+
     @javax.jdo.annotations.Persistent(mappedBy = "lease")
     private SortedSet<BreakOption> breakOptions = new TreeSet<BreakOption>();
 
@@ -1033,4 +1149,7 @@ public class Lease
     @Inject
     ClockService clockService;
 
+    @Inject
+    SearchIndexService searchIndexService;
+
 }
@@ -36,6 +36,7 @@ import com.google.common.base.Predicate;
 
 import org.apache.commons.lang3.ObjectUtils;
 import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
 
 import org.apache.isis.applib.Identifier;
 import org.apache.isis.applib.annotation.Action;
@@ -69,6 +70,7 @@ import org.estatio.dom.apptenancy.WithApplicationTenancyPropertyLocal;
 import org.estatio.dom.charge.Charge;
 import org.estatio.dom.charge.Charges;
 import org.estatio.dom.invoice.PaymentMethod;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationScope;
 import org.estatio.dom.lease.invoicing.InvoiceCalculationService.CalculationResult;
 import org.estatio.dom.tax.Tax;
 import org.estatio.dom.valuetypes.LocalDateInterval;
@@ -98,9 +100,22 @@ import org.estatio.dom.valuetypes.LocalDateInterval;
                 members = { "lease", "type", "sequence" }),
         @javax.jdo.annotations.Index(
                 name = "LeaseItem_lease_type_startDate_IDX",
-                members = { "lease", "type", "startDate" })
+                members = { "lease", "type", "startDate" }),
+        @javax.jdo.annotations.Index(
+                name = "LeaseItem_status_endDate_IDX",
+                members = { "status", "endDate" })
 })
 @javax.jdo.annotations.Queries({
+        @javax.jdo.annotations.Query(
+                name = "findByPropertyAndUpdatedOnAfter",
+                language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.LeaseItem "
+                        + "WHERE updatedOn > :updatedOn "
+                        + "&& lease.occupancies.contains(occ) "
+                        + "&& (occ.unit.property == :property) "
+                        + "VARIABLES "
+                        + "org.estatio.dom.lease.Occupancy occ"),
         @javax.jdo.annotations.Query(
                 name = "findByLeaseAndTypeAndStartDateAndSequence",
                 language = "JDOQL",
@@ -126,7 +141,14 @@ import org.estatio.dom.valuetypes.LocalDateInterval;
                         + "WHERE lease == :lease "
                         + "&& type == :type "
                         + "&& charge == :charge "
-                        + "ORDER BY sequence ")
+                        + "ORDER BY sequence "),
+        @javax.jdo.annotations.Query(
+                name = "findByStatusAndEndDateBefore",
+                language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.LeaseItem "
+                        + "WHERE status == :status "
+                        + "&& endDate != null && endDate < :date")
 })
 @Unique(name = "LeaseItem_lease_type_startDate_sequence_IDX", members = { "lease", "type", "startDate", "sequence" })
 @DomainObject(editing = Editing.DISABLED)
@@ -151,6 +173,47 @@ public class LeaseItem
 
     // //////////////////////////////////////
 
+    public void persisting() {
+        touch();
+    }
+
+    public void updating() {
+        touch();
+    }
+
+    // //////////////////////////////////////
+
+    private LocalDateTime updatedOn;
+
+    /**
+     * When this item was last changed.
+     *
+     * @see org.estatio.dom.lease.invoicing.InvoiceCalculationService#calculateAndInvoiceIncrementally(org.estatio.dom.lease.invoicing.InvoiceCalculationParameters)
+     */
+    @javax.jdo.annotations.Column(allowsNull = "true")
+    @Hidden
+    public LocalDateTime getUpdatedOn() {
+        return updatedOn;
+    }
+
+    public void setUpdatedOn(final LocalDateTime updatedOn) {
+        this.updatedOn = updatedOn;
+    }
+
+    /**
+     * Records the change, unless made by an invoice run itself.
+     * 
+     * @see InvoiceCalculationScope
+     */
+    @Programmatic
+    public void touch() {
+        if (!InvoiceCalculationScope.isActive()) {
+            setUpdatedOn(getClockService().nowAsLocalDateTime());
+        }
+    }
+
+    // //////////////////////////////////////
+
     private String applicationTenancyPath;
 
     @javax.jdo.annotations.Column(
@@ -232,6 +295,7 @@ public class LeaseItem
             canDelete = getTerms().first().doRemove();
         }
         if (canDelete) {
+            getLease().touch();
             getContainer().remove(this);
             getContainer().flush();
         }
@@ -596,12 +660,35 @@ public class LeaseItem
 
     @Programmatic
     public LeaseTerm currentTerm(final LocalDate date) {
-        for (LeaseTerm term : getTerms()) {
-            if (term.isActiveOn(date)) {
-                return term;
-            }
+        LeaseTermIntervalIndex index = termIntervalIndex;
+        if (index == null || !index.isOf(getTerms())) {
+            index = new LeaseTermIntervalIndex(getTerms());
+            termIntervalIndex = index;
+        }
+        return index.currentTerm(date);
+    }
+
+    /**
+     * The {@link #getTerms() terms} by interval, built on first use and
+     * discarded whenever a term is re-dated or re-sequenced (see
+     * {@link #termsChanged()}) or the number of terms no longer matches.
+     */
+    @javax.jdo.annotations.NotPersistent
+    private LeaseTermIntervalIndex termIntervalIndex;
+
+    void termsChanged() {
+        termIntervalIndex = null;
+        termValuesChanged();
+    }
+
+    /**
+     * Clears the contractual rent the lease may hold on to when a term of a
+     * rent item changes.
+     */
+    void termValuesChanged() {
+        if (type == LeaseItemType.RENT && lease != null) {
+            lease.rentTermsChanged();
         }
-        return null;
     }
 
     // //////////////////////////////////////
@@ -26,6 +26,7 @@ import javax.inject.Inject;
 import com.google.common.collect.Iterables;
 
 import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
 
 import org.apache.isis.applib.annotation.Action;
 import org.apache.isis.applib.annotation.DomainService;
@@ -43,6 +44,7 @@ import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.estatio.dom.Dflt;
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
 import org.estatio.dom.apptenancy.ApplicationTenancyRepository;
+import org.estatio.dom.asset.Property;
 import org.estatio.dom.charge.Charge;
 import org.estatio.dom.charge.Charges;
 import org.estatio.dom.invoice.PaymentMethod;
@@ -166,6 +168,19 @@ public class LeaseItems extends UdoDomainRepositoryAndFactory<LeaseItem> {
         return firstMatch("findByLeaseAndTypeAndCharge", "lease", lease, "type", type, "charge", charge);
     }
 
+    @Programmatic
+    public List<LeaseItem> findByPropertyUpdatedAfter(final Property property, final LocalDateTime updatedOn) {
+        return allMatches("findByPropertyAndUpdatedOnAfter", "property", property, "updatedOn", updatedOn);
+    }
+
+    /**
+     * The items with the status that ended before the date.
+     */
+    @Programmatic
+    public List<LeaseItem> findByStatusAndEndDateBefore(final LeaseItemStatus status, final LocalDate date) {
+        return allMatches("findByStatusAndEndDateBefore", "status", status, "date", date);
+    }
+
 
     // //////////////////////////////////////
 
@@ -29,10 +29,12 @@ import javax.jdo.annotations.IdentityType;
 import javax.jdo.annotations.InheritanceStrategy;
 import javax.jdo.annotations.Persistent;
 import javax.jdo.annotations.VersionStrategy;
+import com.google.common.collect.Lists;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
 import org.apache.isis.applib.annotation.Action;
 import org.apache.isis.applib.annotation.BookmarkPolicy;
 import org.apache.isis.applib.annotation.CollectionLayout;
@@ -60,6 +62,7 @@ import org.estatio.dom.WithSequence;
 import org.estatio.dom.apptenancy.WithApplicationTenancyPropertyLocal;
 import org.estatio.dom.invoice.InvoiceSource;
 import org.estatio.dom.lease.invoicing.InvoiceCalculationParameters;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationScope;
 import org.estatio.dom.lease.invoicing.InvoiceCalculationService;
 import org.estatio.dom.lease.invoicing.InvoiceCalculationService.CalculationResult;
 import org.estatio.dom.lease.invoicing.InvoiceItemForLease;
@@ -122,7 +125,15 @@ import org.estatio.dom.valuetypes.LocalDateInterval;
                         + "FROM org.estatio.dom.lease.LeaseTerm "
                         + "WHERE status == :status "
                         + "&& startDate <= :date "
-                        + "&& (endDate == null || endDate > :date )")
+                        + "&& (endDate == null || endDate > :date )"),
+        @javax.jdo.annotations.Query(
+                name = "findByPropertyAndUpdatedOnAfter", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.LeaseTerm "
+                        + "WHERE updatedOn > :updatedOn "
+                        + "   && leaseItem.lease.occupancies.contains(lu) "
+                        + "   && (lu.unit.property == :property) "
+                        + "VARIABLES org.estatio.dom.lease.Occupancy lu")
 })
 @DomainObjectLayout(bookmarking = BookmarkPolicy.AS_CHILD)
 @DomainObject(editing = Editing.DISABLED)
@@ -137,6 +148,49 @@ public abstract class LeaseTerm
 
     // //////////////////////////////////////
 
+    public void persisting() {
+        touch();
+        termValuesChanged();
+    }
+
+    public void updating() {
+        touch();
+        termValuesChanged();
+    }
+
+    // //////////////////////////////////////
+
+    private LocalDateTime updatedOn;
+
+    /**
+     * When this term was last changed.
+     *
+     * @see org.estatio.dom.lease.invoicing.InvoiceCalculationService#calculateAndInvoiceIncrementally(org.estatio.dom.lease.invoicing.InvoiceCalculationParameters)
+     */
+    @javax.jdo.annotations.Column(allowsNull = "true")
+    @Property(hidden = Where.EVERYWHERE)
+    public LocalDateTime getUpdatedOn() {
+        return updatedOn;
+    }
+
+    public void setUpdatedOn(final LocalDateTime updatedOn) {
+        this.updatedOn = updatedOn;
+    }
+
+    /**
+     * Records the change, unless made by an invoice run itself.
+     * 
+     * @see InvoiceCalculationScope
+     */
+    @Programmatic
+    public void touch() {
+        if (!InvoiceCalculationScope.isActive()) {
+            setUpdatedOn(getClockService().nowAsLocalDateTime());
+        }
+    }
+
+    // //////////////////////////////////////
+
     public String title() {
         TitleBuffer buffer = new TitleBuffer()
                 .append(":", getContainer().titleOf(getLeaseItem()))
@@ -166,7 +220,9 @@ public abstract class LeaseTerm
     }
 
     public void setLeaseItem(final LeaseItem leaseItem) {
+        termsChanged();
         this.leaseItem = leaseItem;
+        termsChanged();
     }
 
     // //////////////////////////////////////
@@ -180,6 +236,7 @@ public abstract class LeaseTerm
 
     public void setSequence(final BigInteger sequence) {
         this.sequence = sequence;
+        termsChanged();
     }
 
     // //////////////////////////////////////
@@ -196,6 +253,7 @@ public abstract class LeaseTerm
     @Override
     public void setStartDate(final LocalDate startDate) {
         this.startDate = startDate;
+        termsChanged();
     }
 
     public void modifyStartDate(final LocalDate newStartDate) {
@@ -219,6 +277,7 @@ public abstract class LeaseTerm
 
     public void setEndDate(final LocalDate endDate) {
         this.endDate = endDate;
+        termsChanged();
     }
 
     public void modifyEndDate(final LocalDate newEndDate) {
@@ -296,6 +355,22 @@ public abstract class LeaseTerm
         return getInterval().overlap(getLeaseItem().getEffectiveInterval());
     }
 
+    /**
+     * Discards the interval index of the item (read from the field, so as not
+     * to resolve the item while the term is being loaded).
+     */
+    private void termsChanged() {
+        if (leaseItem != null) {
+            leaseItem.termsChanged();
+        }
+    }
+
+    private void termValuesChanged() {
+        if (leaseItem != null) {
+            leaseItem.termValuesChanged();
+        }
+    }
+
     // //////////////////////////////////////
 
     public boolean isCurrent() {
@@ -348,7 +423,7 @@ public abstract class LeaseTerm
     // //////////////////////////////////////
 
     @javax.jdo.annotations.Column(name = "previousLeaseTermId")
-    @javax.jdo.annotations.Persistent(mappedBy = "next")
+    @javax.jdo.annotations.Persistent(mappedBy = "next", defaultFetchGroup = "true")
     private LeaseTerm previous;
 
     @Property(hidden = Where.ALL_TABLES, optionality = Optionality.OPTIONAL)
@@ -365,6 +440,7 @@ public abstract class LeaseTerm
     // //////////////////////////////////////
 
     @javax.jdo.annotations.Column(name = "nextLeaseTermId")
+    @javax.jdo.annotations.Persistent(defaultFetchGroup = "true")
     private LeaseTerm next;
 
     @Property(hidden = Where.ALL_TABLES, optionality = Optionality.OPTIONAL)
@@ -403,21 +479,31 @@ public abstract class LeaseTerm
         return this;
     }
 
+    /**
+     * Removes this term and all terms after it, last one first, skipping
+     * those that have already been invoiced; flushes once.
+     * 
+     * @return whether this term itself was removed
+     */
     @Programmatic
     public boolean doRemove() {
-        boolean success = true;
-        if (getNext() != null) {
-            success = getNext().doRemove();
+        final List<LeaseTerm> chain = Lists.newArrayList();
+        for (LeaseTerm term = this; term != null; term = term.getNext()) {
+            chain.add(term);
         }
-        success = getInvoiceItems().size() == 0;
-        if (success) {
-            if (getPrevious() != null) {
-                getPrevious().setNext(null);
+        boolean success = true;
+        for (LeaseTerm term : Lists.reverse(chain)) {
+            success = term.getInvoiceItems().size() == 0;
+            if (success) {
+                if (term.getPrevious() != null) {
+                    term.getPrevious().setNext(null);
+                }
+                term.setPrevious(null);
+                getContainer().remove(term);
             }
-            this.setPrevious(null);
-            getContainer().remove(this);
-            getContainer().flush();
         }
+        getLeaseItem().touch();
+        getContainer().flush();
         return success;
     }
 
@@ -430,34 +516,52 @@ public abstract class LeaseTerm
         return this;
     }
 
+    /**
+     * Aligns this term and the terms after it, removing the terms after the
+     * end of the item and creating the missing ones up to the date.
+     * 
+     * <p>
+     * The chain is loaded in one go (through the terms of the item). The
+     * missing terms are created first and persisted together, with a single
+     * flush and refresh of the item; the chain is only aligned after that, so
+     * that alignment sees the up-to-date terms of the item.
+     */
     @Action(semantics = SemanticsOf.IDEMPOTENT)
     public LeaseTerm verifyUntil(final LocalDate date) {
-        LeaseTerm nextTerm = getNext();
-        boolean autoCreateTerms = getLeaseItem().getType().autoCreateTerms();
-        if (autoCreateTerms) {
-            // Remove items after the period
-            LocalDateInterval effectiveInterval = getLeaseItem().getEffectiveInterval();
-            LocalDate endDateExcluding = effectiveInterval != null ? effectiveInterval.endDateExcluding() : date;
-            if (getNext() != null && endDateExcluding != null && getNext().getStartDate().compareTo(endDateExcluding) >= 0) {
-                getNext().doRemove();
-                return this;
+        // loads the chain, including the next and previous references
+        getLeaseItem().getTerms();
+        final boolean autoCreateTerms = getLeaseItem().getType().autoCreateTerms();
+        final LocalDateInterval effectiveInterval = getLeaseItem().getEffectiveInterval();
+        final LocalDate endDateExcluding = effectiveInterval != null ? effectiveInterval.endDateExcluding() : date;
+        final LocalDate minDate = ObjectUtils.min(effectiveInterval == null ? null : effectiveInterval.endDateExcluding(), date);
+        final List<LeaseTerm> termsToAlign = Lists.newArrayList();
+        final List<LeaseTerm> newTerms = Lists.newArrayList();
+        LeaseTerm term = this;
+        while (term != null) {
+            LeaseTerm nextTerm = term.getNext();
+            if (autoCreateTerms) {
+                // Remove items after the period
+                if (nextTerm != null && endDateExcluding != null && nextTerm.getStartDate().compareTo(endDateExcluding) >= 0) {
+                    nextTerm.doRemove();
+                    break;
+                }
             }
-        }
-        align();
-        if (autoCreateTerms) {
-            // convenience code to automatically create terms but not for terms
-            // who have a start date after today
-            LocalDateInterval effectiveInterval = getLeaseItem().getEffectiveInterval();
-            LocalDate minDate = ObjectUtils.min(effectiveInterval == null ? null : effectiveInterval.endDateExcluding(), date);
-            LocalDate nextStartDate = nextStartDate();
-            if (nextTerm == null && nextStartDate.compareTo(minDate) < 0) {
-                LocalDate nextstartDate = default0CreateNext(null, null);
-                LocalDate nextEndDate = default1CreateNext(null, null);
-                nextTerm = createNext(nextstartDate, nextEndDate);
+            termsToAlign.add(term);
+            if (autoCreateTerms) {
+                // convenience code to automatically create terms but not for
+                // terms who have a start date after today
+                if (nextTerm == null && term.nextStartDate().compareTo(minDate) < 0) {
+                    nextTerm = term.newTransientNext();
+                    newTerms.add(nextTerm);
+                }
             }
+            term = nextTerm;
         }
-        if (nextTerm != null) {
-            nextTerm.verifyUntil(date);
+        if (!newTerms.isEmpty()) {
+            terms.persistAll(getLeaseItem(), newTerms);
+        }
+        for (LeaseTerm termToAlign : termsToAlign) {
+            termToAlign.align();
         }
         return this;
     }
@@ -486,6 +590,16 @@ public abstract class LeaseTerm
         return nextTerm;
     }
 
+    private LeaseTerm newTransientNext() {
+        final LeaseTerm nextTerm = terms.newTransientLeaseTerm(
+                getLeaseItem(),
+                this,
+                default0CreateNext(null, null),
+                default1CreateNext(null, null));
+        nextTerm.initialize();
+        return nextTerm;
+    }
+
     public String disableCreateNext(
             final LocalDate nextStartDate,
             final LocalDate nextEndDate) {
@@ -540,6 +654,7 @@ public abstract class LeaseTerm
             }
         }
         doAlign();
+        termValuesChanged();
     }
 
     /**
@@ -46,7 +46,15 @@ import org.estatio.dom.utils.MathUtils;
                 value = "SELECT "
                         + "FROM org.estatio.dom.lease.LeaseTermForIndexable "
                         + "WHERE index == :index "
-                        + "   && (baseIndexStartDate == :date || nextIndexStartDate == :date) ")
+                        + "   && (baseIndexStartDate == :date || nextIndexStartDate == :date) "),
+        @javax.jdo.annotations.Query(
+                name = "findByPropertyAndIndices", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.LeaseTermForIndexable "
+                        + "WHERE :indices.contains(index) "
+                        + "   && leaseItem.lease.occupancies.contains(lu) "
+                        + "   && (lu.unit.property == :property) "
+                        + "VARIABLES org.estatio.dom.lease.Occupancy lu")
 })
 public class LeaseTermForIndexable extends LeaseTerm implements Indexable {
 
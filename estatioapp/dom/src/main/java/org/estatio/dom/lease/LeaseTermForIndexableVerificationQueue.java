@@ -0,0 +1,265 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+
+import org.estatio.dom.UdoDomainService;
+
+/**
+ * The (index, date) combinations whose {@link LeaseTermForIndexable indexable
+ * terms} are to be verified again because an index value was published.
+ *
+ * <p>
+ * Entries are only added once the transaction which published the value has
+ * been committed (see {@link LeaseTermsForIndexable}). Publishing the same
+ * value many times (or many values of the same index and date) leaves a single
+ * entry: an entry only becomes due once it has been left alone for a
+ * {@link #KEY_SETTLE_MILLIS settle period}.
+ *
+ * <p>
+ * A key that could not be verified is enqueued again, up to
+ * {@link #KEY_MAX_ATTEMPTS a number of attempts}. The entries are held in
+ * memory: those still pending when the application stops are not verified
+ * (the terms can still be verified from the lease).
+ *
+ * <p>
+ * When {@link #KEY_ENABLED disabled} (as in the integration tests) the terms
+ * are verified in the transaction which publishes the value instead.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class LeaseTermForIndexableVerificationQueue extends UdoDomainService<LeaseTermForIndexableVerificationQueue> {
+
+    public static final String KEY_ENABLED = "estatio.indexableVerification.enabled";
+    static final String KEY_SETTLE_MILLIS = "estatio.indexableVerification.settleMillis";
+    static final String KEY_MAX_ATTEMPTS = "estatio.indexableVerification.maxAttempts";
+
+    private static final long SETTLE_MILLIS_DEFAULT = 5000L;
+    private static final int MAX_ATTEMPTS_DEFAULT = 3;
+
+    public LeaseTermForIndexableVerificationQueue() {
+        super(LeaseTermForIndexableVerificationQueue.class);
+    }
+
+    private boolean enabled = true;
+    private long settleMillis = SETTLE_MILLIS_DEFAULT;
+    private int maxAttempts = MAX_ATTEMPTS_DEFAULT;
+
+    @Programmatic
+    @PostConstruct
+    @Override
+    public void init(final Map<String, String> properties) {
+        super.init(properties);
+        enabled = isEnabled(properties);
+        final String value = properties == null ? null : properties.get(KEY_SETTLE_MILLIS);
+        if (value != null) {
+            settleMillis = Long.parseLong(value.trim());
+        }
+        final String attempts = properties == null ? null : properties.get(KEY_MAX_ATTEMPTS);
+        if (attempts != null) {
+            maxAttempts = Math.max(1, Integer.parseInt(attempts.trim()));
+        }
+    }
+
+    /**
+     * Whether the terms are to be verified in the background, according to
+     * the configuration.
+     */
+    public static boolean isEnabled(final Map<String, String> properties) {
+        final String value = properties == null ? null : properties.get(KEY_ENABLED);
+        return value == null || Boolean.parseBoolean(value.trim());
+    }
+
+    @Programmatic
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Due time (in millis) by key, in order of being due; guarded by
+     * <tt>this</tt>.
+     */
+    private final LinkedHashMap<Key, Long> pending = new LinkedHashMap<>();
+
+    /**
+     * Number of failed attempts by key, for the keys being retried; guarded
+     * by <tt>this</tt>.
+     */
+    private final Map<Key, Integer> attempts = new HashMap<>();
+
+    private long requested;
+    private long processed;
+    private long verifiedTerms;
+    private long retried;
+    private long failed;
+    private String lastFailure;
+
+    /**
+     * To be called once the value of the index and date has been committed.
+     */
+    @Programmatic
+    public void enqueue(final Key key) {
+        enqueue(key, System.currentTimeMillis());
+    }
+
+    synchronized void enqueue(final Key key, final long now) {
+        requested++;
+        // re-inserting moves the key to the back, keeping the map ordered by due time
+        pending.remove(key);
+        pending.put(key, now + settleMillis);
+    }
+
+    /**
+     * Takes at most <tt>max</tt> keys that are due (or all of them, regardless
+     * of the settle period, if <tt>evenIfNotDue</tt>).
+     */
+    @Programmatic
+    public List<Key> poll(final int max, final boolean evenIfNotDue) {
+        return poll(max, evenIfNotDue ? Long.MAX_VALUE : System.currentTimeMillis());
+    }
+
+    synchronized List<Key> poll(final int max, final long now) {
+        final List<Key> keys = Lists.newArrayList();
+        for (Iterator<Map.Entry<Key, Long>> it = pending.entrySet().iterator(); it.hasNext() && keys.size() < max;) {
+            final Map.Entry<Key, Long> entry = it.next();
+            if (entry.getValue() > now) {
+                break;
+            }
+            keys.add(entry.getKey());
+            it.remove();
+        }
+        return keys;
+    }
+
+    @Programmatic
+    public synchronized void completed(final Collection<Key> keys, final int numberOfTerms) {
+        for (Key key : keys) {
+            attempts.remove(key);
+        }
+        processed += keys.size();
+        verifiedTerms += numberOfTerms;
+    }
+
+    /**
+     * A key that could not be verified is enqueued again, unless it has
+     * failed {@link #KEY_MAX_ATTEMPTS too many times} already; it is then
+     * reported in the {@link #progress() progress} instead.
+     */
+    @Programmatic
+    public void failed(final Key key, final Throwable cause) {
+        failed(key, cause, System.currentTimeMillis());
+    }
+
+    synchronized void failed(final Key key, final Throwable cause, final long now) {
+        lastFailure = key + ": " + cause.getMessage();
+        final Integer previousAttempts = attempts.get(key);
+        final int numberOfAttempts = previousAttempts == null ? 1 : previousAttempts + 1;
+        if (numberOfAttempts < maxAttempts) {
+            attempts.put(key, numberOfAttempts);
+            retried++;
+            if (!pending.containsKey(key)) {
+                pending.put(key, now + settleMillis);
+            }
+        } else {
+            attempts.remove(key);
+            failed++;
+        }
+    }
+
+    @Programmatic
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    @Programmatic
+    public synchronized String progress() {
+        return String.format(
+                "%d pending, %d requested, %d processed (%d terms verified), %d retried, %d failed%s",
+                pending.size(),
+                requested,
+                processed,
+                verifiedTerms,
+                retried,
+                failed,
+                lastFailure == null ? "" : " (last: " + lastFailure + ")");
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Identifies the index by reference (rather than the entity itself) so
+     * that keys can be passed on to other sessions.
+     */
+    public static final class Key {
+
+        private final String indexReference;
+        private final LocalDate date;
+
+        public Key(final String indexReference, final LocalDate date) {
+            this.indexReference = indexReference;
+            this.date = date;
+        }
+
+        public String getIndexReference() {
+            return indexReference;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return Objects.equal(indexReference, other.indexReference) && Objects.equal(date, other.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(indexReference, date);
+        }
+
+        @Override
+        public String toString() {
+            return indexReference + "@" + date;
+        }
+    }
+
+}
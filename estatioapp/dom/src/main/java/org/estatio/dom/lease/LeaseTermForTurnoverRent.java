@@ -19,8 +19,6 @@
 package org.estatio.dom.lease;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
 
 import javax.jdo.annotations.InheritanceStrategy;
 
@@ -35,7 +33,6 @@ import org.apache.isis.applib.annotation.Optional;
 import org.apache.isis.applib.annotation.Programmatic;
 
 import org.estatio.dom.JdoColumnLength;
-import org.estatio.dom.lease.invoicing.InvoiceCalculationService.CalculationResult;
 
 @javax.jdo.annotations.PersistenceCapable
 @javax.jdo.annotations.Inheritance(strategy = InheritanceStrategy.SUPERCLASS_TABLE)
@@ -56,7 +53,7 @@ public class LeaseTermForTurnoverRent extends LeaseTerm {
 
     public String validateTurnoverRentRule(final String turnoverRentrule) {
         if (Strings.isNullOrEmpty(turnoverRentrule)) {
-            TurnoverRentRuleHelper helper = new TurnoverRentRuleHelper(turnoverRentrule);
+            TurnoverRentRuleHelper helper = TurnoverRentRuleHelper.of(turnoverRentrule);
             if (!helper.isValid()) {
                 return "'" + turnoverRentrule + "' is not a valid rule";
             }
@@ -188,22 +185,8 @@ public class LeaseTermForTurnoverRent extends LeaseTerm {
     protected void doAlign() {
 
         if (getStatus() != LeaseTermStatus.APPROVED) {
-            // Collect all results
-            BigDecimal newContractualRent = BigDecimal.ZERO;
-            List<LeaseItem> rentItems = getLeaseItem().getLease().findItemsOfType(LeaseItemType.RENT);
-            List<CalculationResult> calculationResults = new ArrayList<CalculationResult>();
-            for (LeaseItem rentItem : rentItems) {
-                calculationResults.addAll(rentItem.calculationResults(
-                        rentItem.getInvoicingFrequency(),
-                        getStartDate(),
-                        getStartDate().plusYears(2)));
-            }
-            // TODO: do prorata when intervals don't match
-            for (CalculationResult result : calculationResults) {
-                if (getInterval().contains(result.invoicingInterval().asLocalDateInterval())) {
-                    newContractualRent = newContractualRent.add(result.value());
-                }
-            }
+            // Contractual Rent
+            final BigDecimal newContractualRent = getLeaseItem().getLease().contractualRentProjection().contractualRent(getInterval());
             if (ObjectUtils.compare(getContractualRent(), newContractualRent) != 0) {
                 setContractualRent(newContractualRent);
             }
@@ -222,7 +205,7 @@ public class LeaseTermForTurnoverRent extends LeaseTerm {
             // Audited Turnover Rent
             if (getTurnoverRentRule() != null) {
                 // Ignore the rule when empty
-                TurnoverRentRuleHelper helper = new TurnoverRentRuleHelper(getTurnoverRentRule());
+                TurnoverRentRuleHelper helper = TurnoverRentRuleHelper.of(getTurnoverRentRule());
                 BigDecimal newAuditedTurnoverRent = helper.calculateRent(getAuditedTurnover()).subtract(getContractualRent());
                 if (ObjectUtils.compare(newAuditedTurnoverRent, BigDecimal.ZERO) < 0) {
                     newAuditedTurnoverRent = BigDecimal.ZERO;
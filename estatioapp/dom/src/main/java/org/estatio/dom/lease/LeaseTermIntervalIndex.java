@@ -0,0 +1,159 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.joda.time.LocalDate;
+
+/**
+ * The {@link LeaseItem#getTerms() terms} of a {@link LeaseItem} indexed by
+ * interval, answering {@link LeaseItem#currentTerm(LocalDate)} without
+ * visiting every term.
+ *
+ * <p>
+ * The terms are sorted by start date, each with the latest end date of itself
+ * and the terms starting before it; a lookup binary searches the last term
+ * starting on or before the date and walks back only as long as that latest
+ * end date is still after the date. Of the candidates the first (in the order
+ * of the item's terms) that is {@link LeaseTerm#isActiveOn(LocalDate) active}
+ * is returned, so the effective interval of the item (and the lease) is taken
+ * into account just as before.
+ *
+ * <p>
+ * Built from the dates of the terms at the time, so the item discards it when
+ * terms are added, removed or re-dated.
+ */
+final class LeaseTermIntervalIndex {
+
+    private final int size;
+    private final LeaseTerm[] terms;
+    private final int[] positions;
+    private final LocalDate[] startDates;
+    private final LocalDate[] endDatesExcluding;
+    /**
+     * The latest end date (excluding) of the terms up to and including the
+     * index, <tt>null</tt> if any of these is open ended.
+     */
+    private final LocalDate[] maxEndDatesExcluding;
+
+    LeaseTermIntervalIndex(final Collection<LeaseTerm> terms) {
+        final List<Entry> entries = new ArrayList<>(terms.size());
+        int position = 0;
+        for (LeaseTerm term : terms) {
+            entries.add(new Entry(term, position++));
+        }
+        Collections.sort(entries, BY_START_DATE);
+
+        this.size = entries.size();
+        this.terms = new LeaseTerm[size];
+        this.positions = new int[size];
+        this.startDates = new LocalDate[size];
+        this.endDatesExcluding = new LocalDate[size];
+        this.maxEndDatesExcluding = new LocalDate[size];
+        LocalDate maxEndDateExcluding = null;
+        for (int i = 0; i < size; i++) {
+            final Entry entry = entries.get(i);
+            this.terms[i] = entry.term;
+            this.positions[i] = entry.position;
+            this.startDates[i] = entry.startDate;
+            this.endDatesExcluding[i] = entry.endDateExcluding;
+            if (i == 0 || (maxEndDateExcluding != null && (entry.endDateExcluding == null || entry.endDateExcluding.isAfter(maxEndDateExcluding)))) {
+                maxEndDateExcluding = entry.endDateExcluding;
+            }
+            this.maxEndDatesExcluding[i] = maxEndDateExcluding;
+        }
+    }
+
+    /**
+     * Whether this index (still) covers the terms, that is none were added or
+     * removed since it was built.
+     */
+    boolean isOf(final Collection<LeaseTerm> terms) {
+        return size == terms.size();
+    }
+
+    LeaseTerm currentTerm(final LocalDate date) {
+        if (date == null) {
+            return null;
+        }
+        LeaseTerm currentTerm = null;
+        int currentPosition = Integer.MAX_VALUE;
+        for (int i = lastStartingOnOrBefore(date); i >= 0; i--) {
+            if (maxEndDatesExcluding[i] != null && !maxEndDatesExcluding[i].isAfter(date)) {
+                break;
+            }
+            if (positions[i] < currentPosition
+                    && (endDatesExcluding[i] == null || endDatesExcluding[i].isAfter(date))
+                    && terms[i].isActiveOn(date)) {
+                currentTerm = terms[i];
+                currentPosition = positions[i];
+            }
+        }
+        return currentTerm;
+    }
+
+    private int lastStartingOnOrBefore(final LocalDate date) {
+        int low = 0;
+        int high = size - 1;
+        int last = -1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (startDates[mid] == null || !startDates[mid].isAfter(date)) {
+                last = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return last;
+    }
+
+    // //////////////////////////////////////
+
+    private static final Comparator<Entry> BY_START_DATE = new Comparator<Entry>() {
+        @Override
+        public int compare(final Entry o1, final Entry o2) {
+            if (o1.startDate == null) {
+                return o2.startDate == null ? 0 : -1;
+            }
+            return o2.startDate == null ? 1 : o1.startDate.compareTo(o2.startDate);
+        }
+    };
+
+    private static class Entry {
+
+        private final LeaseTerm term;
+        private final int position;
+        private final LocalDate startDate;
+        private final LocalDate endDateExcluding;
+
+        Entry(final LeaseTerm term, final int position) {
+            this.term = term;
+            this.position = position;
+            this.startDate = term.getStartDate();
+            this.endDateExcluding = term.getEndDate() == null ? null : term.getEndDate().plusDays(1);
+        }
+    }
+
+}
@@ -20,9 +20,11 @@ package org.estatio.dom.lease;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
 
 import org.apache.isis.applib.annotation.Action;
 import org.apache.isis.applib.annotation.DomainService;
@@ -51,6 +53,23 @@ public class LeaseTerms extends UdoDomainRepositoryAndFactory<LeaseTerm> {
             final LeaseTerm previous,
             final LocalDate startDate,
             final LocalDate endDate) {
+        final LeaseTerm leaseTerm = newTransientLeaseTerm(leaseItem, previous, startDate, endDate);
+        persistAll(leaseItem, Collections.singletonList(leaseTerm));
+        return leaseTerm;
+    }
+
+    /**
+     * As {@link #newLeaseTerm(LeaseItem, LeaseTerm, LocalDate, LocalDate)},
+     * but the term is not persisted: the caller must
+     * {@link #persistAll(LeaseItem, List) persist} it together with the other
+     * new terms of the item.
+     */
+    @Programmatic
+    public LeaseTerm newTransientLeaseTerm(
+            final LeaseItem leaseItem,
+            final LeaseTerm previous,
+            final LocalDate startDate,
+            final LocalDate endDate) {
         LeaseTerm leaseTerm = leaseItem.getType().create(getContainer());
         leaseTerm.setLeaseItem(leaseItem);
         leaseTerm.modifyStartDate(startDate);
@@ -58,18 +77,33 @@ public class LeaseTerms extends UdoDomainRepositoryAndFactory<LeaseTerm> {
         leaseTerm.setStatus(LeaseTermStatus.NEW);
         // TOFIX: When changing the user in the integration test from 'tester' to 'estatio-admin' the getPrevious method returns null. Setting both sides of the bi-directional relationship makes them pass.
         leaseTerm.setPrevious(previous);
+        return leaseTerm;
+    }
 
-        persistIfNotAlready(leaseTerm);
-
-        if (previous != null) {
-            previous.setNext(leaseTerm);
+    /**
+     * Persists the {@link #newTransientLeaseTerm(LeaseItem, LeaseTerm, LocalDate, LocalDate) new terms}
+     * of the item, in the order of the chain, and {@link #flush(LeaseItem) flushes}
+     * once all of them are persisted.
+     */
+    @Programmatic
+    public void persistAll(final LeaseItem leaseItem, final List<LeaseTerm> leaseTerms) {
+        for (LeaseTerm leaseTerm : leaseTerms) {
+            persistIfNotAlready(leaseTerm);
+            final LeaseTerm previous = leaseTerm.getPrevious();
+            if (previous != null) {
+                previous.setNext(leaseTerm);
+            }
         }
+        flush(leaseItem);
+    }
+
+    @Programmatic
+    public void flush(final LeaseItem leaseItem) {
         // TOFIX: without this flush and refresh, the collection of terms on the
         // item is not updated. Removing code below will fail integration tests
         // too.
         getContainer().flush();
         getIsisJdoSupport().refresh(leaseItem);
-        return leaseTerm;
     }
 
     @Deprecated
@@ -96,6 +130,11 @@ public class LeaseTerms extends UdoDomainRepositoryAndFactory<LeaseTerm> {
         return firstMatch("findByLeaseItemAndStartDate", "leaseItem", leaseItem, "startDate", startDate);
     }
 
+    @Programmatic
+    public List<LeaseTerm> findByPropertyUpdatedAfter(final Property property, final LocalDateTime updatedOn) {
+        return allMatches("findByPropertyAndUpdatedOnAfter", "property", property, "updatedOn", updatedOn);
+    }
+
     @Action(semantics = SemanticsOf.SAFE, restrictTo = RestrictTo.PROTOTYPING)
     @MemberOrder(name = "Leases", sequence = "99")
     public List<LeaseTerm> allLeaseTerms() {
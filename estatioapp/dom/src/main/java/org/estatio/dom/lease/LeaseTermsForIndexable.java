@@ -18,6 +18,7 @@
  */
 package org.estatio.dom.lease;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.google.common.eventbus.Subscribe;
@@ -28,9 +29,12 @@ import org.apache.isis.applib.annotation.DomainService;
 import org.apache.isis.applib.annotation.NatureOfService;
 import org.apache.isis.applib.annotation.Programmatic;
 
+import org.estatio.dom.TransactionCompletionService;
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.dom.asset.Property;
 import org.estatio.dom.index.Index;
 import org.estatio.dom.index.IndexValue;
+import org.estatio.dom.lease.LeaseTermForIndexableVerificationQueue.Key;
 
 @DomainService(nature = NatureOfService.DOMAIN, repositoryFor = LeaseTermForIndexable.class)
 public class LeaseTermsForIndexable extends UdoDomainRepositoryAndFactory<LeaseTermForIndexable> {
@@ -45,14 +49,72 @@ public class LeaseTermsForIndexable extends UdoDomainRepositoryAndFactory<LeaseT
         return allMatches("findByIndexAndDate", "index", index, "date", date);
     }
 
+    /**
+     * The terms of the property indexed by any of the indices.
+     */
+    @Programmatic
+    public List<LeaseTermForIndexable> findByPropertyAndIndices(final Property property, final Collection<Index> indices) {
+        return allMatches("findByPropertyAndIndices", "property", property, "indices", indices);
+    }
+
     // //////////////////////////////////////
 
+    /**
+     * Verifies all terms of the index and date; returns the number of terms
+     * verified.
+     */
+    @Programmatic
+    public int verifyByIndexAndDate(final Index index, final LocalDate date) {
+        final List<LeaseTermForIndexable> terms = findByIndexAndDate(index, date);
+        for (LeaseTermForIndexable term : terms) {
+            term.verify();
+        }
+        return terms.size();
+    }
+
+    /**
+     * Rather than verifying the terms in the transaction that publishes the
+     * value, leaves them to be verified in the background once that
+     * transaction has been committed (unless the
+     * {@link LeaseTermForIndexableVerificationQueue#isEnabled() background verification}
+     * is disabled).
+     */
     @Programmatic
     @Subscribe
     public void on(final IndexValue.UpdateEvent ev) {
-        for (LeaseTermForIndexable term : findByIndexAndDate(ev.getSource().getIndexBase().getIndex(), ev.getSource().getStartDate())) {
-            term.verify();
+        switch (ev.getEventPhase()) {
+        case EXECUTED:
+            final Index index = ev.getSource().getIndexBase().getIndex();
+            final LocalDate date = ev.getSource().getStartDate();
+            if (!verificationQueue.isEnabled()) {
+                verifyByIndexAndDate(index, date);
+                break;
+            }
+            final Key key = new Key(index.getReference(), date);
+            transactionCompletionService.afterCommit(new Runnable() {
+                @Override
+                public void run() {
+                    verificationQueue.enqueue(key);
+                }
+            });
+            break;
+        default:
+            break;
         }
     }
 
+    // //////////////////////////////////////
+
+    private LeaseTermForIndexableVerificationQueue verificationQueue;
+
+    public final void injectVerificationQueue(final LeaseTermForIndexableVerificationQueue verificationQueue) {
+        this.verificationQueue = verificationQueue;
+    }
+
+    private TransactionCompletionService transactionCompletionService;
+
+    public final void injectTransactionCompletionService(final TransactionCompletionService transactionCompletionService) {
+        this.transactionCompletionService = transactionCompletionService;
+    }
+
 }
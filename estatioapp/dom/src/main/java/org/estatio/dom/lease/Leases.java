@@ -28,6 +28,7 @@ import com.google.common.collect.Lists;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.joda.time.DateTime;
 import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
 import org.joda.time.Period;
 
 import org.apache.isis.applib.annotation.Action;
@@ -59,6 +60,7 @@ import org.estatio.dom.asset.FixedAssetRepository;
 import org.estatio.dom.asset.Property;
 import org.estatio.dom.lease.tags.Brand;
 import org.estatio.dom.party.Party;
+import org.estatio.dom.search.SearchIndexService;
 import org.estatio.dom.utils.JodaPeriodUtils;
 import org.estatio.dom.utils.StringUtils;
 import org.estatio.dom.valuetypes.LocalDateInterval;
@@ -189,6 +191,9 @@ public class Leases extends UdoDomainRepositoryAndFactory<Lease> {
     public List<Lease> findLeases(
             final @ParameterLayout(named = "Reference or Name", describedAs = "May include wildcards '*' and '?'") String refOrName,
             final @ParameterLayout(named = "Include terminated") boolean includeTerminated) {
+        if (searchIndexService.isEnabled()) {
+            return searchIndexService.find(Lease.class, refOrName, SearchIndexService.activeOn(clockService.now(), includeTerminated));
+        }
         String pattern = StringUtils.wildcardToCaseInsensitiveRegex(refOrName);
         return allMatches("matchByReferenceOrName", "referenceOrName", pattern, "includeTerminated", includeTerminated, "date", clockService.now());
     }
@@ -255,6 +260,11 @@ public class Leases extends UdoDomainRepositoryAndFactory<Lease> {
         return allMatches("findByProperty", "property", property);
     }
 
+    @Programmatic
+    public List<Lease> findLeasesByPropertyUpdatedAfter(final Property property, final LocalDateTime updatedOn) {
+        return allMatches("findByPropertyAndUpdatedOnAfter", "property", property, "updatedOn", updatedOn);
+    }
+
     @Programmatic
     public List<Lease> findExpireInDateRange(final LocalDate rangeStartDate, final LocalDate rangeEndDate) {
         return allMatches(
@@ -263,6 +273,17 @@ public class Leases extends UdoDomainRepositoryAndFactory<Lease> {
                 "rangeEndDate", rangeEndDate);
     }
 
+    /**
+     * The leases with the status whose tenancy ended before the date.
+     */
+    @Programmatic
+    public List<Lease> findByStatusAndTenancyEndDateBefore(final LeaseStatus status, final LocalDate date) {
+        return allMatches(
+                "findByStatusAndTenancyEndDateBefore",
+                "status", status,
+                "date", date);
+    }
+
     @Programmatic
     public List<Lease> findByBrand(final Brand brand, final boolean includeTerminated) {
         return allMatches(
@@ -276,9 +297,12 @@ public class Leases extends UdoDomainRepositoryAndFactory<Lease> {
 
     @ActionLayout(hidden = Where.EVERYWHERE)
     public List<Lease> autoComplete(final String searchPhrase) {
-        return searchPhrase.length() > 2
-                ? findLeases("*" + searchPhrase + "*", true)
-                : Lists.<Lease> newArrayList();
+        if (searchPhrase.length() <= 2) {
+            return Lists.<Lease> newArrayList();
+        }
+        return searchIndexService.isEnabled()
+                ? searchIndexService.autoComplete(Lease.class, searchPhrase)
+                : findLeases("*" + searchPhrase + "*", true);
     }
 
     // //////////////////////////////////////
@@ -337,4 +361,7 @@ public class Leases extends UdoDomainRepositoryAndFactory<Lease> {
     @Inject
     private ApplicationTenancyRepository applicationTenancyRepository;
 
+    @Inject
+    SearchIndexService searchIndexService;
+
 }
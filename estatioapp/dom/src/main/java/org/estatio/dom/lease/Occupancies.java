@@ -27,6 +27,7 @@ import javax.inject.Inject;
 import com.google.common.eventbus.Subscribe;
 
 import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
 
 import org.apache.isis.applib.annotation.Action;
 import org.apache.isis.applib.annotation.DomainService;
@@ -40,6 +41,7 @@ import org.apache.isis.applib.services.clock.ClockService;
 import org.apache.isis.applib.services.scratchpad.Scratchpad;
 
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.dom.asset.Property;
 import org.estatio.dom.asset.Unit;
 import org.estatio.dom.lease.tags.Brand;
 import org.estatio.dom.valuetypes.LocalDateInterval;
@@ -76,6 +78,23 @@ public class Occupancies extends UdoDomainRepositoryAndFactory<Occupancy> {
         return allMatches("findByUnit", "unit", unit);
     }
 
+    /**
+     * The occupancies of all the units of the property, in one query.
+     */
+    @Programmatic
+    public List<Occupancy> findByProperty(final Property property) {
+        return allMatches("findByProperty", "property", property);
+    }
+
+    /**
+     * The occupancies of the property changed (or created) since the date
+     * time.
+     */
+    @Programmatic
+    public List<Occupancy> findByPropertyUpdatedAfter(final Property property, final LocalDateTime updatedOn) {
+        return allMatches("findByPropertyAndUpdatedOnAfter", "property", property, "updatedOn", updatedOn);
+    }
+
     @Programmatic
     public List<Occupancy> findByLease(Lease lease) {
         return allMatches("findByLease", "lease", lease);
@@ -133,6 +152,17 @@ public class Occupancies extends UdoDomainRepositoryAndFactory<Occupancy> {
 
     }
 
+    /**
+     * An index of the occupancies of all the units of the property, to check
+     * many units against an interval with a single query.
+     *
+     * @see #occupanciesByUnitAndInterval(Unit, LocalDateInterval)
+     */
+    @Programmatic
+    public OccupancyIntervalIndex occupancyIntervalIndexFor(final Property property) {
+        return new OccupancyIntervalIndex(findByProperty(property));
+    }
+
     // //////////////////////////////////////
 
     private void verifyFor(Lease lease) {
@@ -31,6 +31,7 @@ import org.estatio.dom.lease.tags.*;
 import org.estatio.dom.valuetypes.LocalDateInterval;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
 
 import javax.jdo.annotations.IdGeneratorStrategy;
 import javax.jdo.annotations.IdentityType;
@@ -54,6 +55,12 @@ import java.util.List;
                         + "FROM org.estatio.dom.lease.Occupancy "
                         + "WHERE unit == :unit "
                         + "ORDER BY startDate "),
+        @javax.jdo.annotations.Query(
+                name = "findByProperty", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.Occupancy "
+                        + "WHERE unit.property == :property "
+                        + "ORDER BY startDate "),
         @javax.jdo.annotations.Query(
                 name = "findByLease", language = "JDOQL",
                 value = "SELECT "
@@ -80,7 +87,13 @@ import java.util.List;
                 value = "SELECT "
                         + "FROM org.estatio.dom.lease.Occupancy "
                         + "WHERE brand == :brand "
-                        + "&& (:includeTerminated || endDate == null || endDate >= :date)")
+                        + "&& (:includeTerminated || endDate == null || endDate >= :date)"),
+        @javax.jdo.annotations.Query(
+                name = "findByPropertyAndUpdatedOnAfter", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.Occupancy "
+                        + "WHERE updatedOn > :updatedOn "
+                        + "&& unit.property == :property")
 })
 public class Occupancy
         extends EstatioDomainObject<Occupancy>
@@ -134,6 +147,38 @@ public class Occupancy
 
     // //////////////////////////////////////
 
+    public void persisting() {
+        touch();
+    }
+
+    public void updating() {
+        touch();
+    }
+
+    private LocalDateTime updatedOn;
+
+    /**
+     * When this occupancy was last changed.
+     *
+     * @see org.estatio.dom.lease.invoicing.InvoiceCalculationService#calculateAndInvoiceIncrementally(org.estatio.dom.lease.invoicing.InvoiceCalculationParameters)
+     */
+    @javax.jdo.annotations.Column(allowsNull = "true")
+    @Property(hidden = Where.EVERYWHERE)
+    public LocalDateTime getUpdatedOn() {
+        return updatedOn;
+    }
+
+    public void setUpdatedOn(final LocalDateTime updatedOn) {
+        this.updatedOn = updatedOn;
+    }
+
+    @Programmatic
+    public void touch() {
+        setUpdatedOn(getClockService().nowAsLocalDateTime());
+    }
+
+    // //////////////////////////////////////
+
     @javax.jdo.annotations.Persistent
     private LocalDate startDate;
 
@@ -219,6 +264,7 @@ public class Occupancy
             final @ParameterLayout(named = "Are you sure?") boolean confirm) {
         if (confirm) {
             Lease lease = getLease();
+            lease.touch();
             getContainer().remove(this);
             return lease;
         } else {
@@ -0,0 +1,88 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.estatio.dom.asset.Unit;
+import org.estatio.dom.valuetypes.LocalDateInterval;
+
+/**
+ * The intervals of a set of {@link Occupancy occupancies} (typically those of
+ * a property, see {@link Occupancies#occupancyIntervalIndexFor(org.estatio.dom.asset.Property)}),
+ * indexed by {@link Unit}.
+ *
+ * <p>
+ * Answers the same as
+ * {@link Occupancies#occupanciesByUnitAndInterval(Unit, LocalDateInterval)},
+ * but for any number of units without going back to the database.
+ */
+public final class OccupancyIntervalIndex {
+
+    private final Map<Unit, List<LocalDateInterval>> intervalsByUnit = new HashMap<>();
+
+    public OccupancyIntervalIndex(final List<Occupancy> occupancies) {
+        for (Occupancy occupancy : occupancies) {
+            List<LocalDateInterval> intervals = intervalsByUnit.get(occupancy.getUnit());
+            if (intervals == null) {
+                intervals = new ArrayList<>();
+                intervalsByUnit.put(occupancy.getUnit(), intervals);
+            }
+            intervals.add(occupancy.getInterval());
+        }
+    }
+
+    /**
+     * Whether the unit has an occupancy overlapping the interval.
+     */
+    public boolean hasOccupancyOverlapping(final Unit unit, final LocalDateInterval interval) {
+        for (LocalDateInterval occupancyInterval : intervalsOf(unit)) {
+            if (interval.overlaps(occupancyInterval)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The units (of those indexed) that have an occupancy overlapping the
+     * interval.
+     */
+    public Set<Unit> unitsWithOccupancyOverlapping(final LocalDateInterval interval) {
+        final Set<Unit> units = new LinkedHashSet<>();
+        for (Map.Entry<Unit, List<LocalDateInterval>> entry : intervalsByUnit.entrySet()) {
+            if (hasOccupancyOverlapping(entry.getKey(), interval)) {
+                units.add(entry.getKey());
+            }
+        }
+        return units;
+    }
+
+    private List<LocalDateInterval> intervalsOf(final Unit unit) {
+        final List<LocalDateInterval> intervals = intervalsByUnit.get(unit);
+        return intervals == null ? Collections.<LocalDateInterval>emptyList() : intervals;
+    }
+
+}
@@ -20,22 +20,86 @@ package org.estatio.dom.lease;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.regex.Pattern;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A turnover rent rule, such as <tt>500000;5;750000;6;7</tt>: 5% up to a
+ * turnover of 500000, 6% up to 750000 and 7% above.
+ *
+ * <p>
+ * The rule is compiled once into a table of tiers, each with its cap and
+ * percentage; use {@link #of(String)} to share the (immutable) helper between
+ * all terms with the same (valid) rule.
+ */
 public class TurnoverRentRuleHelper {
 
-    private String rules[];
+    private static final Pattern NUMERIC = Pattern.compile("-?\\d+(\\.\\d+)?");
+
+    /**
+     * Rules are entered by hand, so the number of distinct ones kept is
+     * capped.
+     */
+    static final int MAX_SHARED_HELPERS = 1000;
+
+    private static final Cache<String, TurnoverRentRuleHelper> HELPERS =
+            CacheBuilder.newBuilder().maximumSize(MAX_SHARED_HELPERS).build();
+
+    /**
+     * Returns the (shared) helper for the rule; helpers of invalid rules,
+     * such as those being typed in, are not shared.
+     */
+    public static TurnoverRentRuleHelper of(final String rule) {
+        if (rule == null) {
+            return new TurnoverRentRuleHelper(null);
+        }
+        final TurnoverRentRuleHelper sharedHelper = HELPERS.getIfPresent(rule);
+        if (sharedHelper != null) {
+            return sharedHelper;
+        }
+        final TurnoverRentRuleHelper helper = new TurnoverRentRuleHelper(rule);
+        if (helper.isValid()) {
+            HELPERS.put(rule, helper);
+        }
+        return helper;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The upper cap of each tier, the lower cap being that of the tier before
+     * (or zero); <tt>null</tt> for the last tier, and for an invalid rule.
+     */
+    private final BigDecimal[] caps;
+    private final BigDecimal[] percentages;
 
     public TurnoverRentRuleHelper(final String rule) {
+        String[] rules = null;
         if (rule != null && rule.trim().length() != 0) {
             rules = rule.split(";");
         }
+        if (isValidRule(rules)) {
+            final int tiers = rules.length / 2 + 1;
+            caps = new BigDecimal[tiers];
+            percentages = new BigDecimal[tiers];
+            for (int tier = 0; tier < tiers - 1; tier++) {
+                caps[tier] = new BigDecimal(rules[tier * 2]);
+                percentages[tier] = new BigDecimal(rules[tier * 2 + 1]).divide(LeaseConstants.PERCENTAGE_DIVISOR);
+            }
+            percentages[tiers - 1] = new BigDecimal(rules[rules.length - 1]).divide(LeaseConstants.PERCENTAGE_DIVISOR);
+        } else {
+            caps = null;
+            percentages = null;
+        }
     }
 
     public boolean isValid() {
-        return (rules != null && isValidRule());
+        return percentages != null;
     }
 
-    private boolean isValidRule() {
+    private static boolean isValidRule(final String[] rules) {
         // check for uneven rules
         if (rules == null || rules.length % 2 == 0) {
             return false;
@@ -60,35 +124,24 @@ public class TurnoverRentRuleHelper {
     private BigDecimal doCalculateRent(final BigDecimal turnover) {
         BigDecimal total = BigDecimal.ZERO;
         BigDecimal prevCap = BigDecimal.ZERO;
-        BigDecimal cap = BigDecimal.ZERO;
-        BigDecimal percentage;
-        for (int i = 0; i < rules.length; i = i + 2) {
+        for (int tier = 0; tier < percentages.length; tier++) {
+            final BigDecimal cap = caps[tier];
             BigDecimal base = BigDecimal.ZERO;
-            if (i == rules.length - 1) {
-                // the last or single item
-                percentage = new BigDecimal(rules[i]).divide(LeaseConstants.PERCENTAGE_DIVISOR);
-                if (turnover.compareTo(prevCap) > 0) {
-                    base = turnover.subtract(prevCap);
-                }
-            } else {
-                percentage = new BigDecimal(rules[i + 1]).divide(LeaseConstants.PERCENTAGE_DIVISOR);
-                cap = new BigDecimal(rules[i]);
-                if (turnover.compareTo(cap) > 0) {
-                    base = cap.subtract(prevCap);
-                } else {
-                    if (turnover.compareTo(prevCap) > 0) {
-                        base = turnover.subtract(prevCap);
-                    }
-                }
+            if (cap != null && turnover.compareTo(cap) > 0) {
+                base = cap.subtract(prevCap);
+            } else if (turnover.compareTo(prevCap) > 0) {
+                base = turnover.subtract(prevCap);
+            }
+            total = total.add(base.multiply(percentages[tier]).setScale(2, RoundingMode.HALF_UP));
+            if (cap != null) {
+                prevCap = cap;
             }
-            total = total.add(base.multiply(percentage).setScale(2, RoundingMode.HALF_UP));
-            prevCap = cap;
         }
         return total;
     }
 
     public static boolean isNumeric(final String str) {
         // match a number with optional '-' and decimal.
-        return str.matches("-?\\d+(\\.\\d+)?");
+        return NUMERIC.matcher(str).matches();
     }
 }
@@ -95,8 +95,29 @@ public class InvoiceCalculationParameters {
         this.leases = leases;
     }
 
-    
-    
+    /**
+     * For (a partition of) the leases of a property; unlike
+     * {@link #InvoiceCalculationParameters(List, List, InvoiceRunType, LocalDate, LocalDate, LocalDate)}
+     * the leases need not all have the property as their own.
+     */
+    public InvoiceCalculationParameters(
+            final Property property,
+            final List<Lease> leases,
+            final List<LeaseItemType> leaseItemTypes,
+            final InvoiceRunType invoiceRunType,
+            final LocalDate invoiceDueDate,
+            final LocalDate startDueDate,
+            final LocalDate nextDueDate) {
+        this(
+                property,
+                leaseItemTypes,
+                invoiceRunType,
+                invoiceDueDate,
+                startDueDate,
+                nextDueDate);
+        this.leases = leases;
+    }
+
     public InvoiceCalculationParameters(
             final Lease lease,
             final List<LeaseItemType> leaseItemTypes,
@@ -0,0 +1,218 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing;
+
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.IdentityType;
+import javax.jdo.annotations.VersionStrategy;
+
+import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
+
+import org.apache.isis.applib.annotation.DomainObject;
+import org.apache.isis.applib.annotation.Editing;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.annotation.Property;
+import org.apache.isis.applib.annotation.Title;
+import org.apache.isis.applib.annotation.Where;
+
+import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
+
+import org.estatio.dom.EstatioDomainObject;
+import org.estatio.dom.JdoColumnLength;
+import org.estatio.dom.apptenancy.WithApplicationTenancyProperty;
+
+/**
+ * The last successful calculation of all the leases of a property for a
+ * due date range and run type; the changes to leases, items and terms since
+ * it {@link #getStartedOn() started} are recalculated by an
+ * {@link InvoiceCalculationService#calculateAndInvoiceIncrementally(InvoiceCalculationParameters)
+ * incremental run}.
+ */
+@javax.jdo.annotations.PersistenceCapable(identityType = IdentityType.DATASTORE)
+@javax.jdo.annotations.DatastoreIdentity(
+        strategy = IdGeneratorStrategy.NATIVE,
+        column = "id")
+@javax.jdo.annotations.Version(
+        strategy = VersionStrategy.VERSION_NUMBER,
+        column = "version")
+@javax.jdo.annotations.Indices({
+        @javax.jdo.annotations.Index(
+                name = "InvoiceCalculationRun_property_invoiceDueDate_IDX",
+                members = { "property", "invoiceDueDate" })
+})
+@javax.jdo.annotations.Queries({
+        @javax.jdo.annotations.Query(
+                name = "findByPropertyAndInvoiceDueDate", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.invoicing.InvoiceCalculationRun "
+                        + "WHERE property == :property "
+                        + "&& invoiceDueDate == :invoiceDueDate"),
+        @javax.jdo.annotations.Query(
+                name = "findByParameters", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.lease.invoicing.InvoiceCalculationRun "
+                        + "WHERE property == :property "
+                        + "&& invoiceDueDate == :invoiceDueDate "
+                        + "&& invoiceRunType == :invoiceRunType "
+                        + "&& startDueDate == :startDueDate "
+                        + "&& nextDueDate == :nextDueDate "
+                        + "&& leaseItemTypes == :leaseItemTypes")
+})
+@DomainObject(editing = Editing.DISABLED)
+public class InvoiceCalculationRun
+        extends EstatioDomainObject<InvoiceCalculationRun>
+        implements WithApplicationTenancyProperty {
+
+    public InvoiceCalculationRun() {
+        super("property, invoiceDueDate, invoiceRunType, startDueDate, nextDueDate, leaseItemTypes");
+    }
+
+    /**
+     * The selected lease item types of the parameters, as stored in
+     * {@link #getLeaseItemTypes()}.
+     */
+    @Programmatic
+    public static String leaseItemTypesOf(final InvoiceCalculationParameters parameters) {
+        return String.valueOf(parameters.leaseItemTypes());
+    }
+
+    // //////////////////////////////////////
+
+    @Property(hidden = Where.EVERYWHERE)
+    public ApplicationTenancy getApplicationTenancy() {
+        return getProperty().getApplicationTenancy();
+    }
+
+    // //////////////////////////////////////
+
+    private org.estatio.dom.asset.Property property;
+
+    @javax.jdo.annotations.Column(name = "propertyId", allowsNull = "false")
+    @Title(sequence = "1")
+    public org.estatio.dom.asset.Property getProperty() {
+        return property;
+    }
+
+    public void setProperty(final org.estatio.dom.asset.Property property) {
+        this.property = property;
+    }
+
+    // //////////////////////////////////////
+
+    private LocalDate invoiceDueDate;
+
+    @javax.jdo.annotations.Column(allowsNull = "false")
+    @Title(sequence = "2", prepend = " - ")
+    public LocalDate getInvoiceDueDate() {
+        return invoiceDueDate;
+    }
+
+    public void setInvoiceDueDate(final LocalDate invoiceDueDate) {
+        this.invoiceDueDate = invoiceDueDate;
+    }
+
+    // //////////////////////////////////////
+
+    private InvoiceRunType invoiceRunType;
+
+    /**
+     * Part of the key: a normal run of the property does not tell what a
+     * retro run would calculate, nor the other way round.
+     */
+    @javax.jdo.annotations.Column(allowsNull = "false", length = JdoColumnLength.TYPE_ENUM)
+    public InvoiceRunType getInvoiceRunType() {
+        return invoiceRunType;
+    }
+
+    public void setInvoiceRunType(final InvoiceRunType invoiceRunType) {
+        this.invoiceRunType = invoiceRunType;
+    }
+
+    // //////////////////////////////////////
+
+    private LocalDate startDueDate;
+
+    @javax.jdo.annotations.Column(allowsNull = "false")
+    public LocalDate getStartDueDate() {
+        return startDueDate;
+    }
+
+    public void setStartDueDate(final LocalDate startDueDate) {
+        this.startDueDate = startDueDate;
+    }
+
+    // //////////////////////////////////////
+
+    private LocalDate nextDueDate;
+
+    @javax.jdo.annotations.Column(allowsNull = "false")
+    public LocalDate getNextDueDate() {
+        return nextDueDate;
+    }
+
+    public void setNextDueDate(final LocalDate nextDueDate) {
+        this.nextDueDate = nextDueDate;
+    }
+
+    // //////////////////////////////////////
+
+    private String leaseItemTypes;
+
+    @javax.jdo.annotations.Column(allowsNull = "false", length = JdoColumnLength.DESCRIPTION)
+    public String getLeaseItemTypes() {
+        return leaseItemTypes;
+    }
+
+    public void setLeaseItemTypes(final String leaseItemTypes) {
+        this.leaseItemTypes = leaseItemTypes;
+    }
+
+    // //////////////////////////////////////
+
+    private String runId;
+
+    @javax.jdo.annotations.Column(allowsNull = "true")
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(final String runId) {
+        this.runId = runId;
+    }
+
+    // //////////////////////////////////////
+
+    private LocalDateTime startedOn;
+
+    /**
+     * <tt>null</tt> once the run has been
+     * {@link InvoiceCalculationRuns#invalidate(org.estatio.dom.asset.FixedAsset, LocalDate)
+     * invalidated}.
+     */
+    @javax.jdo.annotations.Column(allowsNull = "true")
+    public LocalDateTime getStartedOn() {
+        return startedOn;
+    }
+
+    public void setStartedOn(final LocalDateTime startedOn) {
+        this.startedOn = startedOn;
+    }
+
+}
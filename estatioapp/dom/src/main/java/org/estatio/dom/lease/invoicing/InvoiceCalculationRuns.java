@@ -0,0 +1,97 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing;
+
+import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+
+import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.dom.asset.FixedAsset;
+
+@DomainService(nature = NatureOfService.DOMAIN, repositoryFor = InvoiceCalculationRun.class)
+public class InvoiceCalculationRuns extends UdoDomainRepositoryAndFactory<InvoiceCalculationRun> {
+
+    public InvoiceCalculationRuns() {
+        super(InvoiceCalculationRuns.class, InvoiceCalculationRun.class);
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The last run of all the leases of the property with exactly these
+     * parameters, if any; its {@link InvoiceCalculationRun#getStartedOn()
+     * start} is <tt>null</tt> if it has since been
+     * {@link #invalidate(FixedAsset, LocalDate) invalidated}.
+     */
+    @Programmatic
+    public InvoiceCalculationRun findLastRun(final InvoiceCalculationParameters parameters) {
+        return firstMatch("findByParameters",
+                "property", parameters.property(),
+                "invoiceDueDate", parameters.invoiceDueDate(),
+                "invoiceRunType", parameters.invoiceRunType(),
+                "startDueDate", parameters.dueDateRange().startDate(),
+                "nextDueDate", parameters.dueDateRange().endDateExcluding(),
+                "leaseItemTypes", InvoiceCalculationRun.leaseItemTypesOf(parameters));
+    }
+
+    /**
+     * Records a successful run of all the leases of the property, replacing
+     * the earlier one (if any).
+     */
+    @Programmatic
+    public InvoiceCalculationRun newRun(
+            final InvoiceCalculationParameters parameters,
+            final String runId,
+            final LocalDateTime startedOn) {
+        InvoiceCalculationRun run = findLastRun(parameters);
+        if (run == null) {
+            run = newTransientInstance();
+            run.setProperty(parameters.property());
+            run.setInvoiceDueDate(parameters.invoiceDueDate());
+            run.setInvoiceRunType(parameters.invoiceRunType());
+            run.setStartDueDate(parameters.dueDateRange().startDate());
+            run.setNextDueDate(parameters.dueDateRange().endDateExcluding());
+            run.setLeaseItemTypes(InvoiceCalculationRun.leaseItemTypesOf(parameters));
+        }
+        run.setRunId(runId);
+        run.setStartedOn(startedOn);
+        persistIfNotAlready(run);
+        return run;
+    }
+
+    /**
+     * Forgets when the runs of the property for the due date started, for
+     * example because (some of) their invoices have been removed; the next
+     * {@link InvoiceCalculationService#calculateAndInvoiceIncrementally(InvoiceCalculationParameters)
+     * incremental run} then calculates all leases again.
+     */
+    @Programmatic
+    public void invalidate(final FixedAsset property, final LocalDate invoiceDueDate) {
+        for (InvoiceCalculationRun run : allMatches("findByPropertyAndInvoiceDueDate",
+                "property", property,
+                "invoiceDueDate", invoiceDueDate)) {
+            run.setStartedOn(null);
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing;
+
+/**
+ * Marks the thread that is calculating the leases of a run; the leases,
+ * items and terms changed (verified) by the run itself are not
+ * {@link org.estatio.dom.lease.LeaseTerm#touch() touched}, so the next
+ * {@link InvoiceCalculationService#calculateAndInvoiceIncrementally(InvoiceCalculationParameters) incremental run}
+ * does not take them for changes made since this run started.
+ *
+ * <p>
+ * The changes are flushed before the scope is left, since that is when
+ * they are touched.
+ */
+public final class InvoiceCalculationScope {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<Boolean>();
+
+    private InvoiceCalculationScope() {
+    }
+
+    static void enter() {
+        ACTIVE.set(Boolean.TRUE);
+    }
+
+    static void exit() {
+        ACTIVE.remove();
+    }
+
+    public static boolean isActive() {
+        return Boolean.TRUE.equals(ACTIVE.get());
+    }
+
+}
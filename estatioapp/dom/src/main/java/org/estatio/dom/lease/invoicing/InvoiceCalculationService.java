@@ -23,10 +23,12 @@ import java.math.MathContext;
 import java.math.RoundingMode;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import javax.inject.Inject;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.apache.commons.lang3.ObjectUtils;
 import org.joda.time.LocalDate;
 import org.joda.time.LocalDateTime;
@@ -34,9 +36,15 @@ import org.apache.isis.applib.annotation.DomainService;
 import org.apache.isis.applib.annotation.Hidden;
 import org.apache.isis.applib.annotation.Programmatic;
 import org.estatio.dom.UdoDomainService;
+import org.estatio.dom.asset.Property;
 import org.estatio.dom.charge.Charge;
+import org.estatio.dom.index.Index;
+import org.estatio.dom.index.IndexValue;
+import org.estatio.dom.index.IndexValues;
+import org.estatio.dom.invoice.InvoiceStatus;
 import org.estatio.dom.invoice.Invoices;
 import org.estatio.dom.invoice.InvoicingInterval;
+import org.estatio.dom.invoice.MatchingInvoices;
 import org.estatio.dom.lease.*;
 import org.estatio.dom.valuetypes.AbstractInterval.IntervalEnding;
 import org.estatio.dom.valuetypes.LocalDateInterval;
@@ -47,6 +55,11 @@ import org.estatio.domsettings.EstatioSettingsService;
 @Hidden
 public class InvoiceCalculationService extends UdoDomainService<InvoiceCalculationService> {
 
+    /**
+     * The number of leases whose invoiced values are fetched in one query.
+     */
+    static final int INVOICED_VALUES_CHUNK_SIZE = 500;
+
     public InvoiceCalculationService() {
         super(InvoiceCalculationService.class);
     }
@@ -131,53 +144,269 @@ public class InvoiceCalculationService extends UdoDomainService<InvoiceCalculati
         return estatioSettingsService.fetchEpochDate();
     }
 
-    private String interactionId;
+    /**
+     * The run id is passed along rather than held in a field, since this
+     * (singleton) service is also used by the workers of a parallel run.
+     */
+    private static String newRunId(final InvoiceCalculationParameters parameters) {
+        return LocalDateTime.now().toString().concat(" - ").concat(parameters.toString());
+    }
 
-    private void startInteraction(final String parameters) {
-        if (interactionId == null) {
-            interactionId = LocalDateTime.now().toString().concat(" - ").concat(parameters);
+    @Programmatic
+    public String calculateAndInvoice(InvoiceCalculationParameters parameters) {
+        final String runId = newRunId(parameters);
+        invoices.removeRuns(parameters);
+        final MatchingInvoices matchingInvoices = matchingInvoicesFor(parameters);
+        for (Lease lease : leasesToCalculate(parameters)) {
+            for (LeaseTerm leaseTerm : leaseTermsToCalculate(lease, parameters)) {
+                final List<CalculationResult> results;
+                results = calculateDueDateRange(leaseTerm, parameters);
+                createInvoiceItems(leaseTerm, parameters, results, runId, matchingInvoices);
+            }
         }
+        return runId;
     }
 
-    private void endInteraction() {
-        interactionId = null;
+    /**
+     * As {@link #calculateAndInvoice(InvoiceCalculationParameters)}, but
+     * prefetches the {@link InvoicedValues already invoiced values} of the
+     * leases in a single query per lease and calculates all deltas in memory
+     * before creating any of the new invoice items.
+     */
+    @Programmatic
+    public String calculateAndInvoiceInBulk(InvoiceCalculationParameters parameters) {
+        final LocalDateTime startedOn = getClockService().nowAsLocalDateTime();
+        final String runId = newRunId(parameters);
+        invoices.removeRuns(parameters);
+        calculateAndInvoicePartition(parameters, runId);
+        if (parameters.leases() == null) {
+            invoiceCalculationRuns.newRun(parameters, runId, startedOn);
+        }
+        return runId;
     }
 
+    /**
+     * As {@link #calculateAndInvoiceInBulk(InvoiceCalculationParameters)},
+     * but only verifies and calculates the leases of which the lease itself,
+     * an item, a term, an occupancy or an index has been changed since the
+     * last run of the property with the same parameters (including the run
+     * type) started. The new invoices of all other leases are left as they
+     * are.
+     * 
+     * <p>
+     * Calculates all the leases of the property if there is no such run.
+     */
     @Programmatic
-    public String calculateAndInvoice(InvoiceCalculationParameters parameters) {
-        String lastInteractionId = null;
+    public String calculateAndInvoiceIncrementally(InvoiceCalculationParameters parameters) {
+        final InvoiceCalculationRun lastRun = invoiceCalculationRuns.findLastRun(parameters);
+        if (lastRun == null || lastRun.getStartedOn() == null) {
+            return calculateAndInvoiceInBulk(parameters);
+        }
+        final LocalDateTime startedOn = getClockService().nowAsLocalDateTime();
+        final String runId = newRunId(parameters);
+        final List<Lease> changedLeases = leasesChangedSince(parameters.property(), lastRun.getStartedOn());
+        if (!changedLeases.isEmpty()) {
+            invoices.removeRuns(parameters, changedLeases);
+            calculateAndInvoicePartition(
+                    new InvoiceCalculationParameters(
+                            parameters.property(),
+                            changedLeases,
+                            parameters.leaseItemTypes(),
+                            parameters.invoiceRunType(),
+                            parameters.invoiceDueDate(),
+                            parameters.dueDateRange().startDate(),
+                            parameters.dueDateRange().endDateExcluding()),
+                    runId);
+        }
+        invoiceCalculationRuns.newRun(parameters, runId, startedOn);
+        return runId;
+    }
+
+    /**
+     * The leases of the property of which the lease, an item, a term or an
+     * occupancy has been changed (or, for items, terms and occupancies,
+     * removed) since the date time, together with the leases with terms
+     * indexed by an index with values published since.
+     * 
+     * <p>
+     * The changes made by the runs themselves are not recorded, see
+     * {@link InvoiceCalculationScope}.
+     */
+    private List<Lease> leasesChangedSince(final Property property, final LocalDateTime updatedOn) {
+        final Set<Lease> changedLeases = Sets.newTreeSet(leases.findLeasesByPropertyUpdatedAfter(property, updatedOn));
+        for (LeaseItem leaseItem : leaseItems.findByPropertyUpdatedAfter(property, updatedOn)) {
+            changedLeases.add(leaseItem.getLease());
+        }
+        for (LeaseTerm leaseTerm : leaseTerms.findByPropertyUpdatedAfter(property, updatedOn)) {
+            changedLeases.add(leaseTerm.getLeaseItem().getLease());
+        }
+        for (Occupancy occupancy : occupancies.findByPropertyUpdatedAfter(property, updatedOn)) {
+            changedLeases.add(occupancy.getLease());
+        }
+        final Set<Index> publishedIndices = Sets.newHashSet();
+        for (IndexValue indexValue : indexValues.findUpdatedAfter(updatedOn)) {
+            publishedIndices.add(indexValue.getIndexBase().getIndex());
+        }
+        if (!publishedIndices.isEmpty()) {
+            for (LeaseTermForIndexable leaseTerm : leaseTermsForIndexable.findByPropertyAndIndices(property, publishedIndices)) {
+                changedLeases.add(leaseTerm.getLeaseItem().getLease());
+            }
+        }
+        return Lists.newArrayList(changedLeases);
+    }
+
+    /**
+     * Returns the run id for a run of which the leases are calculated in
+     * separate partitions.
+     * 
+     * <p>
+     * Removes the earlier runs; the partitions themselves are calculated
+     * using
+     * {@link #calculateAndInvoicePartition(InvoiceCalculationParameters, String)}
+     * .
+     */
+    @Programmatic
+    public String startPartitionedRun(InvoiceCalculationParameters parameters) {
+        final String runId = newRunId(parameters);
         invoices.removeRuns(parameters);
+        return runId;
+    }
+
+    /**
+     * Records a run of which all partitions have been calculated, as does
+     * {@link #calculateAndInvoiceInBulk(InvoiceCalculationParameters)}, so
+     * that the next
+     * {@link #calculateAndInvoiceIncrementally(InvoiceCalculationParameters)
+     * incremental run} only calculates the leases changed since it started.
+     * 
+     * @see #startPartitionedRun(InvoiceCalculationParameters)
+     */
+    @Programmatic
+    public void completePartitionedRun(
+            final InvoiceCalculationParameters parameters,
+            final String runId,
+            final LocalDateTime startedOn) {
+        invoiceCalculationRuns.newRun(parameters, runId, startedOn);
+    }
+
+    /**
+     * Calculates the {@link InvoiceCalculationParameters#leases() leases} of
+     * a single partition of a run, in bulk, without removing earlier runs.
+     * 
+     * @see #startPartitionedRun(InvoiceCalculationParameters)
+     */
+    @Programmatic
+    public int calculateAndInvoicePartition(
+            final InvoiceCalculationParameters parameters,
+            final String runId) {
+        InvoiceCalculationScope.enter();
         try {
-            startInteraction(parameters.toString());
-            for (Lease lease : parameters.leases() == null ? leases.findLeasesByProperty(parameters.property()) : parameters.leases()) {
-                lease.verifyUntil(parameters.dueDateRange().endDateExcluding());
-                if (lease.getStatus() != LeaseStatus.SUSPENDED) {
-                    SortedSet<LeaseItem> leaseItems =
-                            parameters.leaseItem() == null ?
-                                    lease.getItems() :
-                                    new TreeSet<LeaseItem>(Arrays.asList(parameters.leaseItem()));
-                    for (LeaseItem leaseItem : leaseItems) {
-                        if (!leaseItem.getStatus().equals(LeaseItemStatus.SUSPENDED)) {
-                            if (parameters.leaseItemTypes() == null || parameters.leaseItemTypes().contains(leaseItem.getType())) {
-                                SortedSet<LeaseTerm> leaseTerms =
-                                        parameters.leaseTerm() == null ?
-                                                leaseItem.getTerms() :
-                                                new TreeSet<LeaseTerm>(Arrays.asList(parameters.leaseTerm()));
-                                for (LeaseTerm leaseTerm : leaseTerms) {
-                                    final List<CalculationResult> results;
-                                    results = calculateDueDateRange(leaseTerm, parameters);
-                                    createInvoiceItems(leaseTerm, parameters, results);
-                                }
-                            }
-                        }
+            final int numberOfItems = doCalculateAndInvoicePartition(parameters, runId);
+            getContainer().flush();
+            return numberOfItems;
+        } finally {
+            InvoiceCalculationScope.exit();
+        }
+    }
+
+    private int doCalculateAndInvoicePartition(
+            final InvoiceCalculationParameters parameters,
+            final String runId) {
+        final List<Lease> leasesToCalculate = leasesToCalculate(parameters);
+        final InvoicedValues invoicedValues = invoicedValuesOf(leasesToCalculate, parameters);
+        final MatchingInvoices matchingInvoices = matchingInvoicesFor(parameters);
+        final List<InvoiceItemDelta> deltas = Lists.newArrayList();
+        for (Lease lease : leasesToCalculate) {
+            for (LeaseTerm leaseTerm : leaseTermsToCalculate(lease, parameters)) {
+                for (CalculationResult result : calculateDueDateRange(leaseTerm, parameters)) {
+                    final InvoiceItemDelta delta = deltaOf(
+                            leaseTerm,
+                            parameters,
+                            result,
+                            invoicedValues.invoicedValue(leaseTerm, result.invoicingInterval().asLocalDateInterval()));
+                    if (delta != null) {
+                        deltas.add(delta);
                     }
                 }
             }
-        } finally {
-            lastInteractionId = interactionId;
-            endInteraction();
         }
-        return lastInteractionId;
+        for (InvoiceItemDelta delta : deltas) {
+            createInvoiceItem(delta, parameters, runId, matchingInvoices);
+        }
+        return deltas.size();
+    }
+
+    /**
+     * The new invoices of the run's leases (or, if none are given, of its
+     * property) and due date, seeded once so that the invoice of each new
+     * item is found (or created) in memory.
+     */
+    private MatchingInvoices matchingInvoicesFor(final InvoiceCalculationParameters parameters) {
+        if (parameters.leases() != null) {
+            return invoices.matchingInvoices(parameters.leases(), parameters.invoiceDueDate(), InvoiceStatus.NEW);
+        }
+        return invoices.matchingInvoices(parameters.property(), parameters.invoiceDueDate(), InvoiceStatus.NEW);
+    }
+
+    private List<Lease> leasesToCalculate(final InvoiceCalculationParameters parameters) {
+        return parameters.leases() == null ? leases.findLeasesByProperty(parameters.property()) : parameters.leases();
+    }
+
+    /**
+     * Verifies the lease and returns the terms to calculate, if any.
+     */
+    private List<LeaseTerm> leaseTermsToCalculate(final Lease lease, final InvoiceCalculationParameters parameters) {
+        final List<LeaseTerm> leaseTermsToCalculate = Lists.newArrayList();
+        lease.verifyUntil(parameters.dueDateRange().endDateExcluding());
+        if (lease.getStatus() != LeaseStatus.SUSPENDED) {
+            SortedSet<LeaseItem> leaseItems =
+                    parameters.leaseItem() == null ?
+                            lease.getItems() :
+                            new TreeSet<LeaseItem>(Arrays.asList(parameters.leaseItem()));
+            for (LeaseItem leaseItem : leaseItems) {
+                if (!leaseItem.getStatus().equals(LeaseItemStatus.SUSPENDED)) {
+                    if (parameters.leaseItemTypes() == null || parameters.leaseItemTypes().contains(leaseItem.getType())) {
+                        SortedSet<LeaseTerm> leaseTerms =
+                                parameters.leaseTerm() == null ?
+                                        leaseItem.getTerms() :
+                                        new TreeSet<LeaseTerm>(Arrays.asList(parameters.leaseTerm()));
+                        leaseTermsToCalculate.addAll(leaseTerms);
+                    }
+                }
+            }
+        }
+        return leaseTermsToCalculate;
+    }
+
+    /**
+     * The values already invoiced for the leases, in one query per
+     * {@link #INVOICED_VALUES_CHUNK_SIZE} leases.
+     */
+    private InvoicedValues invoicedValuesOf(final List<Lease> leases, final InvoiceCalculationParameters parameters) {
+        final LocalDateInterval prefetchInterval = prefetchInterval(leases, parameters);
+        final List<InvoiceItemForLease> invoicedItems = Lists.newArrayList();
+        for (List<Lease> chunk : Lists.partition(leases, INVOICED_VALUES_CHUNK_SIZE)) {
+            invoicedItems.addAll(invoiceItemsForLease.findInvoicedByLeasesAndInterval(chunk, prefetchInterval));
+        }
+        return new InvoicedValues(invoicedItems);
+    }
+
+    /**
+     * The interval spanning every invoicing interval that
+     * {@link #calculateDueDateRange(LeaseTerm, InvoiceCalculationParameters)}
+     * can return for these leases; a retro run starts as early as the
+     * earliest lease.
+     */
+    private LocalDateInterval prefetchInterval(final List<Lease> leases, final InvoiceCalculationParameters parameters) {
+        LocalDate startDate = parameters.dueDateRange().startDate();
+        if (parameters.invoiceRunType().equals(InvoiceRunType.RETRO_RUN)) {
+            for (Lease lease : leases) {
+                if (lease.getStartDate() != null && lease.getStartDate().compareTo(startDate) < 0) {
+                    startDate = lease.getStartDate();
+                }
+            }
+        }
+        return new LocalDateInterval(startDate, parameters.dueDateRange().endDateExcluding(), IntervalEnding.EXCLUDING_END_DATE);
     }
 
     /**
@@ -260,63 +489,140 @@ public class InvoiceCalculationService extends UdoDomainService<InvoiceCalculati
      * @param dueDate
      * @param calculationResult
      * @param invoicingFrequency
+     * @param runId
+     * @param matchingInvoices
      */
     void createInvoiceItems(
             final LeaseTerm leaseTerm,
             final InvoiceCalculationParameters parameters,
-            final List<CalculationResult> results) {
+            final List<CalculationResult> results,
+            final String runId,
+            final MatchingInvoices matchingInvoices) {
 
         for (CalculationResult result : results) {
             // TODO: this is a hack to speed up processing by ignoring zero
             // values on a normal run
-            if (result.value().compareTo(BigDecimal.ZERO) != 0 || parameters.invoiceRunType().equals(InvoiceRunType.RETRO_RUN)) {
+            if (isToBeInvoiced(result, parameters)) {
                 BigDecimal invoicedValue = invoiceItemsForLease.invoicedValue(leaseTerm, result.invoicingInterval().asLocalDateInterval());
-                BigDecimal newValue = result.value().subtract(invoicedValue).subtract(result.mockValue());
-                if (newValue.compareTo(BigDecimal.ZERO) != 0) {
-                    boolean adjustment = invoicedValue.add(result.mockValue()).compareTo(BigDecimal.ZERO) != 0;
-                    InvoiceItemForLease invoiceItem =
-                            invoiceItemsForLease.createUnapprovedInvoiceItem(
-                                    leaseTerm,
-                                    result.invoicingInterval().asLocalDateInterval(),
-                                    parameters.invoiceDueDate(),
-                                    interactionId);
-                    invoiceItem.setNetAmount(newValue);
-                    invoiceItem.setQuantity(BigDecimal.ONE);
-                    LeaseItem leaseItem = leaseTerm.getLeaseItem();
-                    Charge charge = leaseItem.getCharge();
-                    invoiceItem.setCharge(charge);
-                    invoiceItem.setDescription(charge.getDescription());
-                    invoiceItem.setDueDate(parameters.invoiceDueDate());
-                    invoiceItem.setStartDate(result.invoicingInterval().startDate());
-                    invoiceItem.setEndDate(result.invoicingInterval().endDate());
-
-                    LocalDateInterval intervalToUse =
-                            adjustment
-                                    ? result.invoicingInterval().asLocalDateInterval()
-                                    : result.effectiveInterval();
-                    invoiceItem.setEffectiveStartDate(intervalToUse.startDate());
-                    invoiceItem.setEffectiveEndDate(intervalToUse.endDate());
-
-                    invoiceItem.setTax(leaseItem.getEffectiveTax());
-                    invoiceItem.verify();
-                    invoiceItem.setAdjustment(adjustment);
+                final InvoiceItemDelta delta = deltaOf(leaseTerm, parameters, result, invoicedValue);
+                if (delta != null) {
+                    createInvoiceItem(delta, parameters, runId, matchingInvoices);
                 }
             }
         }
     }
 
+    private static boolean isToBeInvoiced(final CalculationResult result, final InvoiceCalculationParameters parameters) {
+        return result.value().compareTo(BigDecimal.ZERO) != 0 || parameters.invoiceRunType().equals(InvoiceRunType.RETRO_RUN);
+    }
+
+    /**
+     * The difference between the calculated and the already invoiced value,
+     * or <tt>null</tt> if there is nothing (more) to invoice.
+     */
+    private static InvoiceItemDelta deltaOf(
+            final LeaseTerm leaseTerm,
+            final InvoiceCalculationParameters parameters,
+            final CalculationResult result,
+            final BigDecimal invoicedValue) {
+        if (!isToBeInvoiced(result, parameters)) {
+            return null;
+        }
+        BigDecimal newValue = result.value().subtract(invoicedValue).subtract(result.mockValue());
+        if (newValue.compareTo(BigDecimal.ZERO) == 0) {
+            return null;
+        }
+        boolean adjustment = invoicedValue.add(result.mockValue()).compareTo(BigDecimal.ZERO) != 0;
+        return new InvoiceItemDelta(leaseTerm, result, newValue, adjustment);
+    }
+
+    private void createInvoiceItem(
+            final InvoiceItemDelta delta,
+            final InvoiceCalculationParameters parameters,
+            final String runId,
+            final MatchingInvoices matchingInvoices) {
+        final LeaseTerm leaseTerm = delta.leaseTerm;
+        final CalculationResult result = delta.result;
+        InvoiceItemForLease invoiceItem =
+                invoiceItemsForLease.createUnapprovedInvoiceItem(
+                        leaseTerm,
+                        result.invoicingInterval().asLocalDateInterval(),
+                        parameters.invoiceDueDate(),
+                        runId,
+                        matchingInvoices);
+        invoiceItem.setNetAmount(delta.newValue);
+        invoiceItem.setQuantity(BigDecimal.ONE);
+        LeaseItem leaseItem = leaseTerm.getLeaseItem();
+        Charge charge = leaseItem.getCharge();
+        invoiceItem.setCharge(charge);
+        invoiceItem.setDescription(charge.getDescription());
+        invoiceItem.setDueDate(parameters.invoiceDueDate());
+        invoiceItem.setStartDate(result.invoicingInterval().startDate());
+        invoiceItem.setEndDate(result.invoicingInterval().endDate());
+
+        LocalDateInterval intervalToUse =
+                delta.adjustment
+                        ? result.invoicingInterval().asLocalDateInterval()
+                        : result.effectiveInterval();
+        invoiceItem.setEffectiveStartDate(intervalToUse.startDate());
+        invoiceItem.setEffectiveEndDate(intervalToUse.endDate());
+
+        invoiceItem.setTax(leaseItem.getEffectiveTax());
+        invoiceItem.verify();
+        invoiceItem.setAdjustment(delta.adjustment);
+    }
+
+    /**
+     * An invoice item yet to be created.
+     */
+    private static class InvoiceItemDelta {
+        private final LeaseTerm leaseTerm;
+        private final CalculationResult result;
+        private final BigDecimal newValue;
+        private final boolean adjustment;
+
+        InvoiceItemDelta(
+                final LeaseTerm leaseTerm,
+                final CalculationResult result,
+                final BigDecimal newValue,
+                final boolean adjustment) {
+            this.leaseTerm = leaseTerm;
+            this.result = result;
+            this.newValue = newValue;
+            this.adjustment = adjustment;
+        }
+    }
+
     // //////////////////////////////////////
 
     @Inject
     EstatioSettingsService estatioSettingsService;
 
     @Inject
-    private Invoices invoices;
+    Invoices invoices;
+
+    @Inject
+    InvoiceItemsForLease invoiceItemsForLease;
+
+    @Inject
+    Leases leases;
+
+    @Inject
+    LeaseItems leaseItems;
+
+    @Inject
+    LeaseTerms leaseTerms;
+
+    @Inject
+    Occupancies occupancies;
+
+    @Inject
+    IndexValues indexValues;
 
     @Inject
-    private InvoiceItemsForLease invoiceItemsForLease;
+    LeaseTermsForIndexable leaseTermsForIndexable;
 
     @Inject
-    private Leases leases;
+    InvoiceCalculationRuns invoiceCalculationRuns;
 
 }
@@ -34,6 +34,8 @@ import org.estatio.dom.asset.Unit;
 import org.estatio.dom.invoice.Invoice;
 import org.estatio.dom.invoice.InvoiceStatus;
 import org.estatio.dom.invoice.Invoices;
+import org.estatio.dom.invoice.MatchingInvoices;
+import org.estatio.dom.invoice.summary.InvoiceTotals;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.LeaseItem;
 import org.estatio.dom.lease.LeaseTerm;
@@ -62,6 +64,35 @@ public class InvoiceItemsForLease extends UdoDomainRepositoryAndFactory<InvoiceI
                 lease,
                 InvoiceStatus.NEW,
                 dueDate, interactionId);
+        return newInvoiceItem(invoice, leaseTerm, interval, dueDate);
+    }
+
+    /**
+     * As {@link #newInvoiceItem(LeaseTerm, LocalDateInterval, LocalDate, String)},
+     * but finds or creates the invoice among the invoices of a run.
+     */
+    @Programmatic
+    public InvoiceItemForLease newInvoiceItem(
+            final LeaseTerm leaseTerm,
+            final LocalDateInterval interval,
+            final LocalDate dueDate,
+            final String interactionId,
+            final MatchingInvoices matchingInvoices) {
+        Invoice invoice = matchingInvoices.findOrCreate(
+                leaseTerm.getApplicationTenancy(),
+                leaseTerm.getLeaseItem().getPaymentMethod(),
+                leaseTerm.getLeaseItem().getLease(),
+                InvoiceStatus.NEW,
+                dueDate, interactionId);
+        return newInvoiceItem(invoice, leaseTerm, interval, dueDate);
+    }
+
+    private InvoiceItemForLease newInvoiceItem(
+            final Invoice invoice,
+            final LeaseTerm leaseTerm,
+            final LocalDateInterval interval,
+            final LocalDate dueDate) {
+        Lease lease = leaseTerm.getLeaseItem().getLease();
         InvoiceItemForLease invoiceItem = newTransientInstance();
         invoiceItem.setInvoice(invoice);
         invoiceItem.setStartDate(interval.startDate());
@@ -76,6 +107,7 @@ public class InvoiceItemsForLease extends UdoDomainRepositoryAndFactory<InvoiceI
         invoiceItem.setFixedAsset(unit);
 
         persistIfNotAlready(invoiceItem);
+        invoiceTotals.markStale(invoice);
         return invoiceItem;
     }
 
@@ -135,6 +167,29 @@ public class InvoiceItemsForLease extends UdoDomainRepositoryAndFactory<InvoiceI
                 "invoiceStatus", invoiceStatus);
     }
 
+    /**
+     * All items of the leases that overlap the interval and are on invoices
+     * that are no longer {@link InvoiceStatus#NEW new}, as used by
+     * {@link InvoicedValues}.
+     * 
+     * <p>
+     * Selected by lease (as is {@link #invoicedValue(LeaseTerm, LocalDateInterval)}),
+     * not by the fixed asset of the invoice, which may be a different one or
+     * none at all. Callers keep the list of leases to a bounded size, it ends
+     * up as an <tt>IN</tt> clause.
+     */
+    @Programmatic
+    public List<InvoiceItemForLease> findInvoicedByLeasesAndInterval(
+            final List<Lease> leases,
+            final LocalDateInterval interval) {
+        return allMatches(
+                "findByLeasesAndIntervalAndInvoiceStatusNot",
+                "leases", leases,
+                "startDate", interval.startDate(),
+                "endDateExcluding", interval.endDateExcluding(),
+                "invoiceStatus", InvoiceStatus.NEW);
+    }
+
     // //////////////////////////////////////
 
     @Programmatic
@@ -149,6 +204,16 @@ public class InvoiceItemsForLease extends UdoDomainRepositoryAndFactory<InvoiceI
         return newInvoiceItem(leaseTerm, invoiceInterval, dueDate, interactionId);
     }
 
+    @Programmatic
+    public InvoiceItemForLease createUnapprovedInvoiceItem(
+            final LeaseTerm leaseTerm,
+            final LocalDateInterval invoiceInterval,
+            final LocalDate dueDate,
+            final String interactionId,
+            final MatchingInvoices matchingInvoices) {
+        return newInvoiceItem(leaseTerm, invoiceInterval, dueDate, interactionId, matchingInvoices);
+    }
+
     @Programmatic
     public InvoiceItemForLease findUnapprovedInvoiceItem(
             final LeaseTerm leaseTerm,
@@ -203,4 +268,7 @@ public class InvoiceItemsForLease extends UdoDomainRepositoryAndFactory<InvoiceI
         this.invoices = invoices;
     }
 
+    @javax.inject.Inject
+    private InvoiceTotals invoiceTotals;
+
 }
@@ -16,7 +16,11 @@ import org.apache.isis.applib.annotation.Prototype;
 
 import org.estatio.dom.UdoDomainService;
 import org.estatio.dom.asset.Property;
+import org.estatio.dom.invoice.InvoiceStatus;
+import org.estatio.dom.invoice.Invoices;
+import org.estatio.dom.invoice.summary.InvoiceTotals;
 import org.estatio.dom.invoice.viewmodel.InvoiceSummariesForInvoiceRun;
+import org.estatio.dom.invoice.viewmodel.InvoiceSummaryForInvoiceRun;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.Leases;
 
@@ -48,15 +52,15 @@ public class InvoiceService extends UdoDomainService<InvoiceService> {
             final @ParameterLayout(named = "Invoice due date") LocalDate invoiceDueDate,
             final @ParameterLayout(named = "Start due date") LocalDate startDueDate,
             final @ParameterLayout(named = "Next due date") LocalDate nextDueDate) {
-        final String runId = invoiceCalculationService.calculateAndInvoice(
-                new InvoiceCalculationParameters(
-                        property,
-                        calculationSelection.selectedTypes(),
-                        invoiceRunType,
-                        invoiceDueDate,
-                        startDueDate,
-                        nextDueDate));
-        return invoiceSummaries.findByRunId(runId);
+        final InvoiceCalculationParameters parameters = new InvoiceCalculationParameters(
+                property,
+                calculationSelection.selectedTypes(),
+                invoiceRunType,
+                invoiceDueDate,
+                startDueDate,
+                nextDueDate);
+        final String runId = invoiceCalculationService.calculateAndInvoiceInBulk(parameters);
+        return summaryOf(runId);
     }
 
     public InvoiceRunType default1CalculateInvoicesForProperty() {
@@ -94,6 +98,64 @@ public class InvoiceService extends UdoDomainService<InvoiceService> {
 
     // //////////////////////////////////////
 
+    /**
+     * As {@link #calculateInvoicesForProperty(Property, InvoiceRunType, InvoiceCalculationSelection, LocalDate, LocalDate, LocalDate)},
+     * but only recalculates the leases changed since the last run of the
+     * property with the same parameters; returns all of the new invoices of
+     * the property for the due date.
+     */
+    @ActionSemantics(Of.NON_IDEMPOTENT)
+    @MemberOrder(name = "Invoices", sequence = "1.1")
+    public Object calculateChangedInvoicesForProperty(
+            final @ParameterLayout(named = "Property") Property property,
+            final @ParameterLayout(named = "Run Type") InvoiceRunType invoiceRunType,
+            final @ParameterLayout(named = "Selection") InvoiceCalculationSelection calculationSelection,
+            final @ParameterLayout(named = "Invoice due date") LocalDate invoiceDueDate,
+            final @ParameterLayout(named = "Start due date") LocalDate startDueDate,
+            final @ParameterLayout(named = "Next due date") LocalDate nextDueDate) {
+        invoiceCalculationService.calculateAndInvoiceIncrementally(
+                new InvoiceCalculationParameters(
+                        property,
+                        calculationSelection.selectedTypes(),
+                        invoiceRunType,
+                        invoiceDueDate,
+                        startDueDate,
+                        nextDueDate));
+        return invoices.findInvoices(property, invoiceDueDate, InvoiceStatus.NEW);
+    }
+
+    public InvoiceRunType default1CalculateChangedInvoicesForProperty() {
+        return default1CalculateInvoicesForProperty();
+    }
+
+    public InvoiceCalculationSelection default2CalculateChangedInvoicesForProperty() {
+        return default2CalculateInvoicesForProperty();
+    }
+
+    public LocalDate default3CalculateChangedInvoicesForProperty() {
+        return default3CalculateInvoicesForProperty();
+    }
+
+    public LocalDate default4CalculateChangedInvoicesForProperty() {
+        return default4CalculateInvoicesForProperty();
+    }
+
+    public LocalDate default5CalculateChangedInvoicesForProperty() {
+        return default5CalculateInvoicesForProperty();
+    }
+
+    public String validateCalculateChangedInvoicesForProperty(
+            final Property property,
+            final InvoiceRunType runType,
+            final InvoiceCalculationSelection calculationSelection,
+            final LocalDate dueDate,
+            final LocalDate startDate,
+            final LocalDate endDate) {
+        return validateCalculateInvoicesForProperty(property, runType, calculationSelection, dueDate, startDate, endDate);
+    }
+
+    // //////////////////////////////////////
+
     @Prototype
     @ActionSemantics(Of.NON_IDEMPOTENT)
     @MemberOrder(name = "Invoices", sequence = "99")
@@ -116,7 +178,7 @@ public class InvoiceService extends UdoDomainService<InvoiceService> {
                             startDueDate,
                             nextDueDate));
         }
-        return invoiceSummaries.findByRunId(runId);
+        return summaryOf(runId);
     }
 
     public String validateCalculateInvoicesForLeases(
@@ -163,7 +225,7 @@ public class InvoiceService extends UdoDomainService<InvoiceService> {
                         startDueDate,
                         nextDueDate));
         if (runId != null) {
-            return invoiceSummaries.findByRunId(runId);
+            return summaryOf(runId);
         }
         getContainer().informUser("No invoices created");
         return lease;
@@ -204,6 +266,17 @@ public class InvoiceService extends UdoDomainService<InvoiceService> {
 
     // //////////////////////////////////////
 
+    /**
+     * The summary of the run just calculated; its totals are refreshed
+     * straight away rather than once this transaction has committed.
+     */
+    private InvoiceSummaryForInvoiceRun summaryOf(final String runId) {
+        invoiceTotals.refreshRun(runId);
+        return invoiceSummaries.findByRunId(runId);
+    }
+
+    // //////////////////////////////////////
+
     @javax.inject.Inject
     private Leases leases;
 
@@ -213,4 +286,10 @@ public class InvoiceService extends UdoDomainService<InvoiceService> {
     @javax.inject.Inject
     private InvoiceSummariesForInvoiceRun invoiceSummaries;
 
+    @javax.inject.Inject
+    private InvoiceTotals invoiceTotals;
+
+    @javax.inject.Inject
+    private Invoices invoices;
+
 }
@@ -0,0 +1,65 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+
+import org.estatio.dom.invoice.InvoiceStatus;
+import org.estatio.dom.lease.LeaseTerm;
+import org.estatio.dom.valuetypes.LocalDateInterval;
+
+/**
+ * The values already invoiced (that is, on invoices that are no longer
+ * {@link InvoiceStatus#NEW new}) indexed by {@link LeaseTerm} and interval.
+ *
+ * <p>
+ * Equivalent to
+ * {@link InvoiceItemsForLease#invoicedValue(LeaseTerm, LocalDateInterval)},
+ * but prefetched once for a whole property run.
+ */
+public class InvoicedValues {
+
+    private final Map<LeaseTerm, Map<LocalDateInterval, BigDecimal>> valuesByTerm = Maps.newHashMap();
+
+    public InvoicedValues(final List<InvoiceItemForLease> invoicedItems) {
+        for (InvoiceItemForLease invoiceItem : invoicedItems) {
+            Map<LocalDateInterval, BigDecimal> valuesByInterval = valuesByTerm.get(invoiceItem.getLeaseTerm());
+            if (valuesByInterval == null) {
+                valuesByInterval = Maps.newHashMap();
+                valuesByTerm.put(invoiceItem.getLeaseTerm(), valuesByInterval);
+            }
+            final LocalDateInterval interval = invoiceItem.getInterval();
+            final BigDecimal value = valuesByInterval.get(interval);
+            valuesByInterval.put(interval, (value == null ? new BigDecimal(0) : value).add(invoiceItem.getNetAmount()));
+        }
+    }
+
+    public BigDecimal invoicedValue(
+            final LeaseTerm leaseTerm,
+            final LocalDateInterval interval) {
+        final Map<LocalDateInterval, BigDecimal> valuesByInterval = valuesByTerm.get(leaseTerm);
+        final BigDecimal value = valuesByInterval == null ? null : valuesByInterval.get(interval);
+        return value == null ? new BigDecimal(0) : value;
+    }
+
+}
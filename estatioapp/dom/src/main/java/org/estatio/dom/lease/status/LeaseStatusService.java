@@ -1,5 +1,7 @@
 package org.estatio.dom.lease.status;
 
+import java.util.List;
+
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
@@ -14,7 +16,9 @@ import org.apache.isis.applib.services.eventbus.EventBusService;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.LeaseItem;
 import org.estatio.dom.lease.LeaseItemStatus;
+import org.estatio.dom.lease.LeaseItems;
 import org.estatio.dom.lease.LeaseStatus;
+import org.estatio.dom.lease.Leases;
 import org.estatio.services.clock.ClockService;
 
 @DomainService
@@ -76,6 +80,33 @@ public class LeaseStatusService {
 
     // //////////////////////////////////////
 
+    /**
+     * The (active) leases whose status is due to change because their tenancy
+     * has ended, that is, whose status would be refreshed to
+     * {@link LeaseStatus#TERMINATED terminated}.
+     *
+     * <p>
+     * Only the passing of time is covered; changes to the leases themselves
+     * are refreshed by the events below.
+     */
+    @Programmatic
+    public List<Lease> findLeasesDueForRefresh() {
+        return leases.findByStatusAndTenancyEndDateBefore(LeaseStatus.ACTIVE, clockService.now());
+    }
+
+    /**
+     * The (active) items whose status is due to change because they have
+     * ended.
+     *
+     * @see #findLeasesDueForRefresh()
+     */
+    @Programmatic
+    public List<LeaseItem> findLeaseItemsDueForRefresh() {
+        return leaseItems.findByStatusAndEndDateBefore(LeaseItemStatus.ACTIVE, clockService.now());
+    }
+
+    // //////////////////////////////////////
+
     @Subscribe
     @Programmatic
     public void on(Lease.ResumeAllEvent ev) {
@@ -166,4 +197,10 @@ public class LeaseStatusService {
     @Inject
     ClockService clockService;
 
+    @Inject
+    Leases leases;
+
+    @Inject
+    LeaseItems leaseItems;
+
 }
@@ -24,6 +24,8 @@ import javax.jdo.annotations.IdGeneratorStrategy;
 import javax.jdo.annotations.IdentityType;
 import javax.jdo.annotations.VersionStrategy;
 
+import org.joda.time.LocalDate;
+
 import org.apache.isis.applib.annotation.Disabled;
 import org.apache.isis.applib.annotation.Immutable;
 import org.apache.isis.applib.annotation.Named;
@@ -55,6 +57,10 @@ import org.estatio.dom.apptenancy.WithApplicationTenancyGlobal;
  * {@link #getObjectIdentifier() object identifier} identify the object to which
  * the numerator has been scoped. The values of these properties are taken from
  * the applib {@link Bookmark}.
+ * 
+ * <p>
+ * Numerators are incremented concurrently, so are never held in the level 2
+ * cache.
  */
 @javax.jdo.annotations.PersistenceCapable(identityType = IdentityType.DATASTORE)
 @javax.jdo.annotations.DatastoreIdentity(
@@ -63,6 +69,7 @@ import org.estatio.dom.apptenancy.WithApplicationTenancyGlobal;
 @javax.jdo.annotations.Version(
         strategy = VersionStrategy.VERSION_NUMBER,
         column = "version")
+@javax.jdo.annotations.Cacheable("false")
 @javax.jdo.annotations.Queries({
         @javax.jdo.annotations.Query(
                 name = "findByNameAndObjectTypeAndObjectIdentifier", language = "JDOQL",
@@ -266,23 +273,109 @@ public class Numerator
     
     // //////////////////////////////////////
     
+    /**
+     * The last value handed out; while a block is {@link #reserve(int)
+     * reserved} this is not necessarily the {@link #getLastIncrement() last
+     * increment}.
+     */
     @Programmatic
     public String lastIncrementStr(){
-        return format(getLastIncrement());
+        return format(lastUsed());
     }
     
     // //////////////////////////////////////
 
+    @javax.jdo.annotations.NotPersistent
+    private BigInteger lastUsedInBlock;
+
+    /**
+     * Reserves a block of values, to be handed out by
+     * {@link #nextIncrementStr()} without updating the
+     * {@link #getLastIncrement() last increment} for each; an existing block
+     * is extended.
+     * 
+     * <p>
+     * The reservation is a single update of this numerator which, once
+     * flushed, keeps out any other transaction wanting to number until this
+     * one completes. The caller must {@link #release() release} the block
+     * before then, so that the values not handed out are given back.
+     */
+    @Programmatic
+    public void reserve(final int size) {
+        if (size <= 0) {
+            return;
+        }
+        if (lastUsedInBlock == null) {
+            lastUsedInBlock = lastUsed();
+        }
+        setLastIncrement(lastOrZero().add(BigInteger.valueOf(size)));
+    }
+
+    /**
+     * Gives back the values of the {@link #reserve(int) reserved} block not
+     * handed out, so that there are no gaps.
+     */
+    @Programmatic
+    public void release() {
+        if (lastUsedInBlock == null) {
+            return;
+        }
+        setLastIncrement(lastUsedInBlock);
+        lastUsedInBlock = null;
+    }
+
     private BigInteger incrementCounter() {
-        BigInteger last = getLastIncrement();
-        if (last == null) {
-            last = BigInteger.ZERO;
+        if (lastUsedInBlock != null && lastUsedInBlock.compareTo(lastOrZero()) < 0) {
+            lastUsedInBlock = lastUsedInBlock.add(BigInteger.ONE);
+            return lastUsedInBlock;
         }
-        BigInteger next = last.add(BigInteger.ONE);
+        BigInteger next = lastOrZero().add(BigInteger.ONE);
         setLastIncrement(next);
+        if (lastUsedInBlock != null) {
+            // block exhausted, so grows one at a time
+            lastUsedInBlock = next;
+        }
         return next;
     }
 
+    private BigInteger lastUsed() {
+        return lastUsedInBlock != null ? lastUsedInBlock : getLastIncrement();
+    }
+
+    private BigInteger lastOrZero() {
+        final BigInteger last = getLastIncrement();
+        return last == null ? BigInteger.ZERO : last;
+    }
+
+    // //////////////////////////////////////
+
+    @javax.jdo.annotations.NotPersistent
+    private BigInteger datedIncrement;
+
+    @javax.jdo.annotations.NotPersistent
+    private LocalDate lastIncrementDate;
+
+    /**
+     * The date {@link #dateLastIncrement(LocalDate) recorded} for the
+     * {@link #lastIncrementStr() last value handed out}, for example the date
+     * of the last invoice; <tt>null</tt> if not (yet) known for that value.
+     * 
+     * <p>
+     * Only remembered for as long as this object is, that is, within an
+     * interaction.
+     */
+    @Programmatic
+    public LocalDate lastIncrementDate() {
+        final BigInteger lastUsed = lastUsed();
+        return lastUsed != null && lastUsed.equals(datedIncrement) ? lastIncrementDate : null;
+    }
+
+    @Programmatic
+    public void dateLastIncrement(final LocalDate date) {
+        datedIncrement = lastUsed();
+        lastIncrementDate = date;
+    }
+
     // //////////////////////////////////////
 
     @Programmatic
@@ -20,6 +20,8 @@ package org.estatio.dom.party;
 
 import java.util.List;
 
+import javax.inject.Inject;
+
 import com.google.common.collect.Lists;
 
 import org.apache.isis.applib.annotation.Action;
@@ -32,6 +34,7 @@ import org.apache.isis.applib.annotation.SemanticsOf;
 import org.apache.isis.applib.annotation.Where;
 
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
+import org.estatio.dom.search.SearchIndexService;
 import org.estatio.dom.utils.StringUtils;
 
 @DomainService(repositoryFor = Party.class)
@@ -51,6 +54,9 @@ public class Parties extends UdoDomainRepositoryAndFactory<Party> {
     @MemberOrder(sequence = "1")
     public List<Party> findParties(
             final @ParameterLayout(named = "Reference or Name", describedAs = "May include wildcards '*' and '?'") String referenceOrName) {
+        if (searchIndexService.isEnabled()) {
+            return searchIndexService.find(Party.class, referenceOrName);
+        }
         return allMatches("matchByReferenceOrName",
                 "referenceOrName", StringUtils.wildcardToCaseInsensitiveRegex(referenceOrName));
     }
@@ -75,9 +81,12 @@ public class Parties extends UdoDomainRepositoryAndFactory<Party> {
 
     @Action(hidden = Where.EVERYWHERE)
     public List<Party> autoComplete(final String searchPhrase) {
-        return searchPhrase.length() > 2
-                ? findParties("*" + searchPhrase + "*")
-                : Lists.<Party> newArrayList();
+        if (searchPhrase.length() <= 2) {
+            return Lists.<Party> newArrayList();
+        }
+        return searchIndexService.isEnabled()
+                ? searchIndexService.autoComplete(Party.class, searchPhrase)
+                : findParties("*" + searchPhrase + "*");
     }
 
     // //////////////////////////////////////
@@ -88,4 +97,9 @@ public class Parties extends UdoDomainRepositoryAndFactory<Party> {
         return allInstances();
     }
 
+    // //////////////////////////////////////
+
+    @Inject
+    SearchIndexService searchIndexService;
+
 }
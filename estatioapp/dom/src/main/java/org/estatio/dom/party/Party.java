@@ -20,6 +20,8 @@ package org.estatio.dom.party;
 
 import java.util.SortedSet;
 import java.util.TreeSet;
+
+import javax.inject.Inject;
 import javax.jdo.annotations.DiscriminatorStrategy;
 import javax.jdo.annotations.IdGeneratorStrategy;
 import javax.jdo.annotations.IdentityType;
@@ -46,6 +48,7 @@ import org.estatio.dom.WithReferenceUnique;
 import org.estatio.dom.agreement.AgreementRole;
 import org.estatio.dom.agreement.AgreementRoleHolder;
 import org.estatio.dom.communicationchannel.CommunicationChannelOwner;
+import org.estatio.dom.search.SearchIndexService;
 
 @javax.jdo.annotations.PersistenceCapable(identityType = IdentityType.DATASTORE)
 @javax.jdo.annotations.DatastoreIdentity(
@@ -91,6 +94,20 @@ public abstract class Party
 
     // //////////////////////////////////////
 
+    public void persisted() {
+        searchIndexService.indexed(this);
+    }
+
+    public void updated() {
+        searchIndexService.indexed(this);
+    }
+
+    public void removing() {
+        searchIndexService.removed(this);
+    }
+
+    // //////////////////////////////////////
+
     private String reference;
 
     @javax.jdo.annotations.Column(allowsNull = "false", length = JdoColumnLength.REFERENCE)
@@ -188,4 +205,9 @@ public abstract class Party
         return party != this ? null : "Cannot replace a party with itself";
     }
 
+    // //////////////////////////////////////
+
+    @Inject
+    SearchIndexService searchIndexService;
+
 }
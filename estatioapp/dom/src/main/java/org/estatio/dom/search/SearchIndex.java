@@ -0,0 +1,371 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.search;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.services.bookmark.Bookmark;
+
+import org.estatio.dom.utils.StringUtils;
+
+/**
+ * An in-memory index of the references and names of one type of entity,
+ * answering the same wildcard patterns as the <tt>matchByReferenceOrName</tt>
+ * queries.
+ *
+ * <p>
+ * Each literal run of three or more characters in the pattern selects
+ * candidates through a trigram index; the candidates are then matched
+ * against the pattern itself, exactly as the query would. Patterns without
+ * any such run (say <tt>"*"</tt> or <tt>"AB*"</tt>) are matched against every
+ * entry.
+ */
+public class SearchIndex {
+
+    static final int GRAM = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Bookmark, Entry> entries = Maps.newHashMap();
+    private final Map<String, Set<Entry>> postings = Maps.newHashMap();
+
+    public void put(final Entry entry) {
+        lock.writeLock().lock();
+        try {
+            doRemove(entry.getBookmark());
+            entries.put(entry.getBookmark(), entry);
+            for (final String gram : gramsOf(entry)) {
+                Set<Entry> posting = postings.get(gram);
+                if (posting == null) {
+                    posting = Sets.newHashSet();
+                    postings.put(gram, posting);
+                }
+                posting.add(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(final Bookmark bookmark) {
+        lock.writeLock().lock();
+        try {
+            doRemove(bookmark);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void doRemove(final Bookmark bookmark) {
+        final Entry entry = entries.remove(bookmark);
+        if (entry == null) {
+            return;
+        }
+        for (final String gram : gramsOf(entry)) {
+            final Set<Entry> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(entry);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The entries whose reference or name match the wildcard pattern (as per
+     * {@link StringUtils#wildcardToCaseInsensitiveRegex(String)}) and the
+     * filter, best matches first.
+     */
+    public List<Entry> search(final String wildcardPattern, final Predicate<Entry> filter) {
+        if (wildcardPattern == null) {
+            return Collections.emptyList();
+        }
+        final Pattern pattern = Pattern.compile(StringUtils.wildcardToCaseInsensitiveRegex(wildcardPattern));
+        final List<Entry> matches = Lists.newArrayList();
+        lock.readLock().lock();
+        try {
+            for (final Entry entry : candidatesFor(wildcardPattern)) {
+                if (entry.matches(pattern) && filter.apply(entry)) {
+                    matches.add(entry);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Collections.sort(matches, new Ranking(lowerCase(literalOf(wildcardPattern))));
+        return matches;
+    }
+
+    private Collection<Entry> candidatesFor(final String wildcardPattern) {
+        final Set<String> grams = Sets.newHashSet();
+        for (final String fragment : fragmentsOf(wildcardPattern)) {
+            addGrams(lowerCase(fragment), grams);
+        }
+        if (grams.isEmpty()) {
+            return entries.values();
+        }
+        Set<Entry> smallest = null;
+        for (final String gram : grams) {
+            final Set<Entry> posting = postings.get(gram);
+            if (posting == null) {
+                return Collections.emptyList();
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        final List<Entry> candidates = Lists.newArrayList();
+        for (final Entry entry : smallest) {
+            if (containsAll(entry, grams)) {
+                candidates.add(entry);
+            }
+        }
+        return candidates;
+    }
+
+    private boolean containsAll(final Entry entry, final Set<String> grams) {
+        for (final String gram : grams) {
+            if (!postings.get(gram).contains(entry)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The literal runs of the pattern; anything that has a meaning in a
+     * regex (not just the wildcards) ends a run.
+     */
+    static List<String> fragmentsOf(final String wildcardPattern) {
+        final List<String> fragments = Lists.newArrayList();
+        final StringBuilder fragment = new StringBuilder();
+        for (int i = 0; i < wildcardPattern.length(); i++) {
+            final char c = wildcardPattern.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == ' ' || c == '-' || c == '_' || c == '/') {
+                fragment.append(c);
+            } else if (fragment.length() > 0) {
+                fragments.add(fragment.toString());
+                fragment.setLength(0);
+            }
+        }
+        if (fragment.length() > 0) {
+            fragments.add(fragment.toString());
+        }
+        return fragments;
+    }
+
+    private static String literalOf(final String wildcardPattern) {
+        final StringBuilder literal = new StringBuilder();
+        for (final String fragment : fragmentsOf(wildcardPattern)) {
+            literal.append(fragment);
+        }
+        return literal.toString();
+    }
+
+    private static Set<String> gramsOf(final Entry entry) {
+        final Set<String> grams = Sets.newHashSet();
+        addGrams(entry.referenceLowerCase, grams);
+        addGrams(entry.nameLowerCase, grams);
+        return grams;
+    }
+
+    private static void addGrams(final String lowerCase, final Set<String> grams) {
+        if (lowerCase == null) {
+            return;
+        }
+        for (int i = 0; i + GRAM <= lowerCase.length(); i++) {
+            grams.add(lowerCase.substring(i, i + GRAM));
+        }
+    }
+
+    /**
+     * Lower case, a character at a time, so that a text containing some
+     * fragment (ignoring case) always contains its grams.
+     */
+    static String lowerCase(final String str) {
+        if (str == null) {
+            return null;
+        }
+        final char[] chars = str.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Exact reference first, then references and names starting with the
+     * literal part of the pattern, then everything else; by reference within
+     * each.
+     */
+    static class Ranking implements Comparator<Entry> {
+
+        private final String literal;
+
+        Ranking(final String literal) {
+            this.literal = literal;
+        }
+
+        @Override
+        public int compare(final Entry e1, final Entry e2) {
+            final int result = Integer.compare(rankOf(e1), rankOf(e2));
+            if (result != 0) {
+                return result;
+            }
+            return compare(e1.referenceLowerCase, e2.referenceLowerCase);
+        }
+
+        private int rankOf(final Entry entry) {
+            if (literal.isEmpty()) {
+                return 0;
+            }
+            if (literal.equals(entry.referenceLowerCase)) {
+                return 0;
+            }
+            if (entry.referenceLowerCase != null && entry.referenceLowerCase.startsWith(literal)) {
+                return 1;
+            }
+            if (entry.nameLowerCase != null && entry.nameLowerCase.startsWith(literal)) {
+                return 2;
+            }
+            return 3;
+        }
+
+        private static int compare(final String s1, final String s2) {
+            if (s1 == null) {
+                return s2 == null ? 0 : 1;
+            }
+            return s2 == null ? -1 : s1.compareTo(s2);
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * What is indexed of an entity: its bookmark, (runtime) type, reference,
+     * name and (optionally) the date it ends.
+     */
+    public static final class Entry {
+
+        private final Bookmark bookmark;
+        private final Class<?> type;
+        private final String reference;
+        private final String name;
+        private final LocalDate endDate;
+
+        private final String referenceLowerCase;
+        private final String nameLowerCase;
+
+        public Entry(
+                final Bookmark bookmark,
+                final Class<?> type,
+                final String reference,
+                final String name,
+                final LocalDate endDate) {
+            this.bookmark = bookmark;
+            this.type = type;
+            this.reference = reference;
+            this.name = name;
+            this.endDate = endDate;
+            this.referenceLowerCase = lowerCase(reference);
+            this.nameLowerCase = lowerCase(name);
+        }
+
+        public Bookmark getBookmark() {
+            return bookmark;
+        }
+
+        public Class<?> getType() {
+            return type;
+        }
+
+        public String getReference() {
+            return reference;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LocalDate getEndDate() {
+            return endDate;
+        }
+
+        boolean matches(final Pattern pattern) {
+            return reference != null && pattern.matcher(reference).matches()
+                    || name != null && pattern.matcher(name).matches();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof Entry && bookmark.equals(((Entry) obj).bookmark);
+        }
+
+        @Override
+        public int hashCode() {
+            return bookmark.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return bookmark + " " + reference + " " + name;
+        }
+    }
+
+}
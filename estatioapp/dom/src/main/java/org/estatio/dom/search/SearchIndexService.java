@@ -0,0 +1,338 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.search;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.jdo.Query;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.joda.time.LocalDate;
+
+import org.apache.isis.applib.annotation.DomainService;
+import org.apache.isis.applib.annotation.NatureOfService;
+import org.apache.isis.applib.annotation.Programmatic;
+import org.apache.isis.applib.services.bookmark.Bookmark;
+import org.apache.isis.applib.services.jdosupport.IsisJdoSupport;
+
+import org.estatio.dom.TransactionCompletionService;
+import org.estatio.dom.UdoDomainService;
+import org.estatio.dom.WithReferenceGetter;
+import org.estatio.dom.asset.FixedAsset;
+import org.estatio.dom.asset.Unit;
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.party.Party;
+
+/**
+ * Holds a {@link SearchIndex} of the {@link Lease}s, {@link Party parties}
+ * and {@link FixedAsset}s (including {@link Unit}s), built at startup and
+ * kept current by their persistence lifecycle callbacks once the changing
+ * transaction has been committed.
+ *
+ * <p>
+ * The indexes are per node: changes made by other nodes sharing the database
+ * are only picked up by a {@link #rebuild() rebuild}. The index is therefore
+ * only used when configured with <tt>estatio.search.enabled=true</tt>, for
+ * deployments with a single node; otherwise the database is searched.
+ */
+@DomainService(nature = NatureOfService.DOMAIN)
+public class SearchIndexService extends UdoDomainService<SearchIndexService> {
+
+    static final String KEY_ENABLED = "estatio.search.enabled";
+    static final String KEY_AUTO_COMPLETE_MAX_RESULTS = "estatio.search.autoCompleteMaxResults";
+
+    private static final int AUTO_COMPLETE_MAX_RESULTS_DEFAULT = 50;
+
+    /**
+     * Hits are loaded by their references, at most this many per query.
+     */
+    private static final int LOOKUP_BATCH_SIZE = 1000;
+
+    public SearchIndexService() {
+        super(SearchIndexService.class);
+    }
+
+    private final Map<Class<?>, SearchIndex> indexes = Maps.newConcurrentMap();
+
+    private boolean enabled;
+    private int autoCompleteMaxResults;
+
+    @Programmatic
+    @PostConstruct
+    @Override
+    public void init(final Map<String, String> properties) {
+        super.init(properties);
+        final String enabledProperty = properties == null ? null : properties.get(KEY_ENABLED);
+        enabled = enabledProperty != null && Boolean.parseBoolean(enabledProperty.trim());
+        final String maxResultsProperty = properties == null ? null : properties.get(KEY_AUTO_COMPLETE_MAX_RESULTS);
+        autoCompleteMaxResults = maxResultsProperty == null ? AUTO_COMPLETE_MAX_RESULTS_DEFAULT : Integer.parseInt(maxResultsProperty.trim());
+        indexes.put(Lease.class, new SearchIndex());
+        indexes.put(Party.class, new SearchIndex());
+        indexes.put(FixedAsset.class, new SearchIndex());
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Programmatic
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Programmatic
+    public void rebuild() {
+        for (SearchIndex index : indexes.values()) {
+            index.clear();
+        }
+        for (Lease lease : getContainer().allInstances(Lease.class)) {
+            put(entryFor(lease));
+        }
+        for (Party party : getContainer().allInstances(Party.class)) {
+            put(entryFor(party));
+        }
+        for (FixedAsset<?> fixedAsset : getContainer().allInstances(FixedAsset.class)) {
+            put(entryFor(fixedAsset));
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Lifecycle: the entry of the lease as it is now, indexed once the
+     * current transaction has been committed.
+     */
+    @Programmatic
+    public void indexed(final Lease lease) {
+        putAfterCommit(entryFor(lease));
+    }
+
+    @Programmatic
+    public void indexed(final Party party) {
+        putAfterCommit(entryFor(party));
+    }
+
+    @Programmatic
+    public void indexed(final FixedAsset<?> fixedAsset) {
+        putAfterCommit(entryFor(fixedAsset));
+    }
+
+    @Programmatic
+    public void removed(final Object entity) {
+        if (!enabled) {
+            return;
+        }
+        final Bookmark bookmark = getBookmarkService().bookmarkFor(entity);
+        if (bookmark == null) {
+            return;
+        }
+        transactionCompletionService.afterCommit(new Runnable() {
+            @Override
+            public void run() {
+                for (SearchIndex index : indexes.values()) {
+                    index.remove(bookmark);
+                }
+            }
+        });
+    }
+
+    private IndexedEntry entryFor(final Lease lease) {
+        return entryFor(Lease.class, lease, lease.getReference(), lease.getName(), lease.getTenancyEndDate());
+    }
+
+    private IndexedEntry entryFor(final Party party) {
+        return entryFor(Party.class, party, party.getReference(), party.getName(), null);
+    }
+
+    private IndexedEntry entryFor(final FixedAsset<?> fixedAsset) {
+        final LocalDate endDate = fixedAsset instanceof Unit ? ((Unit) fixedAsset).getEndDate() : null;
+        return entryFor(FixedAsset.class, fixedAsset, fixedAsset.getReference(), fixedAsset.getName(), endDate);
+    }
+
+    private IndexedEntry entryFor(final Class<?> indexType, final Object entity, final String reference, final String name, final LocalDate endDate) {
+        if (!enabled) {
+            return null;
+        }
+        final Bookmark bookmark = getBookmarkService().bookmarkFor(entity);
+        if (bookmark == null) {
+            return null;
+        }
+        return new IndexedEntry(indexType, new SearchIndex.Entry(bookmark, entity.getClass(), reference, name, endDate));
+    }
+
+    private void putAfterCommit(final IndexedEntry entry) {
+        if (entry == null) {
+            return;
+        }
+        transactionCompletionService.afterCommit(new Runnable() {
+            @Override
+            public void run() {
+                put(entry);
+            }
+        });
+    }
+
+    private void put(final IndexedEntry entry) {
+        if (entry == null) {
+            return;
+        }
+        indexes.get(entry.indexType).put(entry.entry);
+    }
+
+    /**
+     * An entry along with the index it belongs in.
+     */
+    private static class IndexedEntry {
+        private final Class<?> indexType;
+        private final SearchIndex.Entry entry;
+
+        IndexedEntry(final Class<?> indexType, final SearchIndex.Entry entry) {
+            this.indexType = indexType;
+            this.entry = entry;
+        }
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The entities of the type (or one of its subtypes, such as {@link Unit}
+     * for {@link FixedAsset}) whose reference or name match the wildcard
+     * pattern and the filter, best matches first.
+     */
+    @Programmatic
+    public <T> List<T> find(final Class<T> type, final String wildcardPattern, final Predicate<SearchIndex.Entry> filter) {
+        return lookup(type, search(type, wildcardPattern, filter), Integer.MAX_VALUE);
+    }
+
+    @Programmatic
+    public <T> List<T> find(final Class<T> type, final String wildcardPattern) {
+        return find(type, wildcardPattern, Predicates.<SearchIndex.Entry>alwaysTrue());
+    }
+
+    /**
+     * As {@link #find(Class, String, Predicate)} for <tt>*searchPhrase*</tt>,
+     * but limited to the best few.
+     */
+    @Programmatic
+    public <T> List<T> autoComplete(final Class<T> type, final String searchPhrase, final Predicate<SearchIndex.Entry> filter) {
+        return lookup(type, search(type, "*" + searchPhrase + "*", filter), autoCompleteMaxResults);
+    }
+
+    @Programmatic
+    public <T> List<T> autoComplete(final Class<T> type, final String searchPhrase) {
+        return autoComplete(type, searchPhrase, Predicates.<SearchIndex.Entry>alwaysTrue());
+    }
+
+    private List<SearchIndex.Entry> search(final Class<?> type, final String wildcardPattern, final Predicate<SearchIndex.Entry> filter) {
+        for (Map.Entry<Class<?>, SearchIndex> index : indexes.entrySet()) {
+            if (index.getKey().isAssignableFrom(type)) {
+                return index.getValue().search(wildcardPattern, Predicates.and(ofType(type), filter));
+            }
+        }
+        throw new IllegalArgumentException("No search index for " + type.getName());
+    }
+
+    /**
+     * Loads the entities of the entries, by their (unique) references, in
+     * one query per batch of entries rather than one per entry; entries that
+     * no longer resolve (removed by another node) are skipped.
+     */
+    private <T> List<T> lookup(final Class<T> type, final List<SearchIndex.Entry> entries, final int maxResults) {
+        final List<SearchIndex.Entry> hits = entries.size() > maxResults ? entries.subList(0, maxResults) : entries;
+        final Map<String, T> entityByReference = Maps.newHashMap();
+        for (List<SearchIndex.Entry> batch : Iterables.partition(hits, LOOKUP_BATCH_SIZE)) {
+            for (T entity : findByReferences(type, referencesOf(batch))) {
+                entityByReference.put(referenceOf(entity), entity);
+            }
+        }
+        final List<T> entities = Lists.newArrayList();
+        for (SearchIndex.Entry entry : hits) {
+            final T entity = entityByReference.get(entry.getReference());
+            if (entity != null) {
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Collection<T> findByReferences(final Class<T> type, final List<String> references) {
+        final Query query = isisJdoSupport.getJdoPersistenceManager().newQuery(
+                "SELECT FROM " + type.getName() + " WHERE :references.contains(reference)");
+        return (Collection<T>) query.execute(references);
+    }
+
+    private static List<String> referencesOf(final List<SearchIndex.Entry> entries) {
+        final List<String> references = Lists.newArrayList();
+        for (SearchIndex.Entry entry : entries) {
+            if (entry.getReference() != null) {
+                references.add(entry.getReference());
+            }
+        }
+        return references;
+    }
+
+    private static String referenceOf(final Object entity) {
+        return ((WithReferenceGetter) entity).getReference();
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Entities of (a subtype of) the given type only.
+     */
+    public static Predicate<SearchIndex.Entry> ofType(final Class<?> type) {
+        return new Predicate<SearchIndex.Entry>() {
+            @Override
+            public boolean apply(final SearchIndex.Entry entry) {
+                return type.isAssignableFrom(entry.getType());
+            }
+        };
+    }
+
+    /**
+     * Entities that have not ended before the date, or all if terminated
+     * ones are to be included.
+     */
+    public static Predicate<SearchIndex.Entry> activeOn(final LocalDate date, final boolean includeTerminated) {
+        return new Predicate<SearchIndex.Entry>() {
+            @Override
+            public boolean apply(final SearchIndex.Entry entry) {
+                return includeTerminated || entry.getEndDate() == null || !entry.getEndDate().isBefore(date);
+            }
+        };
+    }
+
+    // //////////////////////////////////////
+
+    @Inject
+    TransactionCompletionService transactionCompletionService;
+
+    @Inject
+    IsisJdoSupport isisJdoSupport;
+
+}
@@ -69,6 +69,7 @@ import org.estatio.dom.apptenancy.WithApplicationTenancyPathPersisted;
                         + "FROM org.estatio.dom.tax.Tax "
                         + "WHERE reference == :reference")
 })
+@javax.jdo.annotations.Cacheable("true")
 @DomainObject(editing = Editing.DISABLED, bounded = true)
 public class Tax
         extends EstatioDomainObject<Tax>
@@ -202,11 +203,7 @@ public class Tax
 
     @Programmatic
     public BigDecimal percentageFor(final LocalDate date) {
-        TaxRate rate = taxRateFor(date);
-        if (rate == null) {
-            return null;
-        }
-        return rate.getPercentage();
+        return taxRates.findPercentageByTaxAndDate(this, date);
     }
 
     // //////////////////////////////////////
@@ -57,8 +57,14 @@ import org.estatio.dom.valuetypes.LocalDateInterval;
                         + "FROM org.estatio.dom.tax.TaxRate "
                         + "WHERE tax == :tax"
                         + "  && startDate <= :date"
-                        + "  && (endDate == null || endDate >= :date)")
+                        + "  && (endDate == null || endDate >= :date)"),
+        @javax.jdo.annotations.Query(
+                name = "findByTax", language = "JDOQL",
+                value = "SELECT "
+                        + "FROM org.estatio.dom.tax.TaxRate "
+                        + "WHERE tax == :tax")
 })
+@javax.jdo.annotations.Cacheable("true")
 @DomainObject(editing = Editing.DISABLED)
 public class TaxRate
         extends EstatioDomainObject<TaxRate>
@@ -275,6 +281,7 @@ public class TaxRate
             final @ParameterLayout(named = "Percentage") @Parameter(optionality = Optionality.OPTIONAL) BigDecimal percentage,
             final @ParameterLayout(named = "External Reference") @Parameter(optionality = Optionality.OPTIONAL) String externalReference) {
 
+        taxRates.invalidate(getTax());
         setTax(tax);
         setPercentage(percentage);
         setExternalReference(externalReference);
@@ -293,4 +300,23 @@ public class TaxRate
         return getExternalReference();
     }
 
+    // //////////////////////////////////////
+
+    public void persisted() {
+        taxRates.invalidate(getTax());
+    }
+
+    public void updated() {
+        taxRates.invalidate(getTax());
+    }
+
+    public void removing() {
+        taxRates.invalidate(getTax());
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    TaxRates taxRates;
+
 }
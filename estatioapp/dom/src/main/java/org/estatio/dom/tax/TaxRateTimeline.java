@@ -0,0 +1,95 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.tax;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+
+/**
+ * The percentages of the {@link TaxRate rates} of a {@link Tax}, sorted by
+ * start date so that the percentage for a date is found by a binary search.
+ *
+ * <p>
+ * Holds values only, not the rates themselves, so can be shared across
+ * sessions.
+ */
+final class TaxRateTimeline {
+
+    private final LocalDate[] startDates;
+    private final LocalDate[] endDates;
+    private final BigDecimal[] percentages;
+
+    TaxRateTimeline(final List<TaxRate> rates) {
+        final List<TaxRate> sorted = Lists.newArrayList();
+        for (TaxRate rate : rates) {
+            // never matched by findByTaxAndDate either
+            if (rate.getStartDate() != null) {
+                sorted.add(rate);
+            }
+        }
+        Collections.sort(sorted, new Comparator<TaxRate>() {
+            @Override
+            public int compare(final TaxRate rate1, final TaxRate rate2) {
+                return rate1.getStartDate().compareTo(rate2.getStartDate());
+            }
+        });
+        startDates = new LocalDate[sorted.size()];
+        endDates = new LocalDate[sorted.size()];
+        percentages = new BigDecimal[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            startDates[i] = sorted.get(i).getStartDate();
+            endDates[i] = sorted.get(i).getEndDate();
+            percentages[i] = sorted.get(i).getPercentage();
+        }
+    }
+
+    /**
+     * The percentage of the (latest starting) rate that has started on or
+     * before the date and not ended before it, as
+     * {@link TaxRates#findTaxRateByTaxAndDate(Tax, LocalDate)} would find it.
+     */
+    BigDecimal percentageFor(final LocalDate date) {
+        if (date == null) {
+            return null;
+        }
+        int low = 0;
+        int high = startDates.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (startDates[mid].compareTo(date) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low - 1; i >= 0; i--) {
+            if (endDates[i] == null || endDates[i].compareTo(date) >= 0) {
+                return percentages[i];
+            }
+        }
+        return null;
+    }
+
+}
@@ -21,6 +21,8 @@ package org.estatio.dom.tax;
 import java.math.BigDecimal;
 import java.util.List;
 
+import com.google.common.base.Supplier;
+
 import org.joda.time.LocalDate;
 
 import org.apache.isis.applib.annotation.Action;
@@ -30,6 +32,8 @@ import org.apache.isis.applib.annotation.MemberOrder;
 import org.apache.isis.applib.annotation.Programmatic;
 import org.apache.isis.applib.annotation.SemanticsOf;
 
+import org.estatio.dom.CommittedValueCache;
+import org.estatio.dom.TransactionCompletionService;
 import org.estatio.dom.UdoDomainRepositoryAndFactory;
 
 @DomainService(repositoryFor = TaxRate.class)
@@ -82,4 +86,43 @@ public class TaxRates extends UdoDomainRepositoryAndFactory<TaxRate> {
         return firstMatch("findByTaxAndDate", "tax", tax, "date", date);
     }
 
+    // //////////////////////////////////////
+
+    private final CommittedValueCache<String, TaxRateTimeline> timelines = new CommittedValueCache<>();
+
+    /**
+     * The percentage of the rate that {@link #findTaxRateByTaxAndDate(Tax, LocalDate)}
+     * would find, but looked up in the (cached) timeline of the tax.
+     */
+    @Programmatic
+    public BigDecimal findPercentageByTaxAndDate(final Tax tax, final LocalDate date) {
+        if (tax.getReference() == null) {
+            return new TaxRateTimeline(allMatches("findByTax", "tax", tax)).percentageFor(date);
+        }
+        final TaxRateTimeline timeline = timelines.get(tax.getReference(), new Supplier<TaxRateTimeline>() {
+            @Override
+            public TaxRateTimeline get() {
+                return new TaxRateTimeline(allMatches("findByTax", "tax", tax));
+            }
+        });
+        return timeline.percentageFor(date);
+    }
+
+    /**
+     * To be called whenever a rate of the tax is created, changed or
+     * (un)chained; the timeline of the tax is not cached again until the
+     * transaction doing so has completed.
+     */
+    @Programmatic
+    public void invalidate(final Tax tax) {
+        if (tax != null && tax.getReference() != null) {
+            timelines.invalidate(tax.getReference(), transactionCompletionService);
+        }
+    }
+
+    // //////////////////////////////////////
+
+    @javax.inject.Inject
+    TransactionCompletionService transactionCompletionService;
+
 }
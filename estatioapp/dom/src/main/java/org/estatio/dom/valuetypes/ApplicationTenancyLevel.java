@@ -20,22 +20,43 @@ package org.estatio.dom.valuetypes;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.isisaddons.module.security.dom.tenancy.WithApplicationTenancy;
 
+/**
+ * The level of an {@link ApplicationTenancy}, as given by its path.
+ *
+ * <p>
+ * Levels are interned: {@link #of(String)} returns the same instance for the
+ * same path, with its parts, depth, kind and ancestors computed once. Checks
+ * on the level or on its ancestry therefore never need to parse the path.
+ */
 public final class ApplicationTenancyLevel implements Comparable<ApplicationTenancyLevel> {
 
+    private static final ConcurrentMap<String, ApplicationTenancyLevel> LEVELS = new ConcurrentHashMap<>();
+
     public static ApplicationTenancyLevel of(final String path) {
         if (path == null) {
             return null;
         }
-        return new ApplicationTenancyLevel(path);
+        ApplicationTenancyLevel level = LEVELS.get(path);
+        if (level == null) {
+            final ApplicationTenancyLevel newLevel = new ApplicationTenancyLevel(path);
+            level = LEVELS.putIfAbsent(path, newLevel);
+            if (level == null) {
+                level = newLevel;
+            }
+        }
+        return level;
     }
 
     public static ApplicationTenancyLevel of(final ApplicationTenancy applicationTenancy) {
@@ -53,8 +74,24 @@ public final class ApplicationTenancyLevel implements Comparable<ApplicationTena
         return of(applicationTenancy);
     }
 
+    /**
+     * Prefer {@link #of(String)}, which returns the interned instance.
+     */
     public ApplicationTenancyLevel(final String path) {
         this.path = path;
+        this.parts = ImmutableList.copyOf(Iterables.filter(Splitter.on('/').split(path), new Predicate<String>() {
+                    @Override
+                    public boolean apply(final String input) {
+                        return !Strings.isNullOrEmpty(input);
+                    }
+                }
+        ));
+        this.kind = Kind.of(path, parts);
+        this.parent = parts.isEmpty() ? null : of("/" + Joiner.on("/").join(parts.subList(0, parts.size() - 1)));
+        this.ancestors = new ApplicationTenancyLevel[parts.size()];
+        for (ApplicationTenancyLevel ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+            this.ancestors[ancestor.getDepth()] = ancestor;
+        }
     }
 
     //region > path
@@ -66,8 +103,56 @@ public final class ApplicationTenancyLevel implements Comparable<ApplicationTena
 
     //endregion
 
+    //region > depth, kind
+
+    private enum Kind {
+        ROOT,
+        ROOT_OTHER,
+        COUNTRY,
+        COUNTRY_OTHER,
+        PROPERTY,
+        LOCAL,
+        OTHER;
+
+        static Kind of(final String path, final List<String> parts) {
+            if ("/".equals(path)) {
+                return ROOT;
+            }
+            switch (parts.size()) {
+            case 1:
+                return "_".equals(parts.get(0)) ? ROOT_OTHER : COUNTRY;
+            case 2:
+                return "_".equals(parts.get(1)) ? COUNTRY_OTHER : PROPERTY;
+            case 3:
+                return LOCAL;
+            default:
+                return OTHER;
+            }
+        }
+    }
+
+    private final List<String> parts;
+    private final Kind kind;
+
+    /**
+     * The number of {@link #getParts() parts}; <tt>0</tt> for the root.
+     */
+    public int getDepth() {
+        return parts.size();
+    }
+
+    //endregion
+
     //region > parentOf, childOf, peerOf
 
+    private final ApplicationTenancyLevel parent;
+
+    /**
+     * Indexed by depth, so that the ancestor at depth <tt>n</tt> (if any) is
+     * found without walking up the tree.
+     */
+    private final ApplicationTenancyLevel[] ancestors;
+
     public boolean parentOf(final ApplicationTenancyLevel other) {
         return other != null && contains(this, other);
     }
@@ -81,20 +166,20 @@ public final class ApplicationTenancyLevel implements Comparable<ApplicationTena
     }
 
     private static boolean contains(final ApplicationTenancyLevel container, final ApplicationTenancyLevel contained) {
-        return contained.path.startsWith(container.path) && contained.path.length() > container.path.length();
+        final int depth = container.getDepth();
+        if (contained.getDepth() <= depth) {
+            return false;
+        }
+        final ApplicationTenancyLevel ancestor = contained.ancestors[depth];
+        // only not the same instance if either was not obtained through of(...)
+        return ancestor == container || ancestor.path.equals(container.path);
     }
     //endregion
 
 
     //region > parent
     public ApplicationTenancyLevel parent() {
-        if(path.equals("/")) {
-            return null;
-        }
-        final List<String> parts = getParts();
-        final List<String> strings = parts.subList(0, parts.size() - 1);
-        final String join = Joiner.on("/").join(strings);
-        return new ApplicationTenancyLevel("/" + join);
+        return parent;
     }
 
     public ApplicationTenancyLevel child(final String child) {
@@ -118,39 +203,33 @@ public final class ApplicationTenancyLevel implements Comparable<ApplicationTena
      * </ul>
      */
     List<String> getParts() {
-        return Lists.newArrayList(Iterables.filter(Splitter.on('/').split(path), new Predicate<String>() {
-                    @Override
-                    public boolean apply(final String input) {
-                        return !Strings.isNullOrEmpty(input);
-                    }
-                }
-        ));
+        return Lists.newArrayList(parts);
     }
     //endregion
 
     //region > is{Root|Country|Property|Local}{|Other}
 
     public boolean isRoot() {
-        return "/".equals(getPath());
+        return kind == Kind.ROOT;
     }
 
     public boolean isRootOther() {
-        return getParts().size() == 1 && "_".equals(getParts().get(0));
+        return kind == Kind.ROOT_OTHER;
     }
 
     public boolean isCountry() {
-        return getParts().size() == 1 && !isRootOther();
+        return kind == Kind.COUNTRY;
     }
 
 
     public boolean isCountryOther() {
         // /it/_
-        return getParts().size() == 2 && "_".equals(getParts().get(1));
+        return kind == Kind.COUNTRY_OTHER;
     }
 
     public boolean isProperty() {
         // /it/CAR
-        return getParts().size() == 2 && !isCountryOther();
+        return kind == Kind.PROPERTY;
     }
 
     public boolean isLocalDefault() {
@@ -160,7 +239,7 @@ public final class ApplicationTenancyLevel implements Comparable<ApplicationTena
 
     public boolean isLocalNamed(final String name) {
         // /it/CAR/xx
-        return getParts().size() == 3 && Objects.equals(name, getParts().get(2));
+        return kind == Kind.LOCAL && Objects.equals(name, parts.get(2));
     }
 
     public boolean isPropertyOf(final ApplicationTenancyLevel countryLevel) {
@@ -181,7 +260,7 @@ public final class ApplicationTenancyLevel implements Comparable<ApplicationTena
         if(isRootOther()) {
             throw new IllegalArgumentException("Tenancy level is 'root other'.");
         }
-        return "/" + getParts().get(0);
+        return ancestors.length > 1 ? ancestors[1].getPath() : getPath();
     }
     //endregion
 
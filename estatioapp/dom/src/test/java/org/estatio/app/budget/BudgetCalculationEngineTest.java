@@ -0,0 +1,129 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.budget;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.estatio.app.budget.viewmodels.BudgetCalculation;
+import org.estatio.dom.asset.Unit;
+import org.estatio.dom.budgeting.UnitForTesting;
+import org.estatio.dom.budgeting.budgetitem.BudgetItem;
+import org.estatio.dom.budgeting.keyitem.KeyItem;
+import org.estatio.dom.budgeting.keytable.KeyTable;
+import org.estatio.dom.budgeting.keytable.KeyTableForTesting;
+import org.estatio.dom.budgeting.keytable.KeyValueMethod;
+import org.estatio.dom.budgeting.schedule.Schedule;
+import org.estatio.dom.budgeting.scheduleitem.ScheduleItem;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BudgetCalculationEngineTest {
+
+    private static final int NUMBER_OF_UNITS = 500;
+
+    private Schedule schedule;
+    private List<Unit> units;
+
+    @Before
+    public void setUp() throws Exception {
+        final Random random = new Random(1);
+        units = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_UNITS; i++) {
+            final Unit unit = new UnitForTesting();
+            unit.setName(String.format("UNIT-%03d", i));
+            units.add(unit);
+        }
+        final List<KeyTable> keyTables = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            keyTables.add(keyTable("keytable" + i, random));
+        }
+        schedule = new Schedule();
+        for (int i = 0; i < 12; i++) {
+            final BudgetItem budgetItem = new BudgetItem();
+            budgetItem.setBudgetedValue(new BigDecimal(1000 + i).setScale(2));
+            final ScheduleItem scheduleItem = new ScheduleItem();
+            scheduleItem.setSchedule(schedule);
+            scheduleItem.setBudgetItem(budgetItem);
+            // the key tables are shared by several items
+            scheduleItem.setKeyTable(keyTables.get(i % keyTables.size()));
+            scheduleItem.setPercentage(new BigDecimal(50 + i).setScale(2));
+            schedule.getScheduleItems().add(scheduleItem);
+        }
+    }
+
+    @Test
+    public void parallelSameAsSequential() throws Exception {
+        // when
+        final List<BudgetCalculation> sequential = new BudgetCalculationEngine(false).calculate(schedule);
+        final List<BudgetCalculation> parallel = new BudgetCalculationEngine(true).calculate(schedule);
+
+        // then
+        assertThat(sequential.size()).isEqualTo(NUMBER_OF_UNITS);
+        assertThat(parallel.size()).isEqualTo(NUMBER_OF_UNITS);
+        for (int i = 0; i < NUMBER_OF_UNITS; i++) {
+            assertThat(parallel.get(i).getUnit()).isSameAs(sequential.get(i).getUnit());
+            assertThat(parallel.get(i).getValue()).isEqualTo(sequential.get(i).getValue());
+            assertThat(parallel.get(i).getSourceValue()).isEqualTo(sequential.get(i).getSourceValue());
+        }
+    }
+
+    @Test
+    public void sumOfItemsPerUnit() throws Exception {
+        // given
+        final List<List<BudgetCalculation>> perScheduleItem = new ArrayList<>();
+        for (ScheduleItem scheduleItem : schedule.getScheduleItems()) {
+            perScheduleItem.add(new BudgetCalculationEngine().calculate(scheduleItem));
+        }
+
+        // when
+        final List<BudgetCalculation> calculations = new BudgetCalculationEngine().calculate(schedule);
+
+        // then
+        for (int i = 0; i < NUMBER_OF_UNITS; i++) {
+            BigDecimal value = BigDecimal.ZERO;
+            for (List<BudgetCalculation> calculationsOfItem : perScheduleItem) {
+                value = value.add(calculationsOfItem.get(i).getValue());
+            }
+            assertThat(calculations.get(i).getUnit()).isSameAs(units.get(i));
+            assertThat(calculations.get(i).getValue()).isEqualTo(value);
+        }
+    }
+
+    private KeyTable keyTable(final String name, final Random random) {
+        final KeyTable keyTable = new KeyTableForTesting();
+        keyTable.setName(name);
+        keyTable.setKeyValueMethod(KeyValueMethod.PERCENT);
+        keyTable.setNumberOfDigits(6);
+        for (Unit unit : units) {
+            final KeyItem keyItem = new KeyItem();
+            keyItem.setUnit(unit);
+            keyItem.setValue(BigDecimal.valueOf(random.nextInt(100000), 6));
+            keyItem.setKeyTable(keyTable);
+            keyTable.getItems().add(keyItem);
+        }
+        return keyTable;
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.budget;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+
+import org.estatio.dom.budgeting.Distributable;
+
+/**
+ * Compares the rounding correction of {@link DistributionService} against the
+ * one it replaced ({@link DistributionServiceEquivalenceTest.Legacy}), on a
+ * key table with many items and a fine precision.
+ *
+ * <p>
+ * Not a test; run from the IDE (or <tt>java -cp ...</tt>) with an optional
+ * number of items (default 10000), precision (default 6) and rounds (default
+ * 5).
+ */
+public class DistributionServiceBenchmark {
+
+    public static void main(final String[] args) {
+        final int numberOfItems = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        final int precision = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        final int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        final List<Distributable> input = DistributionServiceEquivalenceTest.randomInput(new Random(1), numberOfItems);
+        final BigDecimal targetTotal = new BigDecimal(1000);
+
+        // warm up both
+        time(input, targetTotal, precision, rounds, true);
+        time(input, targetTotal, precision, rounds, false);
+
+        final long legacyNanos = time(input, targetTotal, precision, rounds, true);
+        final long distributionServiceNanos = time(input, targetTotal, precision, rounds, false);
+        System.out.println(String.format(
+                "distributing over %d items with precision %d %d times: before %d ms, DistributionService %d ms (%.1fx)",
+                numberOfItems, precision, rounds,
+                legacyNanos / 1000000, distributionServiceNanos / 1000000,
+                (double) legacyNanos / Math.max(1, distributionServiceNanos)));
+    }
+
+    private static long time(
+            final List<Distributable> input,
+            final BigDecimal targetTotal,
+            final int precision,
+            final int rounds,
+            final boolean legacy) {
+        final DistributionService distributionService = new DistributionService();
+        final long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            final List<Distributable> copy = DistributionServiceEquivalenceTest.copyOf(input);
+            if (legacy) {
+                DistributionServiceEquivalenceTest.Legacy.distribute(copy, targetTotal, precision);
+            } else {
+                distributionService.distribute(copy, targetTotal, precision);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+}
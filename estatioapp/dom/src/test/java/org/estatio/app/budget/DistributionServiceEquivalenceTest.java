@@ -0,0 +1,185 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.budget;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.estatio.dom.budgeting.Distributable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares {@link DistributionService#distribute(List, BigDecimal, int)} with
+ * the rounding correction as it was before, which rescanned all items for
+ * every unit of delta, on random inputs.
+ */
+public class DistributionServiceEquivalenceTest {
+
+    @Test
+    public void sameAsBefore() throws Exception {
+        final Random random = new Random(1);
+        for (int trial = 0; trial < 2000; trial++) {
+            final int numberOfItems = 1 + random.nextInt(trial % 10 == 0 ? 400 : 40);
+            final int precision = random.nextInt(7);
+            final BigDecimal targetTotal = randomTargetTotal(random);
+            final List<Distributable> input = randomInput(random, numberOfItems);
+
+            final List<Distributable> before = Legacy.distribute(copyOf(input), targetTotal, precision);
+            final List<Distributable> after = new DistributionService().distribute(copyOf(input), targetTotal, precision);
+
+            for (int i = 0; i < numberOfItems; i++) {
+                assertThat(after.get(i).getValue())
+                        .as("trial %d, item %d", trial, i)
+                        .isEqualTo(before.get(i).getValue());
+            }
+        }
+    }
+
+    // //////////////////////////////////////
+
+    static class Item implements Distributable {
+
+        private final BigDecimal sourceValue;
+        private BigDecimal value;
+
+        Item(final BigDecimal sourceValue) {
+            this.sourceValue = sourceValue;
+        }
+
+        @Override
+        public BigDecimal getSourceValue() {
+            return sourceValue;
+        }
+
+        @Override
+        public BigDecimal getValue() {
+            return value;
+        }
+
+        @Override
+        public void setValue(final BigDecimal value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Source values with 2 decimals (as for key items), one in eight of them
+     * zero.
+     */
+    static List<Distributable> randomInput(final Random random, final int numberOfItems) {
+        final List<Distributable> input = new ArrayList<>();
+        for (int i = 0; i < numberOfItems; i++) {
+            input.add(new Item(random.nextInt(8) == 0
+                    ? BigDecimal.ZERO.setScale(2)
+                    : BigDecimal.valueOf(random.nextInt(random.nextBoolean() ? 1000 : 10000000), 2)));
+        }
+        return input;
+    }
+
+    static BigDecimal randomTargetTotal(final Random random) {
+        switch (random.nextInt(3)) {
+        case 0:
+            return new BigDecimal(100);
+        case 1:
+            return new BigDecimal(1000);
+        default:
+            return BigDecimal.valueOf(random.nextInt(10000000), 2);
+        }
+    }
+
+    static List<Distributable> copyOf(final List<Distributable> input) {
+        final List<Distributable> copy = new ArrayList<>();
+        for (Distributable distributable : input) {
+            copy.add(new Item(distributable.getSourceValue()));
+        }
+        return copy;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * The rounding correction as it was, a rescan of all items per unit of
+     * delta.
+     */
+    static class Legacy {
+
+        static List<Distributable> distribute(
+                final List<Distributable> input,
+                final BigDecimal targetTotal,
+                final int precision) {
+
+            BigDecimal denominator = BigDecimal.ZERO;
+            for (Distributable distributable : input) {
+                denominator = denominator.add(distributable.getSourceValue(), MathContext.DECIMAL64);
+            }
+            if (denominator.compareTo(BigDecimal.ZERO) <= 0) {
+                for (Distributable inputItem : input) {
+                    inputItem.setValue(BigDecimal.ZERO);
+                }
+                return input;
+            }
+
+            final List<Distributable> distributables = new ArrayList<>();
+            final List<BigDecimal> deltas = new ArrayList<>();
+            final boolean[] corrected = new boolean[input.size()];
+            for (Distributable distributable : input) {
+                BigDecimal unroundedTargetValue = distributable.getSourceValue().multiply(targetTotal, MathContext.DECIMAL64).divide(denominator, MathContext.DECIMAL64);
+                BigDecimal roundedTargetValue = unroundedTargetValue.setScale(precision, BigDecimal.ROUND_HALF_UP);
+                distributable.setValue(roundedTargetValue);
+                distributables.add(distributable);
+                deltas.add(roundedTargetValue.subtract(unroundedTargetValue, MathContext.DECIMAL64));
+            }
+
+            BigDecimal sumOfCalculatedRoundedValues = BigDecimal.ZERO;
+            for (Distributable distributable : distributables) {
+                sumOfCalculatedRoundedValues = sumOfCalculatedRoundedValues.add(distributable.getValue(), MathContext.DECIMAL64);
+            }
+            final BigDecimal validTotal = targetTotal.setScale(precision, BigDecimal.ROUND_HALF_UP);
+            final BigDecimal deltaOfSum = sumOfCalculatedRoundedValues.subtract(validTotal, MathContext.DECIMAL64);
+            final boolean roundUp = deltaOfSum.signum() < 0;
+            final BigDecimal increment = new BigDecimal(0.1).pow(precision, MathContext.DECIMAL64);
+
+            final int numberOfIterationsNeeded = deltaOfSum.abs().multiply(new BigDecimal(10).pow(precision, MathContext.DECIMAL64)).intValue();
+            for (int iteration = 0; iteration < numberOfIterationsNeeded; iteration++) {
+                int toCorrect = -1;
+                for (int i = 0; i < distributables.size(); i++) {
+                    if ((roundUp ? deltas.get(i).compareTo(new BigDecimal(-1)) > 0 : deltas.get(i).compareTo(BigDecimal.ONE) < 0)
+                            && !corrected[i]
+                            && distributables.get(i).getSourceValue().compareTo(BigDecimal.ZERO) != 0) {
+                        toCorrect = i;
+                    }
+                }
+                final Distributable distributable = distributables.get(toCorrect);
+                distributable.setValue((roundUp
+                        ? distributable.getValue().add(increment, MathContext.DECIMAL64)
+                        : distributable.getValue().subtract(increment, MathContext.DECIMAL64))
+                        .setScale(precision, BigDecimal.ROUND_HALF_UP));
+                corrected[toCorrect] = true;
+            }
+            return distributables;
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.imports;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.isis.applib.value.Blob;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ExcelRowReaderTest {
+
+    private List<ImportRow> rows;
+
+    @Before
+    public void setUp() throws Exception {
+        final XSSFWorkbook workbook = new XSSFWorkbook();
+        final Sheet sheet = workbook.createSheet();
+        final Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("reference");
+        header.createCell(1).setCellValue("valueStartDate");
+        header.createCell(2).setCellValue("value");
+        final Row first = sheet.createRow(1);
+        first.createCell(0).setCellValue("ISTAT-FOI");
+        first.createCell(1).setCellValue(DateUtil.getExcelDate(new LocalDate(2013, 11, 1).toDate()));
+        first.createCell(2).setCellValue(110.5);
+        sheet.createRow(2);
+        final Row third = sheet.createRow(3);
+        third.createCell(0).setCellValue("ISTAT-FOI");
+        third.createCell(1).setCellValue("2013-12-01");
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        workbook.write(out);
+        final Blob spreadsheet = new Blob("values.xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", out.toByteArray());
+
+        rows = Lists.newArrayList();
+        ExcelRowReader.read(spreadsheet, new ExcelRowReader.Callback() {
+            @Override
+            public void row(final ImportRow row) {
+                rows.add(row);
+            }
+        });
+    }
+
+    public static class Read extends ExcelRowReaderTest {
+
+        @Test
+        public void skipsHeaderAndEmptyRows() throws Exception {
+            assertThat(rows.size(), is(2));
+            assertThat(rows.get(0).getRowNumber(), is(2));
+            assertThat(rows.get(1).getRowNumber(), is(4));
+        }
+
+        @Test
+        public void valuesByColumnName() throws Exception {
+            assertThat(rows.get(0).getString("reference"), is("ISTAT-FOI"));
+            assertThat(rows.get(0).getLocalDate("valueStartDate"), is(new LocalDate(2013, 11, 1)));
+            assertThat(rows.get(0).getBigDecimal("value"), is(new BigDecimal("110.5")));
+        }
+
+        @Test
+        public void datesAsText() throws Exception {
+            assertThat(rows.get(1).getLocalDate("valueStartDate"), is(new LocalDate(2013, 12, 1)));
+        }
+
+        @Test
+        public void emptyCells() throws Exception {
+            assertThat(rows.get(1).getBigDecimal("value"), is(nullValue()));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void requiredButEmpty() throws Exception {
+            rows.get(1).getRequiredBigDecimal("value");
+        }
+
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.app.imports;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.apache.isis.applib.services.xactn.TransactionService;
+import org.apache.isis.applib.value.Blob;
+import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2;
+import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2.Mode;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StreamingImportServiceTest {
+
+    @Rule
+    public JUnitRuleMockery2 context = JUnitRuleMockery2.createFor(Mode.INTERFACES_AND_CLASSES);
+
+    @Mock
+    TransactionService mockTransactionService;
+
+    StreamingImportService streamingImportService;
+
+    List<RuntimeException> abortCauses;
+
+    List<String> applied;
+
+    int rolledBack;
+
+    StreamingImportService.RowHandler rowHandler;
+
+    @Before
+    public void setUp() throws Exception {
+        abortCauses = Lists.newArrayList();
+        applied = Lists.newArrayList();
+        streamingImportService = new StreamingImportService() {
+            @Override
+            void setAbortCause(final RuntimeException cause) {
+                abortCauses.add(cause);
+            }
+        };
+        streamingImportService.transactionService = mockTransactionService;
+        streamingImportService.batchSize = 3;
+
+        rowHandler = new StreamingImportService.RowHandler() {
+            @Override
+            public void apply(final ImportRow row) {
+                final String value = row.getRequiredString("value");
+                if (value.equals("fail")) {
+                    throw new IllegalArgumentException("Cannot apply " + value);
+                }
+                applied.add(value);
+            }
+
+            @Override
+            public void rolledBack() {
+                rolledBack++;
+            }
+        };
+    }
+
+    static Blob spreadsheetOf(final String... values) throws Exception {
+        final XSSFWorkbook workbook = new XSSFWorkbook();
+        final Sheet sheet = workbook.createSheet();
+        sheet.createRow(0).createCell(0).setCellValue("value");
+        for (int i = 0; i < values.length; i++) {
+            final Row row = sheet.createRow(i + 1);
+            row.createCell(0).setCellValue(values[i]);
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        workbook.write(out);
+        return new Blob("values.xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", out.toByteArray());
+    }
+
+    public static class ImportRows extends StreamingImportServiceTest {
+
+        @Test
+        public void commitsEveryBatch() throws Exception {
+            context.checking(new Expectations() {
+                {
+                    exactly(2).of(mockTransactionService).flushTransaction();
+                    exactly(2).of(mockTransactionService).nextTransaction();
+                }
+            });
+
+            final ImportResult result = streamingImportService.importRows(spreadsheetOf("a", "b", "c", "d"), rowHandler);
+
+            assertThat(applied, is((List<String>) Lists.newArrayList("a", "b", "c", "d")));
+            assertThat(result.getRowsApplied(), is(4));
+            assertThat(result.getRowsFailed(), is(0));
+            assertThat(result.getBatches(), is(2));
+            assertThat(abortCauses.size(), is(0));
+            assertThat(rolledBack, is(0));
+        }
+
+        @Test
+        public void retriesTheBatchOfAFailingRowRowByRow() throws Exception {
+            context.checking(new Expectations() {
+                {
+                    // a, c (row by row) and d, e (batch)
+                    exactly(3).of(mockTransactionService).flushTransaction();
+                    // the batch and b rolled back, a, c and d, e committed
+                    exactly(5).of(mockTransactionService).nextTransaction();
+                }
+            });
+
+            final ImportResult result = streamingImportService.importRows(spreadsheetOf("a", "fail", "c", "d", "e"), rowHandler);
+
+            // a once as part of the (discarded) batch, then again by itself
+            assertThat(applied, is((List<String>) Lists.newArrayList("a", "a", "c", "d", "e")));
+            assertThat(result.getRowsApplied(), is(4));
+            assertThat(result.getRowsFailed(), is(1));
+            assertThat(result.getErrors(), is((List<String>) Lists.newArrayList("Row 3: Cannot apply fail")));
+            assertThat(result.getBatches(), is(3));
+            assertThat(abortCauses.size(), is(2));
+            assertThat(rolledBack, is(2));
+        }
+
+        @Test
+        public void retriesTheBatchOfAFailingFlushRowByRow() throws Exception {
+            context.checking(new Expectations() {
+                {
+                    oneOf(mockTransactionService).flushTransaction();
+                    will(throwException(new IllegalStateException("constraint violated")));
+                    exactly(2).of(mockTransactionService).flushTransaction();
+                    exactly(3).of(mockTransactionService).nextTransaction();
+                }
+            });
+
+            final ImportResult result = streamingImportService.importRows(spreadsheetOf("a", "b"), rowHandler);
+
+            assertThat(applied, is((List<String>) Lists.newArrayList("a", "b", "a", "b")));
+            assertThat(result.getRowsApplied(), is(2));
+            assertThat(result.getRowsFailed(), is(0));
+            assertThat(result.getBatches(), is(2));
+            assertThat(abortCauses.get(0).getMessage(), is("constraint violated"));
+            assertThat(rolledBack, is(1));
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom;
+
+import java.util.List;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.Lists;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class CommittedValueCacheTest {
+
+    CommittedValueCache<String, Integer> cache;
+    List<Runnable> afterCompletion;
+    TransactionCompletionService transactionCompletionService;
+    int loads;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new CommittedValueCache<>();
+        afterCompletion = Lists.newArrayList();
+        transactionCompletionService = new TransactionCompletionService() {
+            @Override
+            public void afterCompletion(final Runnable runnable) {
+                afterCompletion.add(runnable);
+            }
+        };
+    }
+
+    Integer get(final int value) {
+        return cache.get("A", new Supplier<Integer>() {
+            @Override
+            public Integer get() {
+                loads++;
+                return value;
+            }
+        });
+    }
+
+    void complete() {
+        for (Runnable runnable : afterCompletion) {
+            runnable.run();
+        }
+        afterCompletion.clear();
+    }
+
+    public static class Get extends CommittedValueCacheTest {
+
+        @Test
+        public void loadsOnce() throws Exception {
+            assertThat(get(1), is(1));
+            assertThat(get(2), is(1));
+            assertThat(loads, is(1));
+        }
+
+        @Test
+        public void notCachedWhileChangeInProgress() throws Exception {
+            get(1);
+            cache.invalidate("A", transactionCompletionService);
+
+            assertThat(get(2), is(2));
+            assertThat(get(3), is(3));
+
+            complete();
+
+            assertThat(get(4), is(4));
+            assertThat(get(5), is(4));
+        }
+
+        @Test
+        public void notCachedWhenInvalidatedWhileLoading() throws Exception {
+            final Integer value = cache.get("A", new Supplier<Integer>() {
+                @Override
+                public Integer get() {
+                    cache.invalidate("A", transactionCompletionService);
+                    complete();
+                    return 1;
+                }
+            });
+
+            assertThat(value, is(1));
+            assertThat(get(2), is(2));
+        }
+    }
+
+}
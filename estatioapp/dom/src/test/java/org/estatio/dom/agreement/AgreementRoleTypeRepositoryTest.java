@@ -18,11 +18,18 @@
  */
 package org.estatio.dom.agreement;
 
+import java.util.Arrays;
 import java.util.List;
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import org.apache.isis.applib.query.Query;
+import org.apache.isis.applib.services.bookmark.Bookmark;
+import org.apache.isis.applib.services.bookmark.BookmarkService;
 import org.apache.isis.core.commons.matchers.IsisMatchers;
+import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2;
 import org.estatio.dom.FinderInteraction;
 import org.estatio.dom.FinderInteraction.FinderMethod;
 
@@ -95,4 +102,54 @@ public class AgreementRoleTypeRepositoryTest {
         }
 
     }
-}
\ No newline at end of file
+
+    public static class FindByTitleWhenShared extends AgreementRoleTypeRepositoryTest {
+
+        @Rule
+        public JUnitRuleMockery2 context = JUnitRuleMockery2.createFor(JUnitRuleMockery2.Mode.INTERFACES_AND_CLASSES);
+
+        @Mock
+        private BookmarkService mockBookmarkService;
+
+        private AgreementRoleType agreementRoleType1;
+        private AgreementRoleType agreementRoleType2;
+        private int queries;
+
+        @Before
+        public void setUp() throws Exception {
+            agreementRoleType1 = new AgreementRoleType();
+            agreementRoleType1.setTitle("sharedTitle");
+            agreementRoleType2 = new AgreementRoleType();
+            agreementRoleType2.setTitle("sharedTitle");
+
+            agreementRoleTypeRepository = new AgreementRoleTypeRepository() {
+                @SuppressWarnings("unchecked")
+                @Override
+                protected <T> T firstMatch(Query<T> query) {
+                    queries++;
+                    return (T) agreementRoleType1;
+                }
+            };
+            agreementRoleTypeRepository.injectBookmarkService(mockBookmarkService);
+
+            context.checking(new Expectations() {
+                {
+                    allowing(mockBookmarkService).bookmarkFor(with(any(Object.class)));
+                    will(returnValue(new Bookmark("ART", "1")));
+                    never(mockBookmarkService).lookup(with(any(Bookmark.class)));
+                }
+            });
+        }
+
+        @Test
+        public void queriedEveryTime() {
+            agreementRoleTypeRepository.cacheTypesByTitle(Arrays.asList(agreementRoleType1, agreementRoleType2));
+
+            assertThat(agreementRoleTypeRepository.findByTitle("sharedTitle"), is(agreementRoleType1));
+            assertThat(agreementRoleTypeRepository.findByTitle("sharedTitle"), is(agreementRoleType1));
+
+            assertThat(queries, is(2));
+        }
+
+    }
+}
@@ -288,6 +288,102 @@ public class AgreementTest {
     }
 
 
+    public static class FindCurrentOrMostRecentAgreementRole extends AgreementTest {
+
+        @Mock
+        private AgreementRoleTypeRepository mockAgreementRoleTypeRepository;
+
+        private LocalDate now = new LocalDate(2013, 8, 1);
+
+        private final ClockService clockService = new ClockService() {
+            @Override
+            public LocalDate now() {
+                return now;
+            }
+        };
+
+        private AgreementRoleType creditorArt;
+        private AgreementRole creditorAr;
+        private Agreement agreement;
+
+        @Before
+        public void setUp() throws Exception {
+            creditorArt = new AgreementRoleType();
+            creditorArt.setTitle("Creditor");
+
+            agreement = new AgreementForTesting();
+            agreement.injectAgreementRoleTypes(mockAgreementRoleTypeRepository);
+            agreement.injectClockService(clockService);
+
+            creditorAr = new AgreementRole();
+            creditorAr.setType(creditorArt);
+            creditorAr.setParty(new PartyForTesting());
+            creditorAr.setStartDate(new LocalDate(2013, 7, 1));
+            creditorAr.injectClockService(clockService);
+            agreement.getRoles().add(creditorAr);
+        }
+
+        @Test
+        public void memoised() {
+            context.checking(new Expectations() {
+                {
+                    oneOf(mockAgreementRoleTypeRepository).findByTitle("Creditor");
+                    will(returnValue(creditorArt));
+                }
+            });
+            assertThat(agreement.findCurrentOrMostRecentAgreementRole("Creditor"), is(creditorAr));
+            assertThat(agreement.findCurrentOrMostRecentAgreementRole("Creditor"), is(creditorAr));
+        }
+
+        @Test
+        public void whenInvalidated() {
+            context.checking(new Expectations() {
+                {
+                    exactly(2).of(mockAgreementRoleTypeRepository).findByTitle("Creditor");
+                    will(returnValue(creditorArt));
+                }
+            });
+            assertThat(agreement.findCurrentOrMostRecentAgreementRole("Creditor"), is(creditorAr));
+            agreement.invalidateRoles();
+            assertThat(agreement.findCurrentOrMostRecentAgreementRole("Creditor"), is(creditorAr));
+        }
+
+        @Test
+        public void whenDateChanges() {
+            final AgreementRole creditorAr2 = new AgreementRole();
+            creditorAr2.setType(creditorArt);
+            creditorAr2.setParty(new PartyForTesting());
+            creditorAr2.setStartDate(new LocalDate(2013, 9, 1));
+            creditorAr2.injectClockService(clockService);
+            agreement.getRoles().add(creditorAr2);
+            creditorAr.setEndDate(new LocalDate(2013, 8, 31));
+
+            context.checking(new Expectations() {
+                {
+                    exactly(2).of(mockAgreementRoleTypeRepository).findByTitle("Creditor");
+                    will(returnValue(creditorArt));
+                }
+            });
+            assertThat(agreement.findCurrentOrMostRecentAgreementRole("Creditor"), is(creditorAr));
+            now = new LocalDate(2013, 9, 1);
+            assertThat(agreement.findCurrentOrMostRecentAgreementRole("Creditor"), is(creditorAr2));
+        }
+
+        @Test
+        public void whenAgreementDatesChange() {
+            context.checking(new Expectations() {
+                {
+                    exactly(2).of(mockAgreementRoleTypeRepository).findByTitle("Creditor");
+                    will(returnValue(creditorArt));
+                }
+            });
+            agreement.findCurrentOrMostRecentAgreementRole("Creditor");
+            agreement.setEndDate(new LocalDate(2013, 12, 31));
+            agreement.findCurrentOrMostRecentAgreementRole("Creditor");
+        }
+
+    }
+
     public static class FindRole extends AgreementTest {
 
         @Mock
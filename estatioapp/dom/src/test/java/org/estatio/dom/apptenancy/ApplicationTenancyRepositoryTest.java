@@ -40,6 +40,8 @@ public class ApplicationTenancyRepositoryTest {
 
     private ApplicationTenancyRepository applicationTenancyRepository;
 
+    private List<List<String>> queriedPaths;
+
     @Before
     public void setUp() throws Exception {
         context.checking(new Expectations() {{
@@ -62,7 +64,20 @@ public class ApplicationTenancyRepositoryTest {
             will(returnValue(grandeTa));
         }});
 
-        applicationTenancyRepository = new ApplicationTenancyRepository();
+        queriedPaths = Lists.newArrayList();
+        applicationTenancyRepository = new ApplicationTenancyRepository() {
+            @Override
+            List<ApplicationTenancy> tenanciesWithPaths(final List<String> paths) {
+                queriedPaths.add(paths);
+                final List<ApplicationTenancy> tenancies = Lists.newArrayList();
+                for (ApplicationTenancy tenancy : mockApplicationTenancies.allTenancies()) {
+                    if (paths.contains(tenancy.getPath())) {
+                        tenancies.add(tenancy);
+                    }
+                }
+                return tenancies;
+            }
+        };
         applicationTenancyRepository.applicationTenancies = mockApplicationTenancies;
     }
 
@@ -125,6 +140,18 @@ public class ApplicationTenancyRepositoryTest {
         Assertions.assertThat(applicationTenancies).containsExactly(france, italy);
     }
 
+    @Test
+    public void testAllCountryTenancies_queriesSelectedPathsOnly() throws Exception {
+        // when
+        applicationTenancyRepository.allCountryTenancies();
+        applicationTenancyRepository.countryTenanciesFor(italy);
+
+        // then
+        Assertions.assertThat(queriedPaths).containsExactly(
+                Lists.newArrayList("/fr", "/it"),
+                Lists.newArrayList("/it"));
+    }
+
     @Test
     public void testAllPropertyTenancies() throws Exception {
         List<ApplicationTenancy> applicationTenancies;
@@ -197,6 +224,19 @@ public class ApplicationTenancyRepositoryTest {
     }
 
 
+    @Test
+    public void testSelfOrChildrenOf_whenTenanciesChange() throws Exception {
+        // given
+        Assertions.assertThat(applicationTenancyRepository.selfOrChildrenOf(italy)).containsExactly(italy, italyOther, grande, grandeDefault, grandeTa);
+
+        // when
+        final ApplicationTenancy ciao = tenancy("/it/CIA", "Ciao (Italy)");
+        mockApplicationTenancies.allTenancies().add(ciao);
+
+        // then
+        Assertions.assertThat(applicationTenancyRepository.selfOrChildrenOf(italy)).containsExactly(italy, italyOther, grande, grandeDefault, grandeTa, ciao);
+    }
+
     @Test
     public void testFindOrCreateCountryTenancy_whenExists() throws Exception {
         // given
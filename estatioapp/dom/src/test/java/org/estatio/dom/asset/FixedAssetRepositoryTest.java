@@ -25,6 +25,7 @@ import org.apache.isis.applib.query.Query;
 import org.apache.isis.core.commons.matchers.IsisMatchers;
 import org.estatio.dom.FinderInteraction;
 import org.estatio.dom.FinderInteraction.FinderMethod;
+import org.estatio.dom.search.SearchIndexService;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -57,6 +58,7 @@ public class FixedAssetRepositoryTest {
                 return null;
             }
         };
+        fixedAssetRepository.searchIndexService = new SearchIndexService();
     }
 
 
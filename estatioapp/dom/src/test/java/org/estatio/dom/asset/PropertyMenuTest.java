@@ -37,6 +37,7 @@ import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.estatio.dom.FinderInteraction;
 import org.estatio.dom.FinderInteraction.FinderMethod;
 import org.estatio.dom.apptenancy.ApplicationTenancyRepository;
+import org.estatio.dom.search.SearchIndexService;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -67,6 +68,7 @@ public class PropertyMenuTest {
                 return null;
             }
         };
+        propertyRepository.searchIndexService = new SearchIndexService();
         propertyMenu = new PropertyMenu();
         propertyMenu.propertyRepository = propertyRepository;
     }
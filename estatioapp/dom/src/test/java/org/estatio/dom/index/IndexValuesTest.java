@@ -21,8 +21,10 @@ package org.estatio.dom.index;
 import static org.apache.isis.core.commons.matchers.IsisMatchers.classEqualTo;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -40,11 +42,16 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import org.apache.isis.applib.query.Query;
+import org.apache.isis.applib.services.eventbus.EventBusService;
 import org.apache.isis.applib.services.queryresultscache.QueryResultsCache;
 import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2;
 
 import org.estatio.dom.FinderInteraction;
 import org.estatio.dom.FinderInteraction.FinderMethod;
+import org.estatio.dom.TransactionCompletionService;
+import org.estatio.dom.lease.LeaseTermForIndexableVerificationQueue;
+import org.estatio.dom.lease.LeaseTermForIndexableVerificationQueue.Key;
+import org.estatio.dom.lease.LeaseTermsForIndexable;
 
 public class IndexValuesTest {
 
@@ -152,4 +159,129 @@ public class IndexValuesTest {
 
     }
 
+    public static class NewIndexValue extends IndexValuesTest {
+
+        @Mock
+        EventBusService mockEventBusService;
+
+        @Mock
+        TransactionCompletionService mockTransactionCompletionService;
+
+        @Mock
+        LeaseTermForIndexableVerificationQueue mockVerificationQueue;
+
+        IndexBase indexBase;
+
+        IndexValue indexValue;
+
+        Index verifiedIndex;
+
+        LocalDate verifiedDate;
+
+        LeaseTermsForIndexable leaseTermsForIndexable;
+
+        @Before
+        public void setUpIndexValue() {
+            index.setReference("ISTAT-FOI");
+            indexBase = new IndexBase();
+            indexBase.setIndex(index);
+            indexValue = new IndexValue();
+            indexValue.setIndexBase(indexBase);
+            indexValue.setStartDate(startDate);
+
+            leaseTermsForIndexable = new LeaseTermsForIndexable() {
+                @Override
+                public int verifyByIndexAndDate(final Index index, final LocalDate date) {
+                    verifiedIndex = index;
+                    verifiedDate = date;
+                    return 0;
+                }
+            };
+            leaseTermsForIndexable.injectTransactionCompletionService(mockTransactionCompletionService);
+
+            indexValues.eventBusService = mockEventBusService;
+
+            context.checking(new Expectations() {
+                {
+                    allowing(mockQueryResultsCache).execute(
+                            with(any(Callable.class)),
+                            with(classEqualTo(IndexValues.class)),
+                            with(equalTo("findIndexValueByIndexAndStartDate")),
+                            with(any(Object[].class)));
+                    will(returnValue(indexValue));
+
+                    oneOf(mockEventBusService).post(with(any(IndexValue.UpdateEvent.class)));
+                    will(deliverTo(leaseTermsForIndexable));
+                }
+            });
+        }
+
+        @Test
+        public void queuesTheVerificationAfterCommit() {
+            final LeaseTermForIndexableVerificationQueue verificationQueue = new LeaseTermForIndexableVerificationQueue();
+            leaseTermsForIndexable.injectVerificationQueue(verificationQueue);
+
+            context.checking(new Expectations() {
+                {
+                    oneOf(mockTransactionCompletionService).afterCommit(with(any(Runnable.class)));
+                    will(runTheRunnable());
+                }
+            });
+
+            indexValues.newIndexValue(indexBase, startDate, new BigDecimal("101.2"));
+
+            assertThat(verificationQueue.size(), is(1));
+            assertThat(verificationQueue.poll(10, true), is(Arrays.asList(new Key("ISTAT-FOI", startDate))));
+            assertThat(verifiedIndex, is(nullValue()));
+        }
+
+        @Test
+        public void verifiesRightAwayWhenNotQueued() {
+            leaseTermsForIndexable.injectVerificationQueue(mockVerificationQueue);
+
+            context.checking(new Expectations() {
+                {
+                    allowing(mockVerificationQueue).isEnabled();
+                    will(returnValue(false));
+                    never(mockTransactionCompletionService);
+                }
+            });
+
+            indexValues.newIndexValue(indexBase, startDate, new BigDecimal("101.2"));
+
+            assertThat(verifiedIndex, is(index));
+            assertThat(verifiedDate, is(startDate));
+        }
+
+        private static Action deliverTo(final LeaseTermsForIndexable subscriber) {
+            return new Action() {
+                @Override
+                public Object invoke(Invocation invocation) throws Throwable {
+                    subscriber.on((IndexValue.UpdateEvent) invocation.getParameter(0));
+                    return null;
+                }
+
+                @Override
+                public void describeTo(Description description) {
+                    description.appendText("deliver arg 0 to the subscriber");
+                }
+            };
+        }
+
+        private static Action runTheRunnable() {
+            return new Action() {
+                @Override
+                public Object invoke(Invocation invocation) throws Throwable {
+                    ((Runnable) invocation.getParameter(0)).run();
+                    return null;
+                }
+
+                @Override
+                public void describeTo(Description description) {
+                    description.appendText("run arg 0");
+                }
+            };
+        }
+    }
+
 }
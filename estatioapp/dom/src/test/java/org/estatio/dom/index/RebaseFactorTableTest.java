@@ -0,0 +1,93 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.index;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class RebaseFactorTableTest {
+
+    IndexBase ib1990;
+    IndexBase ib2000;
+    IndexBase ib2010;
+    RebaseFactorTable table;
+
+    @Before
+    public void setUp() throws Exception {
+        ib1990 = new IndexBase();
+        ib1990.setStartDate(new LocalDate(1990, 1, 1));
+
+        ib2000 = new IndexBase();
+        ib2000.modifyPrevious(ib1990);
+        ib2000.setFactor(new BigDecimal("1.345"));
+        ib2000.setStartDate(new LocalDate(2000, 1, 1));
+
+        ib2010 = new IndexBase();
+        ib2010.modifyPrevious(ib2000);
+        ib2010.setFactor(new BigDecimal("1.234"));
+        ib2010.setStartDate(new LocalDate(2010, 1, 1));
+
+        table = RebaseFactorTable.of(Arrays.asList(ib2010, ib1990, ib2000));
+    }
+
+    public static class FactorForDate extends RebaseFactorTableTest {
+
+        @Test
+        public void sameAsWalkingTheChain() throws Exception {
+            for (IndexBase indexBase : Arrays.asList(ib1990, ib2000, ib2010)) {
+                for (LocalDate date = new LocalDate(1990, 1, 1); date.isBefore(new LocalDate(2015, 1, 1)); date = date.plusMonths(5)) {
+                    assertThat(
+                            indexBase.getStartDate() + " " + date,
+                            table.factorForDate(indexBase.getStartDate(), date),
+                            is(indexBase.factorForDate(date)));
+                }
+            }
+        }
+
+        @Test
+        public void acrossTwoRebases() throws Exception {
+            assertThat(table.factorForDate(new LocalDate(2010, 1, 1), new LocalDate(1999, 1, 1)), is(new BigDecimal("1.659730")));
+        }
+
+        @Test
+        public void onTheStartDate() throws Exception {
+            assertThat(table.factorForDate(new LocalDate(2010, 1, 1), new LocalDate(2000, 1, 1)), is(new BigDecimal("1.234")));
+        }
+
+        @Test
+        public void unknownBase() throws Exception {
+            assertThat(table.factorForDate(new LocalDate(2005, 1, 1), new LocalDate(2001, 1, 1)), is(nullValue()));
+        }
+
+        @Test
+        public void beforeTheFirstBase() throws Exception {
+            assertThat(table.factorForDate(new LocalDate(2010, 1, 1), new LocalDate(1989, 1, 1)), is(nullValue()));
+        }
+
+    }
+
+}
@@ -30,12 +30,15 @@ import org.junit.Test;
 
 import org.apache.isis.core.unittestsupport.comparable.ComparableContractTest_compareTo;
 import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2;
+import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2.Ignoring;
 import org.estatio.dom.AbstractBeanPropertiesTest;
 import org.estatio.dom.charge.Charge;
+import org.estatio.dom.invoice.summary.InvoiceTotals;
 import org.estatio.dom.tax.Tax;
 
 import static org.hamcrest.CoreMatchers.anyOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 public class InvoiceItemTest {
@@ -176,4 +179,90 @@ public class InvoiceItemTest {
         }
     }
 
-}
\ No newline at end of file
+    public static class AmountsOnInvoice extends InvoiceItemTest {
+
+        @Rule
+        public JUnitRuleMockery2 context = JUnitRuleMockery2.createFor(JUnitRuleMockery2.Mode.INTERFACES_AND_CLASSES);
+
+        @Mock
+        @Ignoring
+        InvoiceTotals mockInvoiceTotals;
+
+        private Invoice invoice;
+
+        @Before
+        public void setup() {
+            invoice = new Invoice();
+            invoice.setNetAmount(BigDecimal.ZERO);
+            invoice.setVatAmount(BigDecimal.ZERO);
+            invoice.setGrossAmount(BigDecimal.ZERO);
+        }
+
+        @Test
+        public void addedWhenVerified() {
+            newItem("100.00").verify();
+            newItem("20.00").verify();
+            assertThat(invoice.getNetAmount(), is(new BigDecimal("120.00")));
+            assertThat(invoice.getGrossAmount(), is(new BigDecimal("120.00")));
+        }
+
+        @Test
+        public void onlyTheChangeWhenVerifiedAgain() {
+            final InvoiceItem item = newItem("100.00");
+            item.verify();
+            item.setNetAmount(new BigDecimal("80.00"));
+            item.verify();
+            assertThat(invoice.getNetAmount(), is(new BigDecimal("80.00")));
+        }
+
+        @Test
+        public void onlyTheChangeSinceLoaded() {
+            invoice.setNetAmount(new BigDecimal("100.00"));
+            invoice.setGrossAmount(new BigDecimal("100.00"));
+            final InvoiceItem item = newItem("100.00");
+            item.loaded();
+            item.setNetAmount(new BigDecimal("110.00"));
+            item.verify();
+            assertThat(invoice.getNetAmount(), is(new BigDecimal("110.00")));
+        }
+
+        @Test
+        public void changedWithoutVerifyWhenUpdating() {
+            final InvoiceItem item = newItem("100.00");
+            item.verify();
+            item.setNetAmount(new BigDecimal("90.00"));
+            item.setGrossAmount(new BigDecimal("90.00"));
+            item.updating();
+            assertThat(invoice.getNetAmount(), is(new BigDecimal("90.00")));
+            assertThat(invoice.getGrossAmount(), is(new BigDecimal("90.00")));
+        }
+
+        @Test
+        public void notAddedTwiceWhenVerifiedAndPersisted() {
+            final InvoiceItem item = newItem("100.00");
+            item.verify();
+            item.persisting();
+            assertThat(invoice.getNetAmount(), is(new BigDecimal("100.00")));
+        }
+
+        @Test
+        public void leftAloneWhenNotReconciled() {
+            invoice.setNetAmount(null);
+            newItem("100.00").verify();
+            assertThat(invoice.getNetAmount(), is(nullValue()));
+        }
+
+        private InvoiceItem newItem(final String netAmount) {
+            final InvoiceItem item = new InvoiceItem() {
+                public ApplicationTenancy getApplicationTenancy() {
+                    return null;
+                }
+            };
+            item.invoiceTotals = mockInvoiceTotals;
+            item.setInvoice(invoice);
+            item.setNetAmount(new BigDecimal(netAmount));
+            return item;
+        }
+    }
+
+}
@@ -36,6 +36,7 @@ import org.estatio.dom.asset.FixedAsset;
 import org.estatio.dom.asset.Property;
 import org.estatio.dom.bankmandate.BankMandate;
 import org.estatio.dom.financial.bankaccount.BankAccount;
+import org.estatio.dom.invoice.summary.InvoiceTotals;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.numerator.Numerator;
 import org.estatio.services.clock.ClockService;
@@ -75,6 +76,10 @@ public class InvoiceTest {
     @Ignoring
     DomainObjectContainer mockContainer;
 
+    @Mock
+    @Ignoring
+    InvoiceTotals mockInvoiceTotals;
+
     @Before
     public void setUp() throws Exception {
         numerator = new Numerator();
@@ -138,6 +143,7 @@ public class InvoiceTest {
         invoice.setContainer(mockContainer);
         invoice.invoices = mockInvoices;
         invoice.collectionNumerators = mockCollectionNumerators;
+        invoice.invoiceTotals = mockInvoiceTotals;
         invoice.injectClockService(mockClockService);
         return invoice;
     }
@@ -213,6 +219,7 @@ public class InvoiceTest {
             invoice.setContainer(mockContainer);
             invoice.invoices = mockInvoices;
             invoice.collectionNumerators = mockCollectionNumerators;
+            invoice.invoiceTotals = mockInvoiceTotals;
             return invoice;
         }
 
@@ -367,5 +374,26 @@ public class InvoiceTest {
             assertTrue(invoice.validInvoiceDate(new LocalDate(2012, 2, 1)));
         }
 
+        @Test
+        public void lastInvoiceDateIsOnlyLookedUpOnce() {
+            // given
+            allowingMockInvoicesToReturnNumerator(numerator);
+            context.checking(new Expectations() {
+                {
+                    oneOf(mockInvoices).findInvoicesByInvoiceNumber("XXX-00010");
+                    will(returnValue(Arrays.asList(new Invoice() {
+                        @Override
+                        public LocalDate getInvoiceDate() {
+                            return new LocalDate(2012, 1, 1);
+                        };
+                    })));
+                }
+            });
+
+            // when,then
+            assertTrue(invoice.validInvoiceDate(new LocalDate(2012, 2, 1)));
+            assertFalse(invoice.validInvoiceDate(new LocalDate(2011, 12, 31)));
+        }
+
     }
 }
\ No newline at end of file
@@ -243,5 +243,53 @@ public class InvoicesTest {
 
     }
 
+    public static class RemoveInvoicesCondition extends InvoicesTest {
+
+        @Test
+        public void statusIn() throws Exception {
+            final Invoices.Condition condition = Invoices.statusIn(InvoiceStatus.NEW, InvoiceStatus.APPROVED);
+            assertThat(condition.getSql(), is("\"Invoice\".\"status\" IN (?, ?)"));
+            assertThat(condition.getParameters(), is(Arrays.<Object>asList("NEW", "APPROVED")));
+        }
+
+        @Test
+        public void dueDateIs() throws Exception {
+            final Invoices.Condition condition = Invoices.dueDateIs(new LocalDate(2014, 1, 1));
+            assertThat(condition.getSql(), is("\"Invoice\".\"dueDate\" = ?"));
+            assertThat(condition.getParameters(), is(Arrays.<Object>asList(java.sql.Date.valueOf("2014-01-01"))));
+            assertThat(Invoices.dueDateIs(null).getSql(), is("\"Invoice\".\"dueDate\" IS NULL"));
+            assertThat(Invoices.dueDateIs(null).getParameters().isEmpty(), is(true));
+        }
+
+        @Test
+        public void fixedAssetIs() throws Exception {
+            final Property property = new Property();
+            property.setReference("O'XF");
+            final Invoices.Condition condition = Invoices.fixedAssetIs(property);
+            assertThat(condition.getSql(), is(
+                    "\"Invoice\".\"fixedAssetId\" IN (SELECT \"FixedAsset\".\"id\" FROM \"FixedAsset\" WHERE \"FixedAsset\".\"reference\" = ?)"));
+            assertThat(condition.getParameters(), is(Arrays.<Object>asList("O'XF")));
+        }
+
+        @Test
+        public void leaseIn() throws Exception {
+            final Lease lease1 = new Lease();
+            lease1.setReference("OXF-TOPMODEL-001");
+            final Lease lease2 = new Lease();
+            lease2.setReference("OXF-POISON-003");
+            final Invoices.Condition condition = Invoices.leaseIn(Arrays.asList(lease1, lease2));
+            assertThat(condition.getSql(), is(
+                    "\"Invoice\".\"leaseId\" IN (SELECT \"Agreement\".\"id\" FROM \"Agreement\" WHERE \"Agreement\".\"reference\" IN (?, ?))"));
+            assertThat(condition.getParameters(), is(Arrays.<Object>asList("OXF-TOPMODEL-001", "OXF-POISON-003")));
+        }
+
+        @Test
+        public void and() throws Exception {
+            final Invoices.Condition condition = Invoices.dueDateIs(null).and(Invoices.statusIn(InvoiceStatus.NEW));
+            assertThat(condition.getSql(), is("\"Invoice\".\"dueDate\" IS NULL AND \"Invoice\".\"status\" IN (?)"));
+            assertThat(condition.getParameters(), is(Arrays.<Object>asList("NEW")));
+        }
+
+    }
 
 }
@@ -0,0 +1,127 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.invoice;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
+
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.party.Party;
+import org.estatio.dom.party.PartyForTesting;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class MatchingInvoicesTest {
+
+    private final LocalDate dueDate = new LocalDate(2014, 1, 1);
+
+    private Party seller;
+    private Party buyer;
+    private Lease lease;
+    private Invoice seededInvoice;
+
+    private List<Invoice> createdInvoices;
+    private Invoices invoices;
+
+    @Before
+    public void setUp() throws Exception {
+        seller = new PartyForTesting();
+        buyer = new PartyForTesting();
+        lease = new Lease() {
+            @Override
+            public Party getPrimaryParty() {
+                return seller;
+            }
+
+            @Override
+            public Party getSecondaryParty() {
+                return buyer;
+            }
+        };
+
+        seededInvoice = invoiceWith(PaymentMethod.DIRECT_DEBIT);
+
+        createdInvoices = Lists.newArrayList();
+        invoices = new Invoices() {
+            @Override
+            Invoice createInvoice(
+                    final ApplicationTenancy applicationTenancy,
+                    final Party seller,
+                    final Party buyer,
+                    final PaymentMethod paymentMethod,
+                    final LocalDate dueDate,
+                    final Lease lease,
+                    final String interactionId) {
+                final Invoice invoice = invoiceWith(paymentMethod);
+                createdInvoices.add(invoice);
+                return invoice;
+            }
+        };
+    }
+
+    @Test
+    public void findsSeededInvoice() throws Exception {
+        final MatchingInvoices matchingInvoices = new MatchingInvoices(invoices, Arrays.asList(seededInvoice));
+
+        assertThat(matchingInvoices.findOrCreate(null, PaymentMethod.DIRECT_DEBIT, lease, InvoiceStatus.NEW, dueDate, null), is(sameInstance(seededInvoice)));
+        assertThat(createdInvoices.size(), is(0));
+    }
+
+    @Test
+    public void createsOnceWhenNoneMatches() throws Exception {
+        final MatchingInvoices matchingInvoices = new MatchingInvoices(invoices, Arrays.asList(seededInvoice));
+
+        final Invoice invoice = matchingInvoices.findOrCreate(null, PaymentMethod.BANK_TRANSFER, lease, InvoiceStatus.NEW, dueDate, null);
+        assertThat(invoice, is(not(sameInstance(seededInvoice))));
+        assertThat(matchingInvoices.findOrCreate(null, PaymentMethod.BANK_TRANSFER, lease, InvoiceStatus.NEW, dueDate, null), is(sameInstance(invoice)));
+        assertThat(createdInvoices.size(), is(1));
+        assertThat(matchingInvoices.size(), is(2));
+    }
+
+    @Test
+    public void createsForOtherDueDate() throws Exception {
+        final MatchingInvoices matchingInvoices = new MatchingInvoices(invoices, Arrays.asList(seededInvoice));
+
+        matchingInvoices.findOrCreate(null, PaymentMethod.DIRECT_DEBIT, lease, InvoiceStatus.NEW, dueDate.plusMonths(3), null);
+        assertThat(createdInvoices.size(), is(1));
+    }
+
+    private Invoice invoiceWith(final PaymentMethod paymentMethod) {
+        final Invoice invoice = new Invoice();
+        invoice.setSeller(seller);
+        invoice.setBuyer(buyer);
+        invoice.setPaymentMethod(paymentMethod);
+        invoice.setLease(lease);
+        invoice.setStatus(InvoiceStatus.NEW);
+        invoice.setDueDate(dueDate);
+        return invoice;
+    }
+
+}
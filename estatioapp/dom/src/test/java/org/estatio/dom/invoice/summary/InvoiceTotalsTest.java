@@ -0,0 +1,126 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.invoice.summary;
+
+import java.math.BigDecimal;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
+
+import org.estatio.dom.invoice.Invoice;
+import org.estatio.dom.invoice.InvoiceItem;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class InvoiceTotalsTest {
+
+    public static class Totals extends InvoiceTotalsTest {
+
+        private Invoice invoice1;
+        private Invoice invoice2;
+        private InvoiceTotals.Totals totals;
+
+        @Before
+        public void setUp() throws Exception {
+            invoice1 = new Invoice();
+            invoice2 = new Invoice();
+            totals = new InvoiceTotals.Totals();
+        }
+
+        @Test
+        public void countsDistinctInvoicesAndSumsAmounts() throws Exception {
+            totals.add(newItem(invoice1, "100.00", "21.00", "121.00"));
+            totals.add(newItem(invoice1, "10.00", "2.10", "12.10"));
+            totals.add(newItem(invoice2, "-20.00", "-4.20", "-24.20"));
+
+            final InvoiceTotalForPropertyDueDateStatus row = new InvoiceTotalForPropertyDueDateStatus();
+            totals.copyTo(row);
+
+            assertThat(row.getTotal(), is(2));
+            assertThat(row.getNetAmount(), is(new BigDecimal("90.00")));
+            assertThat(row.getVatAmount(), is(new BigDecimal("18.90")));
+            assertThat(row.getGrossAmount(), is(new BigDecimal("108.90")));
+        }
+
+        @Test
+        public void ignoresNullAmounts() throws Exception {
+            totals.add(newItem(invoice1, null, null, "12.10"));
+            totals.add(newItem(invoice1, "10.00", null, null));
+
+            final InvoiceTotalForPropertyDueDateStatus row = new InvoiceTotalForPropertyDueDateStatus();
+            totals.copyTo(row);
+
+            assertThat(row.getTotal(), is(1));
+            assertThat(row.getNetAmount(), is(new BigDecimal("10.00")));
+            assertThat(row.getVatAmount(), is(nullValue()));
+            assertThat(row.getGrossAmount(), is(new BigDecimal("12.10")));
+        }
+
+        @Test
+        public void emptyWhenNoItems() throws Exception {
+            assertThat(totals.isEmpty(), is(true));
+            assertThat(totals.numberOfInvoices(), is(0));
+        }
+
+        private static InvoiceItem newItem(final Invoice invoice, final String netAmount, final String vatAmount, final String grossAmount) {
+            final InvoiceItem item = new InvoiceItem() {
+                @Override
+                public ApplicationTenancy getApplicationTenancy() {
+                    return null;
+                }
+            };
+            item.setInvoice(invoice);
+            item.setNetAmount(netAmount == null ? null : new BigDecimal(netAmount));
+            item.setVatAmount(vatAmount == null ? null : new BigDecimal(vatAmount));
+            item.setGrossAmount(grossAmount == null ? null : new BigDecimal(grossAmount));
+            return item;
+        }
+
+    }
+
+    public static class TakeRefreshRequest extends InvoiceTotalsTest {
+
+        private InvoiceTotals invoiceTotals;
+
+        @Before
+        public void setUp() throws Exception {
+            invoiceTotals = new InvoiceTotals();
+        }
+
+        @Test
+        public void requestedInitially() throws Exception {
+            assertThat(invoiceTotals.takeRefreshRequest(), is(true));
+            assertThat(invoiceTotals.takeRefreshRequest(), is(false));
+        }
+
+        @Test
+        public void requestedAgain() throws Exception {
+            invoiceTotals.takeRefreshRequest();
+            invoiceTotals.requestRefresh();
+            assertThat(invoiceTotals.takeRefreshRequest(), is(true));
+            assertThat(invoiceTotals.takeRefreshRequest(), is(false));
+        }
+
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.apache.isis.core.unittestsupport.jmocking.JUnitRuleMockery2;
+
+import org.estatio.dom.invoice.InvoicingInterval;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationService.CalculationResult;
+import org.estatio.dom.valuetypes.LocalDateInterval;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class ContractualRentProjectionTest {
+
+    @Rule
+    public JUnitRuleMockery2 context = JUnitRuleMockery2.createFor(JUnitRuleMockery2.Mode.INTERFACES_AND_CLASSES);
+
+    @Mock
+    private Lease mockLease;
+
+    @Mock
+    private LeaseItem mockRentItem;
+
+    private ContractualRentProjection projection;
+
+    @Before
+    public void setUp() throws Exception {
+        projection = new ContractualRentProjection(mockLease);
+    }
+
+    public static class ContractualRent extends ContractualRentProjectionTest {
+
+        @Test
+        public void calculatedOncePerStartDate() throws Exception {
+            expectCalculation(1);
+
+            assertThat(projection.contractualRent(LocalDateInterval.including(new LocalDate(2013, 1, 1), new LocalDate(2013, 12, 31))), is(new BigDecimal("100000.00")));
+            assertThat(projection.contractualRent(LocalDateInterval.including(new LocalDate(2013, 1, 1), new LocalDate(2013, 6, 30))), is(new BigDecimal("50000.00")));
+        }
+
+        @Test
+        public void recalculatedWhenCleared() throws Exception {
+            expectCalculation(2);
+
+            projection.contractualRent(LocalDateInterval.including(new LocalDate(2013, 1, 1), new LocalDate(2013, 12, 31)));
+            projection.clear();
+            assertThat(projection.contractualRent(LocalDateInterval.including(new LocalDate(2013, 1, 1), new LocalDate(2013, 12, 31))), is(new BigDecimal("100000.00")));
+        }
+
+        private void expectCalculation(final int times) {
+            context.checking(new Expectations() {
+                {
+                    exactly(times).of(mockLease).findItemsOfType(LeaseItemType.RENT);
+                    will(returnValue(Collections.singletonList(mockRentItem)));
+                    exactly(times).of(mockRentItem).getInvoicingFrequency();
+                    will(returnValue(InvoicingFrequency.QUARTERLY_IN_ADVANCE));
+                    exactly(times).of(mockRentItem).calculationResults(InvoicingFrequency.QUARTERLY_IN_ADVANCE, new LocalDate(2013, 1, 1), new LocalDate(2015, 1, 1));
+                    will(returnValue(quarterlyResults(new LocalDate(2013, 1, 1), 8, "25000.00")));
+                }
+            });
+        }
+
+    }
+
+    public static class HeldByLease extends ContractualRentProjectionTest {
+
+        @Test
+        public void untilReleased() throws Exception {
+            final Lease lease = new Lease();
+            assertThat(lease.contractualRentProjection(), is(not(sameInstance(lease.contractualRentProjection()))));
+
+            lease.holdContractualRentProjection();
+            final ContractualRentProjection held = lease.contractualRentProjection();
+            assertThat(lease.contractualRentProjection(), is(sameInstance(held)));
+
+            lease.releaseContractualRentProjection();
+            assertThat(lease.contractualRentProjection(), is(not(sameInstance(held))));
+        }
+
+    }
+
+    private static List<CalculationResult> quarterlyResults(final LocalDate startDate, final int quarters, final String value) {
+        final CalculationResult[] results = new CalculationResult[quarters];
+        for (int i = 0; i < quarters; i++) {
+            final LocalDateInterval interval = LocalDateInterval.excluding(startDate.plusMonths(i * 3), startDate.plusMonths(i * 3 + 3));
+            results[i] = new CalculationResult(
+                    new InvoicingInterval(interval, interval.startDate()),
+                    interval,
+                    new BigDecimal(value),
+                    BigDecimal.ZERO,
+                    BigDecimal.ZERO);
+        }
+        return Arrays.asList(results);
+    }
+
+}
@@ -26,6 +26,7 @@ import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
 import org.jmock.Expectations;
 import org.jmock.auto.Mock;
 import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -104,11 +105,22 @@ public class LeaseItemTest {
         @Mock
         private DomainObjectContainer mockContainer;
 
+        @Mock
+        private ClockService mockClockService;
+
         private boolean leaseTermSuccessfullyRemoved;
 
         @Before
         public void setUp() throws Exception {
+            context.checking(new Expectations() {
+                {
+                    allowing(mockClockService).nowAsLocalDateTime();
+                    will(returnValue(new LocalDateTime(2014, 1, 1, 0, 0)));
+                }
+            });
+
             lease = new Lease();
+            lease.injectClockService(mockClockService);
             leaseItem = new LeaseItem();
 
             leaseItem.setLease(lease);
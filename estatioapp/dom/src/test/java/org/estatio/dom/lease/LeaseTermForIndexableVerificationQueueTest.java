@@ -0,0 +1,123 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease;
+
+import java.util.Arrays;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.estatio.dom.lease.LeaseTermForIndexableVerificationQueue.Key;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+public class LeaseTermForIndexableVerificationQueueTest {
+
+    private static final Key ISTAT_NOV = new Key("ISTAT-FOI", new LocalDate(2013, 11, 1));
+    private static final Key ISTAT_DEC = new Key("ISTAT-FOI", new LocalDate(2013, 12, 1));
+
+    private LeaseTermForIndexableVerificationQueue queue;
+
+    @Before
+    public void setUp() throws Exception {
+        queue = new LeaseTermForIndexableVerificationQueue();
+    }
+
+    public static class Enqueue extends LeaseTermForIndexableVerificationQueueTest {
+
+        @Test
+        public void collapsesDuplicates() throws Exception {
+            queue.enqueue(ISTAT_NOV, 0);
+            queue.enqueue(ISTAT_DEC, 0);
+            queue.enqueue(new Key("ISTAT-FOI", new LocalDate(2013, 11, 1)), 0);
+            assertThat(queue.size(), is(2));
+            assertThat(queue.progress(), startsWith("2 pending, 3 requested"));
+        }
+
+    }
+
+    public static class Poll extends LeaseTermForIndexableVerificationQueueTest {
+
+        @Test
+        public void onlyWhenSettled() throws Exception {
+            queue.enqueue(ISTAT_NOV, 0);
+            assertThat(queue.poll(10, 4999L).isEmpty(), is(true));
+            assertThat(queue.poll(10, 5000L), is(Arrays.asList(ISTAT_NOV)));
+            assertThat(queue.size(), is(0));
+        }
+
+        @Test
+        public void enqueueingAgainRestartsTheSettlePeriod() throws Exception {
+            queue.enqueue(ISTAT_NOV, 0);
+            queue.enqueue(ISTAT_DEC, 1000);
+            queue.enqueue(ISTAT_NOV, 2000);
+            assertThat(queue.poll(10, 6000L), is(Arrays.asList(ISTAT_DEC)));
+            assertThat(queue.poll(10, 7000L), is(Arrays.asList(ISTAT_NOV)));
+        }
+
+        @Test
+        public void atMostTheBatchSize() throws Exception {
+            queue.enqueue(ISTAT_NOV, 0);
+            queue.enqueue(ISTAT_DEC, 0);
+            assertThat(queue.poll(1, Long.MAX_VALUE), is(Arrays.asList(ISTAT_NOV)));
+            assertThat(queue.poll(1, Long.MAX_VALUE), is(Arrays.asList(ISTAT_DEC)));
+        }
+
+    }
+
+    public static class Failed extends LeaseTermForIndexableVerificationQueueTest {
+
+        @Test
+        public void retriedAfterTheSettlePeriod() throws Exception {
+            queue.enqueue(ISTAT_NOV, 0);
+            queue.poll(10, 5000L);
+            queue.failed(ISTAT_NOV, new RuntimeException("deadlock"), 5000L);
+            assertThat(queue.poll(10, 9999L).isEmpty(), is(true));
+            assertThat(queue.poll(10, 10000L), is(Arrays.asList(ISTAT_NOV)));
+            assertThat(queue.progress(), startsWith("0 pending, 1 requested, 0 processed (0 terms verified), 1 retried, 0 failed"));
+        }
+
+        @Test
+        public void givesUpAfterTheMaximumNumberOfAttempts() throws Exception {
+            queue.failed(ISTAT_NOV, new RuntimeException("no index"), 0);
+            queue.poll(10, Long.MAX_VALUE);
+            queue.failed(ISTAT_NOV, new RuntimeException("no index"), 0);
+            queue.poll(10, Long.MAX_VALUE);
+            queue.failed(ISTAT_NOV, new RuntimeException("no index"), 0);
+            assertThat(queue.size(), is(0));
+            assertThat(queue.progress(), is("0 pending, 0 requested, 0 processed (0 terms verified), 2 retried, 1 failed (last: ISTAT-FOI@2013-11-01: no index)"));
+        }
+
+        @Test
+        public void attemptsAreResetOnceCompleted() throws Exception {
+            queue.failed(ISTAT_NOV, new RuntimeException("deadlock"), 0);
+            queue.poll(10, Long.MAX_VALUE);
+            queue.failed(ISTAT_NOV, new RuntimeException("deadlock"), 0);
+            queue.poll(10, Long.MAX_VALUE);
+            queue.completed(Arrays.asList(ISTAT_NOV), 1);
+            queue.failed(ISTAT_NOV, new RuntimeException("deadlock"), 0);
+            assertThat(queue.size(), is(1));
+        }
+
+    }
+
+}
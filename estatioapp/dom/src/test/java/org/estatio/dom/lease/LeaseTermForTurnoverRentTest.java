@@ -70,6 +70,8 @@ public class LeaseTermForTurnoverRentTest {
 
             context.checking(new Expectations() {
                 {
+                    oneOf(mockLease).contractualRentProjection();
+                    will(returnValue(new ContractualRentProjection(mockLease)));
                     oneOf(mockLease).findItemsOfType(LeaseItemType.RENT);
                     will(returnValue(new ArrayList<LeaseItem>() {
                         private static final long serialVersionUID = 8666017984548841746L;
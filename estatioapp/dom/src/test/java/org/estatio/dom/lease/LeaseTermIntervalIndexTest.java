@@ -0,0 +1,126 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class LeaseTermIntervalIndexTest {
+
+    private Lease lease;
+    private LeaseItem item;
+    private int sequence;
+
+    @Before
+    public void setUp() throws Exception {
+        lease = new Lease();
+        lease.setStartDate(new LocalDate(2010, 1, 1));
+        item = new LeaseItem();
+        item.setLease(lease);
+        lease.getItems().add(item);
+    }
+
+    public static class CurrentTerm extends LeaseTermIntervalIndexTest {
+
+        @Test
+        public void monthlyTerms() throws Exception {
+            for (LocalDate startDate = new LocalDate(2010, 1, 1); startDate.isBefore(new LocalDate(2020, 1, 1)); startDate = startDate.plusMonths(1)) {
+                newTerm(startDate, startDate.plusMonths(1).minusDays(1));
+            }
+            assertSameAsScanning();
+            assertThat(item.currentTerm(new LocalDate(2015, 6, 15)).getStartDate(), is(new LocalDate(2015, 6, 1)));
+        }
+
+        @Test
+        public void overlappingAndOpenEndedTerms() throws Exception {
+            final Random random = new Random(1);
+            for (int i = 0; i < 50; i++) {
+                final LocalDate startDate = random.nextInt(10) == 0 ? null : new LocalDate(2010, 1, 1).plusDays(random.nextInt(3000));
+                final LocalDate endDate = random.nextInt(10) == 0 ? null : (startDate == null ? new LocalDate(2012, 1, 1) : startDate).plusDays(random.nextInt(400));
+                newTerm(startDate, endDate);
+            }
+            assertSameAsScanning();
+        }
+
+        @Test
+        public void withinTheEffectiveIntervalOfTheItem() throws Exception {
+            item.setStartDate(new LocalDate(2012, 1, 1));
+            item.setEndDate(new LocalDate(2012, 12, 31));
+            newTerm(new LocalDate(2011, 1, 1), null);
+            assertThat(item.currentTerm(new LocalDate(2011, 6, 1)), is(nullValue()));
+            assertThat(item.currentTerm(new LocalDate(2013, 1, 1)), is(nullValue()));
+            assertSameAsScanning();
+        }
+
+        @Test
+        public void rebuiltWhenTermsChange() throws Exception {
+            final LeaseTerm first = newTerm(new LocalDate(2012, 1, 1), null);
+            assertThat(item.currentTerm(new LocalDate(2013, 1, 1)), is(sameInstance(first)));
+
+            first.setEndDate(new LocalDate(2012, 12, 31));
+            assertThat(item.currentTerm(new LocalDate(2013, 1, 1)), is(nullValue()));
+
+            final LeaseTerm next = newTerm(new LocalDate(2013, 1, 1), null);
+            assertThat(item.currentTerm(new LocalDate(2013, 1, 1)), is(sameInstance(next)));
+
+            item.getTerms().remove(next);
+            assertThat(item.currentTerm(new LocalDate(2013, 1, 1)), is(nullValue()));
+        }
+
+        @Test
+        public void noDate() throws Exception {
+            newTerm(null, null);
+            assertThat(item.currentTerm(null), is(nullValue()));
+        }
+
+    }
+
+    private LeaseTerm newTerm(final LocalDate startDate, final LocalDate endDate) {
+        final LeaseTermForTesting term = new LeaseTermForTesting(item, startDate, endDate, BigDecimal.ONE);
+        term.setSequence(BigInteger.valueOf(++sequence));
+        item.getTerms().add(term);
+        return term;
+    }
+
+    private void assertSameAsScanning() {
+        for (LocalDate date = new LocalDate(2009, 1, 1); date.isBefore(new LocalDate(2022, 1, 1)); date = date.plusDays(3)) {
+            assertThat(date.toString(), item.currentTerm(date), is(scan(date)));
+        }
+    }
+
+    private LeaseTerm scan(final LocalDate date) {
+        for (LeaseTerm term : item.getTerms()) {
+            if (term.isActiveOn(date)) {
+                return term;
+            }
+        }
+        return null;
+    }
+
+}
@@ -155,6 +155,41 @@ public class LeaseTermTest {
         }
     }
 
+    public static class VerifyUntil extends LeaseTermTest {
+
+        @Test
+        public void createsMissingTermsAndPersistsThemTogether() {
+            context.checking(new Expectations() {
+                {
+                    allowing(mockLeaseTerms).newTransientLeaseTerm(
+                            with(any(LeaseItem.class)),
+                            with(any(LeaseTerm.class)),
+                            with(any(LocalDate.class)),
+                            with(any(LocalDate.class)));
+                    will(returnLeaseTerm());
+                    oneOf(mockLeaseTerms).persistAll(with(item), with(any(List.class)));
+                }
+            });
+            item.setType(LeaseItemType.RENT);
+
+            term.verifyUntil(new LocalDate(2014, 1, 1));
+
+            assertThat(term.getEndDate(), is(new LocalDate(2012, 12, 31)));
+            assertThat(term.getNext().getStartDate(), is(new LocalDate(2013, 1, 1)));
+            assertThat(term.getNext().getSequence(), is(BigInteger.valueOf(2)));
+            assertNull(term.getNext().getNext());
+        }
+
+        @Test
+        public void doesNotPersistWhenNothingCreated() {
+            item.setType(LeaseItemType.RENT);
+
+            term.verifyUntil(new LocalDate(2012, 6, 1));
+
+            assertNull(term.getNext());
+        }
+    }
+
     public static class Update extends LeaseTermTest {
 
         // TODO: the call to update is actually commented out ???
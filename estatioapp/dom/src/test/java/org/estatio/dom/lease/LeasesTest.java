@@ -36,6 +36,7 @@ import org.estatio.dom.FinderInteraction.FinderMethod;
 import org.estatio.dom.asset.FixedAsset;
 import org.estatio.dom.asset.FixedAssetForTesting;
 import org.estatio.dom.asset.Property;
+import org.estatio.dom.search.SearchIndexService;
 import org.estatio.services.clock.ClockService;
 
 public class LeasesTest {
@@ -78,6 +79,7 @@ public class LeasesTest {
             }
         };
         leases.clockService = new ClockService();
+        leases.searchIndexService = new SearchIndexService();
     }
 
     public static class FindLeaseByReference extends LeasesTest {
@@ -31,6 +31,7 @@ import org.apache.isis.core.commons.matchers.IsisMatchers;
 
 import org.estatio.dom.FinderInteraction;
 import org.estatio.dom.FinderInteraction.FinderMethod;
+import org.estatio.dom.asset.Property;
 import org.estatio.dom.asset.Unit;
 import org.estatio.dom.valuetypes.LocalDateInterval;
 
@@ -117,6 +118,21 @@ public class OccupanciesTest {
 
     }
 
+    public static class FindByProperty extends OccupanciesTest {
+
+        @Test
+        public void happyCase() {
+            final Property property = new Property();
+            occupancies.findByProperty(property);
+            assertThat(finderInteraction.getFinderMethod(), is(FinderMethod.ALL_MATCHES));
+            assertThat(finderInteraction.getResultType(), IsisMatchers.classEqualTo(Occupancy.class));
+            assertThat(finderInteraction.getQueryName(), is("findByProperty"));
+            assertThat(finderInteraction.getArgumentsByParameterName().get("property"), is((Object) property));
+            assertThat(finderInteraction.getArgumentsByParameterName().size(), is(1));
+        }
+
+    }
+
     public static class occupanciesByUnitAndInterval extends OccupanciesTest {
 
         @Before
@@ -0,0 +1,91 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease;
+
+import java.util.Arrays;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.estatio.dom.asset.Unit;
+import org.estatio.dom.valuetypes.LocalDateInterval;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OccupancyIntervalIndexTest {
+
+    Unit unit;
+    Unit otherUnit;
+    Unit vacantUnit;
+    OccupancyIntervalIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        unit = new Unit();
+        otherUnit = new Unit();
+        vacantUnit = new Unit();
+        index = new OccupancyIntervalIndex(Arrays.asList(
+                occupancy(unit, new LocalDate(2015, 1, 1), new LocalDate(2015, 12, 31)),
+                occupancy(unit, new LocalDate(2016, 1, 1), new LocalDate(2016, 12, 31)),
+                occupancy(otherUnit, new LocalDate(2016, 7, 1), null)));
+    }
+
+    public static class HasOccupancyOverlapping extends OccupancyIntervalIndexTest {
+
+        @Test
+        public void sameAsOccupanciesByUnitAndInterval() throws Exception {
+            assertThat(index.hasOccupancyOverlapping(unit, new LocalDateInterval(new LocalDate(2015, 1, 1), new LocalDate(2015, 2, 1)))).isTrue();
+            assertThat(index.hasOccupancyOverlapping(unit, new LocalDateInterval(new LocalDate(2015, 1, 1), new LocalDate(2016, 1, 1)))).isTrue();
+            assertThat(index.hasOccupancyOverlapping(unit, new LocalDateInterval(new LocalDate(2014, 1, 1), new LocalDate(2014, 12, 31)))).isFalse();
+            assertThat(index.hasOccupancyOverlapping(unit, new LocalDateInterval(new LocalDate(2017, 1, 1), new LocalDate(2017, 1, 1)))).isFalse();
+        }
+
+        @Test
+        public void openEnded() throws Exception {
+            assertThat(index.hasOccupancyOverlapping(otherUnit, new LocalDateInterval(new LocalDate(2030, 1, 1), new LocalDate(2031, 1, 1)))).isTrue();
+            assertThat(index.hasOccupancyOverlapping(otherUnit, new LocalDateInterval(new LocalDate(2015, 1, 1), new LocalDate(2016, 1, 1)))).isFalse();
+        }
+
+        @Test
+        public void whenNoOccupancies() throws Exception {
+            assertThat(index.hasOccupancyOverlapping(vacantUnit, new LocalDateInterval(new LocalDate(2015, 1, 1), new LocalDate(2016, 1, 1)))).isFalse();
+        }
+    }
+
+    public static class UnitsWithOccupancyOverlapping extends OccupancyIntervalIndexTest {
+
+        @Test
+        public void happyCase() throws Exception {
+            assertThat(index.unitsWithOccupancyOverlapping(new LocalDateInterval(new LocalDate(2016, 1, 1), new LocalDate(2017, 1, 1))))
+                    .containsOnly(unit, otherUnit);
+            assertThat(index.unitsWithOccupancyOverlapping(new LocalDateInterval(new LocalDate(2015, 1, 1), new LocalDate(2016, 1, 1))))
+                    .containsOnly(unit);
+        }
+    }
+
+    private static Occupancy occupancy(final Unit unit, final LocalDate startDate, final LocalDate endDate) {
+        final Occupancy occupancy = new Occupancy();
+        occupancy.setUnit(unit);
+        occupancy.setStartDate(startDate);
+        occupancy.setEndDate(endDate);
+        return occupancy;
+    }
+
+}
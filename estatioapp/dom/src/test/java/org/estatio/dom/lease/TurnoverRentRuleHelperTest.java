@@ -23,6 +23,8 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 public class TurnoverRentRuleHelperTest {
@@ -51,6 +53,29 @@ public class TurnoverRentRuleHelperTest {
 
     }
 
+    public static class Of extends TurnoverRentRuleHelperTest {
+
+        @Test
+        public void sameInstanceForSameRule() throws Exception {
+            assertThat(
+                    TurnoverRentRuleHelper.of("500000;5;750000;6;7"),
+                    is(sameInstance(TurnoverRentRuleHelper.of("500000;5;750000;6;7"))));
+        }
+
+        @Test
+        public void whenNull() throws Exception {
+            Assert.assertFalse(TurnoverRentRuleHelper.of(null).isValid());
+        }
+
+        @Test
+        public void notSharedWhenInvalid() throws Exception {
+            assertThat(
+                    TurnoverRentRuleHelper.of("500000;5;"),
+                    is(not(sameInstance(TurnoverRentRuleHelper.of("500000;5;")))));
+        }
+
+    }
+
     public static class IsValid extends TurnoverRentRuleHelperTest {
 
         @Test
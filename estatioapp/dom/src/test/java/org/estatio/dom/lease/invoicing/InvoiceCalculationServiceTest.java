@@ -20,10 +20,13 @@ package org.estatio.dom.lease.invoicing;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import org.jmock.Expectations;
 import org.jmock.auto.Mock;
 import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -34,7 +37,9 @@ import org.estatio.dom.agreement.AgreementRoleRepository;
 import org.estatio.dom.agreement.AgreementRoleType;
 import org.estatio.dom.agreement.AgreementRoleTypeRepository;
 import org.estatio.dom.agreement.AgreementTypeRepository;
+import org.estatio.dom.asset.Property;
 import org.estatio.dom.charge.Charge;
+import org.estatio.dom.index.IndexValues;
 import org.estatio.dom.invoice.Invoices;
 import org.estatio.dom.lease.*;
 import org.estatio.dom.lease.invoicing.InvoiceCalculationService.CalculationResult;
@@ -42,6 +47,7 @@ import org.estatio.dom.tax.Tax;
 import org.estatio.dom.tax.TaxRate;
 import org.estatio.dom.tax.TaxRates;
 import org.estatio.domsettings.EstatioSettingsService;
+import org.estatio.services.clock.ClockService;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -372,5 +378,110 @@ public class InvoiceCalculationServiceTest {
 
     }
 
+    public static class CalculateAndInvoiceIncrementally extends InvoiceCalculationServiceTest {
 
-}
\ No newline at end of file
+        @Rule
+        public JUnitRuleMockery2 context = JUnitRuleMockery2.createFor(Mode.INTERFACES_AND_CLASSES);
+
+        @Mock
+        Invoices mockInvoices;
+
+        @Mock
+        Leases mockLeases;
+
+        @Mock
+        LeaseItems mockLeaseItems;
+
+        @Mock
+        LeaseTerms mockLeaseTerms;
+
+        @Mock
+        Occupancies mockOccupancies;
+
+        @Mock
+        IndexValues mockIndexValues;
+
+        @Mock
+        LeaseTermsForIndexable mockLeaseTermsForIndexable;
+
+        @Mock
+        InvoiceCalculationRuns mockInvoiceCalculationRuns;
+
+        @Mock
+        ClockService mockClockService;
+
+        static final LocalDateTime LAST_STARTED_ON = new LocalDateTime(2014, 1, 1, 9, 0);
+        static final LocalDateTime NOW = new LocalDateTime(2014, 1, 2, 9, 0);
+
+        Property property;
+        InvoiceCalculationParameters parameters;
+        InvoiceCalculationRun lastRun;
+
+        InvoiceCalculationService ic;
+
+        @Before
+        public void setup() {
+            property = new Property();
+            property.setReference("OXF");
+
+            parameters = new InvoiceCalculationParameters(
+                    property,
+                    Arrays.asList(LeaseItemType.RENT),
+                    InvoiceRunType.NORMAL_RUN,
+                    new LocalDate(2014, 4, 1),
+                    new LocalDate(2014, 4, 1),
+                    new LocalDate(2014, 4, 2));
+
+            lastRun = new InvoiceCalculationRun();
+            lastRun.setStartedOn(LAST_STARTED_ON);
+
+            ic = new InvoiceCalculationService() {
+                @Override
+                protected ClockService getClockService() {
+                    return mockClockService;
+                }
+            };
+            ic.invoices = mockInvoices;
+            ic.leases = mockLeases;
+            ic.leaseItems = mockLeaseItems;
+            ic.leaseTerms = mockLeaseTerms;
+            ic.occupancies = mockOccupancies;
+            ic.indexValues = mockIndexValues;
+            ic.leaseTermsForIndexable = mockLeaseTermsForIndexable;
+            ic.invoiceCalculationRuns = mockInvoiceCalculationRuns;
+        }
+
+        @Test
+        public void unchangedPropertyIsNotRecalculated() throws Exception {
+            context.checking(new Expectations() {
+                {
+                    allowing(mockClockService).nowAsLocalDateTime();
+                    will(returnValue(NOW));
+
+                    oneOf(mockInvoiceCalculationRuns).findLastRun(parameters);
+                    will(returnValue(lastRun));
+
+                    oneOf(mockLeases).findLeasesByPropertyUpdatedAfter(property, LAST_STARTED_ON);
+                    will(returnValue(Collections.emptyList()));
+                    oneOf(mockLeaseItems).findByPropertyUpdatedAfter(property, LAST_STARTED_ON);
+                    will(returnValue(Collections.emptyList()));
+                    oneOf(mockLeaseTerms).findByPropertyUpdatedAfter(property, LAST_STARTED_ON);
+                    will(returnValue(Collections.emptyList()));
+                    oneOf(mockOccupancies).findByPropertyUpdatedAfter(property, LAST_STARTED_ON);
+                    will(returnValue(Collections.emptyList()));
+                    oneOf(mockIndexValues).findUpdatedAfter(LAST_STARTED_ON);
+                    will(returnValue(Collections.emptyList()));
+
+                    // no invoices removed, no leases calculated
+                    never(mockInvoices);
+                    never(mockLeaseTermsForIndexable);
+
+                    oneOf(mockInvoiceCalculationRuns).newRun(with(parameters), with(any(String.class)), with(NOW));
+                }
+            });
+
+            ic.calculateAndInvoiceIncrementally(parameters);
+        }
+    }
+
+}
@@ -97,8 +97,8 @@ public class InvoiceItemForLeaseTest {
         public void happyCase() {
             context.checking(new Expectations() {
                 {
-                    allowing(mockTaxRates).findTaxRateByTaxAndDate(with(tax), with(new LocalDate(2012, 1, 1)));
-                    will(returnValue(rate));
+                    allowing(mockTaxRates).findPercentageByTaxAndDate(with(tax), with(new LocalDate(2012, 1, 1)));
+                    will(returnValue(rate.getPercentage()));
                 }
             });
             item.setNetAmount(BigDecimal.valueOf(12.34));
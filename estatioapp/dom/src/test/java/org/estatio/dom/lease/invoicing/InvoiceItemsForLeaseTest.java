@@ -18,12 +18,21 @@
  */
 package org.estatio.dom.lease.invoicing;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
 import java.util.List;
 import org.joda.time.LocalDate;
 import org.junit.Before;
+import org.junit.Test;
 import org.apache.isis.applib.query.Query;
+import org.apache.isis.core.commons.matchers.IsisMatchers;
 import org.estatio.dom.FinderInteraction;
 import org.estatio.dom.FinderInteraction.FinderMethod;
+import org.estatio.dom.invoice.InvoiceStatus;
+import org.estatio.dom.lease.Lease;
+import org.estatio.dom.valuetypes.LocalDateInterval;
 
 public class InvoiceItemsForLeaseTest {
 
@@ -62,4 +71,24 @@ public class InvoiceItemsForLeaseTest {
         };
     }
 
-}
\ No newline at end of file
+    public static class FindInvoicedByLeasesAndInterval extends InvoiceItemsForLeaseTest {
+
+        @Test
+        public void happyCase() {
+            final List<Lease> leases = Arrays.asList(new Lease(), new Lease());
+            final LocalDateInterval interval = new LocalDateInterval(startDate, dueDate);
+
+            invoiceItems.findInvoicedByLeasesAndInterval(leases, interval);
+
+            assertThat(finderInteraction.getFinderMethod(), is(FinderMethod.ALL_MATCHES));
+            assertThat(finderInteraction.getResultType(), IsisMatchers.classEqualTo(InvoiceItemForLease.class));
+            assertThat(finderInteraction.getQueryName(), is("findByLeasesAndIntervalAndInvoiceStatusNot"));
+            assertThat(finderInteraction.getArgumentsByParameterName().get("leases"), is((Object) leases));
+            assertThat(finderInteraction.getArgumentsByParameterName().get("startDate"), is((Object) interval.startDate()));
+            assertThat(finderInteraction.getArgumentsByParameterName().get("endDateExcluding"), is((Object) interval.endDateExcluding()));
+            assertThat(finderInteraction.getArgumentsByParameterName().get("invoiceStatus"), is((Object) InvoiceStatus.NEW));
+            assertThat(finderInteraction.getArgumentsByParameterName().size(), is(4));
+        }
+    }
+
+}
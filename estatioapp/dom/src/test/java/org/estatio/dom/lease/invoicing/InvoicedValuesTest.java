@@ -0,0 +1,72 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.lease.invoicing;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.estatio.dom.lease.LeaseTerm;
+import org.estatio.dom.lease.LeaseTermForTesting;
+import org.estatio.dom.valuetypes.LocalDateInterval;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class InvoicedValuesTest {
+
+    private LeaseTerm leaseTerm;
+    private LeaseTerm otherLeaseTerm;
+    private InvoicedValues invoicedValues;
+
+    @Before
+    public void setUp() throws Exception {
+        leaseTerm = new LeaseTermForTesting();
+        otherLeaseTerm = new LeaseTermForTesting();
+        invoicedValues = new InvoicedValues(Arrays.asList(
+                newItem(leaseTerm, new LocalDate(2014, 1, 1), new LocalDate(2014, 3, 31), "100.00"),
+                newItem(leaseTerm, new LocalDate(2014, 1, 1), new LocalDate(2014, 3, 31), "-20.00"),
+                newItem(leaseTerm, new LocalDate(2014, 4, 1), new LocalDate(2014, 6, 30), "50.00")));
+    }
+
+    @Test
+    public void sumsPerTermAndInterval() throws Exception {
+        assertThat(invoicedValues.invoicedValue(leaseTerm, LocalDateInterval.excluding(new LocalDate(2014, 1, 1), new LocalDate(2014, 4, 1))), is(new BigDecimal("80.00")));
+        assertThat(invoicedValues.invoicedValue(leaseTerm, LocalDateInterval.excluding(new LocalDate(2014, 4, 1), new LocalDate(2014, 7, 1))), is(new BigDecimal("50.00")));
+    }
+
+    @Test
+    public void zeroWhenNothingInvoiced() throws Exception {
+        assertThat(invoicedValues.invoicedValue(leaseTerm, LocalDateInterval.excluding(new LocalDate(2014, 7, 1), new LocalDate(2014, 10, 1))), is(new BigDecimal(0)));
+        assertThat(invoicedValues.invoicedValue(otherLeaseTerm, LocalDateInterval.excluding(new LocalDate(2014, 1, 1), new LocalDate(2014, 4, 1))), is(new BigDecimal(0)));
+    }
+
+    private static InvoiceItemForLease newItem(final LeaseTerm leaseTerm, final LocalDate startDate, final LocalDate endDate, final String netAmount) {
+        final InvoiceItemForLease item = new InvoiceItemForLease();
+        item.setLeaseTerm(leaseTerm);
+        item.setStartDate(startDate);
+        item.setEndDate(endDate);
+        item.setNetAmount(new BigDecimal(netAmount));
+        return item;
+    }
+
+}
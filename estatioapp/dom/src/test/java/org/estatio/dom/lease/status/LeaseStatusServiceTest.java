@@ -1,6 +1,8 @@
 package org.estatio.dom.lease.status;
 
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
 import javax.inject.Inject;
 import org.joda.time.LocalDate;
 import org.junit.Before;
@@ -10,6 +12,7 @@ import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.LeaseItem;
 import org.estatio.dom.lease.LeaseItemStatus;
 import org.estatio.dom.lease.LeaseStatus;
+import org.estatio.dom.lease.Leases;
 import org.estatio.services.clock.ClockService;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -67,6 +70,20 @@ public class LeaseStatusServiceTest {
                 new LocalDate(2014, 1, 1), new LocalDate(2015, 3, 31), testItem(null, LeaseItemStatus.SUSPENDED), testItem(null, LeaseItemStatus.SUSPENDED));
     }
 
+    @Test
+    public void leasesDueForRefresh() {
+        final List<Lease> due = Arrays.asList(lease);
+        service.leases = new Leases() {
+            @Override
+            public List<Lease> findByStatusAndTenancyEndDateBefore(final LeaseStatus status, final LocalDate date) {
+                assertThat(status, is(LeaseStatus.ACTIVE));
+                assertThat(date, is(new LocalDate(2014, 4, 1)));
+                return due;
+            }
+        };
+        assertThat(service.findLeasesDueForRefresh(), is(due));
+    }
+
     void tester(LeaseStatus expectedStatus, LocalDate tenancyStartDate, LocalDate tenancyEndDate, LeaseItem... items) {
         lease.setTenancyStartDate(tenancyStartDate);
         lease.setTenancyEndDate(tenancyEndDate);
@@ -20,6 +20,7 @@ package org.estatio.dom.numerator;
 
 import java.math.BigInteger;
 import org.isisaddons.module.security.dom.tenancy.ApplicationTenancy;
+import org.joda.time.LocalDate;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -27,6 +28,7 @@ import org.estatio.dom.AbstractBeanPropertiesTest;
 import org.estatio.dom.asset.Property;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
@@ -51,6 +53,71 @@ public class NumeratorTest {
 
     }
 
+    public static class Reserve extends NumeratorTest {
+
+        @Before
+        public void setUp() throws Exception {
+            numerator.setLastIncrement(BigInteger.TEN);
+        }
+
+        @Test
+        public void handsOutFromTheBlock() {
+            numerator.reserve(5);
+            assertEquals(BigInteger.valueOf(15), numerator.getLastIncrement());
+
+            assertEquals("XXX-00011", numerator.nextIncrementStr());
+            assertEquals("XXX-00012", numerator.nextIncrementStr());
+            assertEquals("XXX-00012", numerator.lastIncrementStr());
+            assertEquals(BigInteger.valueOf(15), numerator.getLastIncrement());
+        }
+
+        @Test
+        public void releaseGivesBackWhatWasNotHandedOut() {
+            numerator.reserve(5);
+            numerator.nextIncrementStr();
+            numerator.nextIncrementStr();
+            numerator.release();
+
+            assertEquals(BigInteger.valueOf(12), numerator.getLastIncrement());
+            assertEquals("XXX-00013", numerator.nextIncrementStr());
+        }
+
+        @Test
+        public void whenExhausted() {
+            numerator.reserve(1);
+            assertEquals("XXX-00011", numerator.nextIncrementStr());
+            assertEquals("XXX-00012", numerator.nextIncrementStr());
+            numerator.release();
+
+            assertEquals(BigInteger.valueOf(12), numerator.getLastIncrement());
+        }
+
+        @Test
+        public void whenNothingHandedOut() {
+            numerator.reserve(5);
+            numerator.release();
+
+            assertEquals(BigInteger.TEN, numerator.getLastIncrement());
+        }
+
+    }
+
+    public static class LastIncrementDate extends NumeratorTest {
+
+        @Test
+        public void forTheLastValueHandedOut() {
+            numerator.setLastIncrement(BigInteger.TEN);
+            assertThat(numerator.lastIncrementDate(), is(nullValue()));
+
+            numerator.dateLastIncrement(new LocalDate(2014, 1, 1));
+            assertThat(numerator.lastIncrementDate(), is(new LocalDate(2014, 1, 1)));
+
+            numerator.nextIncrementStr();
+            assertThat(numerator.lastIncrementDate(), is(nullValue()));
+        }
+
+    }
+
     public static class Title extends NumeratorTest {
 
         @Test
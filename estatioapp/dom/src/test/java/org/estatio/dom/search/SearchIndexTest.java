@@ -0,0 +1,164 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.search;
+
+import java.util.List;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.isis.applib.services.bookmark.Bookmark;
+
+import org.estatio.dom.asset.FixedAsset;
+import org.estatio.dom.asset.Property;
+import org.estatio.dom.asset.Unit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class SearchIndexTest {
+
+    SearchIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        index = new SearchIndex();
+        index.put(entry("1", Property.class, "OXF", "Oxford Shopping Center", null));
+        index.put(entry("2", Unit.class, "OXF-001", "Unit 1 of Oxford", null));
+        index.put(entry("3", Unit.class, "OXF-002", "Unit 2 of Oxford", new LocalDate(2013, 12, 31)));
+        index.put(entry("4", Property.class, "KAL", "Kalvertoren", null));
+        index.put(entry("5", Unit.class, "KAL-001", "Oxfam store", null));
+    }
+
+    public static class Search extends SearchIndexTest {
+
+        @Test
+        public void byTrigrams() throws Exception {
+            assertThat(referencesOf(index.search("*oxford*", all())), is(references("OXF", "OXF-001", "OXF-002")));
+        }
+
+        @Test
+        public void ignoresCase() throws Exception {
+            assertThat(referencesOf(index.search("kal*", all())), is(references("KAL", "KAL-001")));
+            assertThat(referencesOf(index.search("KALVERTOREN", all())), is(references("KAL")));
+        }
+
+        @Test
+        public void withoutTrigrams() throws Exception {
+            assertThat(index.search("*", all()).size(), is(5));
+            assertThat(referencesOf(index.search("OX*", all())), is(references("OXF", "OXF-001", "OXF-002", "KAL-001")));
+            assertThat(referencesOf(index.search("*00?", all())), is(references("KAL-001", "OXF-001", "OXF-002")));
+        }
+
+        @Test
+        public void asPattern() throws Exception {
+            // the units' names contain the grams, but do not start with them
+            assertThat(referencesOf(index.search("Oxford*", all())), is(references("OXF")));
+            assertThat(index.search("*zzz*", all()).isEmpty(), is(true));
+        }
+
+        @Test
+        public void ranked() throws Exception {
+            // exact reference, reference prefix, name prefix, anything else
+            assertThat(referencesOf(index.search("*oxf*", all())), is(references("OXF", "OXF-001", "OXF-002", "KAL-001")));
+        }
+
+        @Test
+        public void filtered() throws Exception {
+            assertThat(referencesOf(index.search("*oxf*", SearchIndexService.ofType(Unit.class))), is(references("OXF-001", "OXF-002", "KAL-001")));
+            assertThat(referencesOf(index.search("*oxf*", Predicates.and(
+                    SearchIndexService.ofType(Unit.class),
+                    SearchIndexService.activeOn(new LocalDate(2014, 1, 1), false)))), is(references("OXF-001", "KAL-001")));
+            assertThat(referencesOf(index.search("*oxf*", Predicates.and(
+                    SearchIndexService.ofType(FixedAsset.class),
+                    SearchIndexService.activeOn(new LocalDate(2014, 1, 1), true)))).size(), is(4));
+        }
+
+        @Test
+        public void nullPattern() throws Exception {
+            assertThat(index.search(null, all()).isEmpty(), is(true));
+        }
+
+    }
+
+    public static class PutAndRemove extends SearchIndexTest {
+
+        @Test
+        public void replaces() throws Exception {
+            index.put(entry("2", Unit.class, "CAM-001", "Unit 1 of Cambridge", null));
+            assertThat(index.size(), is(5));
+            assertThat(referencesOf(index.search("*oxford*", all())), is(references("OXF", "OXF-002")));
+            assertThat(referencesOf(index.search("*cambridge*", all())), is(references("CAM-001")));
+        }
+
+        @Test
+        public void removes() throws Exception {
+            index.remove(new Bookmark("X", "1"));
+            assertThat(index.size(), is(4));
+            assertThat(referencesOf(index.search("*oxford*", all())), is(references("OXF-001", "OXF-002")));
+        }
+
+        @Test
+        public void clears() throws Exception {
+            index.clear();
+            assertThat(index.size(), is(0));
+            assertThat(index.search("*", all()).isEmpty(), is(true));
+        }
+
+    }
+
+    public static class FragmentsOf extends SearchIndexTest {
+
+        @Test
+        public void splitsOnWildcards() throws Exception {
+            assertThat(SearchIndex.fragmentsOf("*REF?1*"), is(references("REF", "1")));
+            assertThat(SearchIndex.fragmentsOf("OXF-001 A/B"), is(references("OXF-001 A/B")));
+            assertThat(SearchIndex.fragmentsOf("a.b"), is(references("a", "b")));
+        }
+
+    }
+
+    // //////////////////////////////////////
+
+    private static SearchIndex.Entry entry(final String id, final Class<?> type, final String reference, final String name, final LocalDate endDate) {
+        return new SearchIndex.Entry(new Bookmark("X", id), type, reference, name, endDate);
+    }
+
+    private static Predicate<SearchIndex.Entry> all() {
+        return Predicates.alwaysTrue();
+    }
+
+    private static List<String> referencesOf(final List<SearchIndex.Entry> entries) {
+        final List<String> references = Lists.newArrayList();
+        for (SearchIndex.Entry entry : entries) {
+            references.add(entry.getReference());
+        }
+        return references;
+    }
+
+    private static List<String> references(final String... references) {
+        return Lists.newArrayList(references);
+    }
+
+}
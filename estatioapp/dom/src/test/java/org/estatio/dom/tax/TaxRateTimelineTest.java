@@ -0,0 +1,92 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.tax;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class TaxRateTimelineTest {
+
+    TaxRateTimeline timeline;
+
+    @Before
+    public void setUp() throws Exception {
+        timeline = new TaxRateTimeline(Arrays.asList(
+                rate(new LocalDate(2013, 1, 1), null, 22),
+                rate(new LocalDate(2010, 1, 1), new LocalDate(2011, 12, 31), 20),
+                rate(new LocalDate(2012, 7, 1), new LocalDate(2012, 12, 31), 21)));
+    }
+
+    public static class PercentageFor extends TaxRateTimelineTest {
+
+        @Test
+        public void onStartDate() throws Exception {
+            assertThat(timeline.percentageFor(new LocalDate(2010, 1, 1)), is(BigDecimal.valueOf(20)));
+            assertThat(timeline.percentageFor(new LocalDate(2012, 7, 1)), is(BigDecimal.valueOf(21)));
+        }
+
+        @Test
+        public void onEndDate() throws Exception {
+            assertThat(timeline.percentageFor(new LocalDate(2011, 12, 31)), is(BigDecimal.valueOf(20)));
+        }
+
+        @Test
+        public void whenOpenEnded() throws Exception {
+            assertThat(timeline.percentageFor(new LocalDate(2099, 1, 1)), is(BigDecimal.valueOf(22)));
+        }
+
+        @Test
+        public void inGap() throws Exception {
+            assertThat(timeline.percentageFor(new LocalDate(2012, 3, 1)), is(nullValue()));
+        }
+
+        @Test
+        public void beforeFirst() throws Exception {
+            assertThat(timeline.percentageFor(new LocalDate(2009, 12, 31)), is(nullValue()));
+        }
+
+        @Test
+        public void whenNoDate() throws Exception {
+            assertThat(timeline.percentageFor(null), is(nullValue()));
+        }
+
+        @Test
+        public void whenNoRates() throws Exception {
+            assertThat(new TaxRateTimeline(Collections.<TaxRate>emptyList()).percentageFor(new LocalDate(2012, 1, 1)), is(nullValue()));
+        }
+    }
+
+    private static TaxRate rate(final LocalDate startDate, final LocalDate endDate, final int percentage) {
+        final TaxRate rate = new TaxRate();
+        rate.setStartDate(startDate);
+        rate.setEndDate(endDate);
+        rate.setPercentage(BigDecimal.valueOf(percentage));
+        return rate;
+    }
+
+}
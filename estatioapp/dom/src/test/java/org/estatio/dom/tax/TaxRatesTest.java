@@ -18,7 +18,10 @@
  */
 package org.estatio.dom.tax;
 
+import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
+import com.google.common.collect.Lists;
 import org.joda.time.LocalDate;
 import org.junit.Before;
 import org.junit.Test;
@@ -26,6 +29,7 @@ import org.apache.isis.applib.query.Query;
 import org.apache.isis.core.commons.matchers.IsisMatchers;
 import org.estatio.dom.FinderInteraction;
 import org.estatio.dom.FinderInteraction.FinderMethod;
+import org.estatio.dom.TransactionCompletionService;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
@@ -92,4 +96,77 @@ public class TaxRatesTest {
         }
     }
 
+    public static class FindPercentageByTaxAndDate extends TaxRatesTest {
+
+        private int queries;
+        private List<Runnable> afterCompletion;
+
+        @Before
+        public void setUp() throws Exception {
+            tax.setReference("VAT");
+            afterCompletion = Lists.newArrayList();
+            taxRates = new TaxRates() {
+                @SuppressWarnings("unchecked")
+                @Override
+                protected <T> List<T> allMatches(Query<T> query) {
+                    finderInteraction = new FinderInteraction(query, FinderMethod.ALL_MATCHES);
+                    queries++;
+                    return (List<T>) Arrays.asList(
+                            rate(new LocalDate(2012, 1, 1), null, 21),
+                            rate(new LocalDate(2010, 1, 1), new LocalDate(2011, 12, 31), 20));
+                }
+            };
+            taxRates.transactionCompletionService = new TransactionCompletionService() {
+                @Override
+                public void afterCompletion(final Runnable runnable) {
+                    afterCompletion.add(runnable);
+                }
+            };
+        }
+
+        @Test
+        public void cachedUntilInvalidated() {
+            assertThat(taxRates.findPercentageByTaxAndDate(tax, date), is(BigDecimal.valueOf(21)));
+            assertThat(taxRates.findPercentageByTaxAndDate(tax, new LocalDate(2011, 12, 31)), is(BigDecimal.valueOf(20)));
+            assertThat(queries, is(1));
+            assertThat(finderInteraction.getQueryName(), is("findByTax"));
+            assertThat(finderInteraction.getArgumentsByParameterName().get("tax"), is((Object)tax));
+
+            taxRates.invalidate(tax);
+            taxRates.findPercentageByTaxAndDate(tax, date);
+
+            assertThat(queries, is(2));
+        }
+
+        @Test
+        public void notCachedAgainUntilTheChangingTransactionCompletes() {
+            taxRates.findPercentageByTaxAndDate(tax, date);
+            taxRates.invalidate(tax);
+
+            taxRates.findPercentageByTaxAndDate(tax, date);
+            taxRates.findPercentageByTaxAndDate(tax, date);
+            assertThat(queries, is(3));
+
+            complete();
+            taxRates.findPercentageByTaxAndDate(tax, date);
+            taxRates.findPercentageByTaxAndDate(tax, date);
+            assertThat(queries, is(4));
+        }
+
+        private void complete() {
+            for (Runnable runnable : afterCompletion) {
+                runnable.run();
+            }
+            afterCompletion.clear();
+        }
+
+        private static TaxRate rate(final LocalDate startDate, final LocalDate endDate, final int percentage) {
+            final TaxRate rate = new TaxRate();
+            rate.setStartDate(startDate);
+            rate.setEndDate(endDate);
+            rate.setPercentage(BigDecimal.valueOf(percentage));
+            return rate;
+        }
+    }
+
 }
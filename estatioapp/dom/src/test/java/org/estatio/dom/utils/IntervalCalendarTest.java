@@ -0,0 +1,77 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.utils;
+
+import org.joda.time.Interval;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class IntervalCalendarTest {
+
+    private static final LocalDate ORIGIN = new LocalDate(2000, 1, 1);
+
+    public static class Of extends IntervalCalendarTest {
+
+        @Test
+        public void sameInstanceForSameRrule() throws Exception {
+            assertThat(
+                    IntervalCalendar.of("RRULE:FREQ=MONTHLY;INTERVAL=3", ORIGIN),
+                    is(sameInstance(IntervalCalendar.of("RRULE:FREQ=MONTHLY;INTERVAL=3", ORIGIN))));
+        }
+
+    }
+
+    public static class IntervalContaining extends IntervalCalendarTest {
+
+        @Test
+        public void sameAsIteratingTheRrule() throws Exception {
+            assertSameAsIterating("RRULE:FREQ=MONTHLY;INTERVAL=1");
+            assertSameAsIterating("RRULE:FREQ=MONTHLY;INTERVAL=3");
+            assertSameAsIterating("RRULE:FREQ=MONTHLY;INTERVAL=3;BYMONTH=2,5,8,11");
+            assertSameAsIterating("RRULE:FREQ=YEARLY;INTERVAL=1");
+        }
+
+        @Test
+        public void quarterly() throws Exception {
+            final Interval interval = IntervalCalendar.of("RRULE:FREQ=MONTHLY;INTERVAL=3", ORIGIN).intervalContaining(new LocalDate(2012, 3, 31));
+            assertThat(interval.getStart().toLocalDate(), is(new LocalDate(2012, 1, 1)));
+            assertThat(interval.getEnd().toLocalDate(), is(new LocalDate(2012, 4, 1)));
+        }
+
+        @Test
+        public void beyondHorizon() throws Exception {
+            final LocalDate date = ORIGIN.plusYears(IntervalCalendar.HORIZON_MAX_YEARS).plusDays(1);
+            assertThat(IntervalCalendar.of("RRULE:FREQ=MONTHLY;INTERVAL=3", ORIGIN).intervalContaining(date), is(nullValue()));
+        }
+
+        private static void assertSameAsIterating(final String rrule) {
+            final IntervalCalendar calendar = IntervalCalendar.of(rrule, ORIGIN);
+            for (LocalDate date = new LocalDate(1999, 12, 1); date.isBefore(new LocalDate(2031, 1, 1)); date = date.plusDays(13)) {
+                assertThat(rrule + " " + date, calendar.intervalContaining(date), is(CalendarUtils.currentInterval(date, rrule, ORIGIN)));
+            }
+        }
+
+    }
+
+}
@@ -15,6 +15,7 @@ import org.junit.rules.ExpectedException;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.junit.Assert.assertThat;
 
@@ -259,6 +260,11 @@ public class ApplicationTenancyLevelTest {
             assertThat(ApplicationTenancyLevel.of("/a").parentOf(ApplicationTenancyLevel.of("/a")), is(false));
         }
         @Test
+        public void whenPrefixOnly() throws Exception {
+            assertThat(ApplicationTenancyLevel.of("/a").parentOf(ApplicationTenancyLevel.of("/ab")), is(false));
+            assertThat(ApplicationTenancyLevel.of("/a/b").parentOf(ApplicationTenancyLevel.of("/a/bc/d")), is(false));
+        }
+        @Test
         public void whenNot() throws Exception {
             assertThat(ApplicationTenancyLevel.of("/a").parentOf(ApplicationTenancyLevel.of("/")), is(false));
             assertThat(ApplicationTenancyLevel.of("/a/b").parentOf(ApplicationTenancyLevel.of("/")), is(false));
@@ -266,6 +272,22 @@ public class ApplicationTenancyLevelTest {
         }
     }
 
+    public static class Of extends ApplicationTenancyLevelTest {
+
+        @Test
+        public void interned() throws Exception {
+            assertThat(ApplicationTenancyLevel.of("/it/CAR"), is(sameInstance(ApplicationTenancyLevel.of("/it/CAR"))));
+            assertThat(ApplicationTenancyLevel.of("/it/CAR").parent(), is(sameInstance(ApplicationTenancyLevel.of("/it"))));
+        }
+
+        @Test
+        public void depth() throws Exception {
+            assertThat(ApplicationTenancyLevel.of("/").getDepth(), is(0));
+            assertThat(ApplicationTenancyLevel.of("/it").getDepth(), is(1));
+            assertThat(ApplicationTenancyLevel.of("/it/CAR/_").getDepth(), is(3));
+        }
+    }
+
     public static class ChildOf extends ApplicationTenancyLevelTest {
 
         @Test
@@ -52,12 +52,16 @@ import org.estatio.dom.financial.bankaccount.BankAccount;
 import org.estatio.dom.guarantee.Guarantee;
 import org.estatio.dom.invoice.Invoice;
 import org.estatio.dom.invoice.InvoiceItem;
+import org.estatio.dom.invoice.summary.InvoiceTotalForInvoiceRun;
+import org.estatio.dom.invoice.summary.InvoiceTotalForPropertyDueDateStatus;
+import org.estatio.dom.invoice.summary.InvoiceTotalsStaleKey;
 import org.estatio.dom.lease.Lease;
 import org.estatio.dom.lease.LeaseItem;
 import org.estatio.dom.lease.LeaseTerm;
 import org.estatio.dom.lease.Occupancy;
 import org.estatio.dom.lease.breaks.BreakOption;
 import org.estatio.dom.lease.breaks.EventSourceLinkForBreakOption;
+import org.estatio.dom.lease.invoicing.InvoiceCalculationRun;
 import org.estatio.dom.lease.tags.Activity;
 import org.estatio.dom.lease.tags.Brand;
 import org.estatio.dom.lease.tags.Sector;
@@ -102,6 +106,10 @@ public class EstatioOperationalTeardownFixture extends FixtureScript {
 
         deleteFrom(InvoiceItem.class);
         deleteFrom(Invoice.class);
+        deleteFrom(InvoiceCalculationRun.class);
+        deleteFrom(InvoiceTotalForPropertyDueDateStatus.class);
+        deleteFrom(InvoiceTotalForInvoiceRun.class);
+        deleteFrom(InvoiceTotalsStaleKey.class);
 
         deleteFrom(EventSourceLinkForBreakOption.class);
         deleteFrom(EventSourceLink.class);
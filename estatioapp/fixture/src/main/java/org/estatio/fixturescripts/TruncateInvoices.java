@@ -28,6 +28,10 @@ public class TruncateInvoices extends DiscoverableFixtureScript {
     protected void execute(ExecutionContext fixtureResults) {
         deleteFrom("InvoiceItem");
         deleteFrom("Invoice");
+        deleteFrom("InvoiceCalculationRun");
+        deleteFrom("InvoiceTotalForPropertyDueDateStatus");
+        deleteFrom("InvoiceTotalForInvoiceRun");
+        deleteFrom("InvoiceTotalsStaleKey");
     }
 
     private void deleteFrom(final String table) {
@@ -17,6 +17,7 @@
 package org.estatio.integtests;
 
 import java.util.List;
+import java.util.Map;
 
 import com.google.common.collect.Lists;
 
@@ -32,6 +33,9 @@ import org.apache.isis.objectstore.jdo.datanucleus.IsisConfigurationForJdoIntegT
 import org.isisaddons.module.excel.dom.ExcelService;
 
 import org.estatio.app.EstatioAppManifest;
+import org.estatio.app.services.lease.invoicing.InvoiceAmountsReconciliationService;
+import org.estatio.app.services.lease.invoicing.InvoiceTotalsRefreshService;
+import org.estatio.dom.lease.LeaseTermForIndexableVerificationQueue;
 
 public class EstatioIntegTestBuilder extends IsisSystemForTest.Builder {
 
@@ -40,13 +44,24 @@ public class EstatioIntegTestBuilder extends IsisSystemForTest.Builder {
         // no need to add, because each test will set up its own test fixtures
         // anyway.
         withLoggingAt(Level.DEBUG);
-        with(new IsisConfigurationForJdoIntegTests());
+        with(testConfiguration());
         with(new DataNucleusPersistenceMechanismInstaller());
         with(new AuthenticationRequestNameOnly("estatio-admin"));
 
         with(new EstatioAppManifestForIntegTests());
     }
 
+    /**
+     * The same level 2 cache as the webapp, so that the cached reference data
+     * is exercised by the tests as well, and statistics to count the reads
+     * of the database.
+     */
+    private static IsisConfigurationForJdoIntegTests testConfiguration() {
+        final IsisConfigurationForJdoIntegTests configuration = new IsisConfigurationForJdoIntegTests();
+        configuration.addDataNucleusProperty("datanucleus.cache.level2.type", "soft");
+        configuration.addDataNucleusProperty("datanucleus.enableStatistics", "true");
+        return configuration;
+    }
 
     public static class EstatioAppManifestForIntegTests extends EstatioAppManifest {
         @Override
@@ -57,6 +72,21 @@ public class EstatioIntegTestBuilder extends IsisSystemForTest.Builder {
              appendServicesForAddonsWithServicesThatAreCurrentlyMissingModules(additionalServices);
             return additionalServices;
         }
+
+        /**
+         * Indexable terms are verified in the transaction publishing the
+         * index value, rather than on a background thread; likewise the
+         * invoice totals are only refreshed, and the invoice amounts only
+         * reconciled, when a test asks for it.
+         */
+        @Override
+        protected Map<String, String> appendProps(final Map<String, String> props) {
+            super.appendProps(props);
+            props.put(LeaseTermForIndexableVerificationQueue.KEY_ENABLED, "false");
+            props.put(InvoiceTotalsRefreshService.KEY_INTERVAL_SECONDS, "0");
+            props.put(InvoiceAmountsReconciliationService.KEY_INTERVAL_HOURS, "0");
+            return props;
+        }
     }
 
     // REVIEW: may not need anymore since appManifest refactoring...
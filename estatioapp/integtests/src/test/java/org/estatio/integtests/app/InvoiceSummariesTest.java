@@ -24,6 +24,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.apache.isis.applib.fixturescripts.FixtureScript;
 import org.estatio.dom.asset.Property;
+import org.estatio.dom.invoice.summary.InvoiceTotals;
 import org.estatio.dom.invoice.viewmodel.InvoiceSummariesForPropertyDueDate;
 import org.estatio.dom.invoice.viewmodel.InvoiceSummaryForPropertyDueDate;
 import org.estatio.fixture.EstatioBaseLineFixture;
@@ -49,8 +50,13 @@ public class InvoiceSummariesTest extends EstatioIntegrationTest {
                     executionContext.executeChild(this, new InvoiceForLeaseItemTypeOfRentOneQuarterForKalPoison001());
                 }
             });
+            invoiceTotals.refreshStale();
+            nextTransaction();
         }
 
+        @Inject
+        private InvoiceTotals invoiceTotals;
+
         @Inject
         private InvoiceSummariesForPropertyDueDate invoiceSummaries;
 
@@ -0,0 +1,124 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.integtests.cache;
+
+import javax.inject.Inject;
+import javax.jdo.JDOHelper;
+import javax.jdo.PersistenceManager;
+
+import org.datanucleus.api.jdo.JDODataStoreCache;
+import org.datanucleus.api.jdo.JDOPersistenceManagerFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.isis.objectstore.jdo.applib.service.support.IsisJdoSupport;
+
+import org.estatio.dom.charge.Charge;
+import org.estatio.dom.charge.Charges;
+import org.estatio.dom.tax.Tax;
+import org.estatio.dom.tax.Taxes;
+import org.estatio.fixture.EstatioBaseLineFixture;
+import org.estatio.fixture.charge.ChargeRefData;
+import org.estatio.fixture.tax.TaxRefData;
+import org.estatio.integtests.EstatioIntegrationTest;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertThat;
+
+public class ReferenceDataCacheTest extends EstatioIntegrationTest {
+
+    @Before
+    public void setupData() {
+        runFixtureScript(new EstatioBaseLineFixture());
+    }
+
+    @Inject
+    Charges charges;
+
+    @Inject
+    Taxes taxes;
+
+    @Inject
+    IsisJdoSupport isisJdoSupport;
+
+    public static class Level2 extends ReferenceDataCacheTest {
+
+        @Test
+        public void readsReferenceDataFromTheCacheAfterCommit() throws Exception {
+            // given
+            final Object chargeId = JDOHelper.getObjectId(charges.findByReference(ChargeRefData.IT_RENT));
+            final Object taxId = JDOHelper.getObjectId(taxes.findByReference(TaxRefData.IT_VATSTD));
+            nextTransaction();
+            final int reads = datastoreReads();
+
+            // when
+            final Charge charge = (Charge) persistenceManager().getObjectById(chargeId, false);
+            final Tax tax = (Tax) persistenceManager().getObjectById(taxId, false);
+
+            // then
+            assertThat(charge.getReference(), is(ChargeRefData.IT_RENT));
+            assertThat(tax.getReference(), is(TaxRefData.IT_VATSTD));
+            assertThat(datastoreReads(), is(reads));
+        }
+
+        @Test
+        public void evictedOnceUpdatedAndCommitted() throws Exception {
+            // given
+            final Object taxId = JDOHelper.getObjectId(taxes.findByReference(TaxRefData.IT_VATSTD));
+            nextTransaction();
+
+            // when
+            taxes.findByReference(TaxRefData.IT_VATSTD).changeDescription("Changed");
+            nextTransaction();
+
+            // then
+            assertThat(dataStoreCache().getLevel2Cache().containsOid(taxId), is(false));
+            int reads = datastoreReads();
+            assertThat(((Tax) persistenceManager().getObjectById(taxId, false)).getDescription(), is("Changed"));
+            assertThat(datastoreReads(), is(greaterThan(reads)));
+
+            // and cached again
+            nextTransaction();
+            reads = datastoreReads();
+            assertThat(((Tax) persistenceManager().getObjectById(taxId, false)).getDescription(), is("Changed"));
+            assertThat(datastoreReads(), is(reads));
+        }
+
+    }
+
+    private PersistenceManager persistenceManager() {
+        return isisJdoSupport.getJdoPersistenceManager();
+    }
+
+    private JDODataStoreCache dataStoreCache() {
+        return (JDODataStoreCache) persistenceManager().getPersistenceManagerFactory().getDataStoreCache();
+    }
+
+    /**
+     * The number of objects fetched from the database so far, as counted by
+     * the statistics of DataNucleus (<tt>datanucleus.enableStatistics</tt>).
+     */
+    private int datastoreReads() {
+        final JDOPersistenceManagerFactory persistenceManagerFactory =
+                (JDOPersistenceManagerFactory) persistenceManager().getPersistenceManagerFactory();
+        return persistenceManagerFactory.getNucleusContext().getStatistics().getNumberOfDatastoreReads();
+    }
+
+}
@@ -0,0 +1,256 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+
+import org.apache.isis.applib.util.ObjectContracts.ToStringEvaluator;
+
+/**
+ * The key properties of a {@link UdoDomainObject}, such as
+ * <tt>"leaseItem, sequence, startDate desc nullsLast"</tt>, parsed once and
+ * compiled (per concrete class) into getter functions.
+ *
+ * <p>
+ * Equivalent to {@link org.apache.isis.applib.util.ObjectContracts}: each
+ * property is compared in natural order (<tt>asc</tt>, the default) or reverse
+ * natural order (<tt>desc</tt>), with <tt>null</tt>s first unless
+ * <tt>nullsLast</tt> is given.
+ */
+public final class KeyProperties {
+
+    private static final ConcurrentMap<String, KeyProperties> REGISTRY = new ConcurrentHashMap<>();
+
+    private static final KeyProperties NONE = new KeyProperties("");
+
+    /**
+     * Returns the (shared) compiled form of the key properties.
+     */
+    public static KeyProperties of(final String keyProperties) {
+        if (keyProperties == null) {
+            return NONE;
+        }
+        KeyProperties compiled = REGISTRY.get(keyProperties);
+        if (compiled == null) {
+            final KeyProperties newCompiled = new KeyProperties(keyProperties);
+            compiled = REGISTRY.putIfAbsent(keyProperties, newCompiled);
+            if (compiled == null) {
+                compiled = newCompiled;
+            }
+        }
+        return compiled;
+    }
+
+    // //////////////////////////////////////
+
+    private final Clause[] clauses;
+
+    KeyProperties(final String keyProperties) {
+        final List<Clause> clauseList = Lists.newArrayList();
+        for (final String clause : Splitter.on(',').trimResults().omitEmptyStrings().split(keyProperties)) {
+            clauseList.add(Clause.parse(clause));
+        }
+        this.clauses = clauseList.toArray(new Clause[clauseList.size()]);
+    }
+
+    public int compare(final Object p, final Object q) {
+        for (final Clause clause : clauses) {
+            final int result = clause.compare(p, q);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    public String toStringOf(final Object p, final List<ToStringEvaluator> evaluators) {
+        final Objects.ToStringHelper helper = Objects.toStringHelper(p);
+        for (final Clause clause : clauses) {
+            helper.add(clause.propertyName, asString(clause.valueOf(p), evaluators));
+        }
+        return helper.toString();
+    }
+
+    private static String asString(final Object value, final List<ToStringEvaluator> evaluators) {
+        if (value == null) {
+            return null;
+        }
+        for (final ToStringEvaluator evaluator : evaluators) {
+            if (evaluator.canEvaluate(value)) {
+                return evaluator.evaluate(value);
+            }
+        }
+        return value.toString();
+    }
+
+    // //////////////////////////////////////
+
+    static final class Clause {
+
+        private static final Pattern PATTERN = Pattern.compile("(\\w+)(?:\\s+(asc|desc))?(?:\\s+(nullsFirst|nullsLast))?");
+
+        static Clause parse(final String clause) {
+            final Matcher matcher = PATTERN.matcher(clause);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Unable to parse key property >>" + clause + "<<");
+            }
+            return new Clause(
+                    matcher.group(1),
+                    "desc".equals(matcher.group(2)),
+                    "nullsLast".equals(matcher.group(3)));
+        }
+
+        private final String propertyName;
+        private final boolean descending;
+        private final boolean nullsLast;
+
+        private final ClassValue<Function<Object, Object>> getters = new ClassValue<Function<Object, Object>>() {
+            @Override
+            protected Function<Object, Object> computeValue(final Class<?> type) {
+                return compileGetter(type, propertyName);
+            }
+        };
+
+        Clause(final String propertyName, final boolean descending, final boolean nullsLast) {
+            this.propertyName = propertyName;
+            this.descending = descending;
+            this.nullsLast = nullsLast;
+        }
+
+        Object valueOf(final Object obj) {
+            return obj == null ? null : getters.get(obj.getClass()).apply(obj);
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        int compare(final Object p, final Object q) {
+            final Comparable pValue = (Comparable) valueOf(p);
+            final Comparable qValue = (Comparable) valueOf(q);
+            if (pValue == qValue) {
+                return 0;
+            }
+            if (pValue == null) {
+                return nullsLast ? 1 : -1;
+            }
+            if (qValue == null) {
+                return nullsLast ? -1 : 1;
+            }
+            final int result = descending ? qValue.compareTo(pValue) : pValue.compareTo(qValue);
+            return result < 0 ? -1 : result > 0 ? 1 : 0;
+        }
+    }
+
+    // //////////////////////////////////////
+
+    static Function<Object, Object> compileGetter(final Class<?> type, final String propertyName) {
+        final Method getter = getterFor(type, propertyName);
+        if (isVisible(getter.getDeclaringClass()) && isVisible(getter.getReturnType())) {
+            try {
+                return lambdaFor(getter);
+            } catch (final Throwable ex) {
+                // fall through to reflection
+            }
+        }
+        return reflectiveFunctionFor(getter);
+    }
+
+    private static Method getterFor(final Class<?> type, final String propertyName) {
+        final String suffix = Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+        try {
+            return type.getMethod("get" + suffix);
+        } catch (final NoSuchMethodException ex) {
+            try {
+                return type.getMethod("is" + suffix);
+            } catch (final NoSuchMethodException ex2) {
+                throw new IllegalArgumentException(
+                        String.format("No getter for key property '%s' on %s", propertyName, type.getName()));
+            }
+        }
+    }
+
+    /**
+     * Whether the (public) class can be linked to from here; if not, say
+     * because it was loaded by some other class loader, falls back on
+     * reflection.
+     */
+    private static boolean isVisible(final Class<?> type) {
+        if (type.isPrimitive()) {
+            return true;
+        }
+        if (!Modifier.isPublic(type.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(type.getName(), false, KeyProperties.class.getClassLoader()) == type;
+        } catch (final ClassNotFoundException ex) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> lambdaFor(final Method getter) throws Throwable {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final MethodHandle handle = lookup.unreflect(getter);
+        final CallSite site = LambdaMetafactory.metafactory(
+                lookup,
+                "apply",
+                MethodType.methodType(Function.class),
+                MethodType.methodType(Object.class, Object.class),
+                handle,
+                handle.type().wrap());
+        return (Function<Object, Object>) site.getTarget().invokeExact();
+    }
+
+    private static Function<Object, Object> reflectiveFunctionFor(final Method getter) {
+        getter.setAccessible(true);
+        return new Function<Object, Object>() {
+            @Override
+            public Object apply(final Object obj) {
+                try {
+                    return getter.invoke(obj);
+                } catch (final IllegalAccessException ex) {
+                    throw new IllegalStateException(ex);
+                } catch (final InvocationTargetException ex) {
+                    final Throwable cause = ex.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+        };
+    }
+
+}
@@ -18,12 +18,18 @@
  */
 package org.estatio.dom;
 
+import java.util.List;
+
 import javax.jdo.JDOHelper;
+
+import com.google.common.collect.ImmutableList;
+
 import org.isisaddons.module.security.dom.tenancy.WithApplicationTenancy;
 import org.apache.isis.applib.AbstractDomainObject;
 import org.apache.isis.applib.annotation.Hidden;
 import org.apache.isis.applib.services.eventbus.EventBusService;
 import org.apache.isis.applib.util.ObjectContracts;
+import org.apache.isis.applib.util.ObjectContracts.ToStringEvaluator;
 import org.estatio.services.clock.ClockService;
 
 
@@ -56,19 +62,30 @@ public abstract class UdoDomainObject<T extends UdoDomainObject<T>>
         extends AbstractDomainObject 
         implements Comparable<T>, WithApplicationTenancy {
 
-    protected static ObjectContracts UDO_OBJECT_CONTRACTS =
-            new ObjectContracts()
-    .with(WithReferenceGetter.ToString.evaluator())
-                .with(WithCodeGetter.ToString.evaluator())
-                .with(WithNameGetter.ToString.evaluator())
-                .with(WithTitleGetter.ToString.evaluator())
-                .with(WithDescriptionGetter.ToString.evaluator())
-                ;
+    private static final List<ToStringEvaluator> UDO_TO_STRING_EVALUATORS =
+            ImmutableList.of(
+                    WithReferenceGetter.ToString.evaluator(),
+                    WithCodeGetter.ToString.evaluator(),
+                    WithNameGetter.ToString.evaluator(),
+                    WithTitleGetter.ToString.evaluator(),
+                    WithDescriptionGetter.ToString.evaluator());
+
+    protected static ObjectContracts UDO_OBJECT_CONTRACTS = newObjectContracts();
+
+    private static ObjectContracts newObjectContracts() {
+        ObjectContracts objectContracts = new ObjectContracts();
+        for (ToStringEvaluator evaluator : UDO_TO_STRING_EVALUATORS) {
+            objectContracts = objectContracts.with(evaluator);
+        }
+        return objectContracts;
+    }
 
     private final String keyProperties;
+    private final KeyProperties compiledKeyProperties;
 
     public UdoDomainObject(final String keyProperties) {
         this.keyProperties = keyProperties;
+        this.compiledKeyProperties = KeyProperties.of(keyProperties);
     }
 
     protected String keyProperties() {
@@ -126,12 +143,12 @@ public abstract class UdoDomainObject<T extends UdoDomainObject<T>>
 
     @Override
     public String toString() {
-        return UDO_OBJECT_CONTRACTS.toStringOf(this, keyProperties());
+        return compiledKeyProperties.toStringOf(this, UDO_TO_STRING_EVALUATORS);
     }
 
     @Override
     public int compareTo(final T other) {
-        return ObjectContracts.compare(this, other, keyProperties);
+        return compiledKeyProperties.compare(this, other);
     }
 
 }
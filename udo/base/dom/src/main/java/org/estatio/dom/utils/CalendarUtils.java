@@ -60,11 +60,22 @@ public final class CalendarUtils {
     /**
      * Returns an interval based on rrule which contains containgDate
      * 
+     * <p>
+     * Looked up in the (shared) {@link IntervalCalendar} for the rrule.
+     * 
      * @param containingDate
      * @param rrule
      * @return
      */
     public static Interval intervalContaining(final LocalDate containingDate, final String rrule) {
+        if (containingDate == null || rrule == null) {
+            return null;
+        }
+        final Interval interval = IntervalCalendar.of(rrule, START_DATE_DEFAULT).intervalContaining(containingDate);
+        if (interval != null) {
+            return interval;
+        }
+        // beyond the horizon of the calendar
         return currentInterval(containingDate, rrule, START_DATE_DEFAULT);
     }
 
@@ -0,0 +1,199 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom.utils;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.ical.compat.jodatime.LocalDateIterator;
+import com.google.ical.compat.jodatime.LocalDateIteratorFactory;
+
+import org.joda.time.Interval;
+import org.joda.time.LocalDate;
+
+import org.estatio.dom.EstatioApplicationException;
+
+/**
+ * Precomputed period boundaries of a single rrule, starting from a fixed
+ * origin.
+ *
+ * <p>
+ * The rrule is parsed once; the boundaries are held in a sorted array that is
+ * binary searched. The array is extended lazily, in blocks of
+ * {@link #HORIZON_BLOCK_YEARS years}, up to {@link #HORIZON_MAX_YEARS years}
+ * past the origin. Dates beyond that horizon return <tt>null</tt> so that
+ * callers can fall back on iterating the rrule.
+ */
+public final class IntervalCalendar {
+
+    static final int HORIZON_BLOCK_YEARS = 10;
+    static final int HORIZON_MAX_YEARS = 200;
+
+    private static final ConcurrentMap<String, IntervalCalendar> CALENDARS = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the (shared) calendar for the rrule, starting at the origin.
+     */
+    public static IntervalCalendar of(final String rrule, final LocalDate origin) {
+        final String key = rrule + "@" + origin;
+        IntervalCalendar calendar = CALENDARS.get(key);
+        if (calendar == null) {
+            final IntervalCalendar newCalendar = new IntervalCalendar(rrule, origin);
+            calendar = CALENDARS.putIfAbsent(key, newCalendar);
+            if (calendar == null) {
+                calendar = newCalendar;
+            }
+        }
+        return calendar;
+    }
+
+    static void clear() {
+        CALENDARS.clear();
+    }
+
+    // //////////////////////////////////////
+
+    private final String rrule;
+    private final LocalDate origin;
+    private final LocalDate maxHorizon;
+    private final LocalDateIterator iterator;
+
+    /**
+     * Copy-on-write so that lookups never need to lock; only
+     * {@link #extendTo(LocalDate)} is synchronized.
+     */
+    private volatile LocalDate[] boundaries = new LocalDate[0];
+    private volatile LocalDate horizon;
+    private volatile boolean exhausted;
+
+    IntervalCalendar(final String rrule, final LocalDate origin) {
+        this.rrule = rrule;
+        this.origin = origin;
+        this.maxHorizon = origin.plusYears(HORIZON_MAX_YEARS);
+        this.horizon = origin;
+        try {
+            this.iterator = LocalDateIteratorFactory.createLocalDateIterator(rrule, origin, true);
+        } catch (final ParseException ex) {
+            throw new EstatioApplicationException("Unable to parse rrule >>" + rrule + "<<", ex);
+        }
+    }
+
+    public String getRrule() {
+        return rrule;
+    }
+
+    public LocalDate getOrigin() {
+        return origin;
+    }
+
+    // //////////////////////////////////////
+
+    /**
+     * Returns the interval which contains the date, or <tt>null</tt> if the
+     * date lies beyond the (maximum) horizon of this calendar.
+     *
+     * <p>
+     * Dates before the origin give the same (degenerate) interval as iterating
+     * the rrule from the origin would.
+     */
+    public Interval intervalContaining(final LocalDate date) {
+        if (date == null) {
+            return null;
+        }
+        LocalDate[] snapshot = boundaries;
+        if (!covers(snapshot, date)) {
+            if (!extendTo(date)) {
+                return null;
+            }
+            snapshot = boundaries;
+        }
+        final int upper = firstAfter(snapshot, date);
+        final LocalDate thisDate = upper == 0 ? origin : snapshot[upper - 1];
+        final LocalDate nextDate = snapshot[upper];
+        return new Interval(
+                thisDate.toInterval().getStartMillis(),
+                nextDate.toInterval().getStartMillis());
+    }
+
+    // //////////////////////////////////////
+
+    private static boolean covers(final LocalDate[] snapshot, final LocalDate date) {
+        return snapshot.length > 0 && snapshot[snapshot.length - 1].compareTo(date) > 0;
+    }
+
+    /**
+     * Index of the first boundary strictly after the date; the caller
+     * guarantees that there is one.
+     */
+    private static int firstAfter(final LocalDate[] snapshot, final LocalDate date) {
+        int low = 0;
+        int high = snapshot.length - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (snapshot[mid].compareTo(date) > 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Extends the boundaries, a block at a time, until there is a boundary
+     * after the date.
+     *
+     * @return whether the date is now covered
+     */
+    private synchronized boolean extendTo(final LocalDate date) {
+        if (covers(boundaries, date)) {
+            return true;
+        }
+        if (exhausted || date.compareTo(maxHorizon) >= 0) {
+            return false;
+        }
+        LocalDate newHorizon = horizon;
+        while (newHorizon.compareTo(date) <= 0) {
+            newHorizon = newHorizon.plusYears(HORIZON_BLOCK_YEARS);
+        }
+        if (newHorizon.compareTo(maxHorizon) > 0) {
+            newHorizon = maxHorizon;
+        }
+        LocalDate[] extended = Arrays.copyOf(boundaries, Math.max(16, boundaries.length * 2));
+        int size = boundaries.length;
+        LocalDate last = size == 0 ? null : boundaries[size - 1];
+        while (last == null || last.compareTo(newHorizon) <= 0) {
+            if (!iterator.hasNext()) {
+                exhausted = true;
+                break;
+            }
+            last = iterator.next();
+            if (size == extended.length) {
+                extended = Arrays.copyOf(extended, size * 2);
+            }
+            extended[size++] = last;
+        }
+        boundaries = Arrays.copyOf(extended, size);
+        horizon = newHorizon;
+        return covers(boundaries, date);
+    }
+
+}
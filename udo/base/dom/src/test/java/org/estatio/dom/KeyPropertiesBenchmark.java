@@ -0,0 +1,89 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+
+import org.apache.isis.applib.util.ObjectContracts;
+
+/**
+ * Compares sorting with {@link KeyProperties} against
+ * {@link ObjectContracts#compare(Object, Object, String)}, as
+ * {@link UdoDomainObject#compareTo(UdoDomainObject)} did before.
+ *
+ * <p>
+ * Not a test; run from the IDE (or <tt>java -cp ...</tt>) with an optional
+ * number of items (default 500) and rounds (default 20).
+ */
+public class KeyPropertiesBenchmark {
+
+    private static final String KEY_PROPERTIES = "name, sequence, startDate desc nullsLast";
+
+    public static void main(final String[] args) {
+        final int numberOfItems = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        final List<KeyPropertiesTest.Item> items = KeyPropertiesTest.randomItems(new Random(1), numberOfItems);
+
+        final Comparator<KeyPropertiesTest.Item> objectContracts = new Comparator<KeyPropertiesTest.Item>() {
+            @Override
+            public int compare(final KeyPropertiesTest.Item p, final KeyPropertiesTest.Item q) {
+                return ObjectContracts.compare(p, q, KEY_PROPERTIES);
+            }
+        };
+        final Comparator<KeyPropertiesTest.Item> keyProperties = new Comparator<KeyPropertiesTest.Item>() {
+            private final KeyProperties compiled = KeyProperties.of(KEY_PROPERTIES);
+
+            @Override
+            public int compare(final KeyPropertiesTest.Item p, final KeyPropertiesTest.Item q) {
+                return compiled.compare(p, q);
+            }
+        };
+
+        // warm up both
+        time(items, objectContracts, rounds);
+        time(items, keyProperties, rounds);
+
+        final long objectContractsNanos = time(items, objectContracts, rounds);
+        final long keyPropertiesNanos = time(items, keyProperties, rounds);
+        System.out.println(String.format(
+                "sorting %d items %d times: ObjectContracts %d ms, KeyProperties %d ms (%.1fx)",
+                numberOfItems, rounds,
+                objectContractsNanos / 1000000, keyPropertiesNanos / 1000000,
+                (double) objectContractsNanos / Math.max(1, keyPropertiesNanos)));
+    }
+
+    private static long time(
+            final List<KeyPropertiesTest.Item> items,
+            final Comparator<KeyPropertiesTest.Item> comparator,
+            final int rounds) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            final List<KeyPropertiesTest.Item> copy = Lists.newArrayList(items);
+            Collections.shuffle(copy, new Random(i));
+            Collections.sort(copy, comparator);
+        }
+        return System.nanoTime() - start;
+    }
+
+}
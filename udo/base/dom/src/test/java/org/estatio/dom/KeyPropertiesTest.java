@@ -0,0 +1,143 @@
+/*
+ *
+ *  Copyright 2012-2014 Eurocommercial Properties NV
+ *
+ *
+ *  Licensed under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.estatio.dom;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+
+import org.apache.isis.applib.util.ObjectContracts;
+import org.apache.isis.applib.util.ObjectContracts.ToStringEvaluator;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class KeyPropertiesTest {
+
+    public static class Item {
+
+        private String name;
+        private BigInteger sequence;
+        private LocalDate startDate;
+        private boolean active;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+
+        public BigInteger getSequence() {
+            return sequence;
+        }
+
+        public void setSequence(final BigInteger sequence) {
+            this.sequence = sequence;
+        }
+
+        public LocalDate getStartDate() {
+            return startDate;
+        }
+
+        public void setStartDate(final LocalDate startDate) {
+            this.startDate = startDate;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public void setActive(final boolean active) {
+            this.active = active;
+        }
+    }
+
+    static List<Item> randomItems(final Random random, final int number) {
+        final List<Item> items = Lists.newArrayList();
+        for (int i = 0; i < number; i++) {
+            final Item item = new Item();
+            item.setName(random.nextInt(4) == 0 ? null : "name" + random.nextInt(3));
+            item.setSequence(random.nextInt(4) == 0 ? null : BigInteger.valueOf(random.nextInt(3)));
+            item.setStartDate(random.nextInt(4) == 0 ? null : new LocalDate(2014, 1, 1).plusDays(random.nextInt(3)));
+            item.setActive(random.nextBoolean());
+            items.add(item);
+        }
+        return items;
+    }
+
+    public static class Of extends KeyPropertiesTest {
+
+        @Test
+        public void sameInstanceForSameKeyProperties() throws Exception {
+            assertThat(KeyProperties.of("name, startDate desc"), is(sameInstance(KeyProperties.of("name, startDate desc"))));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void whenUnparseable() throws Exception {
+            KeyProperties.of("name, startDate sideways");
+        }
+    }
+
+    public static class Compare extends KeyPropertiesTest {
+
+        @Test
+        public void sameAsObjectContracts() throws Exception {
+            assertSameAsObjectContracts("name");
+            assertSameAsObjectContracts("name, sequence, startDate");
+            assertSameAsObjectContracts("name, startDate desc");
+            assertSameAsObjectContracts("sequence, startDate desc nullsLast, name");
+            assertSameAsObjectContracts("startDate asc nullsLast, active");
+            assertSameAsObjectContracts("active,sequence desc,name");
+        }
+
+        private static void assertSameAsObjectContracts(final String keyProperties) {
+            final List<Item> items = randomItems(new Random(keyProperties.hashCode()), 40);
+            final KeyProperties compiled = KeyProperties.of(keyProperties);
+            for (final Item p : items) {
+                for (final Item q : items) {
+                    assertThat(keyProperties, compiled.compare(p, q), is(ObjectContracts.compare(p, q, keyProperties)));
+                }
+            }
+        }
+    }
+
+    public static class ToStringOf extends KeyPropertiesTest {
+
+        @Test
+        public void sameAsObjectContracts() throws Exception {
+            final Item item = new Item();
+            item.setName("A");
+            item.setStartDate(new LocalDate(2014, 1, 1));
+
+            final String keyProperties = "name, sequence, startDate desc nullsLast";
+            assertThat(
+                    KeyProperties.of(keyProperties).toStringOf(item, Lists.<ToStringEvaluator>newArrayList()),
+                    is(new ObjectContracts().toStringOf(item, keyProperties)));
+        }
+    }
+
+}